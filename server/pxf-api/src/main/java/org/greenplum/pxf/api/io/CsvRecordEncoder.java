@@ -0,0 +1,499 @@
+package org.greenplum.pxf.api.io;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import org.greenplum.pxf.api.GreenplumDateTime;
+import org.greenplum.pxf.api.OneField;
+import org.greenplum.pxf.api.error.BadRecordException;
+import org.greenplum.pxf.api.model.GreenplumCSV;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Encodes records as delimited lines for the TEXT and CSV formats. The output
+ * is the same as the one BridgeOutputBuilder used to produce for a list of
+ * {@link OneField}s: text values are quoted only when they contain the quote,
+ * the delimiter or the newline, and the line is UTF-8 encoded.
+ * <p>
+ * Values are written straight into the buffer: the characters that require
+ * quoting are found with a lookup table, and integers, dates and timestamps
+ * are formatted without going through a String.
+ */
+public class CsvRecordEncoder extends RecordEncoder {
+
+    private static final byte[] TRUE_BYTES = "true".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] FALSE_BYTES = "false".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] HEX_DIGITS = "0123456789abcdef".getBytes(StandardCharsets.UTF_8);
+    private static final int[] POWERS_OF_TEN = {1, 10, 100, 1000, 10000, 100000, 1000000, 10000000, 100000000};
+
+    // classes of the ASCII characters that require a field to be quoted
+    private static final byte QUOTE_CLASS = 1;
+    private static final byte DELIMITER_CLASS = 2;
+    private static final byte NEWLINE_CLASS = 4;
+
+    private final GreenplumCSV greenplumCSV;
+    private final byte[] delimiterBytes;
+    private final String newline;
+    private final byte[] newlineBytes;
+    private final byte[] nullBytes;
+    private final byte[] byteaPrefix;
+    private final byte quote;
+    private final byte escape;
+    private final boolean hasEscape;
+    private final boolean hasDelimiter;
+    /*
+     * The quote, escape, delimiter and newline are matched byte by byte
+     * against UTF-8 data, which is only possible when they are all ASCII
+     */
+    private final boolean byteLevelEscaping;
+    private final byte[] asciiClasses = new byte[128];
+    private final byte[] longScratch = new byte[20];
+
+    /**
+     * Constructs an encoder for records with the given number of columns
+     *
+     * @param numColumns   the number of columns of every record
+     * @param greenplumCSV the CSV settings of the table
+     * @param format       the format of the table, used to choose the bytea escaping
+     */
+    public CsvRecordEncoder(int numColumns, GreenplumCSV greenplumCSV, String format) {
+        this(numColumns, greenplumCSV, format, INITIAL_CAPACITY);
+    }
+
+    /**
+     * Constructs an encoder for records with the given number of columns and
+     * the given initial size of the buffer
+     *
+     * @param numColumns      the number of columns of every record
+     * @param greenplumCSV    the CSV settings of the table
+     * @param format          the format of the table, used to choose the bytea escaping
+     * @param initialCapacity the initial size of the buffer in bytes
+     */
+    public CsvRecordEncoder(int numColumns, GreenplumCSV greenplumCSV, String format, int initialCapacity) {
+        super(numColumns, initialCapacity);
+        this.greenplumCSV = greenplumCSV;
+
+        Character delimiter = greenplumCSV.getDelimiter();
+        Character escapeChar = greenplumCSV.getEscape();
+        this.newline = greenplumCSV.getNewline();
+
+        this.hasDelimiter = delimiter != null;
+        this.hasEscape = escapeChar != null;
+        this.delimiterBytes = hasDelimiter ? String.valueOf(delimiter).getBytes(StandardCharsets.UTF_8) : new byte[0];
+        this.newlineBytes = newline.getBytes(StandardCharsets.UTF_8);
+        this.nullBytes = greenplumCSV.getValueOfNull().getBytes(StandardCharsets.UTF_8);
+        // if the Format Type is CSV, we should escape using single \
+        // for Text or Custom Format types, it should be \\
+        this.byteaPrefix = ("csv".equalsIgnoreCase(format) ? "\\x" : "\\\\x").getBytes(StandardCharsets.UTF_8);
+        this.quote = (byte) greenplumCSV.getQuote();
+        this.escape = hasEscape ? (byte) escapeChar.charValue() : 0;
+        this.byteLevelEscaping = greenplumCSV.getQuote() < 0x80
+                && (!hasEscape || escapeChar < 0x80)
+                && (!hasDelimiter || delimiter < 0x80)
+                && isAscii(newline);
+        if (byteLevelEscaping) {
+            if (hasEscape) {
+                asciiClasses[quote] |= QUOTE_CLASS;
+            }
+            if (hasDelimiter) {
+                asciiClasses[delimiter] |= DELIMITER_CLASS;
+            }
+            if (!newline.isEmpty()) {
+                asciiClasses[newline.charAt(0)] |= NEWLINE_CLASS;
+            }
+        }
+    }
+
+    @Override
+    protected void startRecord() {
+    }
+
+    @Override
+    protected void finishRecord() {
+        putBytes(newlineBytes);
+    }
+
+    @Override
+    public void writeNull() throws BadRecordException {
+        beginValue();
+        putBytes(nullBytes);
+        column++;
+    }
+
+    @Override
+    public void writeBoolean(boolean value) throws BadRecordException {
+        beginValue();
+        putBytes(value ? TRUE_BYTES : FALSE_BYTES);
+        column++;
+    }
+
+    @Override
+    public void writeShort(short value) throws BadRecordException {
+        writeLong(value);
+    }
+
+    @Override
+    public void writeInt(int value) throws BadRecordException {
+        writeLong(value);
+    }
+
+    @Override
+    public void writeLong(long value) throws BadRecordException {
+        beginValue();
+        putDecimal(value);
+        column++;
+    }
+
+    @Override
+    public void writeFloat(float value) throws BadRecordException {
+        beginValue();
+        putAscii(Float.toString(value));
+        column++;
+    }
+
+    @Override
+    public void writeDouble(double value) throws BadRecordException {
+        beginValue();
+        putAscii(Double.toString(value));
+        column++;
+    }
+
+    @Override
+    public void writeBytes(byte[] bytes, int offset, int length) throws BadRecordException {
+        beginValue();
+        putBytes(byteaPrefix);
+        ensureCapacity(length * 2);
+        for (int i = offset; i < offset + length; i++) {
+            buffer[position++] = HEX_DIGITS[(bytes[i] >> 4) & 0x0F];
+            buffer[position++] = HEX_DIGITS[bytes[i] & 0x0F];
+        }
+        column++;
+    }
+
+    /**
+     * Writes the text, quoting it if it contains the quote, the delimiter or
+     * the newline.
+     */
+    @Override
+    public void writeText(byte[] utf8, int offset, int length) throws BadRecordException {
+        beginValue();
+        if (numColumns == 1) {
+            // single column records are passed through as they are
+            putBytes(utf8, offset, length);
+        } else if (byteLevelEscaping) {
+            putCsvField(utf8, offset, length);
+        } else {
+            putUtf8(greenplumCSV.toCsvField(new String(utf8, offset, length, StandardCharsets.UTF_8), true, true, true));
+        }
+        column++;
+    }
+
+    /**
+     * Writes the text, quoting it if it contains the quote, the delimiter or
+     * the newline.
+     */
+    @Override
+    public void writeText(String value) throws BadRecordException {
+        if (value == null) {
+            writeNull();
+            return;
+        }
+        beginValue();
+        if (numColumns == 1) {
+            // single column records are passed through as they are
+            putUtf8(value);
+        } else {
+            putQuotedIfNeeded(value);
+        }
+        column++;
+    }
+
+    /**
+     * Writes the field following the rules BridgeOutputBuilder uses to
+     * serialize a list of {@link OneField}s to a CSV line.
+     */
+    @Override
+    public void writeField(OneField field) throws BadRecordException {
+        Object val = field.val;
+        if (val == null) {
+            writeNull();
+        } else if (numColumns == 1 && val instanceof String) {
+            writeText((String) val);
+        } else if (field.type == DataType.BYTEA.getOID()) {
+            byte[] bytes = (byte[]) val;
+            writeBytes(bytes, 0, bytes.length);
+        } else if (field.type == DataType.NUMERIC.getOID() || !DataType.isTextForm(field.type)
+                || field.type == DataType.DATE.getOID()) {
+            writeUnquoted(val);
+        } else if (field.type == DataType.TIMESTAMP.getOID()) {
+            if (val instanceof String) {
+                writeUnquoted(val);
+            } else {
+                beginValue();
+                putTimestamp(((Timestamp) val).toLocalDateTime());
+                column++;
+            }
+        } else {
+            beginValue();
+            putQuotedIfNeeded(val.toString());
+            column++;
+        }
+    }
+
+    /**
+     * Writes the value in its string form, without quoting it
+     */
+    private void writeUnquoted(Object val) throws BadRecordException {
+        beginValue();
+        if (val instanceof Integer || val instanceof Long || val instanceof Short || val instanceof Byte) {
+            putDecimal(((Number) val).longValue());
+        } else if (val instanceof Boolean) {
+            putBytes((Boolean) val ? TRUE_BYTES : FALSE_BYTES);
+        } else if (val instanceof Date) {
+            putDate((Date) val);
+        } else {
+            putUtf8(val.toString());
+        }
+        column++;
+    }
+
+    /**
+     * Writes the delimiter before every column but the first one
+     */
+    private void beginValue() throws BadRecordException {
+        checkColumn();
+        if (column > 0) {
+            putBytes(delimiterBytes);
+        }
+    }
+
+    /**
+     * Byte level equivalent of {@link GreenplumCSV#toCsvField(String, boolean, boolean, boolean)}
+     * with quoting skipped when it is not needed.
+     */
+    private void putCsvField(byte[] utf8, int offset, int length) {
+        int end = offset + length;
+        int quotes = 0;
+        boolean specialChars = false;
+        for (int i = offset; i < end; i++) {
+            byte b = utf8[i];
+            // bytes of multi-byte characters are negative, they never match
+            int charClass = b >= 0 ? asciiClasses[b] : 0;
+            if (charClass != 0) {
+                if ((charClass & QUOTE_CLASS) != 0) {
+                    quotes++;
+                }
+                if ((charClass & DELIMITER_CLASS) != 0
+                        || ((charClass & NEWLINE_CLASS) != 0 && isNewlineAt(utf8, i, end))) {
+                    specialChars = true;
+                }
+            }
+        }
+
+        if (quotes == 0 && !specialChars) {
+            putBytes(utf8, offset, length);
+            return;
+        }
+
+        ensureCapacity(length + quotes + 2);
+        buffer[position++] = quote;
+        for (int i = offset; i < end; i++) {
+            byte b = utf8[i];
+            if (quotes > 0 && b == quote) {
+                buffer[position++] = escape;
+            }
+            buffer[position++] = b;
+        }
+        buffer[position++] = quote;
+    }
+
+    private void putQuotedIfNeeded(String value) {
+        if (byteLevelEscaping) {
+            putCsvField(value);
+        } else {
+            putUtf8(greenplumCSV.toCsvField(value, true, true, true));
+        }
+    }
+
+    /**
+     * String equivalent of {@link #putCsvField(byte[], int, int)}, the string
+     * is UTF-8 encoded as it is copied into the buffer.
+     */
+    private void putCsvField(String value) {
+        int length = value.length();
+        int quotes = 0;
+        boolean specialChars = false;
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            int charClass = c < 0x80 ? asciiClasses[c] : 0;
+            if (charClass != 0) {
+                if ((charClass & QUOTE_CLASS) != 0) {
+                    quotes++;
+                }
+                if ((charClass & DELIMITER_CLASS) != 0
+                        || ((charClass & NEWLINE_CLASS) != 0 && value.startsWith(newline, i))) {
+                    specialChars = true;
+                }
+            }
+        }
+
+        if (quotes == 0 && !specialChars) {
+            putUtf8(value);
+            return;
+        }
+
+        putByte(quote);
+        int start = 0;
+        if (quotes > 0) {
+            for (int i = 0; i < length; i++) {
+                if (value.charAt(i) == quote) {
+                    // the quote itself starts the next run of characters
+                    putUtf8(value, start, i);
+                    putByte(escape);
+                    start = i;
+                }
+            }
+        }
+        putUtf8(value, start, length);
+        putByte(quote);
+    }
+
+    private boolean isNewlineAt(byte[] utf8, int index, int end) {
+        int length = newlineBytes.length;
+        if (length == 0 || index + length > end) {
+            return false;
+        }
+        for (int j = 0; j < length; j++) {
+            if (utf8[index + j] != newlineBytes[j]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Writes the decimal representation of the value, without going through
+     * a String
+     */
+    private void putDecimal(long value) {
+        if (value == Long.MIN_VALUE) {
+            putAscii(Long.toString(value));
+            return;
+        }
+        boolean negative = value < 0;
+        long remaining = negative ? -value : value;
+        int index = longScratch.length;
+        do {
+            longScratch[--index] = (byte) ('0' + (remaining % 10));
+            remaining /= 10;
+        } while (remaining != 0);
+        if (negative) {
+            longScratch[--index] = '-';
+        }
+        putBytes(longScratch, index, longScratch.length - index);
+    }
+
+    /**
+     * Writes the date the same way {@link Date#toString()} does
+     */
+    private void putDate(Date date) {
+        LocalDate localDate = date.toLocalDate();
+        int year = localDate.getYear();
+        if (year < 1 || year > 9999) {
+            putUtf8(date.toString());
+            return;
+        }
+        ensureCapacity(10);
+        putDigits(year, 4);
+        buffer[position++] = '-';
+        putDigits(localDate.getMonthValue(), 2);
+        buffer[position++] = '-';
+        putDigits(localDate.getDayOfMonth(), 2);
+    }
+
+    /**
+     * Writes the timestamp the same way {@link GreenplumDateTime#DATETIME_FORMATTER}
+     * formats it: the fraction of second is truncated to microseconds, and
+     * written only with as many digits as the nanoseconds need.
+     */
+    private void putTimestamp(LocalDateTime dateTime) {
+        int year = dateTime.getYear();
+        if (year < 1 || year > 9999) {
+            putUtf8(dateTime.format(GreenplumDateTime.DATETIME_FORMATTER));
+            return;
+        }
+        ensureCapacity(26);
+        putDigits(year, 4);
+        buffer[position++] = '-';
+        putDigits(dateTime.getMonthValue(), 2);
+        buffer[position++] = '-';
+        putDigits(dateTime.getDayOfMonth(), 2);
+        buffer[position++] = ' ';
+        putDigits(dateTime.getHour(), 2);
+        buffer[position++] = ':';
+        putDigits(dateTime.getMinute(), 2);
+        buffer[position++] = ':';
+        putDigits(dateTime.getSecond(), 2);
+
+        int nanos = dateTime.getNano();
+        if (nanos != 0) {
+            int scale = 9;
+            for (int n = nanos; n % 10 == 0; n /= 10) {
+                scale--;
+            }
+            int digits = Math.min(scale, 6);
+            buffer[position++] = '.';
+            putDigits(nanos / POWERS_OF_TEN[9 - digits], digits);
+        }
+    }
+
+    /**
+     * Writes the value with the given number of digits, padded with leading
+     * zeros. The caller makes sure the buffer has enough room.
+     */
+    private void putDigits(int value, int digits) {
+        for (int i = position + digits - 1; i >= position; i--) {
+            buffer[i] = (byte) ('0' + value % 10);
+            value /= 10;
+        }
+        position += digits;
+    }
+
+    private void putAscii(String value) {
+        int length = value.length();
+        ensureCapacity(length);
+        for (int i = 0; i < length; i++) {
+            buffer[position++] = (byte) value.charAt(i);
+        }
+    }
+
+    private static boolean isAscii(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) >= 0x80) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,319 @@
+package org.greenplum.pxf.api.io;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import org.apache.commons.lang.ObjectUtils;
+import org.greenplum.pxf.api.OneField;
+import org.greenplum.pxf.api.error.BadRecordException;
+import org.greenplum.pxf.api.utilities.ColumnDescriptor;
+
+import java.lang.reflect.Array;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Encodes records in the {@link GPDBWritable} serialization form. The bytes
+ * produced for a record are identical to the ones written by
+ * {@link GPDBWritable#write(java.io.DataOutput)}, but values are appended to
+ * the buffer as they are written, and the record header (column types and
+ * null bit array) is copied from a template built once for the schema.
+ * Strings are encoded once, straight into the buffer, and their length is
+ * filled in afterwards.
+ */
+public class GPDBWritableRecordEncoder extends RecordEncoder {
+
+    /*
+     * Total Length | Version | Error Flag | # of columns
+     * 4 byte       | 2 byte  | 1 byte     | 2 byte
+     */
+    private static final int FIXED_HEADER_LENGTH = 4 + 2 + 1 + 2;
+
+    private final int[] schema;
+    private final String[] colNames;
+    private final GPDBWritable.DBType[] dbTypes;
+    private final byte[] headerTemplate;
+    private final int nullBitsOffset;
+    private final Charset databaseEncoding;
+    private final boolean isUtf8Encoding;
+    private int alignmentOfEightBytes = 8;
+
+    /**
+     * Constructs an encoder for the given table columns
+     *
+     * @param columnDescriptors the columns of the table
+     * @param databaseEncoding  the encoding of the database
+     */
+    public GPDBWritableRecordEncoder(List<ColumnDescriptor> columnDescriptors, Charset databaseEncoding) {
+        super(columnDescriptors.size());
+        this.databaseEncoding = databaseEncoding;
+        this.isUtf8Encoding = StandardCharsets.UTF_8.equals(databaseEncoding);
+
+        schema = new int[numColumns];
+        colNames = new String[numColumns];
+        dbTypes = new GPDBWritable.DBType[numColumns];
+        for (int i = 0; i < numColumns; i++) {
+            schema[i] = columnDescriptors.get(i).columnTypeCode();
+            colNames[i] = columnDescriptors.get(i).columnName();
+            dbTypes[i] = GPDBWritable.getDBType(schema[i]);
+        }
+
+        nullBitsOffset = FIXED_HEADER_LENGTH + numColumns;
+        headerTemplate = new byte[nullBitsOffset + GPDBWritable.getNullByteArraySize(numColumns)];
+        headerTemplate[4] = (byte) (GPDBWritable.VERSION >>> 8);
+        headerTemplate[5] = (byte) GPDBWritable.VERSION;
+        headerTemplate[6] = 0; // error flag
+        headerTemplate[7] = (byte) (numColumns >>> 8);
+        headerTemplate[8] = (byte) numColumns;
+        for (int i = 0; i < numColumns; i++) {
+            headerTemplate[FIXED_HEADER_LENGTH + i] = (byte) dbTypes[i].ordinal();
+        }
+
+        String alignment = System.getProperty("greenplum.alignment");
+        if (alignment != null) {
+            alignmentOfEightBytes = Integer.parseInt(alignment);
+        }
+    }
+
+    @Override
+    protected void startRecord() {
+        // the null bit array of the template is all zeros
+        putBytes(headerTemplate);
+    }
+
+    @Override
+    protected void finishRecord() {
+        padTo(8);
+        // the total length includes the length field itself
+        putIntAt(recordStart, position - recordStart);
+    }
+
+    @Override
+    public void writeNull() throws BadRecordException {
+        checkColumn();
+        buffer[recordStart + nullBitsOffset + (column >> 3)] |= (byte) (1 << (7 - (column & 7)));
+        column++;
+    }
+
+    @Override
+    public void writeBoolean(boolean value) throws BadRecordException {
+        beginValue(GPDBWritable.DBType.BOOLEAN, DataType.BOOLEAN);
+        putByte(value ? 1 : 0);
+        column++;
+    }
+
+    @Override
+    public void writeShort(short value) throws BadRecordException {
+        beginValue(GPDBWritable.DBType.SMALLINT, DataType.SMALLINT);
+        putShort(value);
+        column++;
+    }
+
+    @Override
+    public void writeInt(int value) throws BadRecordException {
+        beginValue(GPDBWritable.DBType.INTEGER, DataType.INTEGER);
+        putInt(value);
+        column++;
+    }
+
+    @Override
+    public void writeLong(long value) throws BadRecordException {
+        beginValue(GPDBWritable.DBType.BIGINT, DataType.BIGINT);
+        putLong(value);
+        column++;
+    }
+
+    @Override
+    public void writeFloat(float value) throws BadRecordException {
+        beginValue(GPDBWritable.DBType.REAL, DataType.REAL);
+        putInt(Float.floatToIntBits(value));
+        column++;
+    }
+
+    @Override
+    public void writeDouble(double value) throws BadRecordException {
+        beginValue(GPDBWritable.DBType.FLOAT8, DataType.FLOAT8);
+        putLong(Double.doubleToLongBits(value));
+        column++;
+    }
+
+    @Override
+    public void writeBytes(byte[] bytes, int offset, int length) throws BadRecordException {
+        beginValue(GPDBWritable.DBType.BYTEA, DataType.BYTEA);
+        putInt(length);
+        putBytes(bytes, offset, length);
+        column++;
+    }
+
+    @Override
+    public void writeText(byte[] utf8, int offset, int length) throws BadRecordException {
+        if (!isUtf8Encoding) {
+            writeText(new String(utf8, offset, length, StandardCharsets.UTF_8));
+            return;
+        }
+        beginValue(GPDBWritable.DBType.TEXT, DataType.TEXT);
+        putTerminatedText(utf8, offset, length);
+        column++;
+    }
+
+    @Override
+    public void writeText(String value) throws BadRecordException {
+        if (value == null) {
+            writeNull();
+            return;
+        }
+        beginValue(GPDBWritable.DBType.TEXT, DataType.TEXT);
+        // the string is encoded once, its length is known only afterwards
+        int lengthIndex = position;
+        putInt(0);
+        int length = isUtf8Encoding ? putUtf8(value) : putEncoded(value, databaseEncoding);
+        putIntAt(lengthIndex, length + 1);
+        putByte(0);
+        column++;
+    }
+
+    /**
+     * Writes the field the same way BridgeOutputBuilder fills a
+     * {@link GPDBWritable} from a {@link OneField}.
+     */
+    @Override
+    public void writeField(OneField field) throws BadRecordException {
+        checkColumn();
+        if (!isTypeInSchema(field.type, schema[column])) {
+            throw new BadRecordException(
+                    String.format("For field %s schema requires type %s but input record has type %s",
+                            colNames[column],
+                            DataType.get(schema[column]),
+                            DataType.get(field.type)));
+        }
+
+        Object val = field.val;
+        DataType dataType = DataType.get(field.type);
+        if (dataType == DataType.UNSUPPORTED_TYPE) {
+            String valClassName = (val != null) ? val.getClass().getSimpleName() : null;
+            throw new UnsupportedOperationException(valClassName
+                    + " is not supported for GPDB conversion");
+        }
+        if (val == null) {
+            writeNull();
+            return;
+        }
+
+        switch (dataType) {
+            case INTEGER:
+                writeInt((Integer) val);
+                break;
+            case FLOAT8:
+                writeDouble((Double) val);
+                break;
+            case REAL:
+                writeFloat((Float) val);
+                break;
+            case BIGINT:
+                writeLong((Long) val);
+                break;
+            case SMALLINT:
+                writeShort((Short) val);
+                break;
+            case BOOLEAN:
+                writeBoolean((Boolean) val);
+                break;
+            case BYTEA:
+                if (val instanceof byte[]) {
+                    byte[] bytes = (byte[]) val;
+                    writeBytes(bytes, 0, bytes.length);
+                } else {
+                    int length = Array.getLength(val);
+                    byte[] bytes = new byte[length];
+                    for (int j = 0; j < length; j++) {
+                        bytes[j] = Array.getByte(val, j);
+                    }
+                    writeBytes(bytes, 0, length);
+                }
+                break;
+            default:
+                /*
+                 * Arrays are expected to be serialized by resolvers into the Postgres
+                 * array external text representation.
+                 */
+                writeText(ObjectUtils.toString(val, null));
+        }
+    }
+
+    /**
+     * Checks the type of the next column, then pads the buffer to the
+     * alignment of the type
+     */
+    private void beginValue(GPDBWritable.DBType dbType, DataType dataType) throws BadRecordException {
+        checkColumn();
+        if (dbTypes[column] != dbType) {
+            throw new BadRecordException(new GPDBWritable.TypeMismatchException(
+                    "Cannot set " + dataType.name() + " to a " + GPDBWritable.getTypeName(schema[column]) + " column"));
+        }
+        padTo(dbType.getAlignment());
+    }
+
+    /**
+     * Writes the 4 byte length header, the text and its '\0' terminator
+     */
+    private void putTerminatedText(byte[] data, int offset, int length) {
+        putInt(length + 1);
+        putBytes(data, offset, length);
+        putByte(0);
+    }
+
+    /**
+     * Pads the current record to the given alignment, alignments are relative
+     * to the beginning of the record
+     */
+    private void padTo(int alignment) {
+        int commonAlignment = alignment == 8 ? alignmentOfEightBytes : alignment;
+        int offset = position - recordStart;
+        int padding = ((offset + (commonAlignment - 1)) & ~(commonAlignment - 1)) - offset;
+        if (padding > 0) {
+            putZeros(padding);
+        }
+    }
+
+    /**
+     * Tests if a value of the given type can be written to a column of the
+     * given schema type, the same check BridgeOutputBuilder applies to every
+     * {@link OneField}.
+     *
+     * @param recType    record type code
+     * @param schemaType schema type code
+     * @return whether record type and schema type match
+     */
+    public static boolean isTypeInSchema(int recType, int schemaType) {
+        DataType dtRec = DataType.get(recType);
+        DataType dtSchema = DataType.get(schemaType);
+
+        return (dtSchema == DataType.UNSUPPORTED_TYPE || dtRec == dtSchema
+                || (isStringType(dtRec) && isStringType(dtSchema)));
+    }
+
+    private static boolean isStringType(DataType type) {
+        if (type.isArrayType()) {
+            return DataType.isTextForm(type.getTypeElem().getOID());
+        } else {
+            return DataType.isTextForm(type.getOID());
+        }
+    }
+}
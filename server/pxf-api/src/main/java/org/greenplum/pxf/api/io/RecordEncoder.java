@@ -0,0 +1,417 @@
+package org.greenplum.pxf.api.io;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import org.greenplum.pxf.api.OneField;
+import org.greenplum.pxf.api.error.BadRecordException;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+
+/**
+ * Serializes records directly into a reusable byte buffer using the wire
+ * format expected by the Greenplum segment. Unlike {@link GPDBWritable} or
+ * {@link Text}, the encoder does not need a {@link OneField} per value: the
+ * caller writes the values of a record one column at a time, in the order of
+ * the columns in the table, between {@link #beginRecord()} and
+ * {@link #endRecord()}.
+ * <p>
+ * Any number of records can be accumulated before the encoder, which is a
+ * {@link Writable} itself, is written to the output stream. The buffer is kept
+ * between calls to {@link #reset()}, so encoding a batch allocates nothing
+ * once the buffer has grown to the size of the largest batch.
+ */
+public abstract class RecordEncoder implements Writable {
+
+    protected static final int INITIAL_CAPACITY = 64 * 1024;
+
+    protected final int numColumns;
+    protected byte[] buffer;
+    protected int position;
+    protected int recordStart;
+    protected int column;
+    private int recordCount;
+    private CharsetEncoder charsetEncoder;
+
+    /**
+     * Constructs an encoder for records with the given number of columns
+     *
+     * @param numColumns the number of columns of every record
+     */
+    protected RecordEncoder(int numColumns) {
+        this(numColumns, INITIAL_CAPACITY);
+    }
+
+    /**
+     * Constructs an encoder for records with the given number of columns and
+     * the given initial size of the buffer
+     *
+     * @param numColumns      the number of columns of every record
+     * @param initialCapacity the initial size of the buffer in bytes
+     */
+    protected RecordEncoder(int numColumns, int initialCapacity) {
+        this.numColumns = numColumns;
+        this.buffer = new byte[initialCapacity];
+    }
+
+    /**
+     * Starts a new record
+     */
+    public void beginRecord() {
+        recordStart = position;
+        column = 0;
+        startRecord();
+    }
+
+    /**
+     * Completes the current record
+     *
+     * @throws BadRecordException if not every column of the record was written
+     */
+    public void endRecord() throws BadRecordException {
+        if (column != numColumns) {
+            throw new BadRecordException("Record has " + column
+                    + " fields but the schema size is " + numColumns);
+        }
+        finishRecord();
+        recordCount++;
+    }
+
+    /**
+     * Discards all the records accumulated so far, keeping the buffer for reuse
+     */
+    public void reset() {
+        position = 0;
+        recordStart = 0;
+        column = 0;
+        recordCount = 0;
+    }
+
+    /**
+     * Returns the number of complete records in the buffer
+     *
+     * @return the number of records
+     */
+    public int getRecordCount() {
+        return recordCount;
+    }
+
+    /**
+     * Returns the number of bytes of the encoded records
+     *
+     * @return the number of bytes in the buffer
+     */
+    public int getLength() {
+        return position;
+    }
+
+    /**
+     * Writes a null value for the next column
+     *
+     * @throws BadRecordException if there are no more columns in the record
+     */
+    public abstract void writeNull() throws BadRecordException;
+
+    /**
+     * Writes a boolean value for the next column
+     *
+     * @param value the value
+     * @throws BadRecordException if the value does not match the column type
+     */
+    public abstract void writeBoolean(boolean value) throws BadRecordException;
+
+    /**
+     * Writes a smallint value for the next column
+     *
+     * @param value the value
+     * @throws BadRecordException if the value does not match the column type
+     */
+    public abstract void writeShort(short value) throws BadRecordException;
+
+    /**
+     * Writes an integer value for the next column
+     *
+     * @param value the value
+     * @throws BadRecordException if the value does not match the column type
+     */
+    public abstract void writeInt(int value) throws BadRecordException;
+
+    /**
+     * Writes a bigint value for the next column
+     *
+     * @param value the value
+     * @throws BadRecordException if the value does not match the column type
+     */
+    public abstract void writeLong(long value) throws BadRecordException;
+
+    /**
+     * Writes a real value for the next column
+     *
+     * @param value the value
+     * @throws BadRecordException if the value does not match the column type
+     */
+    public abstract void writeFloat(float value) throws BadRecordException;
+
+    /**
+     * Writes a double precision value for the next column
+     *
+     * @param value the value
+     * @throws BadRecordException if the value does not match the column type
+     */
+    public abstract void writeDouble(double value) throws BadRecordException;
+
+    /**
+     * Writes a bytea value for the next column
+     *
+     * @param bytes  the array holding the value
+     * @param offset the offset of the value in the array
+     * @param length the length of the value
+     * @throws BadRecordException if the value does not match the column type
+     */
+    public abstract void writeBytes(byte[] bytes, int offset, int length) throws BadRecordException;
+
+    /**
+     * Writes a value in text form for the next column, given as UTF-8 bytes
+     *
+     * @param utf8   the array holding the UTF-8 encoded value
+     * @param offset the offset of the value in the array
+     * @param length the length of the value
+     * @throws BadRecordException if the value does not match the column type
+     */
+    public abstract void writeText(byte[] utf8, int offset, int length) throws BadRecordException;
+
+    /**
+     * Writes a value in text form for the next column
+     *
+     * @param value the value
+     * @throws BadRecordException if the value does not match the column type
+     */
+    public abstract void writeText(String value) throws BadRecordException;
+
+    /**
+     * Writes a resolved field for the next column. This is the slow path for
+     * values that resolvers only produce as {@link OneField}s, it follows the
+     * same conversion rules as the row-at-a-time output.
+     *
+     * @param field the field
+     * @throws BadRecordException if the field does not match the column type
+     */
+    public abstract void writeField(OneField field) throws BadRecordException;
+
+    /**
+     * Called when a new record starts at {@link #recordStart}
+     */
+    protected abstract void startRecord();
+
+    /**
+     * Called once all the columns of the current record have been written
+     */
+    protected abstract void finishRecord();
+
+    /**
+     * Serializes all the complete records to <code>out</code>.
+     *
+     * @param out <code>DataOutput</code> to serialize the records into.
+     * @throws IOException if an I/O error occurs
+     */
+    @Override
+    public void write(DataOutput out) throws IOException {
+        out.write(buffer, 0, position);
+    }
+
+    /**
+     * Deserialization is not supported by the encoder
+     *
+     * @param in <code>DataInput</code> to deserialize this object from
+     * @throws UnsupportedOperationException this function is not supported
+     */
+    @Override
+    public void readFields(DataInput in) {
+        throw new UnsupportedOperationException(
+                "RecordEncoder.readFields() is not implemented");
+    }
+
+    /**
+     * Makes sure that the buffer can hold the given number of additional bytes
+     *
+     * @param length the number of bytes about to be written
+     */
+    protected void ensureCapacity(int length) {
+        int required = position + length;
+        if (required > buffer.length) {
+            int newCapacity = Math.max(buffer.length << 1, required);
+            byte[] newBuffer = new byte[newCapacity];
+            System.arraycopy(buffer, 0, newBuffer, 0, position);
+            buffer = newBuffer;
+        }
+    }
+
+    protected void putByte(int value) {
+        ensureCapacity(1);
+        buffer[position++] = (byte) value;
+    }
+
+    protected void putShort(int value) {
+        ensureCapacity(2);
+        buffer[position++] = (byte) (value >>> 8);
+        buffer[position++] = (byte) value;
+    }
+
+    protected void putInt(int value) {
+        ensureCapacity(4);
+        putIntAt(position, value);
+        position += 4;
+    }
+
+    protected void putIntAt(int index, int value) {
+        buffer[index] = (byte) (value >>> 24);
+        buffer[index + 1] = (byte) (value >>> 16);
+        buffer[index + 2] = (byte) (value >>> 8);
+        buffer[index + 3] = (byte) value;
+    }
+
+    protected void putLong(long value) {
+        ensureCapacity(8);
+        putIntAt(position, (int) (value >>> 32));
+        putIntAt(position + 4, (int) value);
+        position += 8;
+    }
+
+    protected void putBytes(byte[] bytes, int offset, int length) {
+        ensureCapacity(length);
+        System.arraycopy(bytes, offset, buffer, position, length);
+        position += length;
+    }
+
+    protected void putBytes(byte[] bytes) {
+        putBytes(bytes, 0, bytes.length);
+    }
+
+    /**
+     * Encodes the string as UTF-8 straight into the buffer. Unpaired
+     * surrogates are replaced by '?', same as {@link String#getBytes(Charset)}.
+     *
+     * @param value the string
+     * @return the number of bytes written
+     */
+    protected int putUtf8(String value) {
+        return putUtf8(value, 0, value.length());
+    }
+
+    /**
+     * Encodes the characters of the string between <code>start</code>
+     * (inclusive) and <code>end</code> (exclusive) as UTF-8 straight into the
+     * buffer.
+     *
+     * @param value the string
+     * @param start the index of the first character to encode
+     * @param end   the index after the last character to encode
+     * @return the number of bytes written
+     */
+    protected int putUtf8(String value, int start, int end) {
+        // a char takes at most 3 bytes, a surrogate pair takes 4 bytes
+        ensureCapacity((end - start) * 3);
+        byte[] buf = buffer;
+        int pos = position;
+        for (int i = start; i < end; i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                buf[pos++] = (byte) c;
+            } else if (c < 0x800) {
+                buf[pos++] = (byte) (0xC0 | (c >> 6));
+                buf[pos++] = (byte) (0x80 | (c & 0x3F));
+            } else if (!Character.isSurrogate(c)) {
+                buf[pos++] = (byte) (0xE0 | (c >> 12));
+                buf[pos++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                buf[pos++] = (byte) (0x80 | (c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < end && Character.isLowSurrogate(value.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                buf[pos++] = (byte) (0xF0 | (codePoint >> 18));
+                buf[pos++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                buf[pos++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                buf[pos++] = (byte) (0x80 | (codePoint & 0x3F));
+            } else {
+                buf[pos++] = '?';
+            }
+        }
+        int written = pos - position;
+        position = pos;
+        return written;
+    }
+
+    /**
+     * Encodes the string in the given charset straight into the buffer.
+     * Malformed and unmappable characters are replaced, same as
+     * {@link String#getBytes(Charset)}.
+     *
+     * @param value   the string
+     * @param charset the charset
+     * @return the number of bytes written
+     */
+    protected int putEncoded(String value, Charset charset) {
+        if (charsetEncoder == null || !charsetEncoder.charset().equals(charset)) {
+            charsetEncoder = charset.newEncoder()
+                    .onMalformedInput(CodingErrorAction.REPLACE)
+                    .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        }
+        CharsetEncoder encoder = charsetEncoder.reset();
+        int start = position;
+        // leave room for the bytes emitted by stateful encodings on flush
+        ensureCapacity((int) (value.length() * (double) encoder.maxBytesPerChar()) + 16);
+        ByteBuffer out = ByteBuffer.wrap(buffer, start, buffer.length - start);
+        CoderResult result = encoder.encode(CharBuffer.wrap(value), out, true);
+        if (result.isUnderflow()) {
+            result = encoder.flush(out);
+        }
+        if (!result.isUnderflow()) {
+            // cannot happen since the buffer was sized for the worst case
+            position = start;
+            putBytes(value.getBytes(charset));
+            return position - start;
+        }
+        position = out.position();
+        return position - start;
+    }
+
+    protected void putZeros(int length) {
+        ensureCapacity(length);
+        for (int i = 0; i < length; i++) {
+            buffer[position++] = 0;
+        }
+    }
+
+    /**
+     * Makes sure there is a column left to write in the current record
+     *
+     * @throws BadRecordException if all the columns were already written
+     */
+    protected void checkColumn() throws BadRecordException {
+        if (column >= numColumns) {
+            throw new BadRecordException("Record has more fields than the schema size " + numColumns);
+        }
+    }
+}
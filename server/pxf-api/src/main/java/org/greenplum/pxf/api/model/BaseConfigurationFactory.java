@@ -1,5 +1,8 @@
 package org.greenplum.pxf.api.model;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import lombok.Data;
 import org.apache.commons.lang3.ArrayUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.hadoop.conf.Configuration;
@@ -8,6 +11,7 @@ import org.greenplum.pxf.api.configuration.PxfServerProperties;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import java.io.File;
@@ -16,24 +20,52 @@ import java.nio.file.DirectoryStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static org.apache.hadoop.fs.CommonConfigurationKeysPublic.HADOOP_SECURITY_AUTH_TO_LOCAL;
 
+/**
+ * Creates the configuration for a request from the files in the server
+ * directory.
+ * <p>
+ * Parsing the {@code *-site.xml} and {@code <user>-user.xml} files is
+ * expensive, so the parsed configuration is cached per server directory,
+ * server and user. Every request gets a copy of the cached configuration,
+ * with the additional properties of the request on top of it. A cached
+ * configuration is discarded when the server directory or any of its
+ * configuration files is modified.
+ */
 @Component
 public class BaseConfigurationFactory implements ConfigurationFactory {
 
     protected final Logger LOG = LoggerFactory.getLogger(this.getClass());
 
     private final File serversConfigDirectory;
+    private final Cache<ServerConfigurationKey, ServerConfiguration> serverConfigurations;
+    private final AtomicLong configurationVersion = new AtomicLong();
 
     @Autowired
-    public BaseConfigurationFactory(PxfServerProperties pxfServerProperties) {
-        this(new File(String.format("%s%sservers", pxfServerProperties.getBase(), File.separator)));
+    public BaseConfigurationFactory(PxfServerProperties pxfServerProperties,
+                                    @Value("${pxf.configuration-cache.expiration:1h}") Duration expiration) {
+        this(new File(String.format("%s%sservers", pxfServerProperties.getBase(), File.separator)), expiration);
     }
 
     BaseConfigurationFactory(File serversConfigDirectory) {
+        this(serversConfigDirectory, Duration.ofHours(1));
+    }
+
+    BaseConfigurationFactory(File serversConfigDirectory, Duration expiration) {
         this.serversConfigDirectory = serversConfigDirectory;
+        this.serverConfigurations = CacheBuilder.newBuilder()
+                .expireAfterAccess(expiration.toMillis(), TimeUnit.MILLISECONDS)
+                .build();
     }
 
     /**
@@ -41,26 +73,42 @@ public class BaseConfigurationFactory implements ConfigurationFactory {
      */
     @Override
     public Configuration initConfiguration(String configDirectory, String serverName, String userName, Map<String, String> additionalProperties) {
-        // start with built-in Hadoop configuration that loads core-site.xml
-        LOG.debug("Initializing configuration for server {}", serverName);
-        Configuration configuration = new Configuration();
-        // while implementing multiple kerberized support we noticed that non-kerberized hadoop
-        // access was trying to use SASL-client authentication. Setting the fallback to simple auth
-        // allows us to still access non-kerberized hadoop clusters when there exists at least one
-        // kerberized hadoop cluster. The root cause is that UGI has static fields and many hadoop
-        // libraries depend on the state of the UGI
-        // allow using SIMPLE auth for non-Kerberized HCFS access by SASL-enabled IPC client
-        // that is created due to the fact that it uses UGI.isSecurityEnabled
-        // and will try to use SASL if there is at least one Kerberized Hadoop cluster
-        configuration.set(CommonConfigurationKeys.IPC_CLIENT_FALLBACK_TO_SIMPLE_AUTH_ALLOWED_KEY, "true");
+        File serverDirectory = getServerDirectory(configDirectory, serverName);
+        ServerConfiguration serverConfiguration = getServerConfiguration(serverDirectory, serverName, userName);
 
-        // set synthetic property pxf.session.user so that is can be used in config files for interpolation in other properties
-        // for example in JDBC when setting session authorization from a proxy user to the end-user
-        configuration.set(PXF_SESSION_USER_PROPERTY, userName);
+        // the copy clones the properties of the cached configuration, the resources are not parsed again
+        Configuration configuration = new Configuration(serverConfiguration.getConfiguration());
 
-        // add the server name itself as a configuration property
-        configuration.set(PXF_SERVER_NAME_PROPERTY, serverName);
+        // add additional properties, if provided
+        if (additionalProperties != null) {
+            LOG.debug("Adding {} additional properties to configuration for server {}", additionalProperties.size(), serverName);
+            additionalProperties.forEach(configuration::set);
+        }
+
+        // add user configuration
+        serverConfiguration.getUserProperties().forEach(configuration::set);
+
+        try {
+            // We need to set the restrict system properties to false so
+            // variables in the configuration get replaced by system property
+            // values
+            configuration.setRestrictSystemProps(false);
+        } catch (NoSuchMethodError e) {
+            // Expected exception for MapR
+        }
 
+        // Starting with Hadoop 2.10.0, the "DEFAULT" rule will throw an
+        // exception when no rules are applied while getting the principal
+        // name translation into operating system user name. See
+        // org.apache.hadoop.security.authentication.util.KerberosName#getShortName
+        // We add a default rule that will return the service name as the
+        // short name, i.e. gpadmin/_HOST@REALM will map to gpadmin
+        configuration.set(HADOOP_SECURITY_AUTH_TO_LOCAL, "RULE:[1:$1] RULE:[2:$1] DEFAULT");
+
+        return configuration;
+    }
+
+    private File getServerDirectory(String configDirectory, String serverName) {
         File[] serverDirectories = null;
         Path p = Paths.get(configDirectory);
 
@@ -80,53 +128,82 @@ public class BaseConfigurationFactory implements ConfigurationFactory {
         if (ArrayUtils.isEmpty(serverDirectories)) {
             LOG.debug("Directory {}{}{} does not exist or cannot be read by PXF, no configuration resources are added for server {}",
                     serversConfigDirectory, File.separator, configDirectory, serverName);
+            return null;
         } else if (serverDirectories.length > 1) {
             throw new IllegalStateException(String.format(
                     "Multiple directories found for server %s. Server directories are expected to be case-insensitive.", serverName
             ));
-        } else {
-            // add all site files as URL resources to the configuration, no resources will be added from the classpath
-            LOG.debug("Using directory {} for server {} configuration", serverDirectories[0], serverName);
-            processServerResources(configuration, serverName, serverDirectories[0]);
         }
+        return serverDirectories[0];
+    }
 
-        // add additional properties, if provided
-        if (additionalProperties != null) {
-            LOG.debug("Adding {} additional properties to configuration for server {}", additionalProperties.size(), serverName);
-            additionalProperties.forEach(configuration::set);
+    /**
+     * Returns the cached configuration of the server for the user, loading it
+     * when it is not cached or when the configuration files have changed.
+     *
+     * @param serverDirectory the directory of the server, null if it does not exist
+     * @param serverName      the name of the server
+     * @param userName        the name of the user
+     * @return the configuration of the server for the user
+     */
+    private ServerConfiguration getServerConfiguration(File serverDirectory, String serverName, String userName) {
+        ServerConfigurationKey key = new ServerConfigurationKey(
+                serverDirectory == null ? null : serverDirectory.getAbsolutePath(), serverName, userName);
+        ServerConfiguration serverConfiguration = serverConfigurations.getIfPresent(key);
+        if (serverConfiguration == null || serverConfiguration.isModified()) {
+            // concurrent requests might load the same configuration, the last one is cached
+            serverConfiguration = loadServerConfiguration(serverDirectory, serverName, userName);
+            serverConfigurations.put(key, serverConfiguration);
         }
+        return serverConfiguration;
+    }
 
-        // add user configuration
-        if (!ArrayUtils.isEmpty(serverDirectories)) {
-            processUserResource(configuration, serverName, userName, serverDirectories[0]);
-        }
+    private ServerConfiguration loadServerConfiguration(File serverDirectory, String serverName, String userName) {
+        // start with built-in Hadoop configuration that loads core-site.xml
+        LOG.debug("Initializing configuration for server {}", serverName);
+        Configuration configuration = new Configuration();
+        // while implementing multiple kerberized support we noticed that non-kerberized hadoop
+        // access was trying to use SASL-client authentication. Setting the fallback to simple auth
+        // allows us to still access non-kerberized hadoop clusters when there exists at least one
+        // kerberized hadoop cluster. The root cause is that UGI has static fields and many hadoop
+        // libraries depend on the state of the UGI
+        // allow using SIMPLE auth for non-Kerberized HCFS access by SASL-enabled IPC client
+        // that is created due to the fact that it uses UGI.isSecurityEnabled
+        // and will try to use SASL if there is at least one Kerberized Hadoop cluster
+        configuration.set(CommonConfigurationKeys.IPC_CLIENT_FALLBACK_TO_SIMPLE_AUTH_ALLOWED_KEY, "true");
 
-        try {
-            // We need to set the restrict system properties to false so
-            // variables in the configuration get replaced by system property
-            // values
-            configuration.setRestrictSystemProps(false);
-        } catch (NoSuchMethodError e) {
-            // Expected exception for MapR
-        }
+        // set synthetic property pxf.session.user so that is can be used in config files for interpolation in other properties
+        // for example in JDBC when setting session authorization from a proxy user to the end-user
+        configuration.set(PXF_SESSION_USER_PROPERTY, userName);
 
-        // Starting with Hadoop 2.10.0, the "DEFAULT" rule will throw an
-        // exception when no rules are applied while getting the principal
-        // name translation into operating system user name. See
-        // org.apache.hadoop.security.authentication.util.KerberosName#getShortName
-        // We add a default rule that will return the service name as the
-        // short name, i.e. gpadmin/_HOST@REALM will map to gpadmin
-        configuration.set(HADOOP_SECURITY_AUTH_TO_LOCAL, "RULE:[1:$1] RULE:[2:$1] DEFAULT");
+        // add the server name itself as a configuration property
+        configuration.set(PXF_SERVER_NAME_PROPERTY, serverName);
 
-        return configuration;
+        // every load gets a new version, so that cached clients are not reused with the new configuration
+        configuration.setLong(PXF_CONFIG_VERSION_PROPERTY, configurationVersion.incrementAndGet());
+
+        List<File> files = new ArrayList<>();
+        Map<String, String> userProperties = Collections.emptyMap();
+        if (serverDirectory != null) {
+            // add all site files as URL resources to the configuration, no resources will be added from the classpath
+            LOG.debug("Using directory {} for server {} configuration", serverDirectory, serverName);
+            files.add(serverDirectory);
+            processServerResources(configuration, serverName, serverDirectory, files);
+            userProperties = processUserResource(serverName, userName, serverDirectory, files);
+        }
+
+        // parse the resources now, copies of the configuration will clone the parsed properties
+        configuration.size();
+        return new ServerConfiguration(configuration, userProperties, files);
     }
 
-    private void processServerResources(Configuration configuration, String serverName, File directory) {
+    private void processServerResources(Configuration configuration, String serverName, File directory, List<File> files) {
         // add all *-site.xml files inside the server config directory as configuration resources
         try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory.toPath(), "*-site.xml")) {
             for (Path path : stream) {
                 URL resourceURL = path.toUri().toURL();
                 LOG.debug("Adding configuration resource for server {} from {}", serverName, resourceURL);
+                files.add(path.toFile());
                 configuration.addResource(resourceURL);
                 // store the path to the resource in the configuration in case plugins need to access the files again
                 configuration.set(String.format("%s.%s", PXF_CONFIG_RESOURCE_PATH_PROPERTY, path.getFileName().toString()), resourceURL.toString());
@@ -140,21 +217,85 @@ public class BaseConfigurationFactory implements ConfigurationFactory {
         }
     }
 
-    private void processUserResource(Configuration configuration, String serverName, String userName, File directory) {
-        // add user config file as configuration resource
+    private Map<String, String> processUserResource(String serverName, String userName, File directory, List<File> files) {
+        // read user config file, its properties are added on top of the additional properties of the request
         try {
             Path path = Paths.get(String.format("%s/%s-user.xml", directory.toPath(), userName));
+            // the file is tracked even when it does not exist, so that its creation is noticed
+            files.add(path.toFile());
+            Map<String, String> userProperties = new LinkedHashMap<>();
             if (Files.exists(path)) {
                 Configuration userConfiguration = new Configuration(false);
                 URL resourceURL = path.toUri().toURL();
                 userConfiguration.addResource(resourceURL);
                 LOG.debug("Adding user properties for server {} from {}", serverName, resourceURL);
-                userConfiguration.forEach(entry -> configuration.set(entry.getKey(), entry.getValue()));
-                configuration.set(String.format("%s.%s", PXF_CONFIG_RESOURCE_PATH_PROPERTY, path.getFileName().toString()), resourceURL.toString());
+                userConfiguration.forEach(entry -> userProperties.put(entry.getKey(), entry.getValue()));
+                userProperties.put(String.format("%s.%s", PXF_CONFIG_RESOURCE_PATH_PROPERTY, path.getFileName().toString()), resourceURL.toString());
             }
+            return userProperties;
         } catch (Exception e) {
             throw new RuntimeException(String.format("Unable to read user configuration for user %s using server %s from %s",
                     userName, serverName, directory.getAbsolutePath()), e);
         }
     }
+
+    @Data
+    private static class ServerConfigurationKey {
+        private final String serverDirectory;
+        private final String serverName;
+        private final String userName;
+    }
+
+    /**
+     * The parsed configuration of a server for a user, along with the
+     * modification times of the files it was read from.
+     */
+    private static class ServerConfiguration {
+        private final Configuration configuration;
+        private final Map<String, String> userProperties;
+        private final List<File> files;
+        private final long[] lastModified;
+
+        ServerConfiguration(Configuration configuration, Map<String, String> userProperties, List<File> files) {
+            this.configuration = configuration;
+            this.userProperties = userProperties;
+            this.files = files;
+            this.lastModified = getLastModified(files);
+        }
+
+        Configuration getConfiguration() {
+            return configuration;
+        }
+
+        Map<String, String> getUserProperties() {
+            return userProperties;
+        }
+
+        /**
+         * @return true if any of the files has been modified, created or
+         * deleted since the configuration was read
+         */
+        boolean isModified() {
+            for (int i = 0; i < files.size(); i++) {
+                if (getLastModified(files.get(i)) != lastModified[i]) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private static long[] getLastModified(List<File> files) {
+            long[] lastModified = new long[files.size()];
+            for (int i = 0; i < files.size(); i++) {
+                lastModified[i] = getLastModified(files.get(i));
+            }
+            return lastModified;
+        }
+
+        private static long getLastModified(File file) {
+            // the length is included since the modification time might only have a resolution of seconds,
+            // the directory is modified when files are added or removed; 0 is returned for missing files
+            return 31 * file.lastModified() + file.length();
+        }
+    }
 }
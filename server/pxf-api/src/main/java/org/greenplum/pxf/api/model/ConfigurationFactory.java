@@ -19,6 +19,14 @@ public interface ConfigurationFactory {
      */
     String PXF_SERVER_NAME_PROPERTY = "pxf.config.server.name";
 
+    /**
+     * Synthetic configuration property that stores the version of the server
+     * configuration, which changes whenever the configuration files of the
+     * server are read again, so that clients created with a previous version
+     * of the configuration are not reused
+     */
+    String PXF_CONFIG_VERSION_PROPERTY = "pxf.config.version";
+
     /**
      * Synthetic configuration property that stores the user so that is can be
      * used in config files for interpolation in other properties, for example
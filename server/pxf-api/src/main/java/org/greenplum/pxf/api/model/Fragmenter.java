@@ -1,6 +1,9 @@
 package org.greenplum.pxf.api.model;
 
+import org.greenplum.pxf.api.utilities.SamplingUtils;
+
 import java.util.List;
+import java.util.Random;
 
 public interface Fragmenter extends Plugin {
     /**
@@ -27,4 +30,36 @@ public interface Fragmenter extends Plugin {
      * @throws RuntimeException if statistics cannot be gathered
      */
     FragmentStats getFragmentStats() throws Exception;
+
+    /**
+     * Returns a value that changes whenever the fragments returned by
+     * {@link #getFragments()} can change, for example the modification time
+     * of the data source. It is used to validate fragments cached across
+     * queries, so it must be much cheaper to compute than the fragments.
+     * The default implementation returns null, meaning that cached fragments
+     * cannot be validated, so the fragments are not cached across queries.
+     *
+     * @return the version of the fragments, or null if unknown
+     * @throws Exception if the version cannot be determined
+     */
+    default String getFragmentsVersion() throws Exception {
+        return null;
+    }
+
+    /**
+     * Gets a random sample of the data for ANALYZE that holds about the given
+     * ratio of the data, so that only the sampled part of the data is read.
+     * The default implementation picks a random subset of the fragments
+     * returned by {@link #getFragments()}. Fragmenters that can read parts of
+     * a fragment can sample smaller blocks to spread the sample better.
+     *
+     * @param sampleRatio the ratio of the data to sample, between 0 and 1
+     * @param random      the source of randomness, seeded identically on all
+     *                    PXF servers so that they all return the same sample
+     * @return the list of sampled data fragments
+     * @throws Exception if the fragments could not be retrieved
+     */
+    default List<Fragment> getSampleFragments(float sampleRatio, Random random) throws Exception {
+        return SamplingUtils.sampleFragments(getFragments(), sampleRatio, random);
+    }
 }
@@ -0,0 +1,51 @@
+package org.greenplum.pxf.api.model;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import org.greenplum.pxf.api.OneRow;
+import org.greenplum.pxf.api.io.RecordEncoder;
+
+/**
+ * Interface that defines serialization of a batch of records straight into
+ * the output format, without resolving the batch into lists of
+ * {@link org.greenplum.pxf.api.OneField}s first.
+ */
+public interface ReadVectorizedBatchSerializer extends ReadVectorizedResolver {
+
+    /**
+     * Returns whether the batches of the current fragment can be serialized
+     * with {@link #serializeBatch(OneRow, RecordEncoder)}. It is called after
+     * the accessor has opened the fragment. When it returns false, batches are
+     * resolved with {@link #getFieldsForBatch(OneRow)} instead.
+     *
+     * @return true if batch serialization is supported for the fragment
+     */
+    boolean isBatchSerializationSupported();
+
+    /**
+     * Writes every record of the batch to the encoder
+     *
+     * @param batch   unresolved batch
+     * @param encoder the encoder for the requested output format
+     * @return the number of records written
+     * @throws Exception if serializing the batch failed
+     */
+    int serializeBatch(OneRow batch, RecordEncoder encoder) throws Exception;
+}
@@ -33,6 +33,7 @@ import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.TreeMap;
@@ -316,6 +317,62 @@ public class RequestContext {
     @Setter(AccessLevel.NONE)
     private Map<String, String> options = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
 
+    /**
+     * Returns a copy of this context that can be changed, and used by another
+     * thread, without affecting this context. The configuration, the options,
+     * the additional configuration properties and the list of columns are
+     * copied, other values are shared.
+     *
+     * @return a copy of this context
+     */
+    public RequestContext copy() {
+        RequestContext copy = new RequestContext();
+        copy.requestType = requestType;
+        copy.accessor = accessor;
+        copy.aggType = aggType;
+        copy.config = config;
+        copy.configuration = (configuration != null) ? new Configuration(configuration) : null;
+        copy.dataSource = dataSource;
+        copy.fragmenter = fragmenter;
+        copy.fragmentIndex = fragmentIndex;
+        copy.fragmentMetadata = fragmentMetadata;
+        copy.filterString = filterString;
+        copy.metadata = metadata;
+        copy.outputFormat = outputFormat;
+        copy.gpCommandCount = gpCommandCount;
+        copy.gpSessionId = gpSessionId;
+        copy.host = host;
+        copy.token = token;
+        copy.statsMaxFragments = statsMaxFragments;
+        copy.statsSampleRatio = statsSampleRatio;
+        copy.numAttrsProjected = numAttrsProjected;
+        copy.pluginConf = pluginConf;
+        copy.port = port;
+        copy.profile = profile;
+        copy.profileScheme = profileScheme;
+        copy.protocol = protocol;
+        copy.resolver = resolver;
+        copy.format = format;
+        copy.greenplumCSV = greenplumCSV;
+        copy.recordkeyColumn = recordkeyColumn;
+        copy.remoteLogin = remoteLogin;
+        copy.remoteSecret = remoteSecret;
+        copy.segmentId = segmentId;
+        copy.schemaName = schemaName;
+        copy.tableName = tableName;
+        copy.transactionId = transactionId;
+        copy.serverName = serverName;
+        copy.totalSegments = totalSegments;
+        copy.tupleDescription = new ArrayList<>(tupleDescription);
+        copy.user = user;
+        copy.dataEncoding = dataEncoding;
+        copy.databaseEncoding = databaseEncoding;
+        copy.clientApiVersion = clientApiVersion;
+        copy.additionalConfigProps = (additionalConfigProps != null) ? new HashMap<>(additionalConfigProps) : null;
+        copy.options.putAll(options);
+        return copy;
+    }
+
     /**
      * Returns a String value of the given option or a default value if the option was not provided
      *
@@ -0,0 +1,46 @@
+package org.greenplum.pxf.api.utilities;
+
+import lombok.Getter;
+import org.greenplum.pxf.api.model.Fragment;
+
+import java.util.List;
+
+/**
+ * Metadata of a fragment that combines several small fragments, so that they
+ * are assigned to a segment and read together as a single fragment. Each of
+ * the combined fragments keeps its own source name and metadata, and is read
+ * by the profile's accessor as if it were a fragment of its own.
+ */
+public class CombinedFragmentMetadata implements FragmentMetadata {
+
+    @Getter
+    private final List<Fragment> fragments;
+
+    /**
+     * Constructs the metadata of a fragment combining the given fragments.
+     *
+     * @param fragments the combined fragments, in the order they are read
+     */
+    public CombinedFragmentMetadata(List<Fragment> fragments) {
+        this.fragments = fragments;
+    }
+
+    /**
+     * Returns the sum of the estimated sizes of the combined fragments.
+     *
+     * @return the estimated size in bytes, or -1 if the size of any of the
+     * combined fragments is unknown
+     */
+    @Override
+    public long getEstimatedSize() {
+        long size = 0;
+        for (Fragment fragment : fragments) {
+            long fragmentSize = fragment.getMetadata() == null ? -1 : fragment.getMetadata().getEstimatedSize();
+            if (fragmentSize < 0) {
+                return -1;
+            }
+            size += fragmentSize;
+        }
+        return size;
+    }
+}
@@ -24,4 +24,14 @@ package org.greenplum.pxf.api.utilities;
  * own metadata object
  */
 public interface FragmentMetadata {
+
+    /**
+     * Returns the estimated number of bytes of data in the fragment, which is
+     * used to balance the bytes that the segments read.
+     *
+     * @return the estimated size of the fragment in bytes, or -1 if unknown
+     */
+    default long getEstimatedSize() {
+        return -1;
+    }
 }
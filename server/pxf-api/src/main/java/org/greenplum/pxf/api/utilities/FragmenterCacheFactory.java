@@ -3,6 +3,7 @@ package org.greenplum.pxf.api.utilities;
 import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.RemovalListener;
+import lombok.Data;
 import org.greenplum.pxf.api.model.Fragment;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -22,11 +23,22 @@ public class FragmenterCacheFactory {
     private final Logger LOG = LoggerFactory.getLogger(this.getClass());
 
     private final Cache<String, List<Fragment>> fragmenterCache;
+    private final Cache<String, CachedFragments> listingCache;
 
     /**
-     * Constructs the FragmenterCacheFactory class
+     * Constructs the FragmenterCacheFactory class with the cache of the
+     * fragments of queries, and the optional cache of fragments across
+     * queries
+     *
+     * @param expiration              the expiration of the fragments of a query
+     * @param listingCacheEnabled     whether fragments are cached across queries
+     * @param listingCacheExpiration  the expiration of the fragments cached across queries
+     * @param listingCacheMaximumSize the maximum number of data sources with fragments cached across queries
      */
-    public FragmenterCacheFactory(@Value("${pxf.fragmenter-cache.expiration:10s}") Duration expiration) {
+    public FragmenterCacheFactory(@Value("${pxf.fragmenter-cache.expiration:10s}") Duration expiration,
+                                  @Value("${pxf.fragmenter-cache.listing.enabled:false}") boolean listingCacheEnabled,
+                                  @Value("${pxf.fragmenter-cache.listing.expiration:5m}") Duration listingCacheExpiration,
+                                  @Value("${pxf.fragmenter-cache.listing.maximum-size:1000}") long listingCacheMaximumSize) {
         long expirationMillis = expiration.toMillis();
         LOG.info("Creating Fragmenter Cache with entry expiration of {} ms", expirationMillis);
         fragmenterCache = CacheBuilder.newBuilder()
@@ -37,6 +49,18 @@ public class FragmenterCacheFactory {
                                 (notification.getValue() != null ? notification.getValue().size() : 0),
                                 notification.getCause().toString()))
                 .build();
+
+        if (listingCacheEnabled) {
+            LOG.info("Creating Fragmenter Listing Cache with {} entries and entry expiration of {} ms",
+                    listingCacheMaximumSize, listingCacheExpiration.toMillis());
+            listingCache = CacheBuilder.newBuilder()
+                    .expireAfterWrite(listingCacheExpiration.toMillis(), TimeUnit.MILLISECONDS)
+                    .maximumSize(listingCacheMaximumSize)
+                    .recordStats()
+                    .build();
+        } else {
+            listingCache = null;
+        }
     }
 
     /**
@@ -45,4 +69,28 @@ public class FragmenterCacheFactory {
     public Cache<String, List<Fragment>> getCache() {
         return fragmenterCache;
     }
+
+    /**
+     * @return whether fragments are cached across queries
+     */
+    public boolean isListingCacheEnabled() {
+        return listingCache != null;
+    }
+
+    /**
+     * @return the cache of fragments across queries, null when it is not enabled
+     */
+    public Cache<String, CachedFragments> getListingCache() {
+        return listingCache;
+    }
+
+    /**
+     * The fragments of a data source, along with the version of the data
+     * source they were computed for
+     */
+    @Data
+    public static class CachedFragments {
+        private final String version;
+        private final List<Fragment> fragments;
+    }
 }
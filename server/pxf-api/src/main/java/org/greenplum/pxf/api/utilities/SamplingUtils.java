@@ -0,0 +1,94 @@
+package org.greenplum.pxf.api.utilities;
+
+import org.greenplum.pxf.api.model.Fragment;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Helper class to sample the data of a table for ANALYZE by picking a random
+ * subset of its fragments, or of the blocks of its fragments, instead of
+ * reading all of the rows.
+ */
+public final class SamplingUtils {
+
+    private SamplingUtils() {
+    }
+
+    /**
+     * Returns the number of units to sample out of the pool, which is the
+     * ratio of the pool rounded up, so that a non-empty pool always has a
+     * sample.
+     *
+     * @param poolSize    the number of units to sample from
+     * @param sampleRatio the ratio of the units to sample, between 0 and 1
+     * @return the number of units to sample
+     */
+    public static long getSampleSize(long poolSize, float sampleRatio) {
+        if (poolSize <= 0 || sampleRatio <= 0) {
+            return 0;
+        }
+        return Math.min(poolSize, (long) Math.ceil(poolSize * (double) sampleRatio));
+    }
+
+    /**
+     * Picks {@code sampleSize} distinct indexes out of {@code poolSize}
+     * uniformly at random, with Floyd's algorithm, so that only the sample
+     * is kept in memory however large the pool is.
+     *
+     * @param poolSize   the number of indexes to pick from
+     * @param sampleSize the number of indexes to pick
+     * @param random     the source of randomness, seeded identically on all
+     *                   PXF servers so that they all pick the same sample
+     * @return the picked indexes in ascending order
+     */
+    public static long[] sample(long poolSize, long sampleSize, Random random) {
+        if (sampleSize >= poolSize) {
+            long[] indexes = new long[(int) Math.max(poolSize, 0)];
+            Arrays.setAll(indexes, i -> i);
+            return indexes;
+        }
+
+        Set<Long> picked = new HashSet<>();
+        for (long j = poolSize - sampleSize; j < poolSize; j++) {
+            long index = Math.floorMod(random.nextLong(), j + 1);
+            if (!picked.add(index)) {
+                picked.add(j);
+            }
+        }
+        long[] indexes = picked.stream().mapToLong(Long::longValue).toArray();
+        Arrays.sort(indexes);
+        return indexes;
+    }
+
+    /**
+     * Picks a random subset of the fragments that holds the given ratio of
+     * the fragments, keeping the order of the fragments.
+     *
+     * @param fragments   the fragments to sample
+     * @param sampleRatio the ratio of the fragments to sample, between 0 and 1
+     * @param random      the source of randomness
+     * @return the sampled fragments
+     */
+    public static List<Fragment> sampleFragments(List<Fragment> fragments, float sampleRatio, Random random) {
+        long[] indexes = sample(fragments.size(), getSampleSize(fragments.size(), sampleRatio), random);
+        List<Fragment> sampledFragments = new ArrayList<>(indexes.length);
+        int next = 0;
+        int i = 0;
+        // do not use fragments.get(i) as the fragments are often a LinkedList
+        for (Fragment fragment : fragments) {
+            if (next == indexes.length) {
+                break;
+            }
+            if (indexes[next] == i++) {
+                sampledFragments.add(fragment);
+                next++;
+            }
+        }
+        return sampledFragments;
+    }
+}
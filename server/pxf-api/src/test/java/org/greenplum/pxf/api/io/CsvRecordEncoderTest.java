@@ -0,0 +1,188 @@
+package org.greenplum.pxf.api.io;
+
+import org.greenplum.pxf.api.GreenplumDateTime;
+import org.greenplum.pxf.api.OneField;
+import org.greenplum.pxf.api.model.GreenplumCSV;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Date;
+import java.sql.Timestamp;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class CsvRecordEncoderTest {
+
+    @Test
+    public void testEncodesPrimitiveValues() throws Exception {
+        CsvRecordEncoder encoder = new CsvRecordEncoder(8, new GreenplumCSV(), "csv");
+
+        encoder.beginRecord();
+        encoder.writeBoolean(false);
+        encoder.writeShort((short) -3);
+        encoder.writeInt(Integer.MIN_VALUE);
+        encoder.writeLong(Long.MIN_VALUE);
+        encoder.writeFloat(1.5f);
+        encoder.writeDouble(1e20);
+        encoder.writeNull();
+        encoder.writeBytes(new byte[]{0x01, (byte) 0xAB}, 0, 2);
+        encoder.endRecord();
+
+        assertEquals("false,-3,-2147483648,-9223372036854775808,1.5,1.0E20,,\\x01ab\n", serialize(encoder));
+        assertEquals(1, encoder.getRecordCount());
+    }
+
+    @Test
+    public void testQuotesTextOnlyWhenNeeded() throws Exception {
+        CsvRecordEncoder encoder = new CsvRecordEncoder(5, new GreenplumCSV(), "csv");
+
+        encoder.beginRecord();
+        writeUtf8(encoder, "plain");
+        writeUtf8(encoder, "a,b");
+        writeUtf8(encoder, "say \"hi\"");
+        writeUtf8(encoder, "two\nlines");
+        encoder.writeText("naïve");
+        encoder.endRecord();
+
+        assertEquals("plain,\"a,b\",\"say \"\"hi\"\"\",\"two\nlines\",naïve\n", serialize(encoder));
+    }
+
+    @Test
+    public void testCustomCsvSettings() throws Exception {
+        GreenplumCSV greenplumCSV = new GreenplumCSV()
+                .withDelimiter('|')
+                .withQuoteChar('\'')
+                .withEscapeChar('\\')
+                .withNewline("CRLF")
+                .withValueOfNull("NULL");
+        CsvRecordEncoder encoder = new CsvRecordEncoder(3, greenplumCSV, "text");
+
+        encoder.beginRecord();
+        writeUtf8(encoder, "it's");
+        encoder.writeNull();
+        encoder.writeBytes(new byte[]{0x0F}, 0, 1);
+        encoder.endRecord();
+
+        assertEquals("'it\\'s'|NULL|\\\\x0f\r\n", serialize(encoder));
+    }
+
+    @Test
+    public void testWriteFieldMatchesOneFieldSerialization() throws Exception {
+        CsvRecordEncoder encoder = new CsvRecordEncoder(5, new GreenplumCSV(), "csv");
+
+        encoder.beginRecord();
+        encoder.writeField(new OneField(DataType.NUMERIC.getOID(), "1.23"));
+        encoder.writeField(new OneField(DataType.TIMESTAMP.getOID(), Timestamp.valueOf("2020-01-02 03:04:05")));
+        encoder.writeField(new OneField(DataType.DATE.getOID(), "2020-01-02"));
+        encoder.writeField(new OneField(DataType.TEXTARRAY.getOID(), "{\"a\",b}"));
+        encoder.writeField(new OneField(DataType.INTEGER.getOID(), null));
+        encoder.endRecord();
+
+        assertEquals("1.23,2020-01-02 03:04:05,2020-01-02,\"{\"\"a\"\",b}\",\n", serialize(encoder));
+    }
+
+    @Test
+    public void testSingleColumnTextIsNotQuoted() throws Exception {
+        CsvRecordEncoder encoder = new CsvRecordEncoder(1, new GreenplumCSV(), "csv");
+
+        encoder.beginRecord();
+        writeUtf8(encoder, "a,b");
+        encoder.endRecord();
+        encoder.beginRecord();
+        encoder.writeNull();
+        encoder.endRecord();
+
+        assertEquals("a,b\n\n", serialize(encoder));
+        assertEquals(2, encoder.getRecordCount());
+    }
+
+    @Test
+    public void testQuotesStringsOnlyWhenNeeded() throws Exception {
+        GreenplumCSV greenplumCSV = new GreenplumCSV().withNewline("CRLF");
+        CsvRecordEncoder encoder = new CsvRecordEncoder(6, greenplumCSV, "csv");
+
+        encoder.beginRecord();
+        encoder.writeText("plain");
+        encoder.writeText("a,b");
+        encoder.writeText("çà \"dit\" \uD83D\uDE00");
+        encoder.writeText("two\r\nlines");
+        encoder.writeText("no\rnewline");
+        encoder.writeText("\"");
+        encoder.endRecord();
+
+        assertEquals("plain,\"a,b\",\"çà \"\"dit\"\" \uD83D\uDE00\",\"two\r\nlines\",no\rnewline,\"\"\"\"\r\n",
+                serialize(encoder));
+    }
+
+    @Test
+    public void testFormatsTimestampsAndDatesWithoutStrings() throws Exception {
+        Timestamp[] timestamps = {
+                Timestamp.valueOf("2020-01-02 03:04:05"),
+                Timestamp.valueOf("1999-12-31 23:59:59.123456"),
+                Timestamp.valueOf("2020-01-02 03:04:05.1"),
+                Timestamp.valueOf("2020-01-02 03:04:05.100000001"),
+                Timestamp.valueOf("2020-01-02 03:04:05.000000500"),
+                Timestamp.valueOf("0099-01-02 03:04:05.999999999")
+        };
+        Date[] dates = {Date.valueOf("2020-01-02"), Date.valueOf("0099-11-30"), new Date(1)};
+        CsvRecordEncoder encoder = new CsvRecordEncoder(timestamps.length + dates.length, new GreenplumCSV(), "csv");
+
+        StringBuilder expected = new StringBuilder();
+        encoder.beginRecord();
+        for (Timestamp timestamp : timestamps) {
+            encoder.writeField(new OneField(DataType.TIMESTAMP.getOID(), timestamp));
+            expected.append(timestamp.toLocalDateTime().format(GreenplumDateTime.DATETIME_FORMATTER)).append(',');
+        }
+        for (Date date : dates) {
+            encoder.writeField(new OneField(DataType.DATE.getOID(), date));
+            expected.append(date).append(',');
+        }
+        encoder.endRecord();
+
+        expected.setCharAt(expected.length() - 1, '\n');
+        assertEquals(expected.toString(), serialize(encoder));
+    }
+
+    @Test
+    public void testWriteFieldFormatsNumbersWithoutStrings() throws Exception {
+        CsvRecordEncoder encoder = new CsvRecordEncoder(5, new GreenplumCSV(), "csv");
+
+        encoder.beginRecord();
+        encoder.writeField(new OneField(DataType.INTEGER.getOID(), -42));
+        encoder.writeField(new OneField(DataType.BIGINT.getOID(), Long.MAX_VALUE));
+        encoder.writeField(new OneField(DataType.SMALLINT.getOID(), (short) 7));
+        encoder.writeField(new OneField(DataType.BOOLEAN.getOID(), true));
+        encoder.writeField(new OneField(DataType.FLOAT8.getOID(), 0.1));
+        encoder.endRecord();
+
+        assertEquals("-42,9223372036854775807,7,true,0.1\n", serialize(encoder));
+    }
+
+    @Test
+    public void testSingleColumnNonStringTextIsQuoted() throws Exception {
+        CsvRecordEncoder encoder = new CsvRecordEncoder(1, new GreenplumCSV(), "csv");
+
+        encoder.beginRecord();
+        encoder.writeField(new OneField(DataType.VARCHAR.getOID(), new StringBuilder("a,b")));
+        encoder.endRecord();
+        encoder.beginRecord();
+        encoder.writeField(new OneField(DataType.VARCHAR.getOID(), "a,b"));
+        encoder.endRecord();
+
+        assertEquals("\"a,b\"\na,b\n", serialize(encoder));
+    }
+
+    private static void writeUtf8(CsvRecordEncoder encoder, String value) throws Exception {
+        byte[] bytes = ("xx" + value).getBytes(StandardCharsets.UTF_8);
+        encoder.writeText(bytes, 2, bytes.length - 2);
+    }
+
+    private static String serialize(Writable writable) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        writable.write(new DataOutputStream(bytes));
+        return new String(bytes.toByteArray(), StandardCharsets.UTF_8);
+    }
+}
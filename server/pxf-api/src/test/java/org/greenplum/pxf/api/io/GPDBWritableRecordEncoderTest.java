@@ -0,0 +1,228 @@
+package org.greenplum.pxf.api.io;
+
+import org.greenplum.pxf.api.OneField;
+import org.greenplum.pxf.api.error.BadRecordException;
+import org.greenplum.pxf.api.utilities.ColumnDescriptor;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class GPDBWritableRecordEncoderTest {
+
+    private static final DataType[] TYPES = {
+            DataType.BOOLEAN, DataType.SMALLINT, DataType.INTEGER, DataType.BIGINT,
+            DataType.REAL, DataType.FLOAT8, DataType.TEXT, DataType.BYTEA, DataType.NUMERIC
+    };
+
+    @Test
+    public void testEncodesSameBytesAsGPDBWritable() throws Exception {
+        List<ColumnDescriptor> columns = getColumns(TYPES);
+        GPDBWritableRecordEncoder encoder = new GPDBWritableRecordEncoder(columns, StandardCharsets.UTF_8);
+
+        byte[] text = "tête-à-tête".getBytes(StandardCharsets.UTF_8);
+        encoder.beginRecord();
+        encoder.writeBoolean(true);
+        encoder.writeShort((short) 7);
+        encoder.writeInt(-42);
+        encoder.writeLong(1L << 40);
+        encoder.writeFloat(1.5f);
+        encoder.writeDouble(-2.25);
+        encoder.writeText(text, 0, text.length);
+        encoder.writeBytes(new byte[]{1, 2, 3}, 0, 3);
+        encoder.writeText("123.456");
+        encoder.endRecord();
+
+        GPDBWritable expected = new GPDBWritable(getSchema(columns), StandardCharsets.UTF_8);
+        expected.setBoolean(0, true);
+        expected.setShort(1, (short) 7);
+        expected.setInt(2, -42);
+        expected.setLong(3, 1L << 40);
+        expected.setFloat(4, 1.5f);
+        expected.setDouble(5, -2.25);
+        expected.setString(6, "tête-à-tête");
+        expected.setBytes(7, new byte[]{1, 2, 3});
+        expected.setString(8, "123.456");
+
+        assertEquals(1, encoder.getRecordCount());
+        assertArrayEquals(serialize(expected), serialize(encoder));
+    }
+
+    @Test
+    public void testEncodesNullsAndMultipleRecords() throws Exception {
+        List<ColumnDescriptor> columns = getColumns(TYPES);
+        GPDBWritableRecordEncoder encoder = new GPDBWritableRecordEncoder(columns, StandardCharsets.UTF_8);
+        ByteArrayOutputStream expectedBytes = new ByteArrayOutputStream();
+        DataOutputStream expectedStream = new DataOutputStream(expectedBytes);
+
+        for (int i = 0; i < 3; i++) {
+            GPDBWritable expected = new GPDBWritable(getSchema(columns), StandardCharsets.UTF_8);
+            encoder.beginRecord();
+            for (int column = 0; column < TYPES.length; column++) {
+                if ((column + i) % 2 == 0) {
+                    encoder.writeNull();
+                } else {
+                    encoder.writeField(new OneField(TYPES[column].getOID(), getValue(TYPES[column], i)));
+                    setValue(expected, column, TYPES[column], i);
+                }
+            }
+            encoder.endRecord();
+            expected.write(expectedStream);
+        }
+
+        assertEquals(3, encoder.getRecordCount());
+        assertArrayEquals(expectedBytes.toByteArray(), serialize(encoder));
+
+        // the buffer is reused after a reset
+        encoder.reset();
+        assertEquals(0, encoder.getRecordCount());
+        assertEquals(0, encoder.getLength());
+    }
+
+    @Test
+    public void testEncodesTextInDatabaseEncoding() throws Exception {
+        Charset encoding = Charset.forName("ISO-8859-1");
+        List<ColumnDescriptor> columns = getColumns(new DataType[]{DataType.VARCHAR});
+        GPDBWritableRecordEncoder encoder = new GPDBWritableRecordEncoder(columns, encoding);
+        byte[] utf8 = "café".getBytes(StandardCharsets.UTF_8);
+
+        encoder.beginRecord();
+        encoder.writeText(utf8, 0, utf8.length);
+        encoder.endRecord();
+
+        GPDBWritable expected = new GPDBWritable(getSchema(columns), encoding);
+        expected.setString(0, "café");
+        assertArrayEquals(serialize(expected), serialize(encoder));
+    }
+
+    @Test
+    public void testEncodesStringsLikeGetBytes() throws Exception {
+        String longValue = new String(new char[100000]).replace('\0', 'ж');
+        String[] values = {"", "ascii", "tête-à-tête", "日本語", "emoji \uD83D\uDE00", "unpaired \uD800 surrogate", longValue};
+
+        for (Charset encoding : new Charset[]{StandardCharsets.UTF_8, Charset.forName("ISO-8859-1"), Charset.forName("GB18030")}) {
+            List<ColumnDescriptor> columns = getColumns(new DataType[]{DataType.SMALLINT, DataType.TEXT});
+            GPDBWritableRecordEncoder encoder = new GPDBWritableRecordEncoder(columns, encoding);
+            ByteArrayOutputStream expectedBytes = new ByteArrayOutputStream();
+            DataOutputStream expectedStream = new DataOutputStream(expectedBytes);
+
+            for (String value : values) {
+                encoder.beginRecord();
+                encoder.writeShort((short) 1);
+                encoder.writeText(value);
+                encoder.endRecord();
+
+                GPDBWritable expected = new GPDBWritable(getSchema(columns), encoding);
+                expected.setShort(0, (short) 1);
+                expected.setString(1, value);
+                expected.write(expectedStream);
+            }
+
+            assertArrayEquals(expectedBytes.toByteArray(), serialize(encoder), "encoding " + encoding);
+        }
+    }
+
+    @Test
+    public void testFailsOnTypeMismatch() {
+        GPDBWritableRecordEncoder encoder = new GPDBWritableRecordEncoder(
+                getColumns(new DataType[]{DataType.INTEGER}), StandardCharsets.UTF_8);
+
+        encoder.beginRecord();
+        assertThrows(BadRecordException.class, () -> encoder.writeLong(1L));
+
+        BadRecordException e = assertThrows(BadRecordException.class,
+                () -> encoder.writeField(new OneField(DataType.TEXT.getOID(), "1")));
+        assertEquals("For field col0 schema requires type INTEGER but input record has type TEXT", e.getMessage());
+    }
+
+    @Test
+    public void testFailsOnWrongNumberOfFields() throws Exception {
+        GPDBWritableRecordEncoder encoder = new GPDBWritableRecordEncoder(
+                getColumns(new DataType[]{DataType.INTEGER, DataType.INTEGER}), StandardCharsets.UTF_8);
+
+        encoder.beginRecord();
+        encoder.writeInt(1);
+        BadRecordException e = assertThrows(BadRecordException.class, encoder::endRecord);
+        assertEquals("Record has 1 fields but the schema size is 2", e.getMessage());
+
+        encoder.writeInt(2);
+        assertThrows(BadRecordException.class, () -> encoder.writeInt(3));
+    }
+
+    private static List<ColumnDescriptor> getColumns(DataType[] types) {
+        List<ColumnDescriptor> columns = new ArrayList<>();
+        for (int i = 0; i < types.length; i++) {
+            columns.add(new ColumnDescriptor("col" + i, types[i].getOID(), i, types[i].name(), null));
+        }
+        return columns;
+    }
+
+    private static int[] getSchema(List<ColumnDescriptor> columns) {
+        return columns.stream().mapToInt(ColumnDescriptor::columnTypeCode).toArray();
+    }
+
+    private static Object getValue(DataType type, int i) {
+        switch (type) {
+            case BOOLEAN:
+                return i % 2 == 0;
+            case SMALLINT:
+                return (short) i;
+            case INTEGER:
+                return i * 1000;
+            case BIGINT:
+                return i * 1000000000000L;
+            case REAL:
+                return i / 3.0f;
+            case FLOAT8:
+                return i / 7.0;
+            case BYTEA:
+                return new byte[i];
+            default:
+                return "value " + i;
+        }
+    }
+
+    private static void setValue(GPDBWritable writable, int column, DataType type, int i) throws IOException {
+        Object value = getValue(type, i);
+        switch (type) {
+            case BOOLEAN:
+                writable.setBoolean(column, (Boolean) value);
+                break;
+            case SMALLINT:
+                writable.setShort(column, (Short) value);
+                break;
+            case INTEGER:
+                writable.setInt(column, (Integer) value);
+                break;
+            case BIGINT:
+                writable.setLong(column, (Long) value);
+                break;
+            case REAL:
+                writable.setFloat(column, (Float) value);
+                break;
+            case FLOAT8:
+                writable.setDouble(column, (Double) value);
+                break;
+            case BYTEA:
+                writable.setBytes(column, (byte[]) value);
+                break;
+            default:
+                writable.setString(column, (String) value);
+        }
+    }
+
+    private static byte[] serialize(Writable writable) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        writable.write(new DataOutputStream(bytes));
+        return bytes.toByteArray();
+    }
+}
@@ -3,21 +3,28 @@ package org.greenplum.pxf.api.model;
 import org.apache.hadoop.conf.Configuration;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 import java.io.File;
 import java.io.FileFilter;
 import java.io.IOException;
 import java.net.MalformedURLException;
 import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Objects;
 
 import static org.greenplum.pxf.api.model.ConfigurationFactory.PXF_CONFIG_RESOURCE_PATH_PROPERTY;
 import static org.greenplum.pxf.api.model.ConfigurationFactory.PXF_CONFIG_SERVER_DIRECTORY_PROPERTY;
+import static org.greenplum.pxf.api.model.ConfigurationFactory.PXF_CONFIG_VERSION_PROPERTY;
 import static org.greenplum.pxf.api.model.ConfigurationFactory.PXF_SESSION_USER_PROPERTY;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
@@ -29,6 +36,9 @@ public class BaseConfigurationFactoryTest {
     private File mockServersDirectory;
     private File serversDirectory;
 
+    @TempDir
+    File tempDirectory; // must be non-private
+
     @BeforeEach
     public void setup() throws URISyntaxException {
         mockServersDirectory = mock(File.class);
@@ -198,4 +208,75 @@ public class BaseConfigurationFactoryTest {
         assertEquals("dummy", configuration.get(PXF_SESSION_USER_PROPERTY));
     }
 
+    @Test
+    public void testConfigurationsAreIndependentCopies() {
+        additionalProperties.put("test.newOption", "newOption");
+        Configuration first = factory.initConfiguration("default", "default", "dummy", additionalProperties);
+        first.set("test.blue", "changed");
+
+        Configuration second = factory.initConfiguration("default", "default", "dummy", null);
+
+        assertEquals("blue", second.get("test.blue"));
+        assertNull(second.get("test.newOption"));
+        assertEquals("uservalue", second.get("test.user.key"));
+    }
+
+    @Test
+    public void testConfigurationsAreCachedPerUser() {
+        Configuration configuration = factory.initConfiguration("default", "default", "dummy", null);
+        assertEquals("uservalue", configuration.get("test.user.key"));
+
+        configuration = factory.initConfiguration("default", "default", "other", null);
+        assertEquals("other", configuration.get(PXF_SESSION_USER_PROPERTY));
+        assertEquals("other-blue", configuration.get("test.blue.interpolated.key"));
+        assertNull(configuration.get("test.user.key"));
+    }
+
+    @Test
+    public void testConfigurationReloadedWhenUserFileChanges() throws IOException {
+        File serverDirectory = copyDefaultServerDirectory();
+        factory = new BaseConfigurationFactory(tempDirectory);
+
+        Configuration configuration = factory.initConfiguration("default", "default", "dummy", null);
+        assertEquals("uservalue", configuration.get("test.user.key"));
+        String version = configuration.get(PXF_CONFIG_VERSION_PROPERTY);
+        assertEquals(version, factory.initConfiguration("default", "default", "dummy", null).get(PXF_CONFIG_VERSION_PROPERTY));
+
+        File userFile = new File(serverDirectory, "dummy-user.xml");
+        long lastModified = userFile.lastModified();
+        Files.write(userFile.toPath(), ("<configuration><property><name>test.user.key</name>" +
+                "<value>changed</value></property></configuration>").getBytes(StandardCharsets.UTF_8));
+        userFile.setLastModified(lastModified + 10000);
+
+        configuration = factory.initConfiguration("default", "default", "dummy", null);
+        assertEquals("changed", configuration.get("test.user.key"));
+        assertNotEquals(version, configuration.get(PXF_CONFIG_VERSION_PROPERTY));
+        // the value from the site file is no longer overridden by the user file
+        assertEquals("redvaluefromred", configuration.get("test.red.key"));
+    }
+
+    @Test
+    public void testConfigurationReloadedWhenSiteFileIsAdded() throws IOException {
+        File serverDirectory = copyDefaultServerDirectory();
+        factory = new BaseConfigurationFactory(tempDirectory);
+
+        Configuration configuration = factory.initConfiguration("default", "default", "dummy", null);
+        assertNull(configuration.get("test.green"));
+
+        long lastModified = serverDirectory.lastModified();
+        Files.copy(new File(serverDirectory, "test-green.xml").toPath(), new File(serverDirectory, "test-green-site.xml").toPath());
+        serverDirectory.setLastModified(lastModified + 10000);
+
+        configuration = factory.initConfiguration("default", "default", "dummy", null);
+        assertEquals("green", configuration.get("test.green"));
+    }
+
+    private File copyDefaultServerDirectory() throws IOException {
+        File serverDirectory = new File(tempDirectory, "default");
+        assertTrue(serverDirectory.mkdir());
+        for (File file : Objects.requireNonNull(new File(serversDirectory, "default").listFiles())) {
+            Files.copy(file.toPath(), new File(serverDirectory, file.getName()).toPath());
+        }
+        return serverDirectory;
+    }
 }
@@ -1,5 +1,6 @@
 package org.greenplum.pxf.api.model;
 
+import org.apache.hadoop.conf.Configuration;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
@@ -7,6 +8,7 @@ import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
@@ -232,4 +234,28 @@ public class RequestContextTest {
         context.setConfig("foo/bar");
         assertEquals("foo/bar", context.getConfig());
     }
+
+    @Test
+    public void testCopyIsIndependentOfTheContext() {
+        Configuration configuration = new Configuration(false);
+        configuration.set("foo", "bar");
+        context.setConfiguration(configuration);
+        context.setDataSource("/path/file1");
+        context.setProfile("hdfs:text");
+        context.addOption("FOO", "bar");
+
+        RequestContext copy = context.copy();
+        copy.setDataSource("/path/file2");
+        copy.setProfile("hdfs:parquet");
+        copy.addOption("BAZ", "qux");
+        copy.getConfiguration().set("foo", "baz");
+
+        assertEquals("/path/file1", context.getDataSource());
+        assertEquals("hdfs:text", context.getProfile());
+        assertEquals("bar", context.getOption("foo"));
+        assertNull(context.getOption("baz"));
+        assertEquals("bar", context.getConfiguration().get("foo"));
+        assertEquals("bar", copy.getOption("foo"));
+        assertEquals("qux", copy.getOption("baz"));
+    }
 }
@@ -0,0 +1,38 @@
+package org.greenplum.pxf.api.utilities;
+
+import org.greenplum.pxf.api.examples.DemoFragmentMetadata;
+import org.greenplum.pxf.api.model.Fragment;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class CombinedFragmentMetadataTest {
+
+    @Test
+    public void testEstimatedSizeIsSumOfFragments() {
+        CombinedFragmentMetadata metadata = new CombinedFragmentMetadata(Arrays.asList(
+                fragment(10), fragment(0), fragment(25)));
+        assertEquals(35, metadata.getEstimatedSize());
+    }
+
+    @Test
+    public void testEstimatedSizeIsUnknown() {
+        CombinedFragmentMetadata metadata = new CombinedFragmentMetadata(Arrays.asList(
+                fragment(10), new Fragment("file", new DemoFragmentMetadata())));
+        assertEquals(-1, metadata.getEstimatedSize());
+
+        metadata = new CombinedFragmentMetadata(Arrays.asList(fragment(10), new Fragment("file")));
+        assertEquals(-1, metadata.getEstimatedSize());
+    }
+
+    private Fragment fragment(long size) {
+        return new Fragment("file", new FragmentMetadata() {
+            @Override
+            public long getEstimatedSize() {
+                return size;
+            }
+        });
+    }
+}
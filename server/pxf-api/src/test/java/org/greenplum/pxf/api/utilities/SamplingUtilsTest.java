@@ -0,0 +1,70 @@
+package org.greenplum.pxf.api.utilities;
+
+import org.greenplum.pxf.api.examples.DemoFragmentMetadata;
+import org.greenplum.pxf.api.model.Fragment;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class SamplingUtilsTest {
+
+    @Test
+    public void testGetSampleSize() {
+        assertEquals(0, SamplingUtils.getSampleSize(0, 0.5F));
+        assertEquals(1, SamplingUtils.getSampleSize(10, 0.0001F));
+        assertEquals(5, SamplingUtils.getSampleSize(10, 0.5F));
+        assertEquals(4, SamplingUtils.getSampleSize(10, 0.31F));
+        assertEquals(10, SamplingUtils.getSampleSize(10, 1.0F));
+        assertEquals(1_000_000, SamplingUtils.getSampleSize(10_000_000_000L, 0.0001F));
+    }
+
+    @Test
+    public void testSamplePicksDistinctSortedIndexes() {
+        long[] indexes = SamplingUtils.sample(1000, 100, new Random(42));
+        assertEquals(100, indexes.length);
+        for (int i = 0; i < indexes.length; i++) {
+            assertTrue(indexes[i] >= 0 && indexes[i] < 1000);
+            if (i > 0) {
+                assertTrue(indexes[i] > indexes[i - 1]);
+            }
+        }
+    }
+
+    @Test
+    public void testSampleIsDeterministicForSeed() {
+        assertArrayEquals(SamplingUtils.sample(1_000_000_000_000L, 50, new Random(7)),
+                SamplingUtils.sample(1_000_000_000_000L, 50, new Random(7)));
+    }
+
+    @Test
+    public void testSampleWholePool() {
+        assertArrayEquals(new long[]{0, 1, 2, 3}, SamplingUtils.sample(4, 4, new Random(1)));
+        assertArrayEquals(new long[]{0, 1, 2}, SamplingUtils.sample(3, 5, new Random(1)));
+        assertArrayEquals(new long[]{}, SamplingUtils.sample(0, 0, new Random(1)));
+    }
+
+    @Test
+    public void testSampleFragmentsKeepsOrder() {
+        List<Fragment> fragments = new LinkedList<>();
+        for (int i = 0; i < 20; i++) {
+            fragments.add(new Fragment("file" + i, new DemoFragmentMetadata()));
+        }
+
+        List<Fragment> sample = SamplingUtils.sampleFragments(fragments, 0.25F, new Random(3));
+        assertEquals(5, sample.size());
+        List<Integer> positions = new ArrayList<>();
+        for (Fragment fragment : sample) {
+            positions.add(fragments.indexOf(fragment));
+        }
+        for (int i = 1; i < positions.size(); i++) {
+            assertTrue(positions.get(i) > positions.get(i - 1));
+        }
+    }
+}
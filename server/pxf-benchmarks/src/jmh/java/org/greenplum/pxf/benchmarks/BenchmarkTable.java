@@ -0,0 +1,298 @@
+package org.greenplum.pxf.benchmarks;
+
+import org.apache.hadoop.conf.Configuration;
+import org.greenplum.pxf.api.error.BadRecordException;
+import org.greenplum.pxf.api.io.CsvRecordEncoder;
+import org.greenplum.pxf.api.io.DataType;
+import org.greenplum.pxf.api.io.GPDBWritableRecordEncoder;
+import org.greenplum.pxf.api.io.RecordEncoder;
+import org.greenplum.pxf.api.io.Writable;
+import org.greenplum.pxf.api.model.Fragment;
+import org.greenplum.pxf.api.model.Fragmenter;
+import org.greenplum.pxf.api.model.GreenplumCSV;
+import org.greenplum.pxf.api.model.OutputFormat;
+import org.greenplum.pxf.api.model.RequestContext;
+import org.greenplum.pxf.api.utilities.ColumnDescriptor;
+import org.greenplum.pxf.api.utilities.SpringContext;
+import org.greenplum.pxf.plugins.hdfs.avro.AvroSchemaFileReaderFactory;
+import org.greenplum.pxf.plugins.hdfs.avro.AvroUtilities;
+import org.greenplum.pxf.plugins.hdfs.utilities.FooterCache;
+import org.greenplum.pxf.plugins.hdfs.utilities.PgUtilities;
+import org.greenplum.pxf.plugins.json.JsonUtilities;
+import org.greenplum.pxf.service.bridge.Bridge;
+import org.greenplum.pxf.service.bridge.BridgeFactory;
+import org.greenplum.pxf.service.bridge.SimpleBridgeFactory;
+import org.greenplum.pxf.service.serde.RecordReaderFactory;
+import org.greenplum.pxf.service.utilities.BasePluginFactory;
+import org.greenplum.pxf.service.utilities.GSSFailureHandler;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * A synthetic table stored in local files, read and written through the
+ * bridges the same way the PXF service does for a segment. Plugins are
+ * created by name with the {@link BasePluginFactory}, and the Spring beans
+ * they look up are registered in a minimal application context.
+ */
+class BenchmarkTable {
+
+    /**
+     * The file formats, with the plugins of their hdfs profile
+     */
+    enum Format {
+        CSV("org.greenplum.pxf.plugins.hdfs.HdfsDataFragmenter",
+                "org.greenplum.pxf.plugins.hdfs.LineBreakAccessor",
+                "org.greenplum.pxf.plugins.hdfs.StringPassResolver",
+                OutputFormat.TEXT),
+        PARQUET("org.greenplum.pxf.plugins.hdfs.parquet.ParquetRowGroupFragmenter",
+                "org.greenplum.pxf.plugins.hdfs.ParquetFileAccessor",
+                "org.greenplum.pxf.plugins.hdfs.ParquetResolver",
+                OutputFormat.GPDBWritable),
+        ORC("org.greenplum.pxf.plugins.hdfs.HdfsDataFragmenter",
+                "org.greenplum.pxf.plugins.hdfs.orc.ORCVectorizedAccessor",
+                "org.greenplum.pxf.plugins.hdfs.orc.ORCVectorizedResolver",
+                OutputFormat.GPDBWritable),
+        AVRO("org.greenplum.pxf.plugins.hdfs.HdfsDataFragmenter",
+                "org.greenplum.pxf.plugins.hdfs.AvroFileAccessor",
+                "org.greenplum.pxf.plugins.hdfs.AvroResolver",
+                OutputFormat.GPDBWritable),
+        JSON("org.greenplum.pxf.plugins.hdfs.HdfsDataFragmenter",
+                "org.greenplum.pxf.plugins.json.JsonAccessor",
+                "org.greenplum.pxf.plugins.json.JsonResolver",
+                OutputFormat.GPDBWritable);
+
+        private final String fragmenter;
+        private final String accessor;
+        private final String resolver;
+        private final OutputFormat outputFormat;
+
+        Format(String fragmenter, String accessor, String resolver, OutputFormat outputFormat) {
+            this.fragmenter = fragmenter;
+            this.accessor = accessor;
+            this.resolver = resolver;
+            this.outputFormat = outputFormat;
+        }
+    }
+
+    /**
+     * The number of columns of the table, the column types cycle through
+     * {@link #TYPES}
+     */
+    enum Schema {
+        NARROW(5),
+        WIDE(50);
+
+        private final int numColumns;
+
+        Schema(int numColumns) {
+            this.numColumns = numColumns;
+        }
+    }
+
+    private static final DataType[] TYPES = {
+            DataType.INTEGER, DataType.BIGINT, DataType.FLOAT8, DataType.TEXT, DataType.BOOLEAN
+    };
+    private static final String[] TYPE_NAMES = {"int4", "int8", "float8", "text", "bool"};
+
+    private static BridgeFactory bridgeFactory;
+    private static BasePluginFactory pluginFactory;
+
+    private final Format format;
+    private final List<ColumnDescriptor> columns;
+    private long transactionId;
+
+    BenchmarkTable(Format format, Schema schema) {
+        this.format = format;
+        this.columns = new ArrayList<>(schema.numColumns);
+        for (int i = 0; i < schema.numColumns; i++) {
+            int type = i % TYPES.length;
+            columns.add(new ColumnDescriptor("col" + i, TYPES[type].getOID(), i, TYPE_NAMES[type], null));
+        }
+        initialize();
+    }
+
+    /**
+     * Returns the rows in the form the bridges receive them from Greenplum
+     * when writing: GPDBWritable records, or CSV lines for the text format
+     *
+     * @param rows the number of rows
+     * @return the serialized rows
+     * @throws BadRecordException if the rows cannot be serialized
+     */
+    byte[] serializeRows(int rows) throws BadRecordException {
+        RecordEncoder encoder = format.outputFormat == OutputFormat.TEXT ?
+                new CsvRecordEncoder(columns.size(), new GreenplumCSV(), "csv") :
+                new GPDBWritableRecordEncoder(columns, StandardCharsets.UTF_8);
+        for (int row = 0; row < rows; row++) {
+            encoder.beginRecord();
+            for (int i = 0; i < columns.size(); i++) {
+                switch (TYPES[i % TYPES.length]) {
+                    case INTEGER:
+                        encoder.writeInt(row);
+                        break;
+                    case BIGINT:
+                        encoder.writeLong(row * 1_000_003L);
+                        break;
+                    case FLOAT8:
+                        encoder.writeDouble(row / 7.0);
+                        break;
+                    case TEXT:
+                        encoder.writeText("value-" + row + "-" + i);
+                        break;
+                    default:
+                        encoder.writeBoolean(row % 2 == 0);
+                }
+            }
+            encoder.endRecord();
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(encoder.getLength());
+        try {
+            encoder.write(new DataOutputStream(bytes));
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Writes the serialized rows into a new file of the directory, the way
+     * a segment executes an INSERT
+     *
+     * @param directory the directory of the table
+     * @param rows      the serialized rows
+     * @throws Exception if writing fails
+     */
+    void write(Path directory, byte[] rows) throws Exception {
+        RequestContext context = newContext(RequestContext.RequestType.WRITE_BRIDGE, directory);
+        context.setTransactionId("XID-" + (++transactionId));
+        Bridge bridge = bridgeFactory.getBridge(context);
+        DataInputStream input = new DataInputStream(new ByteArrayInputStream(rows));
+        try {
+            if (bridge.beginIteration()) {
+                while (bridge.setNext(input)) {
+                    // the bridge writes the record to the file
+                }
+            }
+        } finally {
+            bridge.endIteration();
+        }
+    }
+
+    /**
+     * Returns the fragments of the files in the directory
+     *
+     * @param directory the directory of the table
+     * @return the fragments
+     * @throws Exception if listing the fragments fails
+     */
+    List<Fragment> getFragments(Path directory) throws Exception {
+        RequestContext context = newContext(RequestContext.RequestType.READ_BRIDGE, directory);
+        Fragmenter fragmenter = pluginFactory.getPlugin(context, format.fragmenter);
+        return fragmenter.getFragments();
+    }
+
+    /**
+     * Reads all the fragments the way a segment executes a SELECT, and
+     * serializes the records into the output
+     *
+     * @param directory the directory of the table
+     * @param fragments the fragments of the table
+     * @param output    the output stream of the records
+     * @return the number of writables sent
+     * @throws Exception if reading fails
+     */
+    long read(Path directory, List<Fragment> fragments, DataOutput output) throws Exception {
+        long writables = 0;
+        for (Fragment fragment : fragments) {
+            RequestContext context = newContext(RequestContext.RequestType.READ_BRIDGE, directory);
+            context.setDataSource(fragment.getSourceName());
+            context.setFragmentIndex(fragment.getIndex());
+            context.setFragmentMetadata(fragment.getMetadata());
+            Bridge bridge = bridgeFactory.getBridge(context);
+            try {
+                if (bridge.beginIteration()) {
+                    Writable record;
+                    while ((record = bridge.getNext()) != null) {
+                        record.write(output);
+                        writables++;
+                    }
+                }
+            } finally {
+                bridge.endIteration();
+            }
+        }
+        return writables;
+    }
+
+    private RequestContext newContext(RequestContext.RequestType requestType, Path directory) {
+        Configuration configuration = new Configuration();
+        configuration.set("pxf.fs.basePath", "/");
+
+        RequestContext context = new RequestContext();
+        context.setRequestType(requestType);
+        context.setConfig("default");
+        context.setServerName("default");
+        context.setUser("gpadmin");
+        context.setSegmentId(0);
+        context.setTotalSegments(1);
+        context.setConfiguration(configuration);
+        context.setDataSource(directory.toString());
+        context.setTupleDescription(new ArrayList<>(columns));
+        context.setOutputFormat(format.outputFormat);
+        context.setFormat(format.outputFormat == OutputFormat.TEXT ? "CSV" : "CUSTOM");
+        context.setFragmenter(format.fragmenter);
+        context.setAccessor(format.accessor);
+        context.setResolver(format.resolver);
+        context.setDataEncoding(StandardCharsets.UTF_8);
+        context.setDatabaseEncoding(StandardCharsets.UTF_8);
+        return context;
+    }
+
+    /**
+     * Creates the beans the plugins look up with {@link SpringContext}
+     */
+    private static synchronized void initialize() {
+        if (bridgeFactory != null) {
+            return;
+        }
+        AnnotationConfigApplicationContext applicationContext = new AnnotationConfigApplicationContext();
+        applicationContext.register(SpringContext.class, PgUtilities.class, AvroSchemaFileReaderFactory.class,
+                AvroUtilities.class, JsonUtilities.class);
+        applicationContext.registerBean(FooterCache.class, () -> new FooterCache(100 * 1024 * 1024, Duration.ofHours(1)));
+        applicationContext.refresh();
+
+        pluginFactory = new BasePluginFactory();
+        bridgeFactory = new SimpleBridgeFactory(pluginFactory,
+                new RecordReaderFactory(applicationContext.getBean(PgUtilities.class)), new GSSFailureHandler(), null, false, false);
+    }
+
+    /**
+     * Deletes the directory and all of its files
+     *
+     * @param directory the directory to delete
+     * @throws IOException if a file cannot be deleted
+     */
+    static void delete(Path directory) throws IOException {
+        if (!Files.exists(directory)) {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(directory)) {
+            paths.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+        }
+    }
+}
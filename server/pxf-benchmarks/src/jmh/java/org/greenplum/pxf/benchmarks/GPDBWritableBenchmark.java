@@ -0,0 +1,161 @@
+package org.greenplum.pxf.benchmarks;
+
+import org.greenplum.pxf.api.OneField;
+import org.greenplum.pxf.api.io.DataType;
+import org.greenplum.pxf.api.io.GPDBWritable;
+import org.greenplum.pxf.api.io.GPDBWritableRecordEncoder;
+import org.greenplum.pxf.api.utilities.ColumnDescriptor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.DataOutputStream;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares serializing records with {@link GPDBWritable#write(java.io.DataOutput)}
+ * against encoding them with a reused {@link GPDBWritableRecordEncoder}, one
+ * record per write (the row-at-a-time bridge) or a whole batch per write (the
+ * vectorized bridge).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GPDBWritableBenchmark {
+
+    private static final int RECORDS = 1024;
+
+    private static final DataType[] TYPES = {
+            DataType.INTEGER, DataType.BIGINT, DataType.FLOAT8, DataType.BOOLEAN,
+            DataType.TEXT, DataType.VARCHAR, DataType.NUMERIC, DataType.DATE
+    };
+
+    @Param({"UTF-8", "ISO-8859-1"})
+    public String encoding;
+
+    @Param({"8", "128"})
+    public int textLength;
+
+    private List<List<OneField>> records;
+    private GPDBWritable writable;
+    private GPDBWritableRecordEncoder encoder;
+    private DataOutputStream out;
+
+    @Setup
+    public void setup() {
+        Charset databaseEncoding = Charset.forName(encoding);
+        List<ColumnDescriptor> columns = new ArrayList<>();
+        int[] schema = new int[TYPES.length];
+        for (int i = 0; i < TYPES.length; i++) {
+            columns.add(new ColumnDescriptor("col" + i, TYPES[i].getOID(), i, TYPES[i].name(), null));
+            schema[i] = TYPES[i].getOID();
+        }
+
+        char[] text = new char[textLength];
+        records = new ArrayList<>(RECORDS);
+        for (int i = 0; i < RECORDS; i++) {
+            Arrays.fill(text, (char) ('a' + i % 26));
+            records.add(Arrays.asList(
+                    new OneField(DataType.INTEGER.getOID(), i),
+                    new OneField(DataType.BIGINT.getOID(), i * 1000000L),
+                    new OneField(DataType.FLOAT8.getOID(), i / 3.0),
+                    new OneField(DataType.BOOLEAN.getOID(), i % 2 == 0),
+                    new OneField(DataType.TEXT.getOID(), new String(text)),
+                    new OneField(DataType.VARCHAR.getOID(), i % 10 == 0 ? null : "varchar-" + i),
+                    new OneField(DataType.NUMERIC.getOID(), "12345.6789"),
+                    new OneField(DataType.DATE.getOID(), "2021-01-0" + (1 + i % 9))));
+        }
+
+        writable = new GPDBWritable(schema, databaseEncoding);
+        encoder = new GPDBWritableRecordEncoder(columns, databaseEncoding);
+        out = new DataOutputStream(new NullOutputStream());
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(RECORDS)
+    public void gpdbWritableWrite() throws Exception {
+        for (List<OneField> record : records) {
+            for (int i = 0; i < TYPES.length; i++) {
+                setField(i, record.get(i));
+            }
+            writable.write(out);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(RECORDS)
+    public void recordEncoderPerRecord() throws Exception {
+        for (List<OneField> record : records) {
+            encoder.reset();
+            encodeRecord(record);
+            encoder.write(out);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(RECORDS)
+    public void recordEncoderPerBatch() throws Exception {
+        encoder.reset();
+        for (List<OneField> record : records) {
+            encodeRecord(record);
+        }
+        encoder.write(out);
+    }
+
+    private void encodeRecord(List<OneField> record) throws Exception {
+        encoder.beginRecord();
+        for (OneField field : record) {
+            encoder.writeField(field);
+        }
+        encoder.endRecord();
+    }
+
+    private void setField(int column, OneField field) throws Exception {
+        switch (TYPES[column]) {
+            case INTEGER:
+                writable.setInt(column, (Integer) field.val);
+                break;
+            case BIGINT:
+                writable.setLong(column, (Long) field.val);
+                break;
+            case FLOAT8:
+                writable.setDouble(column, (Double) field.val);
+                break;
+            case BOOLEAN:
+                writable.setBoolean(column, (Boolean) field.val);
+                break;
+            default:
+                writable.setString(column, (String) field.val);
+        }
+    }
+
+    /**
+     * Discards the bytes, so that only the serialization is measured
+     */
+    private static class NullOutputStream extends OutputStream {
+        @Override
+        public void write(int b) {
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package org.greenplum.pxf.benchmarks;
+
+import org.greenplum.pxf.api.model.Fragment;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.DataOutputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures reading a table of local files end to end through the read
+ * bridge of its profile: the accessor reads the files, the resolver converts
+ * the records into fields and the bridge serializes them into the output
+ * sent to Greenplum. The files are written once per trial through the write
+ * bridge, so that they are what PXF itself produces for the format.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReadBridgeBenchmark {
+
+    static final int ROWS = 50_000;
+
+    @Param({"CSV", "PARQUET", "ORC", "AVRO", "JSON"})
+    public BenchmarkTable.Format format;
+
+    @Param({"NARROW", "WIDE"})
+    public BenchmarkTable.Schema schema;
+
+    private BenchmarkTable table;
+    private Path directory;
+    private List<Fragment> fragments;
+    private DataOutputStream out;
+
+    @Setup
+    public void setup() throws Exception {
+        table = new BenchmarkTable(format, schema);
+        directory = Files.createTempDirectory("pxf-read-benchmark");
+        table.write(directory, table.serializeRows(ROWS));
+        fragments = table.getFragments(directory);
+        out = new DataOutputStream(new NullOutputStream());
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        BenchmarkTable.delete(directory);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public long read() throws Exception {
+        return table.read(directory, fragments, out);
+    }
+
+    /**
+     * Discards the bytes, so that only reading and serializing is measured
+     */
+    private static class NullOutputStream extends OutputStream {
+        @Override
+        public void write(int b) {
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package org.greenplum.pxf.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures writing a table of local files end to end through the write
+ * bridge of its profile: the bridge reads the records sent by Greenplum
+ * (GPDBWritable records, or CSV lines for the text format), the resolver
+ * converts them and the accessor writes them into a new file. Every
+ * invocation writes a new file, deleted before the next invocation.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WriteBridgeBenchmark {
+
+    static final int ROWS = 50_000;
+
+    @Param({"CSV", "PARQUET", "ORC", "AVRO", "JSON"})
+    public BenchmarkTable.Format format;
+
+    @Param({"NARROW", "WIDE"})
+    public BenchmarkTable.Schema schema;
+
+    private BenchmarkTable table;
+    private Path directory;
+    private byte[] rows;
+
+    @Setup
+    public void setup() throws Exception {
+        table = new BenchmarkTable(format, schema);
+        directory = Files.createTempDirectory("pxf-write-benchmark");
+        rows = table.serializeRows(ROWS);
+    }
+
+    @TearDown(Level.Invocation)
+    public void deleteFiles() throws Exception {
+        BenchmarkTable.delete(directory);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void write() throws Exception {
+        table.write(directory, rows);
+    }
+}
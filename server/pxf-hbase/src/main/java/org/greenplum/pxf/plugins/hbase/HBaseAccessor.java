@@ -20,17 +20,16 @@ package org.greenplum.pxf.plugins.hbase;
  */
 
 
-import org.apache.hadoop.hbase.HBaseConfiguration;
 import org.apache.hadoop.hbase.HConstants;
 import org.apache.hadoop.hbase.TableName;
 import org.apache.hadoop.hbase.client.Connection;
-import org.apache.hadoop.hbase.client.ConnectionFactory;
 import org.apache.hadoop.hbase.client.Result;
 import org.apache.hadoop.hbase.client.ResultScanner;
 import org.apache.hadoop.hbase.client.Scan;
 import org.apache.hadoop.hbase.client.Table;
 import org.apache.hadoop.hbase.filter.Filter;
 import org.apache.hadoop.hbase.util.Bytes;
+import org.apache.hadoop.security.UserGroupInformation;
 import org.greenplum.pxf.api.OneRow;
 import org.greenplum.pxf.api.filter.FilterParser;
 import org.greenplum.pxf.api.filter.Node;
@@ -40,13 +39,18 @@ import org.greenplum.pxf.api.filter.TreeTraverser;
 import org.greenplum.pxf.api.filter.TreeVisitor;
 import org.greenplum.pxf.api.model.Accessor;
 import org.greenplum.pxf.api.model.BasePlugin;
+import org.greenplum.pxf.api.model.ConfigurationFactory;
 import org.greenplum.pxf.api.model.RequestContext;
+import org.greenplum.pxf.api.utilities.SpringContext;
 import org.greenplum.pxf.plugins.hbase.utilities.HBaseColumnDescriptor;
+import org.greenplum.pxf.plugins.hbase.utilities.HBaseConnectionCache;
 import org.greenplum.pxf.plugins.hbase.utilities.HBaseTupleDescription;
-import org.greenplum.pxf.plugins.hbase.utilities.HBaseUtilities;
 
 import java.io.IOException;
+import java.util.Collections;
 import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Map;
 
 /**
  * Accessor for HBase.
@@ -79,6 +83,14 @@ public class HBaseAccessor extends BasePlugin implements Accessor {
     private static final TreeTraverser TRAVERSER = new TreeTraverser();
     private static final String UNSUPPORTED_ERR_MESSAGE = "HBase accessor does not support write operation.";
 
+    // the number of rows fetched by every RPC of a scanner
+    static final String SCAN_CACHING_OPTION = "SCAN_CACHING";
+    // the maximum size of the rows fetched by every RPC of a scanner
+    static final String SCAN_MAX_RESULT_SIZE_OPTION = "SCAN_MAX_RESULT_SIZE";
+    // whether the blocks read by the scanner are added to the block cache of the region servers
+    static final String SCAN_CACHE_BLOCKS_OPTION = "SCAN_CACHE_BLOCKS";
+
+    private final HBaseConnectionCache connectionCache;
     private HBaseTupleDescription tupleDescription;
     private Connection connection;
     private Table table;
@@ -110,6 +122,23 @@ public class HBaseAccessor extends BasePlugin implements Accessor {
         }
     }
 
+    /**
+     * Creates a new instance of the accessor, with the connection cache
+     * of the application
+     */
+    public HBaseAccessor() {
+        this(SpringContext.getBean(HBaseConnectionCache.class));
+    }
+
+    /**
+     * Creates a new instance of the accessor
+     *
+     * @param connectionCache the cache of HBase connections
+     */
+    HBaseAccessor(HBaseConnectionCache connectionCache) {
+        this.connectionCache = connectionCache;
+    }
+
     /**
      * Initializes HBaseAccessor based on GPDB table description and
      * initializes the scan start and end keys of the HBase table to default values.
@@ -138,12 +167,20 @@ public class HBaseAccessor extends BasePlugin implements Accessor {
     }
 
     /**
-     * Closes the HBase table.
+     * Closes the HBase table, and releases the connection to the cache.
      */
     @Override
     public void closeForRead() throws Exception {
-        table.close();
-        HBaseUtilities.closeConnection(null, connection);
+        try {
+            if (table != null) {
+                table.close();
+            }
+        } finally {
+            if (connection != null) {
+                connectionCache.release(connection);
+                connection = null;
+            }
+        }
     }
 
     /**
@@ -192,10 +229,17 @@ public class HBaseAccessor extends BasePlugin implements Accessor {
     }
 
     /**
-     * Load hbase table object using ConnectionFactory
+     * Load hbase table object using the connection of the server
+     * and user from the connection cache
      */
     private void openTable() throws IOException {
-        connection = ConnectionFactory.createConnection(HBaseConfiguration.create(configuration));
+        Map<String, String> additionalProperties = context.getAdditionalConfigProps() == null
+                ? Collections.emptyMap()
+                : new HashMap<>(context.getAdditionalConfigProps());
+        HBaseConnectionCache.Key key = new HBaseConnectionCache.Key(context.getServerName(), context.getConfig(),
+                configuration.getLong(ConfigurationFactory.PXF_CONFIG_VERSION_PROPERTY, 0),
+                UserGroupInformation.getCurrentUser(), additionalProperties);
+        connection = connectionCache.acquire(key, configuration);
         table = connection.getTable(TableName.valueOf(context.getDataSource()));
     }
 
@@ -254,6 +298,18 @@ public class HBaseAccessor extends BasePlugin implements Accessor {
         scanDetails = new Scan();
         // Return only one version (latest)
         scanDetails.setMaxVersions(1);
+        // Scanning a whole region would evict the blocks used by other clients from the block cache
+        scanDetails.setCacheBlocks(context.getOption(SCAN_CACHE_BLOCKS_OPTION, false));
+
+        // Otherwise use the client defaults, hbase.client.scanner.caching and hbase.client.scanner.max.result.size
+        int caching = context.getOption(SCAN_CACHING_OPTION, 0, true);
+        if (caching > 0) {
+            scanDetails.setCaching(caching);
+        }
+        long maxResultSize = context.getOption(SCAN_MAX_RESULT_SIZE_OPTION, 0L, true);
+        if (maxResultSize > 0) {
+            scanDetails.setMaxResultSize(maxResultSize);
+        }
 
         addColumns();
         addFilters();
@@ -0,0 +1,229 @@
+package org.greenplum.pxf.plugins.hbase.utilities;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Ticker;
+import lombok.Data;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.hbase.HBaseConfiguration;
+import org.apache.hadoop.hbase.client.Connection;
+import org.apache.hadoop.hbase.client.ConnectionFactory;
+import org.apache.hadoop.security.UserGroupInformation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reference-counted cache of HBase {@link Connection}s.
+ * <p>
+ * Creating a connection looks up the cluster in ZooKeeper and creates the
+ * thread pools of the client, and the region locations it looks up in
+ * hbase:meta are cached by the connection. Connections are shared by the
+ * concurrent and consecutive requests of a user to a server, and closed
+ * once no request has used them for the configured expiration time. With
+ * an expiration of zero a connection is closed as soon as the last request
+ * using it completes.
+ * <p>
+ * Expired and aborted connections are cleaned up whenever a connection is
+ * acquired or released.
+ */
+@Component
+public class HBaseConnectionCache {
+
+    private static final Logger LOG = LoggerFactory.getLogger(HBaseConnectionCache.class);
+
+    private final ConnectionCreator connectionCreator;
+    private final long expirationNanos;
+    private final Ticker ticker;
+    private final Map<Key, Entry> cache = new HashMap<>();
+    // aborted connections still used by requests, closed when the last one releases them
+    private final List<Entry> aborted = new ArrayList<>();
+
+    @Autowired
+    public HBaseConnectionCache(@Value("${pxf.hbase.connection-cache.expiration:5m}") Duration expiration) {
+        this(configuration -> ConnectionFactory.createConnection(HBaseConfiguration.create(configuration)),
+                expiration, Ticker.systemTicker());
+    }
+
+    @VisibleForTesting
+    HBaseConnectionCache(ConnectionCreator connectionCreator, Duration expiration, Ticker ticker) {
+        this.connectionCreator = connectionCreator;
+        this.expirationNanos = expiration.toNanos();
+        this.ticker = ticker;
+    }
+
+    /**
+     * Returns the connection for the key, creating it with the configuration
+     * if it is not cached. Every connection that is acquired must be released
+     * with {@link #release(Connection)}.
+     * <p>
+     * The connection is created without holding the lock of the cache, only
+     * the requests waiting for the same connection wait for it to be created.
+     *
+     * @param key           the identity of the connection
+     * @param configuration the configuration of the server
+     * @return the connection
+     * @throws IOException when the connection cannot be created
+     */
+    public Connection acquire(Key key, Configuration configuration) throws IOException {
+        List<Entry> expired;
+        Entry entry;
+        synchronized (this) {
+            expired = removeExpired();
+            entry = cache.get(key);
+            if (entry != null && isAborted(entry)) {
+                cache.remove(key);
+                aborted.add(entry);
+                entry = null;
+            }
+            if (entry == null) {
+                entry = new Entry();
+                cache.put(key, entry);
+            }
+            entry.references++;
+        }
+        close(expired);
+
+        try {
+            return entry.getConnection(key, configuration);
+        } catch (IOException | RuntimeException e) {
+            synchronized (this) {
+                // the entry is removed so that the next request tries to create the connection again
+                if (--entry.references == 0 && entry.connection == null) {
+                    cache.remove(key, entry);
+                }
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Releases a connection acquired with {@link #acquire(Key, Configuration)}
+     *
+     * @param connection the connection that is no longer used by the request
+     */
+    public void release(Connection connection) {
+        List<Entry> expired;
+        synchronized (this) {
+            for (Entry entry : cache.values()) {
+                if (entry.connection == connection) {
+                    entry.references--;
+                    entry.lastReleased = ticker.read();
+                    break;
+                }
+            }
+            expired = removeExpired();
+            Iterator<Entry> entries = aborted.iterator();
+            while (entries.hasNext()) {
+                Entry entry = entries.next();
+                if (entry.connection == connection && --entry.references == 0) {
+                    entries.remove();
+                    expired.add(entry);
+                }
+            }
+        }
+        close(expired);
+    }
+
+    /**
+     * @return the number of connections in the cache
+     */
+    synchronized int size() {
+        return cache.size();
+    }
+
+    /**
+     * Removes the entries that are not used and have expired or have been
+     * aborted, must be called while holding the lock of the cache. The
+     * connections of the removed entries are closed after the lock is
+     * released, since closing a connection might block on the network.
+     *
+     * @return the removed entries
+     */
+    private List<Entry> removeExpired() {
+        List<Entry> expired = new ArrayList<>();
+        long now = ticker.read();
+        Iterator<Entry> entries = cache.values().iterator();
+        while (entries.hasNext()) {
+            Entry entry = entries.next();
+            if (entry.references == 0 && (now - entry.lastReleased >= expirationNanos || isAborted(entry))) {
+                entries.remove();
+                expired.add(entry);
+            }
+        }
+        return expired;
+    }
+
+    private boolean isAborted(Entry entry) {
+        // the connection of an entry is null while it is being created
+        Connection connection = entry.connection;
+        return connection != null && (connection.isAborted() || connection.isClosed());
+    }
+
+    private void close(List<Entry> entries) {
+        for (Entry entry : entries) {
+            if (entry.connection == null) {
+                continue;
+            }
+            LOG.debug("Closing HBase connection {}", entry.connection);
+            try {
+                entry.connection.close();
+            } catch (Throwable t) {
+                LOG.warn("Error closing HBase connection, ignored.", t);
+            }
+        }
+    }
+
+    /**
+     * The identity of a connection. Connections are not shared across
+     * servers, configuration directories, versions of the server
+     * configuration (the configuration is reloaded when its files change),
+     * users (the connection keeps the identity it was created with) or
+     * additional configuration properties.
+     */
+    @Data
+    public static class Key {
+        private final String serverName;
+        private final String configDirectory;
+        private final long configurationVersion;
+        private final UserGroupInformation user;
+        private final Map<String, String> additionalProperties;
+    }
+
+    /**
+     * Creates a new connection with the configuration
+     */
+    @FunctionalInterface
+    interface ConnectionCreator {
+        Connection create(Configuration configuration) throws IOException;
+    }
+
+    private class Entry {
+        // set once by the first request, read by the others while holding the lock of the cache
+        private volatile Connection connection;
+        private int references;
+        private long lastReleased;
+
+        /**
+         * Returns the connection of the entry, creating it if it has not been
+         * created yet. Requests for the same key wait for the first one to
+         * create the connection, and try to create it again if it failed.
+         */
+        synchronized Connection getConnection(Key key, Configuration configuration) throws IOException {
+            if (connection == null) {
+                LOG.debug("Creating HBase connection for server {} and user {}", key.getServerName(), key.getUser());
+                connection = connectionCreator.create(configuration);
+            }
+            return connection;
+        }
+    }
+}
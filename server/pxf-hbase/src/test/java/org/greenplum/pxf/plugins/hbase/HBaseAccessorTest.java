@@ -25,17 +25,22 @@ import org.apache.hadoop.hbase.HBaseConfiguration;
 import org.apache.hadoop.hbase.TableName;
 import org.apache.hadoop.hbase.client.Connection;
 import org.apache.hadoop.hbase.client.ConnectionFactory;
+import org.apache.hadoop.hbase.client.ResultScanner;
 import org.apache.hadoop.hbase.client.Scan;
 import org.apache.hadoop.hbase.client.Table;
 import org.greenplum.pxf.api.model.RequestContext;
+import org.greenplum.pxf.plugins.hbase.utilities.HBaseConnectionCache;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 
 import java.util.HashMap;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
@@ -79,11 +84,48 @@ public class HBaseAccessorTest {
     @Test
     public void construction() {
         prepareConstruction();
-        HBaseAccessor accessor = new HBaseAccessor();
+        HBaseAccessor accessor = new HBaseAccessor(mock(HBaseConnectionCache.class));
         accessor.setRequestContext(context);
         accessor.afterPropertiesSet();
     }
 
+    /*
+     * Test the connection is acquired from the cache and released to it,
+     * and the scan options are set on the Scan of the region
+     */
+    @Test
+    public void openForReadUsesCachedConnectionAndScanOptions() throws Exception {
+        prepareConstruction();
+        context.setDataSource(tableName);
+        context.addOption("SCAN_CACHING", "500");
+        context.addOption("SCAN_MAX_RESULT_SIZE", "8388608");
+
+        HBaseConnectionCache connectionCache = mock(HBaseConnectionCache.class);
+        hbaseConnection = mock(Connection.class);
+        table = mock(Table.class);
+        when(connectionCache.acquire(any(HBaseConnectionCache.Key.class), any())).thenReturn(hbaseConnection);
+        when(hbaseConnection.getTable(TableName.valueOf(tableName))).thenReturn(table);
+        when(table.getScanner(any(Scan.class))).thenReturn(mock(ResultScanner.class));
+
+        HBaseAccessor accessor = new HBaseAccessor(connectionCache);
+        accessor.setRequestContext(context);
+        accessor.afterPropertiesSet();
+        assertTrue(accessor.openForRead());
+
+        ArgumentCaptor<Scan> scanCaptor = ArgumentCaptor.forClass(Scan.class);
+        verify(table).getScanner(scanCaptor.capture());
+        Scan scan = scanCaptor.getValue();
+        assertEquals(500, scan.getCaching());
+        assertEquals(8388608L, scan.getMaxResultSize());
+        assertFalse(scan.getCacheBlocks());
+        assertEquals(1, scan.getMaxVersions());
+
+        accessor.closeForRead();
+        verify(table).close();
+        verify(connectionCache).release(hbaseConnection);
+        verify(hbaseConnection, never()).close();
+    }
+
     /*
      * Test Open returns false when table has no regions
      *
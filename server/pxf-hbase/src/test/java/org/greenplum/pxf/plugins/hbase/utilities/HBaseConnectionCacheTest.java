@@ -0,0 +1,209 @@
+package org.greenplum.pxf.plugins.hbase.utilities;
+
+import com.google.common.base.Ticker;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.hbase.client.Connection;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class HBaseConnectionCacheTest {
+
+    @Mock
+    private HBaseConnectionCache.ConnectionCreator mockConnectionCreator;
+
+    private final Configuration configuration = new Configuration();
+    private FakeTicker ticker;
+    private HBaseConnectionCache cache;
+
+    @BeforeEach
+    public void setup() {
+        ticker = new FakeTicker();
+        cache = new HBaseConnectionCache(mockConnectionCreator, Duration.ofMinutes(5), ticker);
+    }
+
+    @Test
+    public void testConnectionIsSharedByConcurrentAndConsecutiveRequests() throws Exception {
+        Connection connection = mock(Connection.class);
+        when(mockConnectionCreator.create(configuration)).thenReturn(connection);
+
+        Connection first = cache.acquire(key("server"), configuration);
+        Connection second = cache.acquire(key("server"), configuration);
+        cache.release(first);
+        cache.release(second);
+        ticker.advance(4, TimeUnit.MINUTES);
+        Connection third = cache.acquire(key("server"), configuration);
+
+        assertSame(connection, first);
+        assertSame(connection, second);
+        assertSame(connection, third);
+        verify(mockConnectionCreator, times(1)).create(configuration);
+        verify(connection, never()).close();
+    }
+
+    @Test
+    public void testConnectionIsNotSharedAcrossServers() throws Exception {
+        when(mockConnectionCreator.create(configuration))
+                .thenReturn(mock(Connection.class), mock(Connection.class));
+
+        Connection connection = cache.acquire(key("server"), configuration);
+        Connection otherConnection = cache.acquire(key("other"), configuration);
+
+        assertNotSame(connection, otherConnection);
+        assertEquals(2, cache.size());
+    }
+
+    @Test
+    public void testConnectionInUseIsNotClosed() throws Exception {
+        Connection connection = mock(Connection.class);
+        when(mockConnectionCreator.create(configuration)).thenReturn(connection, mock(Connection.class));
+
+        Connection first = cache.acquire(key("server"), configuration);
+        ticker.advance(10, TimeUnit.MINUTES);
+        cache.acquire(key("other"), configuration);
+
+        verify(connection, never()).close();
+
+        cache.release(first);
+        ticker.advance(5, TimeUnit.MINUTES);
+        cache.acquire(key("other"), configuration);
+
+        verify(connection).close();
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void testConnectionIsClosedOnReleaseWithoutExpiration() throws Exception {
+        cache = new HBaseConnectionCache(mockConnectionCreator, Duration.ZERO, ticker);
+        Connection connection = mock(Connection.class);
+        when(mockConnectionCreator.create(configuration)).thenReturn(connection);
+
+        cache.release(cache.acquire(key("server"), configuration));
+
+        verify(connection).close();
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void testAbortedConnectionIsReplaced() throws Exception {
+        Connection aborted = mock(Connection.class);
+        Connection connection = mock(Connection.class);
+        when(mockConnectionCreator.create(configuration)).thenReturn(aborted, connection);
+
+        Connection first = cache.acquire(key("server"), configuration);
+        when(aborted.isAborted()).thenReturn(true);
+        Connection second = cache.acquire(key("server"), configuration);
+
+        assertSame(connection, second);
+        verify(aborted, never()).close();
+
+        cache.release(first);
+
+        verify(aborted).close();
+        verify(connection, never()).close();
+    }
+
+    @Test
+    public void testConnectionIsCreatedWithoutBlockingOtherKeys() throws Exception {
+        Configuration slowConfiguration = new Configuration();
+        Connection slowConnection = mock(Connection.class);
+        Connection connection = mock(Connection.class);
+        CountDownLatch creating = new CountDownLatch(1);
+        CountDownLatch created = new CountDownLatch(1);
+        when(mockConnectionCreator.create(slowConfiguration)).thenAnswer(invocation -> {
+            creating.countDown();
+            assertTrue(created.await(10, TimeUnit.SECONDS));
+            return slowConnection;
+        });
+        when(mockConnectionCreator.create(configuration)).thenReturn(connection);
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<Connection> slow = executor.submit(() -> cache.acquire(key("slow"), slowConfiguration));
+            assertTrue(creating.await(10, TimeUnit.SECONDS));
+            Future<Connection> waiting = executor.submit(() -> cache.acquire(key("slow"), slowConfiguration));
+
+            // another key is not blocked by the connection being created
+            assertSame(connection, cache.acquire(key("server"), configuration));
+            assertFalse(waiting.isDone());
+
+            created.countDown();
+            assertSame(slowConnection, slow.get(10, TimeUnit.SECONDS));
+            assertSame(slowConnection, waiting.get(10, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+        verify(mockConnectionCreator, times(1)).create(slowConfiguration);
+    }
+
+    @Test
+    public void testConnectionIsNotSharedAcrossConfigurationVersions() throws Exception {
+        Connection connection = mock(Connection.class);
+        Connection reloadedConnection = mock(Connection.class);
+        when(mockConnectionCreator.create(configuration)).thenReturn(connection, reloadedConnection);
+
+        assertSame(connection, cache.acquire(key("server", 1), configuration));
+        // the configuration of the server was reloaded
+        assertSame(reloadedConnection, cache.acquire(key("server", 2), configuration));
+        assertEquals(2, cache.size());
+    }
+
+    @Test
+    public void testConnectionIsCreatedAgainAfterFailure() throws Exception {
+        Connection connection = mock(Connection.class);
+        when(mockConnectionCreator.create(configuration))
+                .thenThrow(new IOException("ZooKeeper is not available"))
+                .thenReturn(connection);
+
+        assertThrows(IOException.class, () -> cache.acquire(key("server"), configuration));
+        assertEquals(0, cache.size());
+
+        assertSame(connection, cache.acquire(key("server"), configuration));
+        assertEquals(1, cache.size());
+    }
+
+    private HBaseConnectionCache.Key key(String serverName) {
+        return key(serverName, 1);
+    }
+
+    private HBaseConnectionCache.Key key(String serverName, long configurationVersion) {
+        return new HBaseConnectionCache.Key(serverName, "/etc/pxf/servers/" + serverName, configurationVersion, null, Collections.emptyMap());
+    }
+
+    private static class FakeTicker extends Ticker {
+        private long nanos;
+
+        @Override
+        public long read() {
+            return nanos;
+        }
+
+        void advance(long time, TimeUnit timeUnit) {
+            nanos += timeUnit.toNanos(time);
+        }
+    }
+}
@@ -2,6 +2,8 @@ package org.greenplum.pxf.plugins.hdfs;
 
 import lombok.Getter;
 import lombok.NoArgsConstructor;
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.Path;
 import org.apache.hadoop.mapred.FileSplit;
 import org.greenplum.pxf.api.utilities.FragmentMetadata;
 
@@ -14,12 +16,58 @@ public class HcfsFragmentMetadata implements FragmentMetadata {
     @Getter
     protected long length;
 
+    /**
+     * The length of the whole file when it was listed, -1 if unknown
+     */
+    @Getter
+    protected long fileLength = -1;
+
+    /**
+     * The modification time of the file when it was listed
+     */
+    @Getter
+    protected long fileModificationTime;
+
     public HcfsFragmentMetadata(FileSplit fsp) {
         this(fsp.getStart(), fsp.getLength());
     }
 
+    public HcfsFragmentMetadata(FileSplit fsp, FileStatus fileStatus) {
+        this(fsp.getStart(), fsp.getLength(), fileStatus);
+    }
+
     public HcfsFragmentMetadata(long start, long length) {
         this.start = start;
         this.length = length;
     }
+
+    public HcfsFragmentMetadata(long start, long length, FileStatus fileStatus) {
+        this(start, length);
+        if (fileStatus != null) {
+            this.fileLength = fileStatus.getLen();
+            this.fileModificationTime = fileStatus.getModificationTime();
+        }
+    }
+
+    /**
+     * Returns the status of the file as it was listed by the fragmenter, so
+     * that the accessors don't need to get the status of the file again.
+     *
+     * @param file the path to the file of the fragment
+     * @return the status of the file, or null if it is unknown
+     */
+    public FileStatus getFileStatus(Path file) {
+        if (fileLength < 0) {
+            return null;
+        }
+        return new FileStatus(fileLength, false, 0, 0, fileModificationTime, file);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getEstimatedSize() {
+        return length;
+    }
 }
@@ -20,20 +20,35 @@ package org.greenplum.pxf.plugins.hdfs;
  */
 
 
+import org.apache.commons.codec.binary.Hex;
+import org.apache.commons.codec.digest.DigestUtils;
 import org.apache.commons.lang.StringUtils;
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.Path;
 import org.apache.hadoop.mapred.FileSplit;
 import org.apache.hadoop.mapred.InputSplit;
 import org.apache.hadoop.mapred.InvalidInputException;
 import org.apache.hadoop.mapred.JobConf;
+import org.apache.hadoop.mapreduce.lib.input.FileInputFormat;
 import org.greenplum.pxf.api.model.BaseFragmenter;
 import org.greenplum.pxf.api.model.Fragment;
 import org.greenplum.pxf.api.model.FragmentStats;
+import org.greenplum.pxf.api.utilities.CombinedFragmentMetadata;
+import org.greenplum.pxf.api.utilities.SamplingUtils;
 import org.greenplum.pxf.plugins.hdfs.utilities.PxfInputFormat;
 
+import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.regex.Pattern;
 
 /**
  * Fragmenter class for HDFS data resources.
@@ -46,7 +61,24 @@ public class HdfsDataFragmenter extends BaseFragmenter {
 
     protected static final String IGNORE_MISSING_PATH_OPTION = "IGNORE_MISSING_PATH";
 
+    /**
+     * The size in bytes of the blocks sampled from splittable files for
+     * ANALYZE, 0 to sample whole splits
+     */
+    public static final String STATS_SAMPLE_BLOCK_SIZE_OPTION = "STATS_SAMPLE_BLOCK_SIZE";
+
+    static final long DEFAULT_STATS_SAMPLE_BLOCK_SIZE = 16L * 1024 * 1024;
+
+    /**
+     * The target size in bytes of the fragments that the fragments of small
+     * files are combined into, 0 to not combine fragments
+     */
+    public static final String COMBINE_FILES_SIZE_OPTION = "COMBINE_FILES_SIZE";
+
+    private static final Pattern GLOB_CHARACTERS = Pattern.compile("[*?\\[{]");
+
     private JobConf jobConf;
+    private final Map<Path, FileStatus> fileStatuses = new HashMap<>();
     protected HcfsType hcfsType;
 
     @Override
@@ -62,35 +94,172 @@ public class HdfsDataFragmenter extends BaseFragmenter {
      */
     @Override
     public List<Fragment> getFragments() throws Exception {
-        Path path = new Path(hcfsType.getDataUri(context));
-        List<InputSplit> splits;
-        try {
-            splits = getSplits(path);
-        } catch (InvalidInputException e) {
-            if (StringUtils.equalsIgnoreCase("true", context.getOption(IGNORE_MISSING_PATH_OPTION))) {
-                LOG.debug("Ignoring InvalidInputException", e);
-                return fragments;
-            }
-            throw e;
-        }
+        List<InputSplit> splits = getDataSourceSplits();
 
         LOG.debug("Total number of fragments = {}", splits.size());
         for (InputSplit split : splits) {
-            FileSplit fsp = (FileSplit) split;
-            String filepath = fsp.getPath().toString();
+            addFragments((FileSplit) split);
+        }
+
+        fragments = combineFragments(fragments);
+        return fragments;
+    }
+
+    /**
+     * Gets a random sample of the data source for ANALYZE. The splits of
+     * splittable files are divided into blocks of
+     * {@code STATS_SAMPLE_BLOCK_SIZE} bytes, the splits of other files are a
+     * single block, and the given ratio of all the blocks is picked at
+     * random. Every sampled block becomes a split of its own, and the
+     * readers of splittable files read the records that start in a split,
+     * so only the sampled blocks are read.
+     */
+    @Override
+    public List<Fragment> getSampleFragments(float sampleRatio, Random random) throws Exception {
+        List<InputSplit> splits = getDataSourceSplits();
+        long blockSize = context.getOption(STATS_SAMPLE_BLOCK_SIZE_OPTION, DEFAULT_STATS_SAMPLE_BLOCK_SIZE, true);
 
-            /*
-             * metadata information includes: file split's start, length and
-             * hosts (locations).
-             */
+        PxfInputFormat pxfInputFormat = new PxfInputFormat();
+        long[] blockCounts = new long[splits.size()];
+        long totalBlocks = 0;
+        Path currentFile = null;
+        boolean splittable = false;
+        for (int i = 0; i < splits.size(); i++) {
+            FileSplit split = (FileSplit) splits.get(i);
+            // the splits of a file are consecutive, check the codec only once
+            if (!split.getPath().equals(currentFile)) {
+                currentFile = split.getPath();
+                splittable = blockSize > 0 && pxfInputFormat.isSplitable(currentFile.getFileSystem(configuration), currentFile);
+            }
+            blockCounts[i] = splittable ? (split.getLength() + blockSize - 1) / blockSize : 1;
+            totalBlocks += blockCounts[i];
+        }
 
-            Fragment fragment = new Fragment(filepath, new HcfsFragmentMetadata(fsp));
-            fragments.add(fragment);
+        long[] sample = SamplingUtils.sample(totalBlocks, SamplingUtils.getSampleSize(totalBlocks, sampleRatio), random);
+        int next = 0;
+        long firstBlock = 0;
+        for (int i = 0; i < splits.size() && next < sample.length; i++) {
+            FileSplit split = (FileSplit) splits.get(i);
+            for (; next < sample.length && sample[next] < firstBlock + blockCounts[i]; next++) {
+                if (blockCounts[i] == 1) {
+                    addFragments(split);
+                } else {
+                    long start = split.getStart() + (sample[next] - firstBlock) * blockSize;
+                    long length = Math.min(blockSize, split.getStart() + split.getLength() - start);
+                    addFragments(new FileSplit(split.getPath(), start, length, split.getLocations()));
+                }
+            }
+            firstBlock += blockCounts[i];
         }
+        LOG.debug("Sampled {} of {} blocks of up to {} bytes from {} splits", sample.length, totalBlocks, blockSize, splits.size());
 
         return fragments;
     }
 
+    /**
+     * Adds the fragments for the given file split. By default, every split
+     * becomes a fragment.
+     *
+     * @param fsp the file split
+     * @throws IOException when the file cannot be read
+     */
+    protected void addFragments(FileSplit fsp) throws IOException {
+        String filepath = fsp.getPath().toString();
+
+        /*
+         * metadata information includes: file split's start, length and
+         * hosts (locations).
+         */
+
+        Fragment fragment = new Fragment(filepath, new HcfsFragmentMetadata(fsp, getFileStatus(fsp.getPath())));
+        fragments.add(fragment);
+    }
+
+    /**
+     * Combines the consecutive fragments that are smaller than
+     * {@code COMBINE_FILES_SIZE} bytes into fragments of up to
+     * {@code COMBINE_FILES_SIZE} bytes, so that a directory of many small
+     * files is read as a few fragments. Fragments of an unknown size, and
+     * fragments that are not smaller than the target size, are kept as is.
+     *
+     * @param fragments the fragments of the data source
+     * @return the combined fragments
+     */
+    protected List<Fragment> combineFragments(List<Fragment> fragments) {
+        long targetSize = context.getOption(COMBINE_FILES_SIZE_OPTION, 0L, true);
+        if (targetSize == 0 || fragments.size() < 2) {
+            return fragments;
+        }
+
+        List<Fragment> result = new ArrayList<>();
+        List<Fragment> combined = new ArrayList<>();
+        long combinedSize = 0;
+        for (Fragment fragment : fragments) {
+            long size = fragment.getMetadata() == null ? -1 : fragment.getMetadata().getEstimatedSize();
+            if (size < 0 || size >= targetSize) {
+                result.add(fragment);
+                continue;
+            }
+            if (combinedSize + size > targetSize) {
+                addCombinedFragment(result, combined);
+                combined = new ArrayList<>();
+                combinedSize = 0;
+            }
+            combined.add(fragment);
+            combinedSize += size;
+        }
+        addCombinedFragment(result, combined);
+        LOG.debug("Combined {} fragments into {} fragments of up to {} bytes", fragments.size(), result.size(), targetSize);
+
+        return result;
+    }
+
+    /**
+     * Returns the version of the data source: the length and the modification
+     * time of a file, or a digest of the names, lengths and modification
+     * times of the files of a directory, so that adding, removing or
+     * appending to a file of the directory changes the version. The version
+     * is unknown for wildcard patterns, recursive listings and missing paths.
+     *
+     * @return the version of the data source, or null if unknown
+     * @throws IOException when the status of the data source cannot be read
+     */
+    @Override
+    public String getFragmentsVersion() throws IOException {
+        Path path = new Path(hcfsType.getDataUri(context));
+        if (GLOB_CHARACTERS.matcher(path.toString()).find()) {
+            return null;
+        }
+
+        FileSystem fs = path.getFileSystem(configuration);
+        FileStatus status;
+        try {
+            status = fs.getFileStatus(path);
+        } catch (FileNotFoundException e) {
+            return null;
+        }
+        if (!status.isDirectory()) {
+            return String.format("%d:%d", status.getLen(), status.getModificationTime());
+        }
+        if (configuration.getBoolean(FileInputFormat.INPUT_DIR_RECURSIVE, false)) {
+            return null;
+        }
+
+        FileStatus[] children;
+        try {
+            children = fs.listStatus(path);
+        } catch (FileNotFoundException e) {
+            return null;
+        }
+        // the directory itself has no modification time in most object stores
+        MessageDigest digest = DigestUtils.getSha256Digest();
+        for (FileStatus child : children) {
+            digest.update(String.format("%s:%d:%d\n", child.getPath().getName(), child.getLen(), child.getModificationTime())
+                    .getBytes(StandardCharsets.UTF_8));
+        }
+        return String.format("%d:%s", children.length, Hex.encodeHexString(digest.digest()));
+    }
+
     @Override
     public FragmentStats getFragmentStats() throws Exception {
         String absoluteDataPath = hcfsType.getDataUri(context);
@@ -107,11 +276,53 @@ public class HdfsDataFragmenter extends BaseFragmenter {
         return new FragmentStats(splits.size(), firstSplit.getLength(), totalSize);
     }
 
+    /**
+     * Returns the non-empty splits of the data source, or no splits if the
+     * data source does not exist and the {@code IGNORE_MISSING_PATH} option
+     * is set.
+     *
+     * @return the splits of the data source
+     * @throws IOException when the data source cannot be listed
+     */
+    protected List<InputSplit> getDataSourceSplits() throws IOException {
+        Path path = new Path(hcfsType.getDataUri(context));
+        try {
+            return getSplits(path);
+        } catch (InvalidInputException e) {
+            if (StringUtils.equalsIgnoreCase("true", context.getOption(IGNORE_MISSING_PATH_OPTION))) {
+                LOG.debug("Ignoring InvalidInputException", e);
+                return Collections.emptyList();
+            }
+            throw e;
+        }
+    }
+
+    private void addCombinedFragment(List<Fragment> result, List<Fragment> combined) {
+        if (combined.size() == 1) {
+            result.add(combined.get(0));
+        } else if (!combined.isEmpty()) {
+            // the source name of the first fragment identifies the combined fragment in the logs
+            result.add(new Fragment(combined.get(0).getSourceName(), new CombinedFragmentMetadata(combined)));
+        }
+    }
+
+    /**
+     * Returns the status of a file of the splits, as it was listed to get
+     * the splits
+     *
+     * @param file the path of a split
+     * @return the status of the file, or null if the file was not listed
+     */
+    protected FileStatus getFileStatus(Path file) {
+        return fileStatuses.get(file);
+    }
+
     protected List<InputSplit> getSplits(Path path) throws IOException {
         JobConf jobConf = getJobConf();
         PxfInputFormat pxfInputFormat = new PxfInputFormat();
         PxfInputFormat.setInputPaths(jobConf, path);
         InputSplit[] splits = pxfInputFormat.getSplits(jobConf, 1);
+        fileStatuses.putAll(pxfInputFormat.getFileStatuses());
         List<InputSplit> result = new ArrayList<>();
 
         /*
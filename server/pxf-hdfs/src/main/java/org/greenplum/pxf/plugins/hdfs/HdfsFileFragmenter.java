@@ -6,10 +6,13 @@ import org.apache.hadoop.fs.Path;
 import org.apache.hadoop.mapred.InvalidInputException;
 import org.apache.hadoop.mapred.JobConf;
 import org.greenplum.pxf.api.model.Fragment;
+import org.greenplum.pxf.api.utilities.SamplingUtils;
 import org.greenplum.pxf.plugins.hdfs.utilities.PxfInputFormat;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Random;
 import java.util.stream.Collectors;
 
 /**
@@ -27,6 +30,17 @@ public class HdfsFileFragmenter extends HdfsDataFragmenter {
      */
     @Override
     public List<Fragment> getFragments() throws Exception {
+        fragments = combineFragments(getFileFragments());
+        return fragments;
+    }
+
+    /**
+     * Gets a fragment for every file of the data source.
+     *
+     * @return the fragments of the files
+     * @throws Exception when the files cannot be listed
+     */
+    protected List<Fragment> getFileFragments() throws Exception {
         JobConf jobConf = getJobConf();
         String fileName = hcfsType.getDataUri(context);
         Path path = new Path(fileName);
@@ -41,16 +55,25 @@ public class HdfsFileFragmenter extends HdfsDataFragmenter {
         } catch (InvalidInputException e) {
             if (StringUtils.equalsIgnoreCase("true", context.getOption(IGNORE_MISSING_PATH_OPTION))) {
                 LOG.debug("Ignoring InvalidInputException", e);
-                return fragments;
+                return new ArrayList<>();
             }
             throw e;
         }
 
-        fragments = Arrays.stream(fileStatusArray)
-                .map(fileStatus -> new Fragment(fileStatus.getPath().toUri().toString(), new HcfsFragmentMetadata(0, fileStatus.getLen())))
+        List<Fragment> files = Arrays.stream(fileStatusArray)
+                .map(fileStatus -> new Fragment(fileStatus.getPath().toUri().toString(), new HcfsFragmentMetadata(0, fileStatus.getLen(), fileStatus)))
                 .collect(Collectors.toList());
-        LOG.debug("Total number of fragments = {}", fragments.size());
+        LOG.debug("Total number of fragments = {}", files.size());
 
-        return fragments;
+        return files;
+    }
+
+    /**
+     * Gets a random sample of the files for ANALYZE. Files are read whole,
+     * so the given ratio of the files is picked.
+     */
+    @Override
+    public List<Fragment> getSampleFragments(float sampleRatio, Random random) throws Exception {
+        return SamplingUtils.sampleFragments(getFragments(), sampleRatio, random);
     }
 }
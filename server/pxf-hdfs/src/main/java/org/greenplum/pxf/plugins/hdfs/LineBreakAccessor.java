@@ -80,7 +80,7 @@ public class LineBreakAccessor extends HdfsSplittableDataAccessor {
         if (inputFormat != null) {
             ((TextInputFormat) inputFormat).configure(jobConf);
         }
-        skipHeaderCount = context.getFragmentIndex() == 0
+        skipHeaderCount = HdfsUtilities.isFirstSplitOfFile(context)
                 ? context.getOption("SKIP_HEADER_COUNT", 0, true)
                 : 0;
     }
@@ -21,26 +21,23 @@ package org.greenplum.pxf.plugins.hdfs;
 
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang.StringUtils;
+import org.apache.hadoop.fs.FileStatus;
 import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.Path;
 import org.apache.hadoop.hive.common.type.HiveDecimal;
 import org.apache.hadoop.mapred.FileSplit;
 import org.apache.hadoop.mapreduce.RecordWriter;
-import org.apache.parquet.HadoopReadOptions;
-import org.apache.parquet.ParquetReadOptions;
 import org.apache.parquet.column.ParquetProperties.WriterVersion;
 import org.apache.parquet.example.data.Group;
 import org.apache.parquet.filter2.compat.FilterCompat;
-import org.apache.parquet.format.converter.ParquetMetadataConverter;
-import org.apache.parquet.hadoop.ParquetFileReader;
 import org.apache.parquet.hadoop.ParquetFileWriter;
 import org.apache.parquet.hadoop.ParquetOutputFormat;
 import org.apache.parquet.hadoop.ParquetReader;
 import org.apache.parquet.hadoop.example.GroupReadSupport;
 import org.apache.parquet.hadoop.example.GroupWriteSupport;
+import org.apache.parquet.hadoop.metadata.BlockMetaData;
 import org.apache.parquet.hadoop.metadata.CompressionCodecName;
-import org.apache.parquet.hadoop.metadata.FileMetaData;
-import org.apache.parquet.hadoop.util.HadoopInputFile;
+import org.apache.parquet.hadoop.metadata.ParquetMetadata;
 import org.apache.parquet.schema.GroupType;
 import org.apache.parquet.schema.LogicalTypeAnnotation;
 import org.apache.parquet.schema.MessageType;
@@ -60,10 +57,12 @@ import org.greenplum.pxf.api.io.DataType;
 import org.greenplum.pxf.api.model.Accessor;
 import org.greenplum.pxf.api.model.BasePlugin;
 import org.greenplum.pxf.api.utilities.ColumnDescriptor;
+import org.greenplum.pxf.api.utilities.SpringContext;
 import org.greenplum.pxf.plugins.hdfs.filter.BPCharOperatorTransformer;
 import org.greenplum.pxf.plugins.hdfs.parquet.ParquetOperatorPruner;
 import org.greenplum.pxf.plugins.hdfs.parquet.ParquetRecordFilterBuilder;
 import org.greenplum.pxf.plugins.hdfs.parquet.ParquetUtilities;
+import org.greenplum.pxf.plugins.hdfs.utilities.FooterCache;
 import org.greenplum.pxf.plugins.hdfs.utilities.HdfsUtilities;
 
 import java.io.IOException;
@@ -140,6 +139,18 @@ public class ParquetFileAccessor extends BasePlugin implements Accessor {
     private long rowsRead, totalRowsRead, totalRowsWritten;
     private WriterVersion parquetVersion;
     private long totalReadTimeInNanos;
+    private final FooterCache footerCache;
+
+    /**
+     * Constructs a new instance of the ParquetFileAccessor
+     */
+    public ParquetFileAccessor() {
+        this(SpringContext.getBean(FooterCache.class));
+    }
+
+    public ParquetFileAccessor(FooterCache footerCache) {
+        this.footerCache = footerCache;
+    }
 
     /**
      * Opens the resource for read.
@@ -152,7 +163,7 @@ public class ParquetFileAccessor extends BasePlugin implements Accessor {
         FileSplit fileSplit = HdfsUtilities.parseFileSplit(context.getDataSource(), context.getFragmentMetadata());
 
         // Read the original schema from the parquet file
-        MessageType originalSchema = getSchema(file, fileSplit);
+        MessageType originalSchema = getSchema(file);
         // Get a map of the column name to Types for the given schema
         Map<String, Type> originalFieldsMap = getOriginalFieldsMap(originalSchema);
         // Get the read schema. This is either the full set or a subset (in
@@ -301,27 +312,13 @@ public class ParquetFileAccessor extends BasePlugin implements Accessor {
      * @param originalFieldsMap a map of field names to types
      * @return the parquet record filter for the given filter string
      */
-    private FilterCompat.Filter getRecordFilter(String filterString, Map<String, Type> originalFieldsMap) {
+    protected FilterCompat.Filter getRecordFilter(String filterString, Map<String, Type> originalFieldsMap) {
         if (StringUtils.isBlank(filterString)) {
             return FilterCompat.NOOP;
         }
 
-        List<ColumnDescriptor> tupleDescription = context.getTupleDescription();
-        ParquetRecordFilterBuilder filterBuilder = new ParquetRecordFilterBuilder(
-                tupleDescription, originalFieldsMap);
-        TreeVisitor pruner = new ParquetOperatorPruner(
-                tupleDescription, originalFieldsMap, SUPPORTED_OPERATORS);
-        TreeVisitor bpCharTransformer = new BPCharOperatorTransformer(tupleDescription);
-
         try {
-            // Parse the filter string into a expression tree Node
-            Node root = new FilterParser().parse(filterString);
-            // Transform IN operators into a chain of ORs, then
-            // prune the parsed tree with valid supported operators and then
-            // traverse the pruned tree with the ParquetRecordFilterBuilder to
-            // produce a record filter for parquet
-            TRAVERSER.traverse(root, IN_OPERATOR_TRANSFORMER, pruner, bpCharTransformer, filterBuilder);
-            return filterBuilder.getRecordFilter();
+            return buildRecordFilter(filterString, context.getTupleDescription(), originalFieldsMap);
         } catch (Exception e) {
             LOG.error("{}-{}: {}--{} Unable to generate Parquet Record Filter for filter",
                     context.getTransactionId(),
@@ -332,40 +329,69 @@ public class ParquetFileAccessor extends BasePlugin implements Accessor {
         }
     }
 
+    /**
+     * Builds the parquet record filter for the given filter string
+     *
+     * @param filterString      the filter string
+     * @param tupleDescription  the list of column descriptors
+     * @param originalFieldsMap a map of field names to types
+     * @return the parquet record filter for the given filter string
+     * @throws Exception when the filter string cannot be parsed
+     */
+    public static FilterCompat.Filter buildRecordFilter(String filterString, List<ColumnDescriptor> tupleDescription,
+                                                        Map<String, Type> originalFieldsMap) throws Exception {
+        ParquetRecordFilterBuilder filterBuilder = new ParquetRecordFilterBuilder(
+                tupleDescription, originalFieldsMap);
+        TreeVisitor pruner = new ParquetOperatorPruner(
+                tupleDescription, originalFieldsMap, SUPPORTED_OPERATORS);
+        TreeVisitor bpCharTransformer = new BPCharOperatorTransformer(tupleDescription);
+
+        // Parse the filter string into a expression tree Node
+        Node root = new FilterParser().parse(filterString);
+        // Transform IN operators into a chain of ORs, then
+        // prune the parsed tree with valid supported operators and then
+        // traverse the pruned tree with the ParquetRecordFilterBuilder to
+        // produce a record filter for parquet
+        TRAVERSER.traverse(root, IN_OPERATOR_TRANSFORMER, pruner, bpCharTransformer, filterBuilder);
+        return filterBuilder.getRecordFilter();
+    }
+
     /**
      * Reads the original schema from the parquet file.
      *
      * @param parquetFile the path to the parquet file
-     * @param fileSplit   the file split we are accessing
      * @return the original schema from the parquet file
      * @throws IOException when there's an IOException while reading the schema
      */
-    private MessageType getSchema(Path parquetFile, FileSplit fileSplit) throws IOException {
+    protected MessageType getSchema(Path parquetFile) throws IOException {
 
         final long then = System.nanoTime();
-        ParquetMetadataConverter.MetadataFilter filter = ParquetMetadataConverter.range(
-                fileSplit.getStart(), fileSplit.getStart() + fileSplit.getLength());
-        ParquetReadOptions parquetReadOptions = HadoopReadOptions
-                .builder(configuration)
-                .withMetadataFilter(filter)
-                .build();
-        HadoopInputFile inputFile = HadoopInputFile.fromPath(parquetFile, configuration);
-        try (ParquetFileReader parquetFileReader =
-                     ParquetFileReader.open(inputFile, parquetReadOptions)) {
-            FileMetaData metadata = parquetFileReader.getFileMetaData();
-            if (LOG.isDebugEnabled()) {
-                LOG.debug("{}-{}: Reading file {} with {} records in {} RowGroups",
-                        context.getTransactionId(), context.getSegmentId(),
-                        parquetFile.getName(), parquetFileReader.getRecordCount(),
-                        parquetFileReader.getRowGroups().size());
-            }
-            final long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - then);
-            LOG.debug("{}-{}: Read schema in {} ms", context.getTransactionId(),
-                    context.getSegmentId(), millis);
-            return metadata.getSchema();
-        } catch (Exception e) {
-            throw new IOException(e);
+        ParquetMetadata footer = getFooter(parquetFile);
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("{}-{}: Reading file {} with {} records in {} RowGroups",
+                    context.getTransactionId(), context.getSegmentId(),
+                    parquetFile.getName(), footer.getBlocks().stream().mapToLong(BlockMetaData::getRowCount).sum(),
+                    footer.getBlocks().size());
         }
+        final long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - then);
+        LOG.debug("{}-{}: Read schema in {} ms", context.getTransactionId(),
+                context.getSegmentId(), millis);
+        return footer.getFileMetaData().getSchema();
+    }
+
+    /**
+     * Returns the footer of the parquet file from the footer cache, the
+     * footer is read from the file when it is not cached.
+     *
+     * @param parquetFile the path to the parquet file
+     * @return the footer of the parquet file, with all the row groups
+     * @throws IOException when there's an IOException while reading the footer
+     */
+    protected ParquetMetadata getFooter(Path parquetFile) throws IOException {
+        // the status of the file listed by the fragmenter spares a request to the file system
+        HcfsFragmentMetadata metadata = context.getFragmentMetadata();
+        FileStatus fileStatus = metadata == null ? null : metadata.getFileStatus(parquetFile);
+        return footerCache.getParquetFooter(parquetFile, fileStatus, configuration);
     }
 
     /**
@@ -375,7 +401,7 @@ public class ParquetFileAccessor extends BasePlugin implements Accessor {
      * @param originalSchema the original schema of the parquet file
      * @return a map of field names to types
      */
-    private Map<String, Type> getOriginalFieldsMap(MessageType originalSchema) {
+    public static Map<String, Type> getOriginalFieldsMap(MessageType originalSchema) {
         Map<String, Type> originalFields = new HashMap<>(originalSchema.getFieldCount() * 2);
 
         // We need to add the original name and lower cased name to
@@ -398,7 +424,7 @@ public class ParquetFileAccessor extends BasePlugin implements Accessor {
      * @param originalFields a map of field names to types
      * @param originalSchema the original read schema
      */
-    private MessageType buildReadSchema(Map<String, Type> originalFields, MessageType originalSchema) {
+    protected MessageType buildReadSchema(Map<String, Type> originalFields, MessageType originalSchema) {
         List<Type> projectedFields = context.getTupleDescription().stream()
                 .filter(ColumnDescriptor::isProjected)
                 .map(c -> {
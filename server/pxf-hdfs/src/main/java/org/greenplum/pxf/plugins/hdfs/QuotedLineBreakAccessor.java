@@ -22,6 +22,7 @@ package org.greenplum.pxf.plugins.hdfs;
 
 import org.apache.commons.lang.StringUtils;
 import org.greenplum.pxf.api.OneRow;
+import org.greenplum.pxf.plugins.hdfs.utilities.HdfsUtilities;
 
 import java.io.BufferedReader;
 import java.io.IOException;
@@ -56,7 +57,7 @@ public class QuotedLineBreakAccessor extends HdfsAtomicDataAccessor {
                             "the table definition. %d columns were provided",
                     context.getTupleDescription().size()));
         }
-        skipHeaderCount = context.getFragmentIndex() == 0
+        skipHeaderCount = HdfsUtilities.isFirstSplitOfFile(context)
                 ? context.getOption("SKIP_HEADER_COUNT", 0, true)
                 : 0;
     }
@@ -15,6 +15,7 @@ import org.apache.orc.Reader;
 import org.apache.orc.RecordReader;
 import org.apache.orc.TypeDescription;
 import org.apache.orc.Writer;
+import org.apache.orc.impl.OrcTail;
 import org.greenplum.pxf.api.OneRow;
 import org.greenplum.pxf.api.error.PxfRuntimeException;
 import org.greenplum.pxf.api.filter.FilterParser;
@@ -26,10 +27,13 @@ import org.greenplum.pxf.api.filter.TreeVisitor;
 import org.greenplum.pxf.api.model.Accessor;
 import org.greenplum.pxf.api.model.BasePlugin;
 import org.greenplum.pxf.api.utilities.ColumnDescriptor;
+import org.greenplum.pxf.api.utilities.SpringContext;
 import org.greenplum.pxf.api.utilities.Utilities;
+import org.greenplum.pxf.plugins.hdfs.HcfsFragmentMetadata;
 import org.greenplum.pxf.plugins.hdfs.HcfsType;
 import org.greenplum.pxf.plugins.hdfs.filter.BPCharOperatorTransformer;
 import org.greenplum.pxf.plugins.hdfs.filter.SearchArgumentBuilder;
+import org.greenplum.pxf.plugins.hdfs.utilities.FooterCache;
 import org.greenplum.pxf.plugins.hdfs.utilities.HdfsUtilities;
 
 import java.io.IOException;
@@ -93,6 +97,18 @@ public class ORCVectorizedAccessor extends BasePlugin implements Accessor {
         OrcFile.WriterOptions writerOptions;
     }
     private final WriterState writerState = new WriterState();
+    private final FooterCache footerCache;
+
+    /**
+     * Constructs a new instance of the ORCVectorizedAccessor
+     */
+    public ORCVectorizedAccessor() {
+        this(SpringContext.getBean(FooterCache.class));
+    }
+
+    public ORCVectorizedAccessor(FooterCache footerCache) {
+        this.footerCache = footerCache;
+    }
 
     @Override
     public void afterPropertiesSet() {
@@ -106,9 +122,14 @@ public class ORCVectorizedAccessor extends BasePlugin implements Accessor {
         Path file = new Path(context.getDataSource());
         FileSplit fileSplit = HdfsUtilities.parseFileSplit(context.getDataSource(), context.getFragmentMetadata());
 
+        // The tail of the file is shared by all the fragments of the file, the status
+        // of the file listed by the fragmenter spares a request to the file system
+        HcfsFragmentMetadata metadata = context.getFragmentMetadata();
+        OrcTail orcTail = footerCache.getOrcTail(file, metadata == null ? null : metadata.getFileStatus(file), configuration);
         fileReader = OrcFile.createReader(file, OrcFile
                 .readerOptions(configuration)
-                .filesystem(file.getFileSystem(configuration)));
+                .filesystem(file.getFileSystem(configuration))
+                .orcTail(orcTail));
 
         // The original schema from the file
         TypeDescription schema = fileReader.getSchema();
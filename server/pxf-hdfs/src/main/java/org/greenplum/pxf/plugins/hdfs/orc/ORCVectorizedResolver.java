@@ -1,13 +1,20 @@
 package org.greenplum.pxf.plugins.hdfs.orc;
 
+import org.apache.hadoop.hive.ql.exec.vector.BytesColumnVector;
 import org.apache.hadoop.hive.ql.exec.vector.ColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.DoubleColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.LongColumnVector;
 import org.apache.hadoop.hive.ql.exec.vector.VectorizedRowBatch;
 import org.apache.orc.OrcFile;
 import org.apache.orc.TypeDescription;
 import org.greenplum.pxf.api.OneField;
 import org.greenplum.pxf.api.OneRow;
+import org.greenplum.pxf.api.error.BadRecordException;
 import org.greenplum.pxf.api.function.PentaConsumer;
-import org.greenplum.pxf.api.model.ReadVectorizedResolver;
+import org.greenplum.pxf.api.io.GPDBWritableRecordEncoder;
+import org.greenplum.pxf.api.io.RecordEncoder;
+import org.greenplum.pxf.api.model.OutputFormat;
+import org.greenplum.pxf.api.model.ReadVectorizedBatchSerializer;
 import org.greenplum.pxf.api.error.PxfRuntimeException;
 import org.greenplum.pxf.api.error.UnsupportedTypeException;
 import org.greenplum.pxf.api.function.TriFunction;
@@ -100,7 +107,7 @@ import static org.greenplum.pxf.plugins.hdfs.orc.ORCVectorizedAccessor.MAP_BY_PO
  * | array<binary>     | BYTEA[]        | 1001          |
  * ------------------------------------------------------
  */
-public class ORCVectorizedResolver extends BasePlugin implements ReadVectorizedResolver, WriteVectorizedResolver, Resolver {
+public class ORCVectorizedResolver extends BasePlugin implements ReadVectorizedBatchSerializer, WriteVectorizedResolver, Resolver {
 
     private static final String UNSUPPORTED_ERR_MESSAGE = "Current operation is not supported";
     private static final String PXF_ORC_WRITE_DECIMAL_OVERFLOW_PROPERTY_NAME = "pxf.orc.write.decimal.overflow";
@@ -142,6 +149,30 @@ public class ORCVectorizedResolver extends BasePlugin implements ReadVectorizedR
      */
     private List<ColumnDescriptor> columnDescriptors;
 
+    /**
+     * Serializes a value of a column vector straight into a {@link RecordEncoder}
+     */
+    @FunctionalInterface
+    private interface ColumnSerializer {
+        void serialize(VectorizedRowBatch batch, int row, RecordEncoder encoder) throws BadRecordException;
+    }
+
+    /**
+     * An array of functions, one per Greenplum column, that serialize the
+     * values of a row for the batch serialization use case. Null until
+     * {@link #isBatchSerializationSupported()} determines the fragment can be
+     * serialized that way.
+     */
+    private ColumnSerializer[] columnSerializers;
+
+    /**
+     * For every Greenplum column, the index of the column vector that is
+     * resolved into OneFields before the batch is serialized, or -1 when the
+     * column is serialized straight from its column vector.
+     */
+    private int[] resolvedColumnIndexes;
+    private OneField[][] resolvedColumns;
+
     private List<List<OneField>> cachedBatch;
     private VectorizedRowBatch vectorizedRowBatch;
     private DecimalOverflowOption decimalOverflowOption;
@@ -218,6 +249,97 @@ public class ORCVectorizedResolver extends BasePlugin implements ReadVectorizedR
         return resolvedBatch;
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Batch serialization is supported unless a column is of a type that
+     * cannot be read, or, for the GPDBWritable output format, the type of a
+     * column in the ORC file does not match the type of the Greenplum column.
+     * In those cases, the resolved batch produces the error.
+     */
+    @Override
+    public boolean isBatchSerializationSupported() {
+        ensureReadFunctionsAreInitialized();
+        boolean checkSchemaTypes = context.getOutputFormat() == OutputFormat.GPDBWritable;
+        int size = columnDescriptors.size();
+        ColumnSerializer[] serializers = new ColumnSerializer[size];
+        resolvedColumnIndexes = new int[size];
+        resolvedColumns = new OneField[size][];
+
+        // index to the projected columns
+        int columnIndex = 0;
+        for (int i = 0; i < size; i++) {
+            ColumnDescriptor columnDescriptor = columnDescriptors.get(i);
+            resolvedColumnIndexes[i] = -1;
+            TypeDescription orcColumn = null;
+            if (columnDescriptor.isProjected()) {
+                orcColumn = positionalAccess
+                        ? columnIndex < orcSchema.getChildren().size() ? orcSchema.getChildren().get(columnIndex) : null
+                        : readFields.get(columnDescriptor.columnName());
+            }
+
+            if (orcColumn == null) {
+                // the column is not projected or missing in the ORC file
+                serializers[i] = (batch, row, encoder) -> encoder.writeNull();
+                continue;
+            }
+            if (!orcColumn.getCategory().isPrimitive() && orcColumn.getCategory() != TypeDescription.Category.LIST) {
+                return false;
+            }
+            if (checkSchemaTypes && !GPDBWritableRecordEncoder.isTypeInSchema(typeOidMappings[columnIndex], columnDescriptor.columnTypeCode())) {
+                return false;
+            }
+
+            serializers[i] = getColumnSerializer(orcColumn.getCategory(), columnIndex);
+            if (serializers[i] == null) {
+                // serialize the OneFields resolved with the read function
+                int tableColumn = i;
+                resolvedColumnIndexes[i] = columnIndex;
+                serializers[i] = (batch, row, encoder) -> encoder.writeField(resolvedColumns[tableColumn][row]);
+            }
+            columnIndex++;
+        }
+
+        columnSerializers = serializers;
+        return true;
+    }
+
+    /**
+     * Serializes the VectorizedRowBatch into the encoder. Values of primitive
+     * columns are read straight from the column vectors, other columns are
+     * resolved into an array of OneFields once per batch.
+     *
+     * @param batch   unresolved batch
+     * @param encoder the encoder for the requested output format
+     * @return the number of records written
+     * @throws BadRecordException if a value does not match the column type
+     */
+    @Override
+    public int serializeBatch(OneRow batch, RecordEncoder encoder) throws BadRecordException {
+        if (columnSerializers == null) {
+            throw new PxfRuntimeException("Batch serialization is not supported for the current fragment");
+        }
+        VectorizedRowBatch vectorizedBatch = (VectorizedRowBatch) batch.getData();
+        int batchSize = vectorizedBatch.size;
+
+        for (int i = 0; i < resolvedColumnIndexes.length; i++) {
+            int columnIndex = resolvedColumnIndexes[i];
+            if (columnIndex >= 0) {
+                resolvedColumns[i] = readFunctions[columnIndex]
+                        .apply(vectorizedBatch, vectorizedBatch.cols[columnIndex], typeOidMappings[columnIndex]);
+            }
+        }
+
+        for (int row = 0; row < batchSize; row++) {
+            encoder.beginRecord();
+            for (ColumnSerializer columnSerializer : columnSerializers) {
+                columnSerializer.serialize(vectorizedBatch, row, encoder);
+            }
+            encoder.endRecord();
+        }
+        return batchSize;
+    }
+
     @Override
     public int getBatchSize() {
         return VectorizedRowBatch.DEFAULT_SIZE;
@@ -408,6 +530,121 @@ public class ORCVectorizedResolver extends BasePlugin implements ReadVectorizedR
         }
     }
 
+    /**
+     * Returns a function that serializes the values of the column vector at
+     * the given index straight from the vector, or null if the values of the
+     * column need to be resolved into OneFields.
+     *
+     * @param category    the category of the ORC column
+     * @param columnIndex the index of the column vector in the batch
+     * @return the serializer for the column, or null
+     */
+    private ColumnSerializer getColumnSerializer(TypeDescription.Category category, int columnIndex) {
+        switch (category) {
+            case BOOLEAN:
+                return (batch, row, encoder) -> {
+                    LongColumnVector lcv = (LongColumnVector) batch.cols[columnIndex];
+                    int rowId = getRowId(lcv, row);
+                    if (rowId < 0) {
+                        encoder.writeNull();
+                    } else {
+                        encoder.writeBoolean(lcv.vector[rowId] == 1);
+                    }
+                };
+            case BYTE:
+            case SHORT:
+                return (batch, row, encoder) -> {
+                    LongColumnVector lcv = (LongColumnVector) batch.cols[columnIndex];
+                    int rowId = getRowId(lcv, row);
+                    if (rowId < 0) {
+                        encoder.writeNull();
+                    } else {
+                        encoder.writeShort((short) lcv.vector[rowId]);
+                    }
+                };
+            case INT:
+                return (batch, row, encoder) -> {
+                    LongColumnVector lcv = (LongColumnVector) batch.cols[columnIndex];
+                    int rowId = getRowId(lcv, row);
+                    if (rowId < 0) {
+                        encoder.writeNull();
+                    } else {
+                        encoder.writeInt((int) lcv.vector[rowId]);
+                    }
+                };
+            case LONG:
+                return (batch, row, encoder) -> {
+                    LongColumnVector lcv = (LongColumnVector) batch.cols[columnIndex];
+                    int rowId = getRowId(lcv, row);
+                    if (rowId < 0) {
+                        encoder.writeNull();
+                    } else {
+                        encoder.writeLong(lcv.vector[rowId]);
+                    }
+                };
+            case FLOAT:
+                return (batch, row, encoder) -> {
+                    DoubleColumnVector dcv = (DoubleColumnVector) batch.cols[columnIndex];
+                    int rowId = getRowId(dcv, row);
+                    if (rowId < 0) {
+                        encoder.writeNull();
+                    } else {
+                        encoder.writeFloat((float) dcv.vector[rowId]);
+                    }
+                };
+            case DOUBLE:
+                return (batch, row, encoder) -> {
+                    DoubleColumnVector dcv = (DoubleColumnVector) batch.cols[columnIndex];
+                    int rowId = getRowId(dcv, row);
+                    if (rowId < 0) {
+                        encoder.writeNull();
+                    } else {
+                        encoder.writeDouble(dcv.vector[rowId]);
+                    }
+                };
+            case STRING:
+            case VARCHAR:
+            case CHAR:
+                return (batch, row, encoder) -> {
+                    BytesColumnVector bcv = (BytesColumnVector) batch.cols[columnIndex];
+                    int rowId = getRowId(bcv, row);
+                    if (rowId < 0) {
+                        encoder.writeNull();
+                    } else {
+                        encoder.writeText(bcv.vector[rowId], bcv.start[rowId], bcv.length[rowId]);
+                    }
+                };
+            case BINARY:
+                return (batch, row, encoder) -> {
+                    BytesColumnVector bcv = (BytesColumnVector) batch.cols[columnIndex];
+                    int rowId = getRowId(bcv, row);
+                    if (rowId < 0) {
+                        encoder.writeNull();
+                    } else {
+                        encoder.writeBytes(bcv.vector[rowId], bcv.start[rowId], bcv.length[rowId]);
+                    }
+                };
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Returns the index of the value for the row in the column vector, taking
+     * repeating vectors into account, or -1 if the value is null
+     *
+     * @param columnVector the column vector
+     * @param row          the row in the batch
+     * @return the index of the value in the vector, or -1 if the value is null
+     */
+    private static int getRowId(ColumnVector columnVector, int row) {
+        if (columnVector == null) {
+            return -1;
+        }
+        int rowId = columnVector.isRepeating ? 0 : row;
+        return (columnVector.noNulls || !columnVector.isNull[rowId]) ? rowId : -1;
+    }
+
     private List<List<OneField>> prepareResolvedBatch(int batchSize) {
 
         if (cachedBatch == null) {
@@ -0,0 +1,209 @@
+package org.greenplum.pxf.plugins.hdfs.parquet;
+
+import org.apache.hadoop.hive.ql.exec.vector.BytesColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.ColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.DoubleColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.ListColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.LongColumnVector;
+import org.apache.parquet.column.ColumnDescriptor;
+import org.apache.parquet.column.ColumnReader;
+import org.apache.parquet.io.api.Binary;
+import org.apache.parquet.schema.GroupType;
+import org.apache.parquet.schema.PrimitiveType.PrimitiveTypeName;
+import org.apache.parquet.schema.Type;
+import org.greenplum.pxf.api.error.UnsupportedTypeException;
+
+/**
+ * Decodes the values of a single Parquet column into Hive {@link ColumnVector}s.
+ * <p>
+ * Columns are either primitive columns, which hold one value per row, or
+ * repeated columns, which hold any number of values per row. Repeated columns
+ * are Parquet LISTs of primitives and top-level repeated primitives, their
+ * values are decoded into a {@link ListColumnVector}.
+ * <p>
+ * Primitive values are stored in the vectors in their physical
+ * representation: BOOLEAN, INT32 and INT64 in a {@link LongColumnVector},
+ * FLOAT and DOUBLE in a {@link DoubleColumnVector}, and BINARY,
+ * FIXED_LEN_BYTE_ARRAY and INT96 in a {@link BytesColumnVector}. Logical
+ * types are interpreted by the resolver.
+ */
+class ParquetColumnVectorReader {
+
+    private final ColumnDescriptor columnDescriptor;
+    private final PrimitiveTypeName primitiveTypeName;
+    private final int maxDefinitionLevel;
+    private final boolean repeated;
+
+    /**
+     * For repeated columns, the definition level of an empty list. Lower
+     * definition levels mean the list is null.
+     */
+    private final int emptyListDefinitionLevel;
+
+    private ColumnReader columnReader;
+    private long totalValueCount;
+    private long valuesRead;
+
+    /**
+     * Creates a reader for the given top-level field of the read schema
+     *
+     * @param type             the top-level field
+     * @param columnDescriptor the descriptor of the leaf column of the field
+     */
+    ParquetColumnVectorReader(Type type, ColumnDescriptor columnDescriptor) {
+        this.columnDescriptor = columnDescriptor;
+        this.primitiveTypeName = columnDescriptor.getPrimitiveType().getPrimitiveTypeName();
+        this.maxDefinitionLevel = columnDescriptor.getMaxDefinitionLevel();
+        this.repeated = columnDescriptor.getMaxRepetitionLevel() > 0;
+
+        if (repeated && columnDescriptor.getMaxRepetitionLevel() > 1) {
+            throw new UnsupportedTypeException(String.format("Parquet column %s with nested repeated fields is not supported.",
+                    String.join(".", columnDescriptor.getPath())));
+        }
+        // an optional LIST is null when its definition level is 0, a required
+        // LIST or a repeated primitive is never null
+        this.emptyListDefinitionLevel = !type.isPrimitive() && type.isRepetition(Type.Repetition.OPTIONAL) ? 1 : 0;
+    }
+
+    /**
+     * Returns the path of the leaf column for the field
+     *
+     * @param type the top-level field, a primitive or a LIST of primitives
+     * @return the path of the leaf column
+     */
+    static String[] getLeafPath(Type type) {
+        if (type.isPrimitive()) {
+            return new String[]{type.getName()};
+        }
+        // the field is a LIST, validated by the ParquetTypeConverter
+        GroupType repeatedType = type.asGroupType().getType(0).asGroupType();
+        return new String[]{type.getName(), repeatedType.getName(), repeatedType.getType(0).getName()};
+    }
+
+    /**
+     * @return the descriptor of the leaf column
+     */
+    ColumnDescriptor getColumnDescriptor() {
+        return columnDescriptor;
+    }
+
+    /**
+     * Sets the column reader for the row group that is being read
+     *
+     * @param columnReader the column reader for the row group
+     */
+    @SuppressWarnings("deprecation")
+    void setColumnReader(ColumnReader columnReader) {
+        this.columnReader = columnReader;
+        this.totalValueCount = columnReader.getTotalValueCount();
+        this.valuesRead = 0;
+    }
+
+    /**
+     * Creates a column vector that can hold the values of the column
+     *
+     * @param size the number of rows of the vector
+     * @return the column vector
+     */
+    ColumnVector createColumnVector(int size) {
+        ColumnVector vector = createPrimitiveVector(size);
+        return repeated ? new ListColumnVector(size, vector) : vector;
+    }
+
+    /**
+     * Reads the values of the next rows into the vector
+     *
+     * @param vector the vector, previously reset
+     * @param size   the number of rows to read
+     */
+    void readBatch(ColumnVector vector, int size) {
+        if (!repeated) {
+            for (int row = 0; row < size; row++) {
+                readValue(vector, row);
+            }
+            return;
+        }
+
+        ListColumnVector listVector = (ListColumnVector) vector;
+        ColumnVector child = listVector.child;
+        int childCount = 0;
+        for (int row = 0; row < size; row++) {
+            listVector.offsets[row] = childCount;
+            int definitionLevel = columnReader.getCurrentDefinitionLevel();
+            if (definitionLevel <= emptyListDefinitionLevel) {
+                if (definitionLevel < emptyListDefinitionLevel) {
+                    listVector.noNulls = false;
+                    listVector.isNull[row] = true;
+                }
+                listVector.lengths[row] = 0;
+                consume();
+                continue;
+            }
+            // read the elements of the list, a repetition level of 0 starts the next row
+            do {
+                if (childCount == child.isNull.length) {
+                    child.ensureSize(childCount * 2, true);
+                }
+                readValue(child, childCount++);
+            } while (valuesRead < totalValueCount && columnReader.getCurrentRepetitionLevel() > 0);
+            listVector.lengths[row] = childCount - listVector.offsets[row];
+        }
+        listVector.childCount = childCount;
+    }
+
+    private void readValue(ColumnVector vector, int index) {
+        if (columnReader.getCurrentDefinitionLevel() != maxDefinitionLevel) {
+            vector.noNulls = false;
+            vector.isNull[index] = true;
+            consume();
+            return;
+        }
+
+        switch (primitiveTypeName) {
+            case BOOLEAN:
+                ((LongColumnVector) vector).vector[index] = columnReader.getBoolean() ? 1 : 0;
+                break;
+            case INT32:
+                ((LongColumnVector) vector).vector[index] = columnReader.getInteger();
+                break;
+            case INT64:
+                ((LongColumnVector) vector).vector[index] = columnReader.getLong();
+                break;
+            case FLOAT:
+                ((DoubleColumnVector) vector).vector[index] = columnReader.getFloat();
+                break;
+            case DOUBLE:
+                ((DoubleColumnVector) vector).vector[index] = columnReader.getDouble();
+                break;
+            default:
+                // BINARY, FIXED_LEN_BYTE_ARRAY and INT96 values are copied
+                // into the buffer of the vector, since the pages they point
+                // to are released when the row group is done
+                Binary binary = columnReader.getBinary();
+                byte[] bytes = binary.getBytesUnsafe();
+                ((BytesColumnVector) vector).setVal(index, bytes, 0, bytes.length);
+        }
+        consume();
+    }
+
+    private void consume() {
+        columnReader.consume();
+        valuesRead++;
+    }
+
+    private ColumnVector createPrimitiveVector(int size) {
+        switch (primitiveTypeName) {
+            case BOOLEAN:
+            case INT32:
+            case INT64:
+                return new LongColumnVector(size);
+            case FLOAT:
+            case DOUBLE:
+                return new DoubleColumnVector(size);
+            default:
+                BytesColumnVector vector = new BytesColumnVector(size);
+                vector.initBuffer();
+                return vector;
+        }
+    }
+}
@@ -0,0 +1,266 @@
+package org.greenplum.pxf.plugins.hdfs.parquet;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.apache.commons.lang.StringUtils;
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.mapred.FileSplit;
+import org.apache.hadoop.mapred.InputSplit;
+import org.apache.hadoop.security.UserGroupInformation;
+import org.apache.parquet.filter2.compat.FilterCompat;
+import org.apache.parquet.filter2.compat.RowGroupFilter;
+import org.apache.parquet.hadoop.metadata.BlockMetaData;
+import org.apache.parquet.hadoop.metadata.ParquetMetadata;
+import org.apache.parquet.schema.MessageType;
+import org.greenplum.pxf.api.model.Fragment;
+import org.greenplum.pxf.api.utilities.SpringContext;
+import org.greenplum.pxf.plugins.hdfs.HcfsFragmentMetadata;
+import org.greenplum.pxf.plugins.hdfs.HdfsDataFragmenter;
+import org.greenplum.pxf.plugins.hdfs.ParquetFileAccessor;
+import org.greenplum.pxf.plugins.hdfs.utilities.FooterCache;
+
+import java.io.IOException;
+import java.security.PrivilegedExceptionAction;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Fragmenter for Parquet files that is aware of row groups.
+ * <p>
+ * The footer of every file is read once during fragmentation, through the
+ * {@link FooterCache} shared with the accessors. For every split of the file,
+ * the row groups that belong to the split (the ones with their midpoint in
+ * the split, same as the Parquet reader) are turned into fragments.
+ * Consecutive row groups become a single fragment that spans the range of
+ * bytes of the row groups, splits without row groups don't produce
+ * fragments.
+ * <p>
+ * When a filter is pushed down, row groups whose column statistics
+ * (min/max values and null counts) cannot satisfy the filter are dropped,
+ * so they are never read by the segments.
+ * <p>
+ * Reading the footers costs a request per file (two on object stores), so
+ * the fragments are only made of row groups when the
+ * {@code FRAGMENT_BY_ROWGROUP} option is set, and the footers are then read
+ * by up to {@code FOOTER_READ_THREADS} threads. Otherwise the splits of the
+ * files are the fragments, as with {@link HdfsDataFragmenter}.
+ */
+public class ParquetRowGroupFragmenter extends HdfsDataFragmenter {
+
+    /**
+     * Whether the fragments are made of the row groups of the files
+     */
+    public static final String FRAGMENT_BY_ROWGROUP_OPTION = "FRAGMENT_BY_ROWGROUP";
+
+    /**
+     * The maximum number of threads reading the footers of the files
+     */
+    public static final String FOOTER_READ_THREADS_OPTION = "FOOTER_READ_THREADS";
+
+    static final int DEFAULT_FOOTER_READ_THREADS = 8;
+
+    private final FooterCache footerCache;
+    private boolean fragmentByRowGroup;
+    private Map<Path, ParquetMetadata> footers = Collections.emptyMap();
+    private Path currentFile;
+    private List<BlockMetaData> rowGroups;
+    private Set<BlockMetaData> selectedRowGroups;
+
+    /**
+     * Constructs a new instance of the ParquetRowGroupFragmenter
+     */
+    public ParquetRowGroupFragmenter() {
+        this(SpringContext.getBean(FooterCache.class));
+    }
+
+    ParquetRowGroupFragmenter(FooterCache footerCache) {
+        this.footerCache = footerCache;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        super.afterPropertiesSet();
+        fragmentByRowGroup = context.getOption(FRAGMENT_BY_ROWGROUP_OPTION, false);
+    }
+
+    /**
+     * Reads the footers of all the files in parallel before the fragments
+     * of the splits are added, when the fragments are made of row groups.
+     */
+    @Override
+    public List<Fragment> getFragments() throws Exception {
+        if (!fragmentByRowGroup) {
+            return super.getFragments();
+        }
+
+        List<InputSplit> splits = getDataSourceSplits();
+        footers = readFooters(splits);
+        for (InputSplit split : splits) {
+            addFragments((FileSplit) split);
+        }
+
+        fragments = combineFragments(fragments);
+        return fragments;
+    }
+
+    /**
+     * Adds one fragment for every range of consecutive row groups of the
+     * split that are not dropped by the filter, or the whole split when the
+     * fragments are not made of row groups.
+     *
+     * @param fsp the file split
+     * @throws IOException when the footer of the file cannot be read
+     */
+    @Override
+    protected void addFragments(FileSplit fsp) throws IOException {
+        if (!fragmentByRowGroup) {
+            super.addFragments(fsp);
+            return;
+        }
+
+        // the splits of a file are consecutive, read the footer only once
+        if (!fsp.getPath().equals(currentFile)) {
+            readRowGroups(fsp.getPath());
+            currentFile = fsp.getPath();
+        }
+
+        String filepath = fsp.getPath().toString();
+        FileStatus fileStatus = getFileStatus(fsp.getPath());
+        long splitStart = fsp.getStart();
+        long splitEnd = fsp.getStart() + fsp.getLength();
+        long rangeStart = -1;
+        long rangeEnd = -1;
+        for (BlockMetaData rowGroup : rowGroups) {
+            if (!ParquetUtilities.isRowGroupInRange(rowGroup, splitStart, splitEnd)) {
+                continue;
+            }
+            if (!selectedRowGroups.contains(rowGroup)) {
+                addFragment(filepath, fileStatus, rangeStart, rangeEnd);
+                rangeStart = -1;
+                continue;
+            }
+            if (rangeStart == -1) {
+                rangeStart = rowGroup.getStartingPos();
+            }
+            rangeEnd = rowGroup.getStartingPos() + rowGroup.getCompressedSize();
+        }
+        addFragment(filepath, fileStatus, rangeStart, rangeEnd);
+    }
+
+    private void addFragment(String filepath, FileStatus fileStatus, long start, long end) {
+        if (start != -1) {
+            fragments.add(new Fragment(filepath, new HcfsFragmentMetadata(start, end - start, fileStatus)));
+        }
+    }
+
+    /**
+     * Reads the footers of the files of the splits, with up to
+     * {@code FOOTER_READ_THREADS} threads that run as the user of the
+     * request. The footers are also kept in the {@link FooterCache} for the
+     * accessors.
+     *
+     * @param splits the splits of the files
+     * @return the footers of the files
+     * @throws Exception when the footer of a file cannot be read
+     */
+    private Map<Path, ParquetMetadata> readFooters(List<InputSplit> splits) throws Exception {
+        Set<Path> files = new LinkedHashSet<>();
+        for (InputSplit split : splits) {
+            files.add(((FileSplit) split).getPath());
+        }
+        int threads = Math.min(context.getOption(FOOTER_READ_THREADS_OPTION, DEFAULT_FOOTER_READ_THREADS, true), files.size());
+        Map<Path, ParquetMetadata> result = new ConcurrentHashMap<>();
+        if (threads <= 1) {
+            for (Path file : files) {
+                result.put(file, footerCache.getParquetFooter(file, getFileStatus(file), configuration));
+            }
+            return result;
+        }
+
+        LOG.debug("{}-{}: Reading the footers of {} files with {} threads",
+                context.getTransactionId(), context.getSegmentId(), files.size(), threads);
+        UserGroupInformation ugi = UserGroupInformation.getCurrentUser();
+        ExecutorService executor = Executors.newFixedThreadPool(threads,
+                new ThreadFactoryBuilder().setNameFormat("pxf-parquet-footers-%d").setDaemon(true).build());
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (Path file : files) {
+                futures.add(executor.submit(() -> ugi.doAs((PrivilegedExceptionAction<Void>) () -> {
+                    result.put(file, footerCache.getParquetFooter(file, getFileStatus(file), configuration));
+                    return null;
+                })));
+            }
+            for (Future<?> future : futures) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    if (e.getCause() instanceof Exception) {
+                        throw (Exception) e.getCause();
+                    }
+                    throw e;
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        return result;
+    }
+
+    /**
+     * Reads the row groups of the file from the footer, and selects the row
+     * groups that can have rows matching the filter
+     *
+     * @param file the path to the parquet file
+     * @throws IOException when the footer of the file cannot be read
+     */
+    @SuppressWarnings("deprecation")
+    private void readRowGroups(Path file) throws IOException {
+        ParquetMetadata footer = footers.get(file);
+        if (footer == null) {
+            footer = footerCache.getParquetFooter(file, getFileStatus(file), configuration);
+        }
+        MessageType schema = footer.getFileMetaData().getSchema();
+        rowGroups = footer.getBlocks();
+        selectedRowGroups = Collections.newSetFromMap(new IdentityHashMap<>());
+
+        FilterCompat.Filter recordFilter = getRecordFilter(schema);
+        if (recordFilter == FilterCompat.NOOP) {
+            selectedRowGroups.addAll(rowGroups);
+            return;
+        }
+        // only the statistics in the footer are used, dictionaries are
+        // checked by the accessor since they require reading the data pages
+        selectedRowGroups.addAll(RowGroupFilter.filterRowGroups(recordFilter, rowGroups, schema));
+        LOG.debug("{}-{}: Selected {} out of {} row groups of file {}", context.getTransactionId(),
+                context.getSegmentId(), selectedRowGroups.size(), rowGroups.size(), file);
+    }
+
+    private FilterCompat.Filter getRecordFilter(MessageType schema) {
+        String filterString = context.getFilterString();
+        if (StringUtils.isBlank(filterString)) {
+            return FilterCompat.NOOP;
+        }
+
+        try {
+            return ParquetFileAccessor.buildRecordFilter(filterString, context.getTupleDescription(),
+                    ParquetFileAccessor.getOriginalFieldsMap(schema));
+        } catch (Exception e) {
+            LOG.error("{}-{}: {}--{} Unable to generate Parquet Record Filter for filter, row groups will not be pruned",
+                    context.getTransactionId(),
+                    context.getSegmentId(),
+                    context.getDataSource(),
+                    filterString, e);
+            return FilterCompat.NOOP;
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package org.greenplum.pxf.plugins.hdfs.parquet;
 
 import org.apache.commons.lang.StringUtils;
+import org.apache.parquet.hadoop.metadata.BlockMetaData;
 import org.apache.parquet.schema.GroupType;
 import org.apache.parquet.schema.LogicalTypeAnnotation;
 import org.apache.parquet.schema.PrimitiveType;
@@ -38,6 +39,21 @@ public class ParquetUtilities {
         }
     }
 
+    /**
+     * Checks whether the row group belongs to the given range of the file. As
+     * in the Parquet reader, a row group belongs to the range that contains
+     * the midpoint of the row group.
+     *
+     * @param rowGroup the metadata of the row group
+     * @param start    the start of the range
+     * @param end      the end of the range (exclusive)
+     * @return true if the row group belongs to the range, false otherwise
+     */
+    public static boolean isRowGroupInRange(BlockMetaData rowGroup, long start, long end) {
+        long midpoint = rowGroup.getStartingPos() + rowGroup.getCompressedSize() / 2;
+        return midpoint >= start && midpoint < end;
+    }
+
     /**
      * Parse a String representation of Greenplum array into a Parquet object array according to primitiveTypeName
      *
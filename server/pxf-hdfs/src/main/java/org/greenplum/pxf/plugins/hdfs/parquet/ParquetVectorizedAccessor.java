@@ -0,0 +1,184 @@
+package org.greenplum.pxf.plugins.hdfs.parquet;
+
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.hive.ql.exec.vector.VectorizedRowBatch;
+import org.apache.hadoop.io.LongWritable;
+import org.apache.hadoop.mapred.FileSplit;
+import org.apache.parquet.column.impl.ColumnReadStoreImpl;
+import org.apache.parquet.column.page.PageReadStore;
+import org.apache.parquet.example.data.simple.convert.GroupRecordConverter;
+import org.apache.parquet.filter2.compat.FilterCompat;
+import org.apache.parquet.hadoop.ParquetFileReader;
+import org.apache.parquet.hadoop.ParquetInputFormat;
+import org.apache.parquet.hadoop.metadata.BlockMetaData;
+import org.apache.parquet.hadoop.metadata.ParquetMetadata;
+import org.apache.parquet.io.api.GroupConverter;
+import org.apache.parquet.schema.MessageType;
+import org.apache.parquet.schema.Type;
+import org.greenplum.pxf.api.OneRow;
+import org.greenplum.pxf.api.error.UnsupportedTypeException;
+import org.greenplum.pxf.plugins.hdfs.ParquetFileAccessor;
+import org.greenplum.pxf.plugins.hdfs.utilities.FooterCache;
+import org.greenplum.pxf.plugins.hdfs.utilities.HdfsUtilities;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Parquet accessor that reads batches of rows for the
+ * {@link ParquetVectorizedResolver}. Instead of assembling a record object
+ * for every row, the pages of the projected columns are decoded with column
+ * readers into the column vectors of a {@link VectorizedRowBatch}.
+ * <p>
+ * Row groups are pruned using the statistics and dictionaries of the
+ * columns in the query predicate. Rows of the remaining row groups are not
+ * filtered, Greenplum applies the predicate to the rows it receives.
+ * <p>
+ * Unit of operation is a batch of up to {@link VectorizedRowBatch#DEFAULT_SIZE}
+ * rows from the same row group.
+ */
+public class ParquetVectorizedAccessor extends ParquetFileAccessor {
+
+    private ParquetFileReader parquetFileReader;
+    private MessageType readSchema;
+    private String createdBy;
+    private GroupConverter recordConverter;
+    private ParquetColumnVectorReader[] columnReaders;
+    private VectorizedRowBatch batch;
+    private long rowsRemainingInRowGroup;
+    private int batchIndex;
+    private long totalRowsRead;
+    private long totalReadTimeInNanos;
+
+    /**
+     * Constructs a new instance of the ParquetVectorizedAccessor
+     */
+    public ParquetVectorizedAccessor() {
+        super();
+    }
+
+    public ParquetVectorizedAccessor(FooterCache footerCache) {
+        super(footerCache);
+    }
+
+    /**
+     * Opens the resource for read.
+     *
+     * @throws IOException if opening the resource failed
+     */
+    @Override
+    @SuppressWarnings("deprecation")
+    public boolean openForRead() throws IOException {
+        final long then = System.nanoTime();
+        Path file = new Path(context.getDataSource());
+        FileSplit fileSplit = HdfsUtilities.parseFileSplit(context.getDataSource(), context.getFragmentMetadata());
+
+        // Read the footer of the parquet file from the footer cache
+        ParquetMetadata footer = getFooter(file);
+        MessageType originalSchema = footer.getFileMetaData().getSchema();
+        // Get a map of the column name to Types for the given schema
+        Map<String, Type> originalFieldsMap = getOriginalFieldsMap(originalSchema);
+        // Get the read schema. This is either the full set or a subset (in
+        // case of column projection) of the greenplum schema.
+        readSchema = buildReadSchema(originalFieldsMap, originalSchema);
+        // Get the record filter in case of predicate push-down, it is used
+        // to skip row groups
+        FilterCompat.Filter recordFilter = getRecordFilter(context.getFilterString(), originalFieldsMap);
+        if (recordFilter instanceof FilterCompat.FilterPredicateCompat) {
+            ParquetInputFormat.setFilterPredicate(configuration,
+                    ((FilterCompat.FilterPredicateCompat) recordFilter).getFilterPredicate());
+        }
+
+        // only read the row groups that belong to the split, the reader takes
+        // the record filter from the configuration
+        List<BlockMetaData> rowGroups = footer.getBlocks().stream()
+                .filter(rowGroup -> ParquetUtilities.isRowGroupInRange(rowGroup,
+                        fileSplit.getStart(), fileSplit.getStart() + fileSplit.getLength()))
+                .collect(Collectors.toList());
+        parquetFileReader = new ParquetFileReader(configuration, file,
+                new ParquetMetadata(footer.getFileMetaData(), rowGroups));
+        // add column projection
+        parquetFileReader.setRequestedSchema(readSchema);
+        createdBy = footer.getFileMetaData().getCreatedBy();
+        // the converters are only needed to build the column readers, values
+        // are read directly from the column readers
+        recordConverter = new GroupRecordConverter(readSchema).getRootConverter();
+
+        List<Type> fields = readSchema.getFields();
+        columnReaders = new ParquetColumnVectorReader[fields.size()];
+        batch = new VectorizedRowBatch(fields.size());
+        for (int i = 0; i < fields.size(); i++) {
+            Type type = fields.get(i);
+            if (!type.isPrimitive() && type.isRepetition(Type.Repetition.REPEATED)) {
+                throw new UnsupportedTypeException(String.format("Parquet repeated group %s is not supported.", type.getName()));
+            }
+            // validates that the type is a primitive or a LIST of primitives
+            ParquetTypeConverter.from(type).getDataType(type);
+            columnReaders[i] = new ParquetColumnVectorReader(type,
+                    readSchema.getColumnDescription(ParquetColumnVectorReader.getLeafPath(type)));
+            batch.cols[i] = columnReaders[i].createColumnVector(batch.getMaxSize());
+        }
+
+        totalReadTimeInNanos += System.nanoTime() - then;
+        context.setMetadata(readSchema);
+        return true;
+    }
+
+    /**
+     * Reads the next batch for the current fragment
+     *
+     * @return the next batch in OneRow format, the key is the batch number, and data is the batch
+     * @throws IOException when reading of the next batch fails
+     */
+    @Override
+    public OneRow readNextObject() throws IOException {
+        final long then = System.nanoTime();
+        while (rowsRemainingInRowGroup == 0) {
+            PageReadStore rowGroup = parquetFileReader.readNextRowGroup();
+            if (rowGroup == null) {
+                totalReadTimeInNanos += System.nanoTime() - then;
+                return null; // all row groups are exhausted
+            }
+            rowsRemainingInRowGroup = rowGroup.getRowCount();
+            ColumnReadStoreImpl columnReadStore = new ColumnReadStoreImpl(rowGroup, recordConverter, readSchema, createdBy);
+            for (ParquetColumnVectorReader columnReader : columnReaders) {
+                columnReader.setColumnReader(columnReadStore.getColumnReader(columnReader.getColumnDescriptor()));
+            }
+        }
+
+        int batchSize = (int) Math.min(batch.getMaxSize(), rowsRemainingInRowGroup);
+        batch.reset();
+        for (int i = 0; i < columnReaders.length; i++) {
+            columnReaders[i].readBatch(batch.cols[i], batchSize);
+        }
+        batch.size = batchSize;
+        rowsRemainingInRowGroup -= batchSize;
+        totalRowsRead += batchSize;
+        totalReadTimeInNanos += System.nanoTime() - then;
+        return new OneRow(new LongWritable(batchIndex++), batch);
+    }
+
+    /**
+     * Closes the resource for read.
+     *
+     * @throws IOException if closing the resource failed
+     */
+    @Override
+    public void closeForRead() throws IOException {
+        logReadStats(totalRowsRead, totalReadTimeInNanos);
+        if (parquetFileReader != null) {
+            parquetFileReader.close();
+        }
+    }
+
+    /**
+     * Writing is not supported by the vectorized accessor, the parquet
+     * profiles without vectorization support writing.
+     */
+    @Override
+    public boolean openForWrite() {
+        throw new UnsupportedOperationException("Writing is not supported by the vectorized Parquet accessor");
+    }
+}
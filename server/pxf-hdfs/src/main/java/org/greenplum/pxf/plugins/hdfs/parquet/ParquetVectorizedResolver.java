@@ -0,0 +1,520 @@
+package org.greenplum.pxf.plugins.hdfs.parquet;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import org.apache.hadoop.hive.ql.exec.vector.BytesColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.ColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.DoubleColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.ListColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.LongColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.VectorizedRowBatch;
+import org.apache.parquet.schema.GroupType;
+import org.apache.parquet.schema.LogicalTypeAnnotation;
+import org.apache.parquet.schema.MessageType;
+import org.apache.parquet.schema.PrimitiveType;
+import org.apache.parquet.schema.Type;
+import org.greenplum.pxf.api.OneField;
+import org.greenplum.pxf.api.OneRow;
+import org.greenplum.pxf.api.error.BadRecordException;
+import org.greenplum.pxf.api.error.PxfRuntimeException;
+import org.greenplum.pxf.api.io.DataType;
+import org.greenplum.pxf.api.io.GPDBWritableRecordEncoder;
+import org.greenplum.pxf.api.io.RecordEncoder;
+import org.greenplum.pxf.api.model.BasePlugin;
+import org.greenplum.pxf.api.model.OutputFormat;
+import org.greenplum.pxf.api.model.ReadVectorizedBatchSerializer;
+import org.greenplum.pxf.api.model.Resolver;
+import org.greenplum.pxf.api.utilities.ColumnDescriptor;
+import org.greenplum.pxf.plugins.hdfs.utilities.PgArrayBuilder;
+import org.greenplum.pxf.plugins.hdfs.utilities.PgUtilities;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.apache.parquet.schema.LogicalTypeAnnotation.DateLogicalTypeAnnotation;
+import static org.apache.parquet.schema.LogicalTypeAnnotation.DecimalLogicalTypeAnnotation;
+import static org.apache.parquet.schema.Type.Repetition.REPEATED;
+
+/**
+ * Resolves the batches produced by the {@link ParquetVectorizedAccessor}.
+ * The values are the same the {@link org.greenplum.pxf.plugins.hdfs.ParquetResolver}
+ * produces for every row: logical types are interpreted the same way, LISTs
+ * are resolved to Postgres arrays and repeated primitives to JSON arrays.
+ * <p>
+ * Batches can also be serialized straight into the output format, in which
+ * case values of the common primitive types are written without creating
+ * {@link OneField}s.
+ */
+public class ParquetVectorizedResolver extends BasePlugin implements ReadVectorizedBatchSerializer, Resolver {
+
+    private static final String UNSUPPORTED_ERR_MESSAGE = "Current operation is not supported";
+    private static final PgUtilities pgUtilities = new PgUtilities();
+
+    /**
+     * Reads the non-null value at the given index of a column vector and
+     * returns it in the representation used by the ParquetResolver
+     */
+    @FunctionalInterface
+    private interface ValueReader {
+        Object read(ColumnVector vector, int index);
+    }
+
+    /**
+     * Serializes a value of a column vector straight into a {@link RecordEncoder}
+     */
+    @FunctionalInterface
+    private interface ColumnSerializer {
+        void serialize(VectorizedRowBatch batch, int row, RecordEncoder encoder) throws BadRecordException;
+    }
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    /**
+     * A local copy of the column descriptors coming from the RequestContext.
+     */
+    private List<ColumnDescriptor> columnDescriptors;
+
+    /**
+     * The read schema, with one field for every projected column
+     */
+    private MessageType readSchema;
+
+    /**
+     * An array of functions, one per field of the read schema, that read
+     * values from the column vectors.
+     */
+    private ValueReader[] valueReaders;
+
+    /**
+     * An array of types that map from the read schema types to Greenplum OIDs.
+     */
+    private int[] typeOidMappings;
+
+    /**
+     * An array of functions, one per Greenplum column, that serialize the
+     * values of a row for the batch serialization use case.
+     */
+    private ColumnSerializer[] columnSerializers;
+
+    private List<List<OneField>> cachedBatch;
+
+    @Override
+    public void afterPropertiesSet() {
+        super.afterPropertiesSet();
+        columnDescriptors = context.getTupleDescription();
+    }
+
+    /**
+     * Returns the resolved list of lists of OneFields given a
+     * VectorizedRowBatch
+     *
+     * @param batch unresolved batch
+     * @return the resolved batch mapped to the Greenplum type
+     */
+    @Override
+    public List<List<OneField>> getFieldsForBatch(OneRow batch) {
+        ensureValueReadersAreInitialized();
+        VectorizedRowBatch vectorizedBatch = (VectorizedRowBatch) batch.getData();
+        int batchSize = vectorizedBatch.size;
+        List<List<OneField>> resolvedBatch = prepareResolvedBatch(batchSize);
+
+        // index to the projected columns
+        int columnIndex = 0;
+        for (ColumnDescriptor columnDescriptor : columnDescriptors) {
+            if (!columnDescriptor.isProjected()) {
+                for (int row = 0; row < batchSize; row++) {
+                    resolvedBatch.get(row).add(new OneField(columnDescriptor.columnTypeCode(), null));
+                }
+                continue;
+            }
+
+            ColumnVector vector = vectorizedBatch.cols[columnIndex];
+            ValueReader valueReader = valueReaders[columnIndex];
+            int typeOid = typeOidMappings[columnIndex];
+            for (int row = 0; row < batchSize; row++) {
+                Object value = isNull(vector, row) ? null : valueReader.read(vector, row);
+                resolvedBatch.get(row).add(new OneField(typeOid, value));
+            }
+            columnIndex++;
+        }
+        return resolvedBatch;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Batch serialization is supported unless, for the GPDBWritable output
+     * format, the type of a column in the Parquet file does not match the type
+     * of the Greenplum column. In that case, the resolved batch produces the
+     * error.
+     */
+    @Override
+    public boolean isBatchSerializationSupported() {
+        ensureValueReadersAreInitialized();
+        boolean checkSchemaTypes = context.getOutputFormat() == OutputFormat.GPDBWritable;
+        ColumnSerializer[] serializers = new ColumnSerializer[columnDescriptors.size()];
+
+        // index to the projected columns
+        int columnIndex = 0;
+        for (int i = 0; i < serializers.length; i++) {
+            ColumnDescriptor columnDescriptor = columnDescriptors.get(i);
+            if (!columnDescriptor.isProjected()) {
+                serializers[i] = (batch, row, encoder) -> encoder.writeNull();
+                continue;
+            }
+            if (checkSchemaTypes && !GPDBWritableRecordEncoder.isTypeInSchema(typeOidMappings[columnIndex], columnDescriptor.columnTypeCode())) {
+                return false;
+            }
+            serializers[i] = getColumnSerializer(columnIndex);
+            columnIndex++;
+        }
+
+        columnSerializers = serializers;
+        return true;
+    }
+
+    /**
+     * Serializes the VectorizedRowBatch into the encoder.
+     *
+     * @param batch   unresolved batch
+     * @param encoder the encoder for the requested output format
+     * @return the number of records written
+     * @throws BadRecordException if a value does not match the column type
+     */
+    @Override
+    public int serializeBatch(OneRow batch, RecordEncoder encoder) throws BadRecordException {
+        if (columnSerializers == null) {
+            throw new PxfRuntimeException("Batch serialization is not supported for the current fragment");
+        }
+        VectorizedRowBatch vectorizedBatch = (VectorizedRowBatch) batch.getData();
+        int batchSize = vectorizedBatch.size;
+        for (int row = 0; row < batchSize; row++) {
+            encoder.beginRecord();
+            for (ColumnSerializer columnSerializer : columnSerializers) {
+                columnSerializer.serialize(vectorizedBatch, row, encoder);
+            }
+            encoder.endRecord();
+        }
+        return batchSize;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<OneField> getFields(OneRow row) {
+        throw new UnsupportedOperationException(UNSUPPORTED_ERR_MESSAGE);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public OneRow setFields(List<OneField> record) {
+        throw new UnsupportedOperationException(UNSUPPORTED_ERR_MESSAGE);
+    }
+
+    /**
+     * Ensures that the value readers are initialized. If not initialized, it
+     * will initialize the readers and the typeOidMappings by iterating over
+     * the read schema, and building the mapping between Parquet types to
+     * Greenplum types.
+     */
+    private void ensureValueReadersAreInitialized() {
+        if (valueReaders != null) return;
+        if (!(context.getMetadata() instanceof MessageType))
+            throw new PxfRuntimeException("No Parquet schema detected in request context");
+
+        readSchema = (MessageType) context.getMetadata();
+        int schemaSize = readSchema.getFieldCount();
+        valueReaders = new ValueReader[schemaSize];
+        typeOidMappings = new int[schemaSize];
+
+        for (int i = 0; i < schemaSize; i++) {
+            Type type = readSchema.getType(i);
+            if (type.getRepetition() == REPEATED) {
+                // repeated primitives are resolved into JSON arrays
+                valueReaders[i] = getRepeatedValueReader(type.asPrimitiveType());
+                typeOidMappings[i] = DataType.TEXT.getOID();
+            } else if (type.isPrimitive()) {
+                valueReaders[i] = getValueReader(type.asPrimitiveType());
+                typeOidMappings[i] = ParquetTypeConverter.from(type).getDataType(type).getOID();
+            } else {
+                valueReaders[i] = getListValueReader(type.asGroupType());
+                typeOidMappings[i] = ParquetTypeConverter.from(type).getDataType(type).getOID();
+            }
+        }
+    }
+
+    /**
+     * Returns a reader that interprets the physical value stored in the
+     * column vector the same way the {@link ParquetTypeConverter} does.
+     *
+     * @param type the primitive type
+     * @return the reader for values of the type
+     */
+    @SuppressWarnings("deprecation")
+    private ValueReader getValueReader(PrimitiveType type) {
+        LogicalTypeAnnotation logicalTypeAnnotation = type.getLogicalTypeAnnotation();
+        switch (type.getPrimitiveTypeName()) {
+            case BOOLEAN:
+                return (vector, index) -> ((LongColumnVector) vector).vector[index] == 1;
+            case INT32:
+                if (logicalTypeAnnotation instanceof DateLogicalTypeAnnotation) {
+                    return (vector, index) -> new org.apache.hadoop.hive.serde2.io.DateWritable(
+                            (int) ((LongColumnVector) vector).vector[index]).get(true);
+                } else if (logicalTypeAnnotation instanceof DecimalLogicalTypeAnnotation) {
+                    int scale = ((DecimalLogicalTypeAnnotation) logicalTypeAnnotation).getScale();
+                    return (vector, index) -> new BigDecimal(BigInteger.valueOf(((LongColumnVector) vector).vector[index]), scale);
+                } else if (ParquetTypeConverter.INT32.getDataType(type) == DataType.SMALLINT) {
+                    return (vector, index) -> (short) ((LongColumnVector) vector).vector[index];
+                }
+                return (vector, index) -> (int) ((LongColumnVector) vector).vector[index];
+            case INT64:
+                if (logicalTypeAnnotation instanceof DecimalLogicalTypeAnnotation) {
+                    int scale = ((DecimalLogicalTypeAnnotation) logicalTypeAnnotation).getScale();
+                    return (vector, index) -> new BigDecimal(BigInteger.valueOf(((LongColumnVector) vector).vector[index]), scale);
+                }
+                return (vector, index) -> ((LongColumnVector) vector).vector[index];
+            case FLOAT:
+                return (vector, index) -> (float) ((DoubleColumnVector) vector).vector[index];
+            case DOUBLE:
+                return (vector, index) -> ((DoubleColumnVector) vector).vector[index];
+            case INT96:
+                return (vector, index) -> ParquetTypeConverter.bytesToTimestamp(getBytes(vector, index));
+            case FIXED_LEN_BYTE_ARRAY:
+                int scale = ((DecimalLogicalTypeAnnotation) logicalTypeAnnotation).getScale();
+                return (vector, index) -> new BigDecimal(new BigInteger(getBytes(vector, index)), scale);
+            case BINARY:
+                if (ParquetTypeConverter.BINARY.getDataType(type) == DataType.BYTEA) {
+                    return ParquetVectorizedResolver::getBytes;
+                }
+                return (vector, index) -> {
+                    BytesColumnVector bcv = (BytesColumnVector) vector;
+                    return new String(bcv.vector[index], bcv.start[index], bcv.length[index], StandardCharsets.UTF_8);
+                };
+            default:
+                throw new PxfRuntimeException(String.format("Parquet primitive type %s is not supported.", type.getPrimitiveTypeName()));
+        }
+    }
+
+    /**
+     * Returns a reader that serializes the elements of a LIST into the
+     * Postgres array text representation
+     *
+     * @param listType the LIST type
+     * @return the reader for values of the LIST
+     */
+    private ValueReader getListValueReader(GroupType listType) {
+        PrimitiveType elementType = listType.getType(0).asGroupType().getType(0).asPrimitiveType();
+        ValueReader elementReader = getValueReader(elementType);
+        ParquetTypeConverter elementConverter = ParquetTypeConverter.from(elementType);
+        boolean elementNeedsEscapingInArray = elementConverter.getDataType(elementType).getNeedsEscapingInArray();
+        boolean isByteaElement = elementConverter.getDataType(elementType) == DataType.BYTEA;
+
+        return (vector, index) -> {
+            ListColumnVector listVector = (ListColumnVector) vector;
+            ColumnVector child = listVector.child;
+            int offset = (int) listVector.offsets[index];
+            int end = offset + (int) listVector.lengths[index];
+
+            PgArrayBuilder pgArrayBuilder = new PgArrayBuilder(pgUtilities);
+            pgArrayBuilder.startArray();
+            for (int i = offset; i < end; i++) {
+                if (isNull(child, i)) {
+                    pgArrayBuilder.addElement((String) null);
+                } else if (isByteaElement) {
+                    pgArrayBuilder.addElement(pgUtilities.encodeByteaHex(ByteBuffer.wrap(getBytes(child, i))), elementNeedsEscapingInArray);
+                } else {
+                    pgArrayBuilder.addElement(String.valueOf(elementReader.read(child, i)), elementNeedsEscapingInArray);
+                }
+            }
+            pgArrayBuilder.endArray();
+            return pgArrayBuilder.toString();
+        };
+    }
+
+    /**
+     * Returns a reader that serializes the values of a repeated primitive
+     * into a JSON array, the same way the
+     * {@link ParquetTypeConverter#addValueToJsonArray} methods do.
+     *
+     * @param type the repeated primitive type
+     * @return the reader for values of the repeated primitive
+     */
+    private ValueReader getRepeatedValueReader(PrimitiveType type) {
+        ValueReader elementReader = getValueReader(type);
+        boolean isBytea = ParquetTypeConverter.from(type).getDataType(type) == DataType.BYTEA;
+
+        return (vector, index) -> {
+            ListColumnVector listVector = (ListColumnVector) vector;
+            ColumnVector child = listVector.child;
+            int offset = (int) listVector.offsets[index];
+            int end = offset + (int) listVector.lengths[index];
+
+            ArrayNode jsonArray = mapper.createArrayNode();
+            for (int i = offset; i < end; i++) {
+                switch (type.getPrimitiveTypeName()) {
+                    case BINARY:
+                        if (isBytea) {
+                            jsonArray.add(getBytes(child, i));
+                        } else {
+                            jsonArray.add((String) elementReader.read(child, i));
+                        }
+                        break;
+                    case INT32:
+                        // the physical value, regardless of the logical type
+                        jsonArray.add((int) ((LongColumnVector) child).vector[i]);
+                        break;
+                    case INT64:
+                        jsonArray.add(((LongColumnVector) child).vector[i]);
+                        break;
+                    case DOUBLE:
+                        jsonArray.add(((DoubleColumnVector) child).vector[i]);
+                        break;
+                    case FLOAT:
+                        jsonArray.add((float) ((DoubleColumnVector) child).vector[i]);
+                        break;
+                    case BOOLEAN:
+                        jsonArray.add(((LongColumnVector) child).vector[i] == 1);
+                        break;
+                    case INT96:
+                        jsonArray.add((String) elementReader.read(child, i));
+                        break;
+                    default:
+                        jsonArray.add((BigDecimal) elementReader.read(child, i));
+                }
+            }
+            try {
+                return mapper.writeValueAsString(jsonArray);
+            } catch (Exception e) {
+                throw new RuntimeException(String.format("Failed to serialize repeated parquet type %s.",
+                        type.getPrimitiveTypeName().name()), e);
+            }
+        };
+    }
+
+    /**
+     * Returns a function that serializes the values of the column vector at
+     * the given index. Values of primitive columns that map to the common
+     * Greenplum types are written straight from the vector, other values are
+     * written as {@link OneField}s.
+     *
+     * @param columnIndex the index of the column vector in the batch
+     * @return the serializer for the column
+     */
+    private ColumnSerializer getColumnSerializer(int columnIndex) {
+        Type type = readSchema.getType(columnIndex);
+        int typeOid = typeOidMappings[columnIndex];
+        DataType dataType = (type.isPrimitive() && type.getRepetition() != REPEATED) ? DataType.get(typeOid) : DataType.UNSUPPORTED_TYPE;
+
+        switch (dataType) {
+            case BOOLEAN:
+                return (batch, row, encoder) -> {
+                    ColumnVector vector = batch.cols[columnIndex];
+                    if (isNull(vector, row)) {
+                        encoder.writeNull();
+                    } else {
+                        encoder.writeBoolean(((LongColumnVector) vector).vector[row] == 1);
+                    }
+                };
+            case SMALLINT:
+                return (batch, row, encoder) -> {
+                    ColumnVector vector = batch.cols[columnIndex];
+                    if (isNull(vector, row)) {
+                        encoder.writeNull();
+                    } else {
+                        encoder.writeShort((short) ((LongColumnVector) vector).vector[row]);
+                    }
+                };
+            case INTEGER:
+                return (batch, row, encoder) -> {
+                    ColumnVector vector = batch.cols[columnIndex];
+                    if (isNull(vector, row)) {
+                        encoder.writeNull();
+                    } else {
+                        encoder.writeInt((int) ((LongColumnVector) vector).vector[row]);
+                    }
+                };
+            case BIGINT:
+                return (batch, row, encoder) -> {
+                    ColumnVector vector = batch.cols[columnIndex];
+                    if (isNull(vector, row)) {
+                        encoder.writeNull();
+                    } else {
+                        encoder.writeLong(((LongColumnVector) vector).vector[row]);
+                    }
+                };
+            case REAL:
+                return (batch, row, encoder) -> {
+                    ColumnVector vector = batch.cols[columnIndex];
+                    if (isNull(vector, row)) {
+                        encoder.writeNull();
+                    } else {
+                        encoder.writeFloat((float) ((DoubleColumnVector) vector).vector[row]);
+                    }
+                };
+            case FLOAT8:
+                return (batch, row, encoder) -> {
+                    ColumnVector vector = batch.cols[columnIndex];
+                    if (isNull(vector, row)) {
+                        encoder.writeNull();
+                    } else {
+                        encoder.writeDouble(((DoubleColumnVector) vector).vector[row]);
+                    }
+                };
+            case TEXT:
+                return (batch, row, encoder) -> {
+                    BytesColumnVector bcv = (BytesColumnVector) batch.cols[columnIndex];
+                    if (isNull(bcv, row)) {
+                        encoder.writeNull();
+                    } else {
+                        encoder.writeText(bcv.vector[row], bcv.start[row], bcv.length[row]);
+                    }
+                };
+            case BYTEA:
+                return (batch, row, encoder) -> {
+                    BytesColumnVector bcv = (BytesColumnVector) batch.cols[columnIndex];
+                    if (isNull(bcv, row)) {
+                        encoder.writeNull();
+                    } else {
+                        encoder.writeBytes(bcv.vector[row], bcv.start[row], bcv.length[row]);
+                    }
+                };
+            default:
+                ValueReader valueReader = valueReaders[columnIndex];
+                return (batch, row, encoder) -> {
+                    ColumnVector vector = batch.cols[columnIndex];
+                    Object value = isNull(vector, row) ? null : valueReader.read(vector, row);
+                    encoder.writeField(new OneField(typeOid, value));
+                };
+        }
+    }
+
+    private List<List<OneField>> prepareResolvedBatch(int batchSize) {
+        if (cachedBatch == null || cachedBatch.size() != batchSize) {
+            cachedBatch = new ArrayList<>(batchSize);
+            for (int i = 0; i < batchSize; i++) {
+                cachedBatch.add(new ArrayList<>(columnDescriptors.size()));
+            }
+        } else {
+            // clear does not reclaim back the internal arrays of the arraylists
+            cachedBatch.forEach(List::clear);
+        }
+        return cachedBatch;
+    }
+
+    private static boolean isNull(ColumnVector vector, int index) {
+        return !vector.noNulls && vector.isNull[index];
+    }
+
+    private static byte[] getBytes(ColumnVector vector, int index) {
+        BytesColumnVector bcv = (BytesColumnVector) vector;
+        return Arrays.copyOfRange(bcv.vector[index], bcv.start[index], bcv.start[index] + bcv.length[index]);
+    }
+}
@@ -0,0 +1,216 @@
+package org.greenplum.pxf.plugins.hdfs.utilities;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.cache.Weigher;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.GuavaCacheMetrics;
+import lombok.Data;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.orc.OrcFile;
+import org.apache.orc.Reader;
+import org.apache.orc.impl.OrcTail;
+import org.apache.parquet.hadoop.ParquetFileReader;
+import org.apache.parquet.hadoop.metadata.BlockMetaData;
+import org.apache.parquet.hadoop.metadata.ParquetMetadata;
+import org.apache.parquet.hadoop.util.HadoopInputFile;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cache of the parsed footers of Parquet and ORC files, shared by all the
+ * requests of the PXF JVM.
+ * <p>
+ * Entries are keyed by the path, the length and the modification time of
+ * the file, so a file that is rewritten gets a new entry. Callers pass the
+ * status of the file that the fragmenter listed when they have it, so that
+ * a cached footer is returned without a request to the file system. The cache is
+ * bounded by the approximate size of the cached footers in bytes. Hits,
+ * misses, loads and evictions are reported to the meter registry under the
+ * {@code pxf.footer.cache} name.
+ */
+@Component
+public class FooterCache {
+
+    private static final Logger LOG = LoggerFactory.getLogger(FooterCache.class);
+
+    /**
+     * Approximate in-memory size of the metadata of a Parquet column chunk,
+     * including its statistics
+     */
+    private static final int PARQUET_COLUMN_CHUNK_SIZE = 512;
+
+    private final Cache<FooterKey, Object> footers;
+
+    /**
+     * Creates the cache of footers and registers its metrics
+     *
+     * @param registry   the registry to report metrics to
+     * @param maxSize    the maximum size of the cached footers
+     * @param expiration the time after which an entry that is not accessed expires
+     */
+    @Autowired
+    public FooterCache(MeterRegistry registry,
+                       @Value("${pxf.footer-cache.max-size:100MB}") DataSize maxSize,
+                       @Value("${pxf.footer-cache.expiration:1h}") Duration expiration) {
+        this(maxSize.toBytes(), expiration);
+        GuavaCacheMetrics.monitor(registry, footers, "pxf.footer.cache");
+    }
+
+    @VisibleForTesting
+    public FooterCache(long maxSizeInBytes, Duration expiration) {
+        LOG.info("Creating footer cache with maximum size of {} bytes and entry expiration of {} ms",
+                maxSizeInBytes, expiration.toMillis());
+        footers = CacheBuilder.newBuilder()
+                .maximumWeight(maxSizeInBytes)
+                .weigher((Weigher<FooterKey, Object>) (key, footer) -> getSize(footer))
+                .expireAfterAccess(expiration.toMillis(), TimeUnit.MILLISECONDS)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Returns the footer of the Parquet file, reading it from the file when
+     * it is not cached
+     *
+     * @param file          the path to the file
+     * @param configuration the configuration to access the file system
+     * @return the footer of the file, with the metadata of all the row groups
+     * @throws IOException when the footer cannot be read
+     */
+    public ParquetMetadata getParquetFooter(Path file, Configuration configuration) throws IOException {
+        return getParquetFooter(file, null, configuration);
+    }
+
+    /**
+     * Returns the footer of the Parquet file with the given status, reading
+     * it from the file when it is not cached
+     *
+     * @param file          the path to the file
+     * @param status        the status of the file, null to get it from the file system
+     * @param configuration the configuration to access the file system
+     * @return the footer of the file, with the metadata of all the row groups
+     * @throws IOException when the footer cannot be read
+     */
+    public ParquetMetadata getParquetFooter(Path file, FileStatus status, Configuration configuration) throws IOException {
+        FileStatus fileStatus = status != null ? status : file.getFileSystem(configuration).getFileStatus(file);
+        return (ParquetMetadata) get(new FooterKey(FileFormat.PARQUET, fileStatus), () -> {
+            try (ParquetFileReader reader = ParquetFileReader.open(HadoopInputFile.fromStatus(fileStatus, configuration))) {
+                return reader.getFooter();
+            }
+        });
+    }
+
+    /**
+     * Returns the tail of the ORC file, with its footer and metadata,
+     * reading it from the file when it is not cached
+     *
+     * @param file          the path to the file
+     * @param configuration the configuration to access the file system
+     * @return the tail of the file
+     * @throws IOException when the tail cannot be read
+     */
+    public OrcTail getOrcTail(Path file, Configuration configuration) throws IOException {
+        return getOrcTail(file, null, configuration);
+    }
+
+    /**
+     * Returns the tail of the ORC file with the given status, with its
+     * footer and metadata, reading it from the file when it is not cached
+     *
+     * @param file          the path to the file
+     * @param status        the status of the file, null to get it from the file system
+     * @param configuration the configuration to access the file system
+     * @return the tail of the file
+     * @throws IOException when the tail cannot be read
+     */
+    public OrcTail getOrcTail(Path file, FileStatus status, Configuration configuration) throws IOException {
+        FileSystem fileSystem = file.getFileSystem(configuration);
+        FileStatus fileStatus = status != null ? status : fileSystem.getFileStatus(file);
+        return (OrcTail) get(new FooterKey(FileFormat.ORC, fileStatus), () -> {
+            Reader reader = OrcFile.createReader(file, OrcFile.readerOptions(configuration)
+                    .filesystem(fileSystem)
+                    .maxLength(fileStatus.getLen()));
+            return new OrcTail(reader.getFileTail(), reader.getSerializedFileFooter());
+        });
+    }
+
+    /**
+     * @return the hit and miss statistics of the cache
+     */
+    public CacheStats getStats() {
+        return footers.stats();
+    }
+
+    /**
+     * Discards all the cached footers
+     */
+    public void invalidateAll() {
+        footers.invalidateAll();
+    }
+
+    private Object get(FooterKey key, FooterLoader loader) throws IOException {
+        try {
+            return footers.get(key, loader::load);
+        } catch (ExecutionException | UncheckedExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException(String.format("Unable to read the footer of file %s", key.getPath()), e.getCause());
+        }
+    }
+
+    private static int getSize(Object footer) {
+        long size;
+        if (footer instanceof OrcTail) {
+            size = ((OrcTail) footer).getSerializedTail().remaining();
+        } else {
+            ParquetMetadata parquetMetadata = (ParquetMetadata) footer;
+            size = (long) parquetMetadata.getFileMetaData().getSchema().getColumns().size() * PARQUET_COLUMN_CHUNK_SIZE;
+            for (BlockMetaData block : parquetMetadata.getBlocks()) {
+                size += (long) block.getColumns().size() * PARQUET_COLUMN_CHUNK_SIZE;
+            }
+        }
+        return (int) Math.min(size, Integer.MAX_VALUE);
+    }
+
+    private enum FileFormat {
+        PARQUET,
+        ORC
+    }
+
+    @FunctionalInterface
+    private interface FooterLoader {
+        Object load() throws IOException;
+    }
+
+    @Data
+    private static class FooterKey {
+        private final FileFormat fileFormat;
+        private final String path;
+        private final long length;
+        private final long modificationTime;
+
+        FooterKey(FileFormat fileFormat, FileStatus fileStatus) {
+            this.fileFormat = fileFormat;
+            this.path = fileStatus.getPath().toString();
+            this.length = fileStatus.getLen();
+            this.modificationTime = fileStatus.getModificationTime();
+        }
+    }
+}
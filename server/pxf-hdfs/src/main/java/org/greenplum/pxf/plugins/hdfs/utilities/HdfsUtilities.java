@@ -24,6 +24,8 @@ import org.apache.hadoop.fs.Path;
 import org.apache.hadoop.mapred.FileSplit;
 import org.greenplum.pxf.api.OneField;
 import org.greenplum.pxf.api.io.DataType;
+import org.greenplum.pxf.api.model.RequestContext;
+import org.greenplum.pxf.api.utilities.FragmentMetadata;
 import org.greenplum.pxf.api.utilities.Utilities;
 import org.greenplum.pxf.plugins.hdfs.HcfsFragmentMetadata;
 import org.slf4j.Logger;
@@ -56,6 +58,25 @@ public class HdfsUtilities {
         return new FileSplit(new Path(file), start, length, (String[]) null);
     }
 
+    /**
+     * Returns true if the fragment of the request starts at the beginning of
+     * its file, so that the header lines of the file are in this fragment.
+     * The fragment index alone is not enough: fragments are indexed per file,
+     * and when blocks are sampled for statistics, a block from the middle of
+     * a file is the first fragment of that file if its first block was not
+     * picked.
+     *
+     * @param context the context of the request
+     * @return true if the fragment is the first split of its file
+     */
+    public static boolean isFirstSplitOfFile(RequestContext context) {
+        if (context.getFragmentIndex() != 0) {
+            return false;
+        }
+        FragmentMetadata metadata = context.getFragmentMetadata();
+        return !(metadata instanceof HcfsFragmentMetadata) || ((HcfsFragmentMetadata) metadata).getStart() == 0;
+    }
+
     /**
      * Validates that the destination file does not exist and creates parent directory, if missing.
      *
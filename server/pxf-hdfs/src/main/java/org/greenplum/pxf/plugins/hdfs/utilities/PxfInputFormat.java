@@ -32,6 +32,8 @@ import org.apache.hadoop.mapred.RecordReader;
 import org.apache.hadoop.mapred.Reporter;
 
 import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
 
 /**
  * PxfInputFormat is not intended to read a specific format, hence it implements
@@ -49,9 +51,25 @@ public class PxfInputFormat extends FileInputFormat {
         throw new UnsupportedOperationException("PxfInputFormat should not be used for reading data, but only for obtaining the splits of a file");
     }
 
+    private final Map<Path, FileStatus> fileStatuses = new HashMap<>();
+
     @Override
     public FileStatus[] listStatus(JobConf job) throws IOException {
-        return super.listStatus(job);
+        FileStatus[] statuses = super.listStatus(job);
+        for (FileStatus status : statuses) {
+            fileStatuses.put(status.getPath(), status);
+        }
+        return statuses;
+    }
+
+    /**
+     * Returns the statuses of the files listed to get the splits, keyed by
+     * the paths of the splits
+     *
+     * @return the statuses of the listed files
+     */
+    public Map<Path, FileStatus> getFileStatuses() {
+        return fileStatuses;
     }
 
     /**
@@ -63,7 +81,7 @@ public class PxfInputFormat extends FileInputFormat {
      * @return if the codec needed for reading the specified path is splittable.
      */
     @Override
-    protected boolean isSplitable(FileSystem fs, Path filename) {
+    public boolean isSplitable(FileSystem fs, Path filename) {
         CompressionCodecFactory factory = new CompressionCodecFactory(fs.getConf());
         CompressionCodec codec = factory.getCodec(filename);
 
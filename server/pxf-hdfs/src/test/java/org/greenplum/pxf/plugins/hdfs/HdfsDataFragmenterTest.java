@@ -5,19 +5,32 @@ import org.apache.hadoop.mapred.InvalidInputException;
 import org.greenplum.pxf.api.model.Fragment;
 import org.greenplum.pxf.api.model.Fragmenter;
 import org.greenplum.pxf.api.model.RequestContext;
+import org.greenplum.pxf.api.utilities.CombinedFragmentMetadata;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
 import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class HdfsDataFragmenterTest {
 
     private final RequestContext context = new RequestContext();
 
+    @TempDir
+    File tempDir;
+
     @BeforeEach
     public void setup() {
         Configuration configuration = new Configuration();
@@ -41,6 +54,22 @@ public class HdfsDataFragmenterTest {
         assertEquals(8, fragmentList.size());
     }
 
+    @Test
+    public void testFragmentsHaveStatusOfFile() throws Exception {
+        File file = new File(tempDir, "file.csv");
+        Files.write(file.toPath(), "1,a\n2,b\n".getBytes());
+        context.setConfig("default");
+        context.setUser("test-user");
+        context.setDataSource(file.getAbsolutePath());
+
+        List<Fragment> fragments = getFragmenter(context).getFragments();
+
+        assertEquals(1, fragments.size());
+        HcfsFragmentMetadata metadata = (HcfsFragmentMetadata) fragments.get(0).getMetadata();
+        assertEquals(file.length(), metadata.getFileLength());
+        assertEquals(file.lastModified(), metadata.getFileModificationTime());
+    }
+
     @Test
     public void testFragmenterWilcardPath() throws Exception {
         String path = this.getClass().getClassLoader().getResource("csv/").getPath();
@@ -83,6 +112,166 @@ public class HdfsDataFragmenterTest {
         assertEquals(0, fragmentList.size());
     }
 
+    @Test
+    public void testSampleFragmentsSplitsSplittableFilesIntoBlocks() throws Exception {
+        createSampleFiles();
+        context.addOption("STATS_SAMPLE_BLOCK_SIZE", "100");
+
+        List<Fragment> fragmentList = getFragmenter(context).getSampleFragments(1.0F, new Random(1));
+        // 10 blocks of the splittable file, and the whole compressed file
+        assertEquals(11, fragmentList.size());
+        List<Fragment> blocks = fragmentList.stream()
+                .filter(fragment -> fragment.getSourceName().endsWith("data.csv"))
+                .collect(Collectors.toList());
+        assertEquals(10, blocks.size());
+        for (int i = 0; i < 10; i++) {
+            assertRange(blocks.get(i), i * 100, 100);
+        }
+        List<Fragment> compressed = fragmentList.stream()
+                .filter(fragment -> fragment.getSourceName().endsWith("data.csv.gz"))
+                .collect(Collectors.toList());
+        assertEquals(1, compressed.size());
+        assertRange(compressed.get(0), 0, 300);
+    }
+
+    @Test
+    public void testSampleFragmentsPicksRatioOfBlocks() throws Exception {
+        createSampleFiles();
+        context.addOption("STATS_SAMPLE_BLOCK_SIZE", "100");
+
+        List<Fragment> fragmentList = getFragmenter(context).getSampleFragments(0.5F, new Random(1));
+        // half of the 11 blocks, rounded up
+        assertEquals(6, fragmentList.size());
+
+        // the same seed picks the same blocks
+        List<Fragment> sameList = getFragmenter(context).getSampleFragments(0.5F, new Random(1));
+        assertEquals(fragmentList.size(), sameList.size());
+        for (int i = 0; i < fragmentList.size(); i++) {
+            assertEquals(fragmentList.get(i).getSourceName(), sameList.get(i).getSourceName());
+            assertEquals(getStart(fragmentList.get(i)), getStart(sameList.get(i)));
+        }
+    }
+
+    @Test
+    public void testSampleFragmentsWithoutBlocks() throws Exception {
+        createSampleFiles();
+        context.addOption("STATS_SAMPLE_BLOCK_SIZE", "0");
+
+        List<Fragment> fragmentList = getFragmenter(context).getSampleFragments(0.5F, new Random(1));
+        // one of the two files, read whole
+        assertEquals(1, fragmentList.size());
+        long length = ((HcfsFragmentMetadata) fragmentList.get(0).getMetadata()).getLength();
+        assertTrue(length == 1000 || length == 300);
+    }
+
+    @Test
+    public void testCombineSmallFiles() throws Exception {
+        createSmallFiles(30, 30, 30, 500);
+        context.addOption("COMBINE_FILES_SIZE", "100");
+
+        List<Fragment> fragmentList = getFragmenter(context).getFragments();
+        // the three small files, and the file that is larger than the target size
+        assertEquals(2, fragmentList.size());
+        List<Fragment> combined = fragmentList.stream()
+                .filter(fragment -> fragment.getMetadata() instanceof CombinedFragmentMetadata)
+                .collect(Collectors.toList());
+        assertEquals(1, combined.size());
+        CombinedFragmentMetadata metadata = (CombinedFragmentMetadata) combined.get(0).getMetadata();
+        assertEquals(3, metadata.getFragments().size());
+        assertEquals(90, metadata.getEstimatedSize());
+        assertEquals(metadata.getFragments().get(0).getSourceName(), combined.get(0).getSourceName());
+        for (Fragment fragment : metadata.getFragments()) {
+            assertRange(fragment, 0, 30);
+        }
+    }
+
+    @Test
+    public void testCombineSmallFilesUpToTargetSize() throws Exception {
+        createSmallFiles(40, 40, 40, 40);
+        context.addOption("COMBINE_FILES_SIZE", "100");
+
+        List<Fragment> fragmentList = getFragmenter(context).getFragments();
+        assertEquals(2, fragmentList.size());
+        for (Fragment fragment : fragmentList) {
+            assertTrue(fragment.getMetadata() instanceof CombinedFragmentMetadata);
+            CombinedFragmentMetadata metadata = (CombinedFragmentMetadata) fragment.getMetadata();
+            assertEquals(2, metadata.getFragments().size());
+            assertEquals(80, metadata.getEstimatedSize());
+        }
+    }
+
+    @Test
+    public void testCombineSmallFilesDisabled() throws Exception {
+        createSmallFiles(30, 30, 30, 500);
+
+        List<Fragment> fragmentList = getFragmenter(context).getFragments();
+        assertEquals(4, fragmentList.size());
+        for (Fragment fragment : fragmentList) {
+            assertTrue(fragment.getMetadata() instanceof HcfsFragmentMetadata);
+        }
+    }
+
+    @Test
+    public void testCombineSmallFilesFailsOnNegativeSize() throws Exception {
+        createSmallFiles(30, 30);
+        context.addOption("COMBINE_FILES_SIZE", "-1");
+
+        Fragmenter fragmenter = getFragmenter(context);
+        Exception e = assertThrows(IllegalArgumentException.class, fragmenter::getFragments);
+        assertEquals("Property COMBINE_FILES_SIZE has incorrect value -1 : must be a non-negative long", e.getMessage());
+    }
+
+    @Test
+    public void testVersionOfDirectoryChangesWhenFileIsAppended() throws Exception {
+        createSmallFiles(30, 30);
+
+        String version = getFragmenter(context).getFragmentsVersion();
+        assertNotNull(version);
+        assertEquals(version, getFragmenter(context).getFragmentsVersion());
+
+        Files.write(tempDir.toPath().resolve("file1.csv"), new byte[10], StandardOpenOption.APPEND);
+        assertNotEquals(version, getFragmenter(context).getFragmentsVersion());
+    }
+
+    @Test
+    public void testVersionIsUnknownForWildcardsAndMissingPaths() throws Exception {
+        createSmallFiles(30, 30);
+        context.setDataSource(tempDir.getAbsolutePath() + "/*.csv");
+        assertNull(getFragmenter(context).getFragmentsVersion());
+
+        context.setDataSource(tempDir.getAbsolutePath() + "/missing");
+        assertNull(getFragmenter(context).getFragmentsVersion());
+    }
+
+    private void createSmallFiles(int... lengths) throws Exception {
+        for (int i = 0; i < lengths.length; i++) {
+            Files.write(tempDir.toPath().resolve("file" + i + ".csv"), new byte[lengths[i]]);
+        }
+
+        context.setConfig("default");
+        context.setUser("test-user");
+        context.setDataSource(tempDir.getAbsolutePath());
+    }
+
+    private void createSampleFiles() throws Exception {
+        Files.write(tempDir.toPath().resolve("data.csv"), new byte[1000]);
+        Files.write(tempDir.toPath().resolve("data.csv.gz"), new byte[300]);
+
+        context.setConfig("default");
+        context.setUser("test-user");
+        context.setDataSource(tempDir.getAbsolutePath());
+    }
+
+    private long getStart(Fragment fragment) {
+        return ((HcfsFragmentMetadata) fragment.getMetadata()).getStart();
+    }
+
+    private void assertRange(Fragment fragment, long start, long length) {
+        HcfsFragmentMetadata metadata = (HcfsFragmentMetadata) fragment.getMetadata();
+        assertEquals(start, metadata.getStart());
+        assertEquals(length, metadata.getLength());
+    }
+
     private Fragmenter getFragmenter(RequestContext context) {
         HdfsDataFragmenter fragmenter = new HdfsDataFragmenter();
         fragmenter.setRequestContext(context);
@@ -5,9 +5,13 @@ import org.apache.hadoop.mapred.InvalidInputException;
 import org.greenplum.pxf.api.model.Fragment;
 import org.greenplum.pxf.api.model.Fragmenter;
 import org.greenplum.pxf.api.model.RequestContext;
+import org.greenplum.pxf.api.utilities.CombinedFragmentMetadata;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
+import java.io.File;
+import java.nio.file.Files;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -22,6 +26,9 @@ public class HdfsFileFragmenterTest {
 
     private final RequestContext context = new RequestContext();
 
+    @TempDir
+    File tempDir;
+
     @BeforeEach
     public void setup() {
         Configuration configuration = new Configuration();
@@ -99,6 +106,27 @@ public class HdfsFileFragmenterTest {
         assertEquals(0, fragmentList.size());
     }
 
+    @Test
+    public void testCombineSmallFiles() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            Files.write(tempDir.toPath().resolve("file" + i + ".csv"), new byte[20]);
+        }
+
+        context.setConfig("default");
+        context.setUser("test-user");
+        context.setDataSource(tempDir.getAbsolutePath());
+        context.addOption("COMBINE_FILES_SIZE", "100");
+
+        Fragmenter fragmenter = getFragmenter(context);
+
+        List<Fragment> fragmentList = fragmenter.getFragments();
+        assertEquals(1, fragmentList.size());
+        assertTrue(fragmentList.get(0).getMetadata() instanceof CombinedFragmentMetadata);
+        CombinedFragmentMetadata metadata = (CombinedFragmentMetadata) fragmentList.get(0).getMetadata();
+        assertEquals(5, metadata.getFragments().size());
+        assertEquals(100, metadata.getEstimatedSize());
+    }
+
     private Fragmenter getFragmenter(RequestContext context) {
         HdfsFileFragmenter fragmenter = new HdfsFileFragmenter();
         fragmenter.setRequestContext(context);
@@ -4,12 +4,19 @@ import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.fs.Path;
 import org.greenplum.pxf.api.OneRow;
 import org.greenplum.pxf.api.model.Accessor;
+import org.greenplum.pxf.api.model.Fragment;
 import org.greenplum.pxf.api.model.RequestContext;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
+import java.io.File;
 import java.io.IOException;
 import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
@@ -21,6 +28,9 @@ public class LineBreakAccessorTest {
     private Accessor accessor;
     private RequestContext context;
 
+    @TempDir
+    File tempDir;
+
     @BeforeEach
     public void setup() {
         accessor = new LineBreakAccessor();
@@ -272,6 +282,55 @@ public class LineBreakAccessorTest {
         accessor.closeForRead();
     }
 
+    @Test
+    public void testSkipHeaderCountOnlyInFirstSampledBlock() throws Exception {
+        File file = new File(tempDir, "data.csv");
+        StringBuilder data = new StringBuilder("header\n");
+        for (int i = 0; i < 20; i++) {
+            data.append(String.format("row%02d\n", i));
+        }
+        Files.write(file.toPath(), data.toString().getBytes());
+
+        RequestContext fragmenterContext = new RequestContext();
+        Configuration configuration = new Configuration();
+        configuration.set("pxf.fs.basePath", "/");
+        fragmenterContext.setConfiguration(configuration);
+        fragmenterContext.setConfig("default");
+        fragmenterContext.setUser("test-user");
+        fragmenterContext.setDataSource(file.getAbsolutePath());
+        fragmenterContext.addOption("STATS_SAMPLE_BLOCK_SIZE", "30");
+        HdfsDataFragmenter fragmenter = new HdfsDataFragmenter();
+        fragmenter.setRequestContext(fragmenterContext);
+        fragmenter.afterPropertiesSet();
+        List<Fragment> blocks = fragmenter.getSampleFragments(1.0F, new Random(1));
+        assertEquals(5, blocks.size());
+
+        // read every block as the only sampled block of the file, which is
+        // then the first fragment of the file
+        List<String> rows = new ArrayList<>();
+        for (Fragment block : blocks) {
+            setup();
+            context.setDataSource(file.toURI().toString());
+            context.setFragmentMetadata(block.getMetadata());
+            context.setFragmentIndex(0);
+            context.addOption("SKIP_HEADER_COUNT", "1");
+            accessor.setRequestContext(context);
+            accessor.afterPropertiesSet();
+            accessor.openForRead();
+            OneRow oneRow;
+            while ((oneRow = accessor.readNextObject()) != null) {
+                rows.add(oneRow.getData().toString());
+            }
+            accessor.closeForRead();
+        }
+
+        // only the header is skipped
+        assertEquals(20, rows.size());
+        for (int i = 0; i < 20; i++) {
+            assertEquals(String.format("row%02d", i), rows.get(i));
+        }
+    }
+
     private void prepareTest(String resourceName) throws IOException, URISyntaxException {
         String filepath = this.getClass().getClassLoader()
                 .getResource(resourceName).toURI().toString();
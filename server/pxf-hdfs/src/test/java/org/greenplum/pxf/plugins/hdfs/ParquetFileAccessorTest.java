@@ -2,9 +2,12 @@ package org.greenplum.pxf.plugins.hdfs;
 
 import org.apache.parquet.schema.MessageType;
 import org.greenplum.pxf.api.model.RequestContext;
+import org.greenplum.pxf.plugins.hdfs.utilities.FooterCache;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.time.Duration;
+
 import static org.junit.jupiter.api.Assertions.assertNull;
 
 public class ParquetFileAccessorTest {
@@ -14,7 +17,7 @@ public class ParquetFileAccessorTest {
 
     @BeforeEach
     public void setup() {
-        accessor = new ParquetFileAccessor();
+        accessor = new ParquetFileAccessor(new FooterCache(1024 * 1024, Duration.ofHours(1)));
         context = new RequestContext();
         context.setConfig("default");
         context.setUser("test-user");
@@ -32,6 +32,7 @@ import org.greenplum.pxf.api.model.RequestContext;
 import org.greenplum.pxf.api.model.Resolver;
 import org.greenplum.pxf.api.utilities.ColumnDescriptor;
 import org.greenplum.pxf.plugins.hdfs.parquet.ParquetTypeConverter;
+import org.greenplum.pxf.plugins.hdfs.utilities.FooterCache;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
@@ -40,6 +41,7 @@ import java.io.File;
 import java.io.IOException;
 import java.math.BigDecimal;
 import java.math.BigInteger;
+import java.time.Duration;
 import java.time.Instant;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
@@ -82,7 +84,7 @@ public class ParquetWriteTest {
 
         columnDescriptors = new ArrayList<>();
 
-        accessor = new ParquetFileAccessor();
+        accessor = new ParquetFileAccessor(new FooterCache(1024 * 1024, Duration.ofHours(1)));
         resolver = new ParquetResolver();
         context = new RequestContext();
         configuration = new Configuration();
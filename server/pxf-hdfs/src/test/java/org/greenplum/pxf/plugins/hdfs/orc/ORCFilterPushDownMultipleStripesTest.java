@@ -7,9 +7,11 @@ import org.greenplum.pxf.api.model.Accessor;
 import org.greenplum.pxf.api.model.RequestContext;
 import org.greenplum.pxf.api.utilities.ColumnDescriptor;
 import org.greenplum.pxf.plugins.hdfs.HcfsFragmentMetadata;
+import org.greenplum.pxf.plugins.hdfs.utilities.FooterCache;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Objects;
 
@@ -359,7 +361,7 @@ public class ORCFilterPushDownMultipleStripesTest extends ORCVectorizedBaseTest
 
     private void runTestScenario(int expectedBatches) throws Exception {
         OneRow batchOfRows;
-        Accessor accessor = new ORCVectorizedAccessor();
+        Accessor accessor = new ORCVectorizedAccessor(new FooterCache(1024 * 1024, Duration.ofHours(1)));
         accessor.setRequestContext(context);
         accessor.afterPropertiesSet();
         assertTrue(accessor.openForRead());
@@ -9,10 +9,12 @@ import org.greenplum.pxf.api.model.Accessor;
 import org.greenplum.pxf.api.model.RequestContext;
 import org.greenplum.pxf.api.utilities.ColumnDescriptor;
 import org.greenplum.pxf.plugins.hdfs.HcfsFragmentMetadata;
+import org.greenplum.pxf.plugins.hdfs.utilities.FooterCache;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import java.sql.Date;
+import java.time.Duration;
 import java.util.List;
 import java.util.Objects;
 
@@ -31,7 +33,7 @@ public class ORCFilterPushDownTest extends ORCVectorizedBaseTest {
     public void setup() {
         super.setup();
 
-        accessor = new ORCVectorizedAccessor();
+        accessor = new ORCVectorizedAccessor(new FooterCache(1024 * 1024, Duration.ofHours(1)));
         resolver = new ORCVectorizedResolver();
         context = new RequestContext();
 
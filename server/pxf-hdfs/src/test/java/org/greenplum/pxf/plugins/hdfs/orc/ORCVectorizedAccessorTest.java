@@ -13,11 +13,13 @@ import org.greenplum.pxf.api.io.DataType;
 import org.greenplum.pxf.api.model.RequestContext;
 import org.greenplum.pxf.api.utilities.ColumnDescriptor;
 import org.greenplum.pxf.plugins.hdfs.HcfsFragmentMetadata;
+import org.greenplum.pxf.plugins.hdfs.utilities.FooterCache;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import java.io.File;
 import java.io.IOException;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Objects;
 import java.util.stream.IntStream;
@@ -42,7 +44,7 @@ class ORCVectorizedAccessorTest extends ORCVectorizedBaseTest {
     public void setup() {
         super.setup();
 
-        accessor = new ORCVectorizedAccessor();
+        accessor = new ORCVectorizedAccessor(new FooterCache(1024 * 1024, Duration.ofHours(1)));
         context = new RequestContext();
         context.setConfig("fakeConfig");
         context.setServerName("fakeServerName");
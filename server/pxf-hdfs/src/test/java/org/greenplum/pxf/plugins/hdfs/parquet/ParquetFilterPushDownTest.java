@@ -11,11 +11,13 @@ import org.greenplum.pxf.api.utilities.ColumnDescriptor;
 import org.greenplum.pxf.plugins.hdfs.HcfsFragmentMetadata;
 import org.greenplum.pxf.plugins.hdfs.ParquetFileAccessor;
 import org.greenplum.pxf.plugins.hdfs.ParquetResolver;
+import org.greenplum.pxf.plugins.hdfs.utilities.FooterCache;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import java.math.BigDecimal;
 import java.sql.Date;
+import java.time.Duration;
 import java.time.Instant;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
@@ -58,7 +60,7 @@ public class ParquetFilterPushDownTest extends ParquetBaseTest {
     public void setup() throws Exception {
         super.setup();
 
-        accessor = new ParquetFileAccessor();
+        accessor = new ParquetFileAccessor(new FooterCache(1024 * 1024, Duration.ofHours(1)));
         resolver = new ParquetResolver();
         context = new RequestContext();
 
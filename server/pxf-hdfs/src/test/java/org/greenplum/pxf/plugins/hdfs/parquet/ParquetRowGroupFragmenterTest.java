@@ -0,0 +1,253 @@
+package org.greenplum.pxf.plugins.hdfs.parquet;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.Path;
+import org.apache.parquet.example.data.Group;
+import org.apache.parquet.example.data.simple.SimpleGroupFactory;
+import org.apache.parquet.hadoop.ParquetFileReader;
+import org.apache.parquet.hadoop.ParquetWriter;
+import org.apache.parquet.hadoop.example.ExampleParquetWriter;
+import org.apache.parquet.hadoop.util.HadoopInputFile;
+import org.apache.parquet.schema.MessageType;
+import org.apache.parquet.schema.MessageTypeParser;
+import org.greenplum.pxf.api.OneRow;
+import org.greenplum.pxf.api.io.DataType;
+import org.greenplum.pxf.api.model.Accessor;
+import org.greenplum.pxf.api.model.Fragment;
+import org.greenplum.pxf.api.model.RequestContext;
+import org.greenplum.pxf.api.utilities.ColumnDescriptor;
+import org.greenplum.pxf.plugins.hdfs.HcfsFragmentMetadata;
+import org.greenplum.pxf.plugins.hdfs.ParquetFileAccessor;
+import org.greenplum.pxf.plugins.hdfs.utilities.FooterCache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ParquetRowGroupFragmenterTest {
+
+    private static final int ROW_COUNT = 1000;
+
+    @TempDir
+    File temp; // must be non-private
+    private String path;
+    private RequestContext context;
+    private Configuration configuration;
+    private FooterCache footerCache;
+
+    @BeforeEach
+    public void setup() throws IOException {
+        path = new File(temp, "ids.parquet").getAbsolutePath();
+        writeIds(path);
+
+        List<ColumnDescriptor> columnDescriptors = new ArrayList<>();
+        columnDescriptors.add(new ColumnDescriptor("id", DataType.INTEGER.getOID(), 0, "int4", null));
+
+        configuration = new Configuration();
+        configuration.set("pxf.fs.basePath", "/");
+        // the block size of the local file system is part of the cached file system
+        configuration.setBoolean("fs.file.impl.disable.cache", true);
+
+        context = new RequestContext();
+        context.setConfig("default");
+        context.setUser("test-user");
+        context.setDataSource(path);
+        context.setTupleDescription(columnDescriptors);
+        context.setConfiguration(configuration);
+        context.addOption("FRAGMENT_BY_ROWGROUP", "true");
+
+        footerCache = new FooterCache(1024 * 1024, Duration.ofHours(1));
+    }
+
+    @Test
+    public void testSplitsAreFragmentsWithoutOption() throws Exception {
+        configuration.setLong("fs.local.block.size", 1024);
+        context.addOption("FRAGMENT_BY_ROWGROUP", "false");
+        // id < 150
+        context.setFilterString("a0c23s3d150o1");
+
+        List<Fragment> fragments = getFragments();
+
+        // the splits are not pruned by the filter
+        assertTrue(fragments.size() > 1);
+        long length = 0;
+        for (Fragment fragment : fragments) {
+            HcfsFragmentMetadata metadata = (HcfsFragmentMetadata) fragment.getMetadata();
+            assertEquals(length, metadata.getStart());
+            length += metadata.getLength();
+        }
+        assertEquals(new File(path).length(), length);
+        assertEquals(0, footerCache.getStats().requestCount());
+    }
+
+    @Test
+    public void testFootersOfAllFilesAreRead() throws Exception {
+        File directory = new File(temp, "directory");
+        assertTrue(directory.mkdir());
+        for (int i = 0; i < 3; i++) {
+            writeIds(new File(directory, "ids" + i + ".parquet").getAbsolutePath());
+        }
+        context.setDataSource(directory.getAbsolutePath());
+        context.addOption("FOOTER_READ_THREADS", "2");
+        // id < 150
+        context.setFilterString("a0c23s3d150o1");
+
+        List<Fragment> fragments = getFragments();
+
+        assertEquals(3, fragments.size());
+        assertEquals(3, footerCache.getStats().missCount());
+        for (int i = 0; i < 3; i++) {
+            assertTrue(fragments.get(i).getSourceName().endsWith("ids" + i + ".parquet"));
+        }
+        List<Integer> ids = readIds(fragments);
+        assertTrue(ids.size() < 3 * ROW_COUNT);
+        assertEquals(3 * 150, ids.stream().filter(id -> id < 150).count());
+    }
+
+    @Test
+    public void testConsecutiveRowGroupsBecomeOneFragment() throws Exception {
+        assertTrue(getRowGroupCount() > 1);
+
+        List<Fragment> fragments = getFragments();
+
+        assertEquals(1, fragments.size());
+        assertEquals(range(0, ROW_COUNT), readIds(fragments));
+    }
+
+    @Test
+    public void testEveryRowGroupIsInExactlyOneFragment() throws Exception {
+        configuration.setLong("fs.local.block.size", 1024);
+
+        List<Fragment> fragments = getFragments();
+
+        assertTrue(fragments.size() > 1);
+        List<Integer> ids = readIds(fragments);
+        Collections.sort(ids);
+        assertEquals(range(0, ROW_COUNT), ids);
+    }
+
+    @Test
+    public void testRowGroupsOutsideOfFilterAreDropped() throws Exception {
+        // id < 150
+        context.setFilterString("a0c23s3d150o1");
+
+        List<Fragment> fragments = getFragments();
+
+        assertEquals(1, fragments.size());
+        List<Integer> ids = readIds(fragments);
+        assertTrue(ids.containsAll(range(0, 150)));
+        assertTrue(ids.size() < ROW_COUNT);
+        assertEquals(0, (int) ids.get(0));
+    }
+
+    @Test
+    public void testRowGroupsInTheMiddleAreSelected() throws Exception {
+        // id = 550
+        context.setFilterString("a0c23s3d550o5");
+
+        List<Fragment> fragments = getFragments();
+
+        assertEquals(1, fragments.size());
+        List<Integer> ids = readIds(fragments);
+        assertTrue(ids.contains(550));
+        assertTrue(ids.get(0) > 0);
+        assertTrue(ids.get(ids.size() - 1) < ROW_COUNT - 1);
+    }
+
+    @Test
+    public void testOrFilterSelectsNonConsecutiveRowGroups() throws Exception {
+        // id < 10 OR id > 990
+        context.setFilterString("a0c23s2d10o1a0c23s3d990o2l1");
+
+        List<Fragment> fragments = getFragments();
+
+        assertEquals(2, fragments.size());
+        List<Integer> ids = readIds(fragments);
+        assertTrue(ids.containsAll(range(0, 10)));
+        assertTrue(ids.containsAll(range(991, ROW_COUNT)));
+        assertTrue(ids.size() < ROW_COUNT);
+    }
+
+    @Test
+    public void testNoFragmentsWhenFilterExcludesAllRowGroups() throws Exception {
+        // id > 5000
+        context.setFilterString("a0c23s4d5000o2");
+
+        assertEquals(0, getFragments().size());
+    }
+
+    @Test
+    public void testUnsupportedFilterDoesNotDropRowGroups() throws Exception {
+        // id LIKE '1%' is not pushed down to parquet
+        context.setFilterString("a0c25s2d1%o7");
+
+        List<Fragment> fragments = getFragments();
+
+        assertEquals(range(0, ROW_COUNT), readIds(fragments));
+    }
+
+    private List<Fragment> getFragments() throws Exception {
+        ParquetRowGroupFragmenter fragmenter = new ParquetRowGroupFragmenter(footerCache);
+        fragmenter.setRequestContext(context);
+        fragmenter.afterPropertiesSet();
+        return fragmenter.getFragments();
+    }
+
+    private List<Integer> readIds(List<Fragment> fragments) throws Exception {
+        List<Integer> ids = new ArrayList<>();
+        for (Fragment fragment : fragments) {
+            context.setRequestType(RequestContext.RequestType.READ_BRIDGE);
+            context.setDataSource(fragment.getSourceName());
+            context.setFragmentMetadata(fragment.getMetadata());
+            // read all the rows of the fragment
+            context.setFilterString(null);
+
+            Accessor accessor = new ParquetFileAccessor(new FooterCache(1024 * 1024, Duration.ofHours(1)));
+            accessor.setRequestContext(context);
+            accessor.afterPropertiesSet();
+            accessor.openForRead();
+            OneRow row;
+            while ((row = accessor.readNextObject()) != null) {
+                ids.add(((Group) row.getData()).getInteger(0, 0));
+            }
+            accessor.closeForRead();
+        }
+        return ids;
+    }
+
+    private int getRowGroupCount() throws IOException {
+        try (ParquetFileReader reader = ParquetFileReader.open(HadoopInputFile.fromPath(new Path(path), new Configuration()))) {
+            return reader.getRowGroups().size();
+        }
+    }
+
+    private static List<Integer> range(int start, int end) {
+        return IntStream.range(start, end).boxed().collect(Collectors.toList());
+    }
+
+    private static void writeIds(String path) throws IOException {
+        MessageType schema = MessageTypeParser.parseMessageType("message ids { required int32 id; }");
+        SimpleGroupFactory groupFactory = new SimpleGroupFactory(schema);
+        // small row groups, the size of a row group is checked every 100 rows
+        try (ParquetWriter<Group> writer = ExampleParquetWriter.builder(new Path(path))
+                .withType(schema)
+                .withRowGroupSize(64)
+                .withConf(new Configuration())
+                .build()) {
+            for (int id = 0; id < ROW_COUNT; id++) {
+                writer.write(groupFactory.newGroup().append("id", id));
+            }
+        }
+    }
+}
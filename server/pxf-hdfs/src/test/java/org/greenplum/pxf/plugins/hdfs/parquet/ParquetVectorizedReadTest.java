@@ -0,0 +1,253 @@
+package org.greenplum.pxf.plugins.hdfs.parquet;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.hive.ql.exec.vector.VectorizedRowBatch;
+import org.apache.parquet.hadoop.ParquetFileReader;
+import org.apache.parquet.hadoop.util.HadoopInputFile;
+import org.apache.parquet.schema.MessageType;
+import org.apache.parquet.schema.Type;
+import org.greenplum.pxf.api.OneField;
+import org.greenplum.pxf.api.OneRow;
+import org.greenplum.pxf.api.io.CsvRecordEncoder;
+import org.greenplum.pxf.api.io.DataType;
+import org.greenplum.pxf.api.io.GPDBWritableRecordEncoder;
+import org.greenplum.pxf.api.io.RecordEncoder;
+import org.greenplum.pxf.api.io.Writable;
+import org.greenplum.pxf.api.model.Accessor;
+import org.greenplum.pxf.api.model.GreenplumCSV;
+import org.greenplum.pxf.api.model.OutputFormat;
+import org.greenplum.pxf.api.model.RequestContext;
+import org.greenplum.pxf.api.model.Resolver;
+import org.greenplum.pxf.api.utilities.ColumnDescriptor;
+import org.greenplum.pxf.plugins.hdfs.HcfsFragmentMetadata;
+import org.greenplum.pxf.plugins.hdfs.ParquetFileAccessor;
+import org.greenplum.pxf.plugins.hdfs.ParquetResolver;
+import org.greenplum.pxf.plugins.hdfs.utilities.FooterCache;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ParquetVectorizedReadTest {
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "parquet_types.parquet",
+            "primitive_types.parquet",
+            "numeric_with_precision.parquet",
+            "parquet_list_types.parquet",
+            "parquet_timestamp_list_type.parquet",
+            "proto-repeated-string.parquet",
+            "old-repeated-int.parquet"})
+    public void testResolvesSameFieldsAsParquetResolver(String file) throws Exception {
+        List<ColumnDescriptor> columns = getColumnDescriptors(file);
+
+        List<List<OneField>> expected = readRows(file, columns);
+        List<List<OneField>> actual = readBatches(file, columns);
+
+        assertFalse(expected.isEmpty());
+        assertRowsEqual(expected, actual);
+    }
+
+    @Test
+    public void testResolvesProjectedColumns() throws Exception {
+        List<ColumnDescriptor> columns = getColumnDescriptors("parquet_types.parquet");
+        for (int i = 0; i < columns.size(); i++) {
+            columns.get(i).setProjected(i % 3 == 0);
+        }
+
+        List<List<OneField>> expected = readRows("parquet_types.parquet", columns);
+        List<List<OneField>> actual = readBatches("parquet_types.parquet", columns);
+
+        assertEquals(25, actual.size());
+        assertNull(actual.get(0).get(1).val);
+        assertRowsEqual(expected, actual);
+    }
+
+    @Test
+    public void testSkipsRowGroupsExcludedByFilter() throws Exception {
+        List<ColumnDescriptor> columns = getColumnDescriptors("parquet_types.parquet");
+        RequestContext context = getContext("parquet_types.parquet", columns);
+        // id = 100, ids are between 1 and 25
+        context.setFilterString("a0c20s3d100o5");
+
+        Accessor accessor = new ParquetVectorizedAccessor(new FooterCache(1024 * 1024, Duration.ofHours(1)));
+        accessor.setRequestContext(context);
+        accessor.afterPropertiesSet();
+        accessor.openForRead();
+        assertNull(accessor.readNextObject());
+        accessor.closeForRead();
+    }
+
+    @Test
+    public void testWriteIsNotSupported() {
+        List<ColumnDescriptor> columns = new ArrayList<>();
+        columns.add(new ColumnDescriptor("id", DataType.INTEGER.getOID(), 0, "int4", null));
+        RequestContext context = getContext("parquet_types.parquet", columns);
+
+        Accessor accessor = new ParquetVectorizedAccessor(new FooterCache(1024 * 1024, Duration.ofHours(1)));
+        accessor.setRequestContext(context);
+        accessor.afterPropertiesSet();
+        assertThrows(UnsupportedOperationException.class, accessor::openForWrite);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"parquet_types.parquet", "parquet_list_types.parquet", "proto-repeated-string.parquet"})
+    public void testSerializesBatchesLikeResolvedFields(String file) throws Exception {
+        List<ColumnDescriptor> columns = getColumnDescriptors(file);
+        columns.get(columns.size() - 1).setProjected(false);
+
+        for (OutputFormat outputFormat : OutputFormat.values()) {
+            RequestContext context = getContext(file, columns);
+            context.setOutputFormat(outputFormat);
+            Accessor accessor = new ParquetVectorizedAccessor(new FooterCache(1024 * 1024, Duration.ofHours(1)));
+            ParquetVectorizedResolver resolver = new ParquetVectorizedResolver();
+            accessor.setRequestContext(context);
+            accessor.afterPropertiesSet();
+            resolver.setRequestContext(context);
+            resolver.afterPropertiesSet();
+
+            RecordEncoder encoder = outputFormat == OutputFormat.GPDBWritable
+                    ? new GPDBWritableRecordEncoder(columns, StandardCharsets.UTF_8)
+                    : new CsvRecordEncoder(columns.size(), new GreenplumCSV(), "csv");
+            RecordEncoder expectedEncoder = outputFormat == OutputFormat.GPDBWritable
+                    ? new GPDBWritableRecordEncoder(columns, StandardCharsets.UTF_8)
+                    : new CsvRecordEncoder(columns.size(), new GreenplumCSV(), "csv");
+
+            accessor.openForRead();
+            assertTrue(resolver.isBatchSerializationSupported());
+            OneRow batch;
+            while ((batch = accessor.readNextObject()) != null) {
+                int size = resolver.serializeBatch(batch, encoder);
+                assertEquals(((VectorizedRowBatch) batch.getData()).size, size);
+
+                for (List<OneField> record : resolver.getFieldsForBatch(batch)) {
+                    expectedEncoder.beginRecord();
+                    for (OneField field : record) {
+                        expectedEncoder.writeField(field);
+                    }
+                    expectedEncoder.endRecord();
+                }
+            }
+            accessor.closeForRead();
+
+            assertEquals(expectedEncoder.getRecordCount(), encoder.getRecordCount());
+            assertArrayEquals(serialize(expectedEncoder), serialize(encoder));
+        }
+    }
+
+    private List<List<OneField>> readRows(String file, List<ColumnDescriptor> columns) throws Exception {
+        RequestContext context = getContext(file, columns);
+        Accessor accessor = new ParquetFileAccessor(new FooterCache(1024 * 1024, Duration.ofHours(1)));
+        Resolver resolver = new ParquetResolver();
+        accessor.setRequestContext(context);
+        accessor.afterPropertiesSet();
+        resolver.setRequestContext(context);
+        resolver.afterPropertiesSet();
+
+        List<List<OneField>> rows = new ArrayList<>();
+        accessor.openForRead();
+        OneRow row;
+        while ((row = accessor.readNextObject()) != null) {
+            rows.add(resolver.getFields(row));
+        }
+        accessor.closeForRead();
+        return rows;
+    }
+
+    private List<List<OneField>> readBatches(String file, List<ColumnDescriptor> columns) throws Exception {
+        RequestContext context = getContext(file, columns);
+        Accessor accessor = new ParquetVectorizedAccessor(new FooterCache(1024 * 1024, Duration.ofHours(1)));
+        ParquetVectorizedResolver resolver = new ParquetVectorizedResolver();
+        accessor.setRequestContext(context);
+        accessor.afterPropertiesSet();
+        resolver.setRequestContext(context);
+        resolver.afterPropertiesSet();
+
+        List<List<OneField>> rows = new ArrayList<>();
+        accessor.openForRead();
+        OneRow batch;
+        while ((batch = accessor.readNextObject()) != null) {
+            // the resolver reuses the lists of the batch
+            resolver.getFieldsForBatch(batch).forEach(record -> rows.add(new ArrayList<>(record)));
+        }
+        accessor.closeForRead();
+        return rows;
+    }
+
+    private void assertRowsEqual(List<List<OneField>> expected, List<List<OneField>> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int row = 0; row < expected.size(); row++) {
+            assertEquals(expected.get(row).size(), actual.get(row).size());
+            for (int column = 0; column < expected.get(row).size(); column++) {
+                OneField expectedField = expected.get(row).get(column);
+                OneField actualField = actual.get(row).get(column);
+                String message = String.format("row %d, column %d", row, column);
+                assertEquals(expectedField.type, actualField.type, message);
+                if (expectedField.val instanceof byte[]) {
+                    assertArrayEquals((byte[]) expectedField.val, (byte[]) actualField.val, message);
+                } else {
+                    assertEquals(expectedField.val, actualField.val, message);
+                }
+            }
+        }
+    }
+
+    private List<ColumnDescriptor> getColumnDescriptors(String file) throws IOException {
+        MessageType schema;
+        try (ParquetFileReader reader = ParquetFileReader.open(HadoopInputFile.fromPath(new Path(getPath(file)), new Configuration()))) {
+            schema = reader.getFooter().getFileMetaData().getSchema();
+        }
+
+        List<ColumnDescriptor> columns = new ArrayList<>();
+        for (Type type : schema.getFields()) {
+            DataType dataType = type.isRepetition(Type.Repetition.REPEATED)
+                    ? DataType.TEXT
+                    : ParquetTypeConverter.from(type).getDataType(type);
+            columns.add(new ColumnDescriptor(type.getName(), dataType.getOID(), columns.size(), dataType.name(), null));
+        }
+        return columns;
+    }
+
+    private RequestContext getContext(String file, List<ColumnDescriptor> columns) {
+        String path = getPath(file);
+        RequestContext context = new RequestContext();
+        context.setConfig("fakeConfig");
+        context.setServerName("fakeServerName");
+        context.setUser("test-user");
+        context.setProfileScheme("localfile");
+        context.setRequestType(RequestContext.RequestType.READ_BRIDGE);
+        context.setDataSource(path);
+        context.setFragmentMetadata(new HcfsFragmentMetadata(0, new File(path).length()));
+        context.setTupleDescription(columns);
+        context.setConfiguration(new Configuration());
+        return context;
+    }
+
+    private String getPath(String file) {
+        return Objects.requireNonNull(getClass().getClassLoader().getResource("parquet/" + file)).getPath();
+    }
+
+    private static byte[] serialize(Writable writable) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        writable.write(new DataOutputStream(bytes));
+        return bytes.toByteArray();
+    }
+}
@@ -0,0 +1,100 @@
+package org.greenplum.pxf.plugins.hdfs.utilities;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.Path;
+import org.apache.orc.impl.OrcTail;
+import org.apache.parquet.hadoop.metadata.ParquetMetadata;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.time.Duration;
+import java.util.Objects;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class FooterCacheTest {
+
+    @TempDir
+    File temp; // must be non-private
+    private FooterCache footerCache;
+    private Configuration configuration;
+
+    @BeforeEach
+    public void setup() {
+        footerCache = new FooterCache(1024 * 1024, Duration.ofHours(1));
+        configuration = new Configuration();
+    }
+
+    @Test
+    public void testParquetFooterIsReadOnce() throws Exception {
+        Path file = new Path(getPath("parquet/parquet_types.parquet"));
+
+        ParquetMetadata footer = footerCache.getParquetFooter(file, configuration);
+
+        assertEquals(25, footer.getBlocks().stream().mapToLong(b -> b.getRowCount()).sum());
+        assertSame(footer, footerCache.getParquetFooter(file, configuration));
+        assertEquals(1, footerCache.getStats().missCount());
+        assertEquals(1, footerCache.getStats().hitCount());
+    }
+
+    @Test
+    public void testOrcTailIsReadOnce() throws Exception {
+        Path file = new Path(getPath("orc/orc_types.orc"));
+
+        OrcTail tail = footerCache.getOrcTail(file, configuration);
+
+        assertEquals(25, tail.getFooter().getNumberOfRows());
+        assertSame(tail, footerCache.getOrcTail(file, configuration));
+        assertEquals(1, footerCache.getStats().missCount());
+        assertEquals(1, footerCache.getStats().hitCount());
+    }
+
+    @Test
+    public void testStatusOfFileIsNotRequestedWhenProvided() throws Exception {
+        File copy = new File(temp, "copy.parquet");
+        FileUtils.copyFile(new File(getPath("parquet/parquet_types.parquet")), copy);
+        Path file = new Path(copy.getAbsolutePath());
+        FileStatus status = file.getFileSystem(configuration).getFileStatus(file);
+
+        ParquetMetadata footer = footerCache.getParquetFooter(file, status, configuration);
+        // the cached footer is returned without getting the status of the deleted file
+        assertTrue(copy.delete());
+
+        assertSame(footer, footerCache.getParquetFooter(file, status, configuration));
+        assertEquals(1, footerCache.getStats().hitCount());
+    }
+
+    @Test
+    public void testRewrittenFileIsReadAgain() throws Exception {
+        File copy = new File(temp, "copy.parquet");
+        FileUtils.copyFile(new File(getPath("parquet/parquet_types.parquet")), copy);
+        Path file = new Path(copy.getAbsolutePath());
+
+        ParquetMetadata footer = footerCache.getParquetFooter(file, configuration);
+        FileUtils.copyFile(new File(getPath("parquet/primitive_types.parquet")), copy);
+        copy.setLastModified(copy.lastModified() + 10000);
+
+        assertNotSame(footer, footerCache.getParquetFooter(file, configuration));
+        assertEquals(2, footerCache.getStats().missCount());
+    }
+
+    @Test
+    public void testMissingFileIsReported() {
+        Path file = new Path(new File(temp, "missing.parquet").getAbsolutePath());
+
+        assertThrows(FileNotFoundException.class, () -> footerCache.getParquetFooter(file, configuration));
+    }
+
+    private String getPath(String resource) {
+        return Objects.requireNonNull(getClass().getClassLoader().getResource(resource)).getPath();
+    }
+}
@@ -30,6 +30,8 @@ import java.util.Collections;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class HdfsUtilitiesTest {
 
@@ -52,4 +54,22 @@ public class HdfsUtilitiesTest {
         assertEquals(fileSplit.getLength(), 100);
         assertEquals(fileSplit.getPath().toString(), "/abc/path/to/data/source");
     }
+
+    @Test
+    public void testIsFirstSplitOfFile() {
+        RequestContext context = new RequestContext();
+        // without metadata only the fragment index is known
+        assertTrue(HdfsUtilities.isFirstSplitOfFile(context));
+
+        context.setFragmentMetadata(new HcfsFragmentMetadata(0, 100));
+        assertTrue(HdfsUtilities.isFirstSplitOfFile(context));
+
+        // a sampled block from the middle of the file
+        context.setFragmentMetadata(new HcfsFragmentMetadata(100, 100));
+        assertFalse(HdfsUtilities.isFirstSplitOfFile(context));
+
+        context.setFragmentIndex(1);
+        context.setFragmentMetadata(new HcfsFragmentMetadata(100, 100));
+        assertFalse(HdfsUtilities.isFirstSplitOfFile(context));
+    }
 }
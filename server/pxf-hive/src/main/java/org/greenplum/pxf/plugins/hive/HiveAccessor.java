@@ -51,6 +51,7 @@ import org.greenplum.pxf.api.utilities.SerializationService;
 import org.greenplum.pxf.api.utilities.SpringContext;
 import org.greenplum.pxf.plugins.hdfs.HdfsSplittableDataAccessor;
 import org.greenplum.pxf.plugins.hdfs.filter.SearchArgumentBuilder;
+import org.greenplum.pxf.plugins.hdfs.utilities.HdfsUtilities;
 import org.greenplum.pxf.plugins.hive.utilities.HiveUtilities;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -273,8 +274,8 @@ public class HiveAccessor extends HdfsSplittableDataAccessor {
      */
     @Override
     public boolean openForRead() throws Exception {
-        // Make sure lines aren't skipped outside of the first fragment
-        if (context.getFragmentIndex() != 0) {
+        // Make sure lines aren't skipped outside of the first split of the file
+        if (!HdfsUtilities.isFirstSplitOfFile(context)) {
             skipHeaderCount = 0;
         }
         if (!shouldDataBeReturnedFromFilteredPartition()) {
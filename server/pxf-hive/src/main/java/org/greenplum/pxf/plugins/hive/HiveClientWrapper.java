@@ -33,12 +33,16 @@ import java.net.URL;
 import java.security.PrivilegedExceptionAction;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Properties;
 
 import static org.apache.hadoop.hive.metastore.api.hive_metastoreConstants.FILE_OUTPUT_FORMAT;
 import static org.apache.hadoop.hive.metastore.api.hive_metastoreConstants.META_TABLE_LOCATION;
 import static org.greenplum.pxf.api.model.ConfigurationFactory.PXF_CONFIG_RESOURCE_PATH_PROPERTY;
+import static org.greenplum.pxf.api.model.ConfigurationFactory.PXF_CONFIG_VERSION_PROPERTY;
 import static org.greenplum.pxf.plugins.hive.HiveDataFragmenter.HIVE_PARTITIONS_DELIM;
 import static org.greenplum.pxf.plugins.hive.HiveDataFragmenter.PXF_META_TABLE_PARTITION_COLUMN_VALUES;
 
@@ -56,6 +60,7 @@ public class HiveClientWrapper {
     private HiveClientFactory hiveClientFactory;
     private HiveUtilities hiveUtilities;
     private SecureLogin secureLogin;
+    private MetaStoreClientPool clientPool;
 
     /**
      * Sets the {@link HiveClientFactory} object
@@ -87,24 +92,54 @@ public class HiveClientWrapper {
         this.secureLogin = secureLogin;
     }
 
+    /**
+     * Sets the {@link MetaStoreClientPool} object
+     *
+     * @param clientPool the pool of idle MetaStore clients
+     */
+    @Autowired
+    public void setClientPool(MetaStoreClientPool clientPool) {
+        this.clientPool = clientPool;
+    }
+
     /**
      * Initializes the IMetaStoreClient
      * Uses classpath configuration files to locate the MetaStore
+     * Reuses an idle client of the server when the clients are pooled,
+     * closing the returned holder then returns the client to the pool.
      *
      * @return initialized client
      */
     public MetaStoreClientHolder initHiveClient(RequestContext context, Configuration configuration) {
-        HiveConf hiveConf = getHiveConf(configuration);
         try {
-            if (Utilities.isSecurityEnabled(configuration)) {
-                UserGroupInformation loginUser = secureLogin.getLoginUser(context, configuration);
+            UserGroupInformation loginUser = Utilities.isSecurityEnabled(configuration)
+                    ? secureLogin.getLoginUser(context, configuration)
+                    : null;
+
+            MetaStoreClientPool.Key key = null;
+            if (clientPool != null) {
+                Map<String, String> additionalProperties = context.getAdditionalConfigProps() == null
+                        ? Collections.emptyMap()
+                        : new HashMap<>(context.getAdditionalConfigProps());
+                key = new MetaStoreClientPool.Key(context.getServerName(), context.getConfig(),
+                        configuration.getLong(PXF_CONFIG_VERSION_PROPERTY, 0), loginUser, additionalProperties);
+                IMetaStoreClient client = clientPool.acquire(key);
+                if (client != null) {
+                    return new MetaStoreClientHolder(client, clientPool, key);
+                }
+            }
+
+            HiveConf hiveConf = getHiveConf(configuration);
+            MetaStoreClientHolder holder;
+            if (loginUser != null) {
                 LOG.debug("initialize HiveMetaStoreClient as login user '{}'", loginUser.getUserName());
                 // wrap in doAs for Kerberos to propagate kerberos tokens from login Subject
-                return loginUser.
+                holder = loginUser.
                         doAs((PrivilegedExceptionAction<MetaStoreClientHolder>) () -> hiveClientFactory.initHiveClient(hiveConf));
             } else {
-                return hiveClientFactory.initHiveClient(hiveConf);
+                holder = hiveClientFactory.initHiveClient(hiveConf);
             }
+            return key == null ? holder : new MetaStoreClientHolder(holder.getClient(), clientPool, key);
         } catch (MetaException | InterruptedException | IOException e) {
             throw new RuntimeException("Failed connecting to Hive MetaStore service: " + e.getMessage(), e);
         }
@@ -400,17 +435,32 @@ public class HiveClientWrapper {
      * Holder of a MetaStoreClient that implements AutoCloseable interface that allows it to be used in
      * try-with-resources block and be automatically closed when no longer required.
      * The class just wraps the real client, it does not delegate any methods to the real client as there would be
-     * too many methods to override.
+     * too many methods to override. A pooled client is returned to its pool instead of being closed.
      */
     public static class MetaStoreClientHolder implements AutoCloseable {
         private final IMetaStoreClient client;
+        private final MetaStoreClientPool pool;
+        private final MetaStoreClientPool.Key key;
 
         /**
          * Creates a new holder of the provided Metastore client.
          * @param client a client to hold
          */
         MetaStoreClientHolder(IMetaStoreClient client) {
+            this(client, null, null);
+        }
+
+        /**
+         * Creates a new holder of the provided Metastore client, that
+         * releases the client to the pool when closed.
+         * @param client a client to hold
+         * @param pool   the pool of the client
+         * @param key    the identity of the client in the pool
+         */
+        MetaStoreClientHolder(IMetaStoreClient client, MetaStoreClientPool pool, MetaStoreClientPool.Key key) {
             this.client = client;
+            this.pool = pool;
+            this.key = key;
         }
 
         /**
@@ -423,7 +473,11 @@ public class HiveClientWrapper {
 
         @Override
         public void close() {
-            client.close();
+            if (pool != null) {
+                pool.release(key, client);
+            } else {
+                client.close();
+            }
         }
     }
 }
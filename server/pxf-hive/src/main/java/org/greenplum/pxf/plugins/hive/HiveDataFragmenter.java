@@ -43,6 +43,7 @@ import org.greenplum.pxf.api.model.Fragment;
 import org.greenplum.pxf.api.model.FragmentStats;
 import org.greenplum.pxf.api.model.Metadata;
 import org.greenplum.pxf.api.utilities.ColumnDescriptor;
+import org.greenplum.pxf.api.utilities.SamplingUtils;
 import org.greenplum.pxf.api.utilities.SpringContext;
 import org.greenplum.pxf.plugins.hdfs.HdfsDataFragmenter;
 import org.greenplum.pxf.plugins.hive.utilities.HiveUtilities;
@@ -50,11 +51,15 @@ import org.greenplum.pxf.plugins.hive.utilities.ProfileFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.Random;
 import java.util.Set;
 import java.util.TreeSet;
 import java.util.stream.Collectors;
@@ -97,6 +102,8 @@ public class HiveDataFragmenter extends HdfsDataFragmenter {
     protected final HiveUtilities hiveUtilities;
 
     private final HiveClientWrapper hiveClientWrapper;
+    private final HiveMetadataCache metadataCache;
+    private final HiveSplitEnumerator splitEnumerator;
 
     // Data structure to hold hive partition names if exist, to be used by
     // partition filtering
@@ -104,12 +111,21 @@ public class HiveDataFragmenter extends HdfsDataFragmenter {
     private final Map<String, String> partitionKeyTypes = new HashMap<>();
 
     public HiveDataFragmenter() {
-        this(SpringContext.getBean(HiveUtilities.class), SpringContext.getBean(HiveClientWrapper.class));
+        this(SpringContext.getBean(HiveUtilities.class), SpringContext.getBean(HiveClientWrapper.class),
+                SpringContext.getBean(HiveMetadataCache.class), SpringContext.getBean(HiveSplitEnumerator.class));
     }
 
     HiveDataFragmenter(HiveUtilities hiveUtilities, HiveClientWrapper hiveClientWrapper) {
+        this(hiveUtilities, hiveClientWrapper, new HiveMetadataCache(false, Duration.ZERO, 0, false),
+                new HiveSplitEnumerator(1, 0));
+    }
+
+    HiveDataFragmenter(HiveUtilities hiveUtilities, HiveClientWrapper hiveClientWrapper,
+                       HiveMetadataCache metadataCache, HiveSplitEnumerator splitEnumerator) {
         this.hiveClientWrapper = hiveClientWrapper;
         this.hiveUtilities = hiveUtilities;
+        this.metadataCache = metadataCache;
+        this.splitEnumerator = splitEnumerator;
     }
 
     /**
@@ -128,6 +144,7 @@ public class HiveDataFragmenter extends HdfsDataFragmenter {
         Metadata.Item tblDesc = hiveClientWrapper.extractTableFromName(context.getDataSource());
 
         try (HiveClientWrapper.MetaStoreClientHolder clientHolder = hiveClientWrapper.initHiveClient(context, configuration)) {
+            metadataCache.invalidateChanged(context.getServerName(), clientHolder.getClient());
             fetchTableMetaData(tblDesc, clientHolder.getClient());
         }
         return fragments;
@@ -139,7 +156,8 @@ public class HiveDataFragmenter extends HdfsDataFragmenter {
      */
     private void fetchTableMetaData(Metadata.Item tblDesc, IMetaStoreClient client) throws Exception {
 
-        Table tbl = hiveClientWrapper.getHiveTable(client, tblDesc);
+        Table tbl = metadataCache.getTable(context.getServerName(), tblDesc,
+                () -> hiveClientWrapper.getHiveTable(client, tblDesc));
 
         Metadata metadata = new Metadata(tblDesc);
         hiveClientWrapper.getSchema(tbl, metadata);
@@ -191,8 +209,9 @@ public class HiveDataFragmenter extends HdfsDataFragmenter {
             // API call to Hive MetaStore, will return a List of all the
             // partitions for this table, that matches the partition filters
             // Defined in filterStringForHive.
-            partitions = client.listPartitionsByFilter(tblDesc.getPath(),
-                    tblDesc.getName(), filterStringForHive, ALL_PARTS);
+            String filter = filterStringForHive;
+            partitions = metadataCache.getPartitions(context.getServerName(), tblDesc, filter,
+                    () -> client.listPartitionsByFilter(tblDesc.getPath(), tblDesc.getName(), filter, ALL_PARTS));
 
             // No matched partitions for the filter, no fragments to return.
             if (partitions == null || partitions.isEmpty()) {
@@ -208,28 +227,34 @@ public class HiveDataFragmenter extends HdfsDataFragmenter {
         } else {
             // API call to Hive MetaStore, will return a List of all the
             // partitions for this table (no filtering)
-            partitions = client.listPartitions(tblDesc.getPath(),
-                    tblDesc.getName(), ALL_PARTS);
+            partitions = metadataCache.getPartitions(context.getServerName(), tblDesc, "",
+                    () -> client.listPartitions(tblDesc.getPath(), tblDesc.getName(), ALL_PARTS));
         }
 
         StorageDescriptor descTable = tbl.getSd();
-        Properties props;
+        JobConf tableJobConf = getJobConf();
 
         if (partitions.isEmpty()) {
-            props = getSchema(tbl);
-            fetchMetaDataForSimpleTable(descTable, props, hasComplexTypes);
+            Properties props = getSchema(tbl);
+            fragments.addAll(fetchMetaData(new HiveTablePartition(descTable, props, null, null, null),
+                    hasComplexTypes, tableJobConf));
         } else {
             List<FieldSchema> partitionKeys = tbl.getPartitionKeys();
 
-            for (Partition partition : partitions) {
-                StorageDescriptor descPartition = partition.getSd();
-                props = MetaStoreUtils.getSchema(descPartition, descTable,
-                        null,
-                        tblDesc.getPath(), tblDesc.getName(),
-                        partitionKeys);
-                fetchMetaDataForPartitionedTable(descPartition, props, partition,
-                        partitionKeys, tblDesc.getName(), hasComplexTypes);
-            }
+            // the splits of the partitions are enumerated concurrently, every worker
+            // sets the input paths of its partitions on its own copy of the job configuration
+            List<List<Fragment>> partitionFragments = splitEnumerator.enumerate(partitions,
+                    () -> new JobConf(tableJobConf),
+                    (jobConf, partition) -> {
+                        StorageDescriptor descPartition = partition.getSd();
+                        Properties props = MetaStoreUtils.getSchema(descPartition, descTable,
+                                null,
+                                tblDesc.getPath(), tblDesc.getName(),
+                                partitionKeys);
+                        return fetchMetaData(new HiveTablePartition(descPartition, props, partition,
+                                partitionKeys, tblDesc.getName()), hasComplexTypes, jobConf);
+                    });
+            partitionFragments.forEach(fragments::addAll);
         }
     }
 
@@ -264,36 +289,9 @@ public class HiveDataFragmenter extends HdfsDataFragmenter {
                 table.getPartitionKeys());
     }
 
-    private void fetchMetaDataForSimpleTable(StorageDescriptor stdsc,
-                                             Properties props,
-                                             boolean hasComplexTypes) throws Exception {
-        fetchMetaDataForSimpleTable(stdsc, props, null, hasComplexTypes);
-    }
-
-    private void fetchMetaDataForSimpleTable(StorageDescriptor stdsc,
-                                             Properties props,
-                                             String tableName,
-                                             boolean hasComplexTypes)
-            throws Exception {
-        fetchMetaData(new HiveTablePartition(stdsc, props, null, null,
-                tableName), hasComplexTypes);
-    }
-
-    private void fetchMetaDataForPartitionedTable(StorageDescriptor stdsc,
-                                                  Properties props,
-                                                  Partition partition,
-                                                  List<FieldSchema> partitionKeys,
-                                                  String tableName,
-                                                  boolean hasComplexTypes)
+    /* Returns the fragments of a table partition, may be called concurrently for different partitions */
+    private List<Fragment> fetchMetaData(HiveTablePartition tablePartition, boolean hasComplexTypes, JobConf jobConf)
             throws Exception {
-        fetchMetaData(new HiveTablePartition(stdsc, props, partition, partitionKeys, tableName),
-                hasComplexTypes);
-    }
-
-    /* Fills a table partition */
-    private void fetchMetaData(HiveTablePartition tablePartition, boolean hasComplexTypes)
-            throws Exception {
-        JobConf jobConf = getJobConf();
         InputFormat<?, ?> fformat = hiveUtilities.makeInputFormat(tablePartition.storageDesc.getInputFormat(), jobConf);
         String profile = null;
         String userProfile = context.getProfile();
@@ -317,7 +315,7 @@ public class HiveDataFragmenter extends HdfsDataFragmenter {
             splits = fformat.getSplits(jobConf, 1);
         } catch (org.apache.hadoop.mapred.InvalidInputException e) {
             LOG.debug("getSplits failed on " + e.getMessage());
-            return;
+            return Collections.emptyList();
         }
 
         // the same properties object will be reused by all fragments (splits) for a given partition
@@ -325,14 +323,25 @@ public class HiveDataFragmenter extends HdfsDataFragmenter {
         // when there are a lot of splits (files) backing up the Hive table (partition).
         // Care must be taken by fragment processors to not modify this object or make a clone of it, if needed.
         Properties properties = hiveClientWrapper.buildFragmentProperties(fragmenterForProfile, tablePartition);
+        List<Fragment> partitionFragments = new ArrayList<>(splits.length);
         for (InputSplit split : splits) {
             FileSplit fileSplit = (FileSplit) split;
             String filepath = fileSplit.getPath().toString();
 
             HiveFragmentMetadata metadata = new HiveFragmentMetadata(fileSplit, properties);
             Fragment fragment = new Fragment(filepath, metadata, profile);
-            fragments.add(fragment);
+            partitionFragments.add(fragment);
         }
+        return partitionFragments;
+    }
+
+    /**
+     * Gets a random sample of the splits of the table for ANALYZE, which
+     * picks the given ratio of the splits.
+     */
+    @Override
+    public List<Fragment> getSampleFragments(float sampleRatio, Random random) throws Exception {
+        return SamplingUtils.sampleFragments(getFragments(), sampleRatio, random);
     }
 
     /**
@@ -343,7 +352,10 @@ public class HiveDataFragmenter extends HdfsDataFragmenter {
         Metadata.Item tblDesc = hiveClientWrapper.extractTableFromName(context.getDataSource());
         Table tbl;
         try (HiveClientWrapper.MetaStoreClientHolder holder = hiveClientWrapper.initHiveClient(context, configuration)) {
-            tbl = hiveClientWrapper.getHiveTable(holder.getClient(), tblDesc);
+            IMetaStoreClient client = holder.getClient();
+            metadataCache.invalidateChanged(context.getServerName(), client);
+            tbl = metadataCache.getTable(context.getServerName(), tblDesc,
+                    () -> hiveClientWrapper.getHiveTable(client, tblDesc));
         }
         Metadata metadata = new Metadata(tblDesc);
         hiveClientWrapper.getSchema(tbl, metadata);
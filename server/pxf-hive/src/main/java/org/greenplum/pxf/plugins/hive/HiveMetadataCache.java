@@ -0,0 +1,227 @@
+package org.greenplum.pxf.plugins.hive;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Ticker;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.ExecutionError;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import lombok.Data;
+import org.apache.hadoop.hive.metastore.IMetaStoreClient;
+import org.apache.hadoop.hive.metastore.api.NotificationEvent;
+import org.apache.hadoop.hive.metastore.api.Partition;
+import org.apache.hadoop.hive.metastore.api.Table;
+import org.apache.thrift.TException;
+import org.greenplum.pxf.api.model.Metadata;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cache of the Hive tables and the partition lists fetched from the Hive
+ * MetaStore, so that repeated queries against a table do not fetch the
+ * metadata of the table and of all of its partitions again.
+ * <p>
+ * Entries expire after the configured expiration. When invalidation through
+ * the MetaStore notification log is enabled, the events logged since the
+ * previous query to the server are read before the cache is used, and the
+ * entries of the tables they changed are discarded. This requires the
+ * MetaStore to be configured with the {@code DbNotificationListener}.
+ * <p>
+ * The cached objects are shared by all queries and must not be modified.
+ */
+@Component
+public class HiveMetadataCache {
+
+    private static final Logger LOG = LoggerFactory.getLogger(HiveMetadataCache.class);
+
+    /**
+     * The maximum number of notification events read at once, all the
+     * entries of the server are discarded when more events were logged
+     */
+    static final int MAX_NOTIFICATION_EVENTS = 1000;
+
+    private final Cache<Key, Table> tables;
+    private final Cache<Key, List<Partition>> partitions;
+    private final boolean notificationInvalidation;
+    private final Map<String, Long> lastEventIds = new ConcurrentHashMap<>();
+
+    @Autowired
+    public HiveMetadataCache(@Value("${pxf.hive.metadata-cache.enabled:false}") boolean enabled,
+                             @Value("${pxf.hive.metadata-cache.expiration:1m}") Duration expiration,
+                             @Value("${pxf.hive.metadata-cache.maximum-size:1000}") long maximumSize,
+                             @Value("${pxf.hive.metadata-cache.notification-invalidation:false}") boolean notificationInvalidation) {
+        this(enabled, expiration, maximumSize, notificationInvalidation, Ticker.systemTicker());
+    }
+
+    @VisibleForTesting
+    HiveMetadataCache(boolean enabled, Duration expiration, long maximumSize, boolean notificationInvalidation, Ticker ticker) {
+        if (enabled) {
+            LOG.info("Creating Hive Metadata Cache with {} entries and entry expiration of {} ms",
+                    maximumSize, expiration.toMillis());
+            tables = CacheBuilder.newBuilder()
+                    .expireAfterWrite(expiration.toMillis(), TimeUnit.MILLISECONDS)
+                    .maximumSize(maximumSize)
+                    .ticker(ticker)
+                    .build();
+            partitions = CacheBuilder.newBuilder()
+                    .expireAfterWrite(expiration.toMillis(), TimeUnit.MILLISECONDS)
+                    .maximumSize(maximumSize)
+                    .ticker(ticker)
+                    .build();
+        } else {
+            tables = null;
+            partitions = null;
+        }
+        this.notificationInvalidation = enabled && notificationInvalidation;
+    }
+
+    /**
+     * @return whether the metadata is cached across queries
+     */
+    public boolean isEnabled() {
+        return tables != null;
+    }
+
+    /**
+     * Returns the cached table, or fetches it with the loader when it is not
+     * cached
+     *
+     * @param serverName the name of the server of the MetaStore
+     * @param item       the database and the name of the table
+     * @param loader     fetches the table from the MetaStore
+     * @return the table
+     * @throws Exception when the table cannot be fetched
+     */
+    public Table getTable(String serverName, Metadata.Item item, Callable<Table> loader) throws Exception {
+        if (tables == null) {
+            return loader.call();
+        }
+        return get(tables, new Key(serverName, item.getPath(), item.getName(), null), loader);
+    }
+
+    /**
+     * Returns the cached partitions of the table that match the filter, or
+     * fetches them with the loader when they are not cached
+     *
+     * @param serverName the name of the server of the MetaStore
+     * @param item       the database and the name of the table
+     * @param filter     the partition filter, empty for all the partitions
+     * @param loader     fetches the partitions from the MetaStore
+     * @return the partitions, never null
+     * @throws Exception when the partitions cannot be fetched
+     */
+    public List<Partition> getPartitions(String serverName, Metadata.Item item, String filter,
+                                         Callable<List<Partition>> loader) throws Exception {
+        if (partitions == null) {
+            return loader.call();
+        }
+        return get(partitions, new Key(serverName, item.getPath(), item.getName(), filter), () -> {
+            List<Partition> result = loader.call();
+            return result != null ? result : Collections.emptyList();
+        });
+    }
+
+    /**
+     * Discards the entries of the tables changed since the previous call for
+     * the server, as recorded by the MetaStore notification log. Does
+     * nothing unless invalidation through the notification log is enabled.
+     *
+     * @param serverName the name of the server of the MetaStore
+     * @param client     the client of the MetaStore
+     */
+    public void invalidateChanged(String serverName, IMetaStoreClient client) {
+        if (!notificationInvalidation) {
+            return;
+        }
+        Long lastEventId = lastEventIds.get(serverName);
+        long currentEventId;
+        try {
+            currentEventId = client.getCurrentNotificationEventId().getEventId();
+            if (lastEventId == null || currentEventId < lastEventId
+                    || currentEventId - lastEventId > MAX_NOTIFICATION_EVENTS) {
+                invalidateServer(serverName);
+            } else if (currentEventId > lastEventId) {
+                List<NotificationEvent> events = client
+                        .getNextNotification(lastEventId, MAX_NOTIFICATION_EVENTS, null)
+                        .getEvents();
+                for (NotificationEvent event : events) {
+                    invalidateTable(serverName, event.getDbName(), event.getTableName());
+                }
+            }
+        } catch (TException e) {
+            LOG.warn("Unable to read the notification log of the Hive MetaStore for server {}, " +
+                    "discarding the cached metadata: {}", serverName, e.getMessage());
+            invalidateServer(serverName);
+            lastEventIds.remove(serverName);
+            return;
+        }
+        lastEventIds.merge(serverName, currentEventId, Math::max);
+    }
+
+    private void invalidateServer(String serverName) {
+        LOG.debug("Discarding the cached Hive metadata of server {}", serverName);
+        tables.asMap().keySet().removeIf(key -> key.serverName.equals(serverName));
+        partitions.asMap().keySet().removeIf(key -> key.serverName.equals(serverName));
+    }
+
+    private void invalidateTable(String serverName, String dbName, String tableName) {
+        if (dbName == null) {
+            return;
+        }
+        LOG.debug("Discarding the cached Hive metadata of {}.{} of server {}", dbName, tableName, serverName);
+        // events without a table name, e.g. dropping a database, discard all the tables of the database
+        tables.asMap().keySet().removeIf(key -> key.matches(serverName, dbName, tableName));
+        partitions.asMap().keySet().removeIf(key -> key.matches(serverName, dbName, tableName));
+    }
+
+    private static <V> V get(Cache<Key, V> cache, Key key, Callable<V> loader) throws Exception {
+        try {
+            return cache.get(key, loader);
+        } catch (ExecutionException | UncheckedExecutionException | ExecutionError e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof Exception) {
+                throw (Exception) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * The identity of a table, or of the partitions of a table that match a
+     * filter. Hive database and table names are case-insensitive.
+     */
+    @Data
+    static class Key {
+        private final String serverName;
+        private final String dbName;
+        private final String tableName;
+        private final String filter;
+
+        Key(String serverName, String dbName, String tableName, String filter) {
+            this.serverName = serverName;
+            this.dbName = dbName.toLowerCase();
+            this.tableName = tableName.toLowerCase();
+            this.filter = filter;
+        }
+
+        boolean matches(String serverName, String dbName, String tableName) {
+            return this.serverName.equals(serverName) && this.dbName.equalsIgnoreCase(dbName)
+                    && (tableName == null || this.tableName.equalsIgnoreCase(tableName));
+        }
+    }
+}
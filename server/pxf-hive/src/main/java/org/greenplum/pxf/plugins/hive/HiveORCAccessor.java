@@ -29,6 +29,7 @@ import org.greenplum.pxf.api.utilities.EnumAggregationType;
 import org.greenplum.pxf.api.utilities.SerializationService;
 import org.greenplum.pxf.api.utilities.SpringContext;
 import org.greenplum.pxf.api.utilities.Utilities;
+import org.greenplum.pxf.plugins.hdfs.utilities.FooterCache;
 import org.greenplum.pxf.plugins.hive.utilities.HiveUtilities;
 
 import java.util.EnumSet;
@@ -49,16 +50,20 @@ public class HiveORCAccessor extends HiveAccessor implements StatsAccessor {
 
     private boolean statsInitialized;
 
+    private final FooterCache footerCache;
+
     /**
      * Constructs a HiveORCFileAccessor.
      */
     public HiveORCAccessor() {
         this(SpringContext.getBean(HiveUtilities.class),
-                SpringContext.getBean(SerializationService.class));
+                SpringContext.getBean(SerializationService.class),
+                SpringContext.getBean(FooterCache.class));
     }
 
-    public HiveORCAccessor(HiveUtilities hiveUtilities, SerializationService serializationService) {
+    public HiveORCAccessor(HiveUtilities hiveUtilities, SerializationService serializationService, FooterCache footerCache) {
         super(new OrcInputFormat(), hiveUtilities, serializationService);
+        this.footerCache = footerCache;
     }
 
     @Override
@@ -70,7 +75,7 @@ public class HiveORCAccessor extends HiveAccessor implements StatsAccessor {
     @Override
     public boolean openForRead() throws Exception {
         if (useStats) {
-            orcReader = hiveUtilities.getOrcReader(context);
+            orcReader = hiveUtilities.getOrcReader(context, footerCache);
             if (orcReader == null) {
                 return false;
             }
@@ -139,7 +144,7 @@ public class HiveORCAccessor extends HiveAccessor implements StatsAccessor {
      * @return ORC file reader
      */
     protected Reader getOrcReader() {
-        return hiveUtilities.getOrcReader(context);
+        return hiveUtilities.getOrcReader(context, footerCache);
     }
 
 }
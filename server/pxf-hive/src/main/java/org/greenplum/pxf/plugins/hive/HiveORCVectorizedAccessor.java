@@ -45,7 +45,7 @@ public class HiveORCVectorizedAccessor extends HiveORCAccessor {
         Reader.Options options = new Reader.Options();
         addColumns(options);
         addFragments(options);
-        orcReader = hiveUtilities.getOrcReader(context);
+        orcReader = getOrcReader();
         vrr = orcReader.rowsOptions(options);
         batch = orcReader.getSchema().createRowBatch();
         return vrr.hasNext();
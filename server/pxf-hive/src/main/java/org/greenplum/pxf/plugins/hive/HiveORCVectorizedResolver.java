@@ -39,6 +39,9 @@ import org.greenplum.pxf.api.OneRow;
 import org.greenplum.pxf.api.model.ReadVectorizedResolver;
 import org.greenplum.pxf.api.error.UnsupportedTypeException;
 import org.greenplum.pxf.api.io.DataType;
+import org.greenplum.pxf.api.utilities.SpringContext;
+import org.greenplum.pxf.plugins.hdfs.utilities.FooterCache;
+import org.greenplum.pxf.plugins.hive.utilities.HiveUtilities;
 
 import java.sql.Date;
 import java.util.ArrayList;
@@ -66,12 +69,22 @@ public class HiveORCVectorizedResolver extends HiveResolver implements ReadVecto
 
     private List<List<OneField>> resolvedBatch;
     private StructObjectInspector soi;
+    private final FooterCache footerCache;
+
+    public HiveORCVectorizedResolver() {
+        this(SpringContext.getBean(HiveUtilities.class), SpringContext.getBean(FooterCache.class));
+    }
+
+    HiveORCVectorizedResolver(HiveUtilities hiveUtilities, FooterCache footerCache) {
+        super(hiveUtilities);
+        this.footerCache = footerCache;
+    }
 
     @Override
     public void afterPropertiesSet() {
         super.afterPropertiesSet();
         try {
-            soi = (StructObjectInspector) hiveUtilities.getOrcReader(context).getObjectInspector();
+            soi = (StructObjectInspector) hiveUtilities.getOrcReader(context, footerCache).getObjectInspector();
         } catch (Exception e) {
             LOG.error("Failed to create an object inspector.");
             throw new RuntimeException("Failed to initialize HiveORCVectorizedResolver", e);
@@ -0,0 +1,174 @@
+package org.greenplum.pxf.plugins.hive;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.apache.hadoop.security.UserGroupInformation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.security.PrivilegedExceptionAction;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * Enumerates the splits of the partitions of a Hive table concurrently.
+ * <p>
+ * Listing the files of a partition is a round trip to the NameNode or the
+ * object store, so tables with thousands of partitions are fragmented by up
+ * to {@code parallelism} workers per query. The request thread is one of the
+ * workers, the others run on a pool shared by all queries; when the pool is
+ * saturated the query continues with fewer workers. Workers run as the user
+ * of the request, and the results are returned in the order of the
+ * partitions, so that the fragments are the same as when they are
+ * enumerated one partition at a time.
+ */
+@Component
+public class HiveSplitEnumerator {
+
+    private static final Logger LOG = LoggerFactory.getLogger(HiveSplitEnumerator.class);
+
+    private final int parallelism;
+    private final ExecutorService executor;
+
+    /**
+     * Creates the enumerator
+     *
+     * @param parallelism the maximum number of partitions of a query enumerated at the same time, 1 to disable
+     * @param maxThreads  the maximum number of threads enumerating partitions across queries
+     */
+    public HiveSplitEnumerator(@Value("${pxf.hive.split-enumeration.parallelism:8}") int parallelism,
+                               @Value("${pxf.hive.split-enumeration.max-threads:64}") int maxThreads) {
+        if (parallelism > 1 && maxThreads > 0) {
+            this.parallelism = parallelism;
+            this.executor = new ThreadPoolExecutor(0, maxThreads,
+                    60L, TimeUnit.SECONDS, new SynchronousQueue<>(),
+                    new ThreadFactoryBuilder().setNameFormat("pxf-hive-splits-%d").setDaemon(true).build());
+            LOG.info("Enumerating the splits of up to {} Hive partitions per query with up to {} threads",
+                    parallelism, maxThreads);
+        } else {
+            this.parallelism = 1;
+            this.executor = null;
+        }
+    }
+
+    /**
+     * Stops the threads enumerating partitions
+     */
+    @PreDestroy
+    public void shutdown() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Applies the function to every partition, concurrently, and returns
+     * the results in the order of the partitions. Every worker creates its
+     * own state with the supplier, and passes it to the function for every
+     * partition it processes. The first failure stops the enumeration and
+     * is rethrown.
+     *
+     * @param partitions the partitions
+     * @param state      creates the state of a worker
+     * @param function   the function applied to every partition
+     * @param <S>        the type of the state of a worker
+     * @param <T>        the type of the partitions
+     * @param <R>        the type of the results
+     * @return the results of the function, in the order of the partitions
+     * @throws Exception when the function fails for a partition
+     */
+    public <S, T, R> List<R> enumerate(List<T> partitions, Supplier<S> state, PartitionFunction<S, T, R> function)
+            throws Exception {
+        Object[] results = new Object[partitions.size()];
+        AtomicInteger next = new AtomicInteger();
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+
+        List<Future<?>> futures = new ArrayList<>();
+        int workers = Math.min(parallelism, partitions.size());
+        if (workers > 1) {
+            UserGroupInformation ugi = UserGroupInformation.getCurrentUser();
+            try {
+                for (int i = 1; i < workers; i++) {
+                    futures.add(executor.submit(() -> ugi.doAs((PrivilegedExceptionAction<Void>) () -> {
+                        work(partitions, state, function, results, next, failure);
+                        return null;
+                    })));
+                }
+            } catch (RejectedExecutionException e) {
+                LOG.debug("Enumerating partitions with {} of {} workers, the pool is saturated", futures.size() + 1, workers);
+            }
+        }
+
+        try {
+            work(partitions, state, function, results, next, failure);
+            for (Future<?> future : futures) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    failure.compareAndSet(null, e.getCause());
+                }
+            }
+        } catch (InterruptedException e) {
+            failure.compareAndSet(null, e);
+            futures.forEach(future -> future.cancel(true));
+        }
+
+        Throwable t = failure.get();
+        if (t instanceof Exception) {
+            throw (Exception) t;
+        } else if (t instanceof Error) {
+            throw (Error) t;
+        } else if (t != null) {
+            throw new RuntimeException(t);
+        }
+
+        @SuppressWarnings("unchecked")
+        List<R> list = (List<R>) Arrays.asList(results);
+        return list;
+    }
+
+    /**
+     * Processes the next partition until all of them are processed, or a
+     * worker failed
+     */
+    private <S, T, R> void work(List<T> partitions, Supplier<S> state, PartitionFunction<S, T, R> function,
+                                Object[] results, AtomicInteger next, AtomicReference<Throwable> failure) {
+        S workerState = null;
+        int index;
+        while (failure.get() == null && (index = next.getAndIncrement()) < partitions.size()) {
+            try {
+                if (workerState == null) {
+                    workerState = state.get();
+                }
+                results[index] = function.apply(workerState, partitions.get(index));
+            } catch (Throwable t) {
+                failure.compareAndSet(null, t);
+            }
+        }
+    }
+
+    /**
+     * A function applied to a partition by a worker
+     *
+     * @param <S> the type of the state of the worker
+     * @param <T> the type of the partition
+     * @param <R> the type of the result
+     */
+    @FunctionalInterface
+    public interface PartitionFunction<S, T, R> {
+        R apply(S state, T partition) throws Exception;
+    }
+}
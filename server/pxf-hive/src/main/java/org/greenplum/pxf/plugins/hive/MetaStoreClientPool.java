@@ -0,0 +1,171 @@
+package org.greenplum.pxf.plugins.hive;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Ticker;
+import lombok.Data;
+import org.apache.hadoop.hive.metastore.IMetaStoreClient;
+import org.apache.hadoop.security.UserGroupInformation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Pool of idle Hive MetaStore clients.
+ * <p>
+ * Creating a MetaStore client opens a new Thrift connection to the
+ * MetaStore, and performs a Kerberos handshake when security is enabled.
+ * Clients released by a request are kept open for the configured idle
+ * timeout, and reused by the next requests to the same server as the same
+ * login user. At most {@code maxIdle} clients are kept per server; with a
+ * maximum of zero the clients are closed as soon as they are released.
+ * <p>
+ * Expired clients are closed whenever a client is acquired or released.
+ */
+@Component
+public class MetaStoreClientPool {
+
+    private static final Logger LOG = LoggerFactory.getLogger(MetaStoreClientPool.class);
+
+    private final int maxIdle;
+    private final long idleTimeoutNanos;
+    private final Ticker ticker;
+    private final Map<Key, Deque<IdleClient>> idleClients = new HashMap<>();
+
+    @Autowired
+    public MetaStoreClientPool(@Value("${pxf.hive.metastore-client-pool.max-idle:4}") int maxIdle,
+                               @Value("${pxf.hive.metastore-client-pool.idle-timeout:5m}") Duration idleTimeout) {
+        this(maxIdle, idleTimeout, Ticker.systemTicker());
+    }
+
+    @VisibleForTesting
+    MetaStoreClientPool(int maxIdle, Duration idleTimeout, Ticker ticker) {
+        this.maxIdle = maxIdle;
+        this.idleTimeoutNanos = idleTimeout.toNanos();
+        this.ticker = ticker;
+    }
+
+    /**
+     * Returns the most recently released client for the key, or null when
+     * there is no idle client and a new one needs to be created.
+     *
+     * @param key the identity of the client
+     * @return an idle client, or null
+     */
+    IMetaStoreClient acquire(Key key) {
+        List<IMetaStoreClient> expired;
+        IdleClient idleClient = null;
+        synchronized (this) {
+            expired = removeExpired();
+            Deque<IdleClient> clients = idleClients.get(key);
+            if (clients != null) {
+                idleClient = clients.pollFirst();
+                if (clients.isEmpty()) {
+                    idleClients.remove(key);
+                }
+            }
+        }
+        close(expired);
+        if (idleClient != null) {
+            LOG.debug("Reusing Hive MetaStore client for server {}", key.getServerName());
+            return idleClient.client;
+        }
+        return null;
+    }
+
+    /**
+     * Returns a client to the pool, or closes it if the pool already holds
+     * the maximum number of idle clients for the key.
+     *
+     * @param key    the identity of the client
+     * @param client the client that is no longer used by the request
+     */
+    void release(Key key, IMetaStoreClient client) {
+        List<IMetaStoreClient> expired;
+        boolean pooled = false;
+        synchronized (this) {
+            expired = removeExpired();
+            if (maxIdle > 0) {
+                Deque<IdleClient> clients = idleClients.computeIfAbsent(key, k -> new ArrayDeque<>());
+                if (clients.size() < maxIdle) {
+                    clients.addFirst(new IdleClient(client, ticker.read()));
+                    pooled = true;
+                }
+            }
+        }
+        if (!pooled) {
+            expired.add(client);
+        }
+        close(expired);
+    }
+
+    /**
+     * @return the number of idle clients in the pool
+     */
+    synchronized int size() {
+        return idleClients.values().stream().mapToInt(Deque::size).sum();
+    }
+
+    private List<IMetaStoreClient> removeExpired() {
+        List<IMetaStoreClient> expired = new ArrayList<>();
+        long now = ticker.read();
+        Iterator<Deque<IdleClient>> iterator = idleClients.values().iterator();
+        while (iterator.hasNext()) {
+            Deque<IdleClient> clients = iterator.next();
+            // the oldest clients are at the end of the queue
+            while (!clients.isEmpty() && now - clients.peekLast().released >= idleTimeoutNanos) {
+                expired.add(clients.pollLast().client);
+            }
+            if (clients.isEmpty()) {
+                iterator.remove();
+            }
+        }
+        return expired;
+    }
+
+    private void close(List<IMetaStoreClient> clients) {
+        for (IMetaStoreClient client : clients) {
+            try {
+                client.close();
+            } catch (Throwable t) {
+                LOG.warn("Error closing Hive MetaStore client, ignored.", t);
+            }
+        }
+    }
+
+    /**
+     * The identity of a client. Clients are not shared across servers,
+     * configuration directories, versions of the server configuration (the
+     * configuration is reloaded when its files change), login users (a new
+     * login UGI is created on Kerberos re-login) or additional configuration
+     * properties, since the client keeps the configuration it was created with.
+     */
+    @Data
+    static class Key {
+        private final String serverName;
+        private final String configDirectory;
+        private final long configurationVersion;
+        private final UserGroupInformation loginUser;
+        private final Map<String, String> additionalProperties;
+    }
+
+    private static class IdleClient {
+        private final IMetaStoreClient client;
+        private final long released;
+
+        IdleClient(IMetaStoreClient client, long released) {
+            this.client = client;
+            this.released = released;
+        }
+    }
+}
@@ -36,6 +36,7 @@ import org.greenplum.pxf.api.io.DataType;
 import org.greenplum.pxf.api.model.Metadata;
 import org.greenplum.pxf.api.model.RequestContext;
 import org.greenplum.pxf.api.utilities.EnumGpdbType;
+import org.greenplum.pxf.plugins.hdfs.utilities.FooterCache;
 import org.greenplum.pxf.plugins.hive.orc.PxfReaderImpl;
 import org.springframework.stereotype.Component;
 
@@ -206,16 +207,19 @@ public class HiveUtilities {
     /**
      * Creates ORC file reader.
      *
-     * @param context input data with given data source
+     * @param context     input data with given data source
+     * @param footerCache the cache of the tails of ORC files
      * @return ORC file reader
      */
-    public Reader getOrcReader(RequestContext context) {
+    public Reader getOrcReader(RequestContext context, FooterCache footerCache) {
         try {
             Configuration configuration = context.getConfiguration();
             Path path = new Path(context.getDataSource());
             // similar to OrcFile.createReader(path.getFileSystem(context.getConfiguration()), path);
             OrcFile.ReaderOptions opts = new OrcFile.ReaderOptions(configuration);
             opts.filesystem(path.getFileSystem(configuration));
+            // the tail of the file is shared by all the fragments of the file
+            opts.orcTail(footerCache.getOrcTail(path, configuration));
             return new PxfReaderImpl(path, opts);
         } catch (Exception e) {
             throw new RuntimeException("Exception while getting orc reader", e);
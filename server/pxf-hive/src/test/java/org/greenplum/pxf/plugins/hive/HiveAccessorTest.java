@@ -141,6 +141,25 @@ class HiveAccessorTest {
         verify(mockReader, times(1)).next(any(), any());
     }
 
+    @Test
+    public void testSkipHeaderCountGreaterThanZeroFirstFragmentNotAtStartOfFile() throws Exception {
+        prepareReaderMocks();
+
+        // a sampled split from the middle of the file is the first fragment of the file
+        properties.put("skip.header.line.count", "2");
+        HiveFragmentMetadata metadata = new HiveFragmentMetadata(100, 100, properties);
+        context.setFragmentIndex(0);
+        context.setFragmentMetadata(metadata);
+
+        accessor = new HiveAccessor(null, mockHiveUtilities, serializationService);
+        accessor.setRequestContext(context);
+        accessor.afterPropertiesSet();
+        accessor.openForRead();
+        accessor.readNextObject();
+
+        verify(mockReader, times(1)).next(any(), any());
+    }
+
     @Test
     public void testSkipHeaderCountZeroFirstFragment() throws Exception {
         prepareReaderMocks();
@@ -0,0 +1,155 @@
+package org.greenplum.pxf.plugins.hive;
+
+import com.google.common.base.Ticker;
+import org.apache.hadoop.hive.metastore.IMetaStoreClient;
+import org.apache.hadoop.hive.metastore.api.CurrentNotificationEventId;
+import org.apache.hadoop.hive.metastore.api.MetaException;
+import org.apache.hadoop.hive.metastore.api.NotificationEvent;
+import org.apache.hadoop.hive.metastore.api.NotificationEventResponse;
+import org.apache.hadoop.hive.metastore.api.Partition;
+import org.apache.hadoop.hive.metastore.api.Table;
+import org.greenplum.pxf.api.model.Metadata;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class HiveMetadataCacheTest {
+
+    private final Metadata.Item item = new Metadata.Item("default", "sales");
+
+    @Mock
+    private IMetaStoreClient mockClient;
+    @Mock
+    private Callable<Table> mockTableLoader;
+    @Mock
+    private Callable<List<Partition>> mockPartitionsLoader;
+
+    private FakeTicker ticker;
+    private HiveMetadataCache cache;
+
+    @BeforeEach
+    public void setup() {
+        ticker = new FakeTicker();
+        cache = new HiveMetadataCache(true, Duration.ofMinutes(1), 100, true, ticker);
+    }
+
+    @Test
+    public void testDisabledCacheAlwaysLoads() throws Exception {
+        cache = new HiveMetadataCache(false, Duration.ofMinutes(1), 100, true, ticker);
+        when(mockTableLoader.call()).thenReturn(new Table(), new Table());
+
+        assertNotSame(cache.getTable("default", item, mockTableLoader), cache.getTable("default", item, mockTableLoader));
+        cache.invalidateChanged("default", mockClient);
+
+        assertFalse(cache.isEnabled());
+        verify(mockClient, never()).getCurrentNotificationEventId();
+    }
+
+    @Test
+    public void testTableIsCachedUntilItExpires() throws Exception {
+        Table table = new Table();
+        when(mockTableLoader.call()).thenReturn(table, new Table());
+
+        Table first = cache.getTable("default", item, mockTableLoader);
+        ticker.advance(59, TimeUnit.SECONDS);
+        Table second = cache.getTable("default", new Metadata.Item("DEFAULT", "Sales"), mockTableLoader);
+        ticker.advance(1, TimeUnit.SECONDS);
+        Table third = cache.getTable("default", item, mockTableLoader);
+
+        assertSame(table, first);
+        assertSame(table, second);
+        assertNotSame(table, third);
+        verify(mockTableLoader, times(2)).call();
+    }
+
+    @Test
+    public void testPartitionsAreCachedPerFilterAndServer() throws Exception {
+        when(mockPartitionsLoader.call()).thenReturn(Collections.singletonList(new Partition()), null, null);
+
+        List<Partition> all = cache.getPartitions("default", item, "", mockPartitionsLoader);
+        List<Partition> filtered = cache.getPartitions("default", item, "year = \"2021\"", mockPartitionsLoader);
+        List<Partition> otherServer = cache.getPartitions("other", item, "", mockPartitionsLoader);
+
+        assertSame(all, cache.getPartitions("default", item, "", mockPartitionsLoader));
+        assertEquals(1, all.size());
+        assertEquals(Collections.emptyList(), filtered);
+        assertEquals(Collections.emptyList(), otherServer);
+        verify(mockPartitionsLoader, times(3)).call();
+    }
+
+    @Test
+    public void testLoaderExceptionIsRethrown() throws Exception {
+        when(mockTableLoader.call()).thenThrow(new MetaException("no such table"));
+
+        Exception e = assertThrows(MetaException.class, () -> cache.getTable("default", item, mockTableLoader));
+        assertEquals("no such table", e.getMessage());
+    }
+
+    @Test
+    public void testChangedTableIsInvalidatedFromNotificationLog() throws Exception {
+        Metadata.Item otherItem = new Metadata.Item("default", "customers");
+        when(mockClient.getCurrentNotificationEventId()).thenReturn(
+                new CurrentNotificationEventId(10), new CurrentNotificationEventId(12));
+        NotificationEvent event = new NotificationEvent(11, 0, "ADD_PARTITION", "");
+        event.setDbName("default");
+        event.setTableName("sales");
+        when(mockClient.getNextNotification(10, HiveMetadataCache.MAX_NOTIFICATION_EVENTS, null))
+                .thenReturn(new NotificationEventResponse(Collections.singletonList(event)));
+        when(mockTableLoader.call()).thenReturn(new Table(), new Table(), new Table());
+
+        cache.invalidateChanged("default", mockClient);
+        Table sales = cache.getTable("default", item, mockTableLoader);
+        Table customers = cache.getTable("default", otherItem, mockTableLoader);
+        cache.invalidateChanged("default", mockClient);
+
+        assertNotSame(sales, cache.getTable("default", item, mockTableLoader));
+        assertSame(customers, cache.getTable("default", otherItem, mockTableLoader));
+        verify(mockTableLoader, times(3)).call();
+    }
+
+    @Test
+    public void testServerIsInvalidatedWhenTooManyEventsWereLogged() throws Exception {
+        when(mockClient.getCurrentNotificationEventId()).thenReturn(new CurrentNotificationEventId(10),
+                new CurrentNotificationEventId(11 + HiveMetadataCache.MAX_NOTIFICATION_EVENTS));
+        when(mockTableLoader.call()).thenReturn(new Table(), new Table());
+
+        cache.invalidateChanged("default", mockClient);
+        Table table = cache.getTable("default", item, mockTableLoader);
+        cache.invalidateChanged("default", mockClient);
+
+        assertNotSame(table, cache.getTable("default", item, mockTableLoader));
+        verify(mockClient, never()).getNextNotification(10, HiveMetadataCache.MAX_NOTIFICATION_EVENTS, null);
+    }
+
+    private static class FakeTicker extends Ticker {
+        private long nanos;
+
+        @Override
+        public long read() {
+            return nanos;
+        }
+
+        void advance(long time, TimeUnit timeUnit) {
+            nanos += timeUnit.toNanos(time);
+        }
+    }
+}
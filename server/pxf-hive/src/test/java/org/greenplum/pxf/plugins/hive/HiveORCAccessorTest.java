@@ -29,10 +29,12 @@ import org.apache.hadoop.hive.ql.io.sarg.SearchArgumentFactory;
 import org.greenplum.pxf.api.model.RequestContext;
 import org.greenplum.pxf.api.utilities.ColumnDescriptor;
 import org.greenplum.pxf.api.utilities.SerializationService;
+import org.greenplum.pxf.plugins.hdfs.utilities.FooterCache;
 import org.greenplum.pxf.plugins.hive.utilities.HiveUtilities;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.time.Duration;
 import java.util.Properties;
 
 import static org.apache.hadoop.hive.ql.io.sarg.ConvertAstToSearchArg.SARG_PUSHDOWN;
@@ -64,7 +66,8 @@ class HiveORCAccessorTest {
         context.setAccessor(HiveORCAccessor.class.getName());
         context.setConfiguration(configuration);
 
-        accessor = new HiveORCAccessor(new HiveUtilities(), new SerializationService());
+        accessor = new HiveORCAccessor(new HiveUtilities(), new SerializationService(),
+                new FooterCache(1024 * 1024, Duration.ofHours(1)));
         accessor.setRequestContext(context);
         accessor.afterPropertiesSet();
     }
@@ -0,0 +1,97 @@
+package org.greenplum.pxf.plugins.hive;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class HiveSplitEnumeratorTest {
+
+    private HiveSplitEnumerator enumerator;
+
+    @AfterEach
+    public void tearDown() {
+        if (enumerator != null) {
+            enumerator.shutdown();
+        }
+    }
+
+    @Test
+    public void testResultsAreInPartitionOrder() throws Exception {
+        enumerator = new HiveSplitEnumerator(4, 8);
+        List<Integer> partitions = IntStream.range(0, 1000).boxed().collect(Collectors.toList());
+
+        List<String> results = enumerator.enumerate(partitions, () -> null, (state, partition) -> {
+            if (partition % 7 == 0) {
+                Thread.sleep(1);
+            }
+            return "partition-" + partition;
+        });
+
+        assertEquals(partitions.stream().map(p -> "partition-" + p).collect(Collectors.toList()), results);
+    }
+
+    @Test
+    public void testPartitionsAreEnumeratedConcurrently() throws Exception {
+        enumerator = new HiveSplitEnumerator(4, 8);
+        CountDownLatch started = new CountDownLatch(4);
+        Set<Object> states = ConcurrentHashMap.newKeySet();
+
+        List<Integer> results = enumerator.enumerate(Collections.nCopies(4, 1), Object::new, (state, partition) -> {
+            states.add(state);
+            started.countDown();
+            // completes only when all the partitions are being enumerated at the same time
+            assertTrue(started.await(10, TimeUnit.SECONDS));
+            return partition;
+        });
+
+        assertEquals(4, results.size());
+        // every worker has its own state
+        assertEquals(4, states.size());
+    }
+
+    @Test
+    public void testSequentialEnumerationRunsOnRequestThread() throws Exception {
+        enumerator = new HiveSplitEnumerator(1, 8);
+        Thread requestThread = Thread.currentThread();
+        AtomicInteger states = new AtomicInteger();
+
+        List<Boolean> results = enumerator.enumerate(Collections.nCopies(10, 1), states::incrementAndGet,
+                (state, partition) -> Thread.currentThread() == requestThread);
+
+        assertEquals(Collections.nCopies(10, true), results);
+        assertEquals(1, states.get());
+    }
+
+    @Test
+    public void testFailureStopsEnumeration() {
+        enumerator = new HiveSplitEnumerator(4, 8);
+        List<Integer> partitions = IntStream.range(0, 1000).boxed().collect(Collectors.toList());
+        List<Integer> enumerated = Collections.synchronizedList(new ArrayList<>());
+
+        Exception e = assertThrows(IOException.class, () -> enumerator.enumerate(partitions, () -> null, (state, partition) -> {
+            if (partition == 10) {
+                throw new IOException("listing failed");
+            }
+            enumerated.add(partition);
+            return partition;
+        }));
+
+        assertEquals("listing failed", e.getMessage());
+        assertTrue(enumerated.size() < partitions.size() - 1);
+    }
+}
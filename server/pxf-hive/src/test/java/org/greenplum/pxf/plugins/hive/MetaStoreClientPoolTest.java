@@ -0,0 +1,121 @@
+package org.greenplum.pxf.plugins.hive;
+
+import com.google.common.base.Ticker;
+import org.apache.hadoop.hive.metastore.IMetaStoreClient;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+public class MetaStoreClientPoolTest {
+
+    private FakeTicker ticker;
+    private MetaStoreClientPool pool;
+
+    @BeforeEach
+    public void setup() {
+        ticker = new FakeTicker();
+        pool = new MetaStoreClientPool(2, Duration.ofMinutes(5), ticker);
+    }
+
+    @Test
+    public void testReleasedClientIsReused() {
+        IMetaStoreClient client = mock(IMetaStoreClient.class);
+
+        assertNull(pool.acquire(key("server")));
+        pool.release(key("server"), client);
+        ticker.advance(4, TimeUnit.MINUTES);
+
+        assertSame(client, pool.acquire(key("server")));
+        assertEquals(0, pool.size());
+        verify(client, never()).close();
+    }
+
+    @Test
+    public void testClientIsNotSharedAcrossServers() {
+        pool.release(key("server"), mock(IMetaStoreClient.class));
+
+        assertNull(pool.acquire(key("other")));
+        assertEquals(1, pool.size());
+    }
+
+    @Test
+    public void testClientIsNotSharedAcrossConfigurationVersions() {
+        IMetaStoreClient client = mock(IMetaStoreClient.class);
+        pool.release(key("server", 1), client);
+
+        // the configuration of the server was reloaded
+        assertNull(pool.acquire(key("server", 2)));
+        assertSame(client, pool.acquire(key("server", 1)));
+    }
+
+    @Test
+    public void testClientsAboveMaximumAreClosed() {
+        IMetaStoreClient first = mock(IMetaStoreClient.class);
+        IMetaStoreClient second = mock(IMetaStoreClient.class);
+        IMetaStoreClient third = mock(IMetaStoreClient.class);
+
+        pool.release(key("server"), first);
+        pool.release(key("server"), second);
+        pool.release(key("server"), third);
+
+        assertEquals(2, pool.size());
+        verify(third).close();
+        // the most recently released client is reused first
+        assertSame(second, pool.acquire(key("server")));
+        assertSame(first, pool.acquire(key("server")));
+    }
+
+    @Test
+    public void testIdleClientIsClosed() {
+        IMetaStoreClient client = mock(IMetaStoreClient.class);
+
+        pool.release(key("server"), client);
+        ticker.advance(5, TimeUnit.MINUTES);
+
+        assertNull(pool.acquire(key("server")));
+        verify(client).close();
+        assertEquals(0, pool.size());
+    }
+
+    @Test
+    public void testClientIsClosedOnReleaseWithoutPooling() {
+        pool = new MetaStoreClientPool(0, Duration.ofMinutes(5), ticker);
+        IMetaStoreClient client = mock(IMetaStoreClient.class);
+
+        pool.release(key("server"), client);
+
+        verify(client).close();
+        assertEquals(0, pool.size());
+    }
+
+    private MetaStoreClientPool.Key key(String serverName) {
+        return key(serverName, 1);
+    }
+
+    private MetaStoreClientPool.Key key(String serverName, long configurationVersion) {
+        return new MetaStoreClientPool.Key(serverName, "/etc/pxf/servers/" + serverName, configurationVersion, null, Collections.emptyMap());
+    }
+
+    private static class FakeTicker extends Ticker {
+        private long nanos;
+
+        @Override
+        public long read() {
+            return nanos;
+        }
+
+        void advance(long time, TimeUnit timeUnit) {
+            nanos += timeUnit.toNanos(time);
+        }
+    }
+}
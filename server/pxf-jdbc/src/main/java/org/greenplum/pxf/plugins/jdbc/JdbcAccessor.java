@@ -19,34 +19,31 @@ package org.greenplum.pxf.plugins.jdbc;
  * under the License.
  */
 
-import org.apache.commons.io.FileUtils;
-import org.apache.commons.lang.StringUtils;
 import org.greenplum.pxf.api.OneRow;
 import org.greenplum.pxf.api.error.PxfRuntimeException;
 import org.greenplum.pxf.api.model.Accessor;
-import org.greenplum.pxf.api.model.ConfigurationFactory;
 import org.greenplum.pxf.api.security.SecureLogin;
+import org.greenplum.pxf.api.utilities.SpringContext;
 import org.greenplum.pxf.api.utilities.Utilities;
 import org.greenplum.pxf.plugins.jdbc.utils.ConnectionManager;
+import org.greenplum.pxf.plugins.jdbc.utils.DbProduct;
+import org.greenplum.pxf.plugins.jdbc.writercallable.WriteMode;
 import org.greenplum.pxf.plugins.jdbc.writercallable.WriterCallable;
 import org.greenplum.pxf.plugins.jdbc.writercallable.WriterCallableFactory;
+import org.greenplum.pxf.plugins.jdbc.writercallable.WriterMetrics;
+import org.greenplum.pxf.plugins.jdbc.writercallable.WriterPipeline;
+import org.postgresql.PGConnection;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.io.File;
 import java.io.IOException;
-import java.nio.charset.Charset;
 import java.sql.Connection;
+import java.sql.DatabaseMetaData;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.SQLTimeoutException;
 import java.sql.Statement;
-import java.util.LinkedList;
-import java.util.List;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.Future;
 
 /**
  * JDBC tables accessor
@@ -54,7 +51,8 @@ import java.util.concurrent.Future;
  * The SELECT queries are processed by {@link java.sql.Statement}
  * <p>
  * The INSERT queries are processed by {@link java.sql.PreparedStatement} and
- * built-in JDBC batches of arbitrary size
+ * built-in JDBC batches of arbitrary size, by INSERT statements with many rows,
+ * or by COPY for PostgreSQL-compatible databases, depending on the write mode
  */
 public class JdbcAccessor extends JdbcBasePlugin implements Accessor {
 
@@ -66,16 +64,17 @@ public class JdbcAccessor extends JdbcBasePlugin implements Accessor {
     private ResultSet resultSetRead = null;
 
     private PreparedStatement statementWrite = null;
-    private WriterCallableFactory writerCallableFactory = null;
     private WriterCallable writerCallable = null;
-    private ExecutorService executorServiceWrite = null;
-    private List<Future<SQLException>> poolTasks = null;
+    private WriterPipeline writerPipeline = null;
+
+    private final WriterMetrics writerMetrics;
 
     /**
      * Creates a new instance of the JdbcAccessor
      */
     public JdbcAccessor() {
-        super();
+        this(SpringContext.getBean(ConnectionManager.class), SpringContext.getBean(SecureLogin.class),
+                SpringContext.getBean(WriterMetrics.class));
     }
 
     /**
@@ -85,7 +84,20 @@ public class JdbcAccessor extends JdbcBasePlugin implements Accessor {
      * @param secureLogin       the instance of the secure login
      */
     JdbcAccessor(ConnectionManager connectionManager, SecureLogin secureLogin) {
+        this(connectionManager, secureLogin, new WriterMetrics());
+    }
+
+    /**
+     * Creates a new instance of accessor with provided connection manager
+     * and metrics of the parallel writes.
+     *
+     * @param connectionManager connection manager
+     * @param secureLogin       the instance of the secure login
+     * @param writerMetrics     the metrics of the parallel writes
+     */
+    JdbcAccessor(ConnectionManager connectionManager, SecureLogin secureLogin, WriterMetrics writerMetrics) {
         super(connectionManager, secureLogin);
+        this.writerMetrics = writerMetrics;
     }
 
     /**
@@ -195,7 +207,9 @@ public class JdbcAccessor extends JdbcBasePlugin implements Accessor {
         }
 
         Connection connection = super.getConnection();
-        SQLQueryBuilder sqlQueryBuilder = new SQLQueryBuilder(context, connection.getMetaData());
+        DatabaseMetaData metadata = connection.getMetaData();
+        SQLQueryBuilder sqlQueryBuilder = new SQLQueryBuilder(context, metadata);
+        DbProduct dbProduct = DbProduct.getDbProduct(metadata.getDatabaseProductName());
 
         // Build INSERT query
         if (quoteColumns == null) {
@@ -204,13 +218,22 @@ public class JdbcAccessor extends JdbcBasePlugin implements Accessor {
             sqlQueryBuilder.forceSetQuoteString();
         }
         // Write variables
-        String queryWrite = sqlQueryBuilder.buildInsertQuery();
-        LOG.trace("Insert query: {}", queryWrite);
-
-        statementWrite = super.getPreparedStatement(connection, queryWrite);
+        String queryInsert = sqlQueryBuilder.buildInsertQuery();
+        LOG.trace("Insert query: {}", queryInsert);
+
+        statementWrite = super.getPreparedStatement(connection, queryInsert);
+
+        // Process writeMode
+        writeMode = resolveWriteMode(connection, dbProduct, DbProduct.isRecognized(metadata.getDatabaseProductName()));
+        LOG.debug("Using write mode {}", writeMode);
+        String queryWrite = queryInsert;
+        if (writeMode == WriteMode.COPY) {
+            queryWrite = sqlQueryBuilder.buildCopyQuery();
+            LOG.trace("Copy query: {}", queryWrite);
+        }
 
-        // Process batchSize
-        if (!connection.getMetaData().supportsBatchUpdates()) {
+        // Process batchSize, only JDBC batches require support from the driver
+        if (writeMode == WriteMode.BATCH && !metadata.supportsBatchUpdates()) {
             if ((batchSizeIsSetByUser) && (batchSize > 1)) {
                 throw new SQLException("The external database does not support batch updates");
             } else {
@@ -223,19 +246,60 @@ public class JdbcAccessor extends JdbcBasePlugin implements Accessor {
             poolSize = Runtime.getRuntime().availableProcessors();
             LOG.info("The POOL_SIZE is set to the number of CPUs available ({})", poolSize);
         }
-        if (poolSize > 1) {
-            executorServiceWrite = Executors.newFixedThreadPool(poolSize);
-            poolTasks = new LinkedList<>();
-        }
 
         // Setup WriterCallableFactory
-        writerCallableFactory = new WriterCallableFactory(this, queryWrite, statementWrite, batchSize, poolSize);
+        WriterCallableFactory writerCallableFactory = new WriterCallableFactory(this, writeMode, queryWrite, statementWrite,
+                batchSize, poolSize, dbProduct.getMaxInsertParameters());
 
-        writerCallable = writerCallableFactory.get();
+        if (poolSize > 1) {
+            // Process poolQueueSize, by default every thread has a batch waiting for it
+            if (poolQueueSize < 1) {
+                poolQueueSize = poolSize;
+            }
+            writerPipeline = new WriterPipeline(this, writerCallableFactory, queryInsert, batchSize, poolSize,
+                    poolQueueSize, writerMetrics);
+        } else {
+            writerCallable = writerCallableFactory.get();
+        }
 
         return true;
     }
 
+    /**
+     * Resolve the write mode requested by the user to the one supported by
+     * the external database
+     *
+     * @param connection the connection to the external database
+     * @param dbProduct  the external database
+     * @param recognized whether the external database is recognized, rather than handled as PostgreSQL by default
+     * @return the write mode to use, never AUTO
+     * @throws SQLException if a database access error occurs
+     */
+    private WriteMode resolveWriteMode(Connection connection, DbProduct dbProduct, boolean recognized) throws SQLException {
+        boolean copySupported = dbProduct == DbProduct.POSTGRES && connection.isWrapperFor(PGConnection.class);
+        boolean multiRowSupported = dbProduct.getMaxInsertParameters() > 0;
+        switch (writeMode) {
+            case AUTO:
+                // the limits of databases that are not recognized are unknown, JDBC batches work with any of them
+                if (!recognized) {
+                    return WriteMode.BATCH;
+                }
+                return copySupported ? WriteMode.COPY : multiRowSupported ? WriteMode.MULTIROW : WriteMode.BATCH;
+            case COPY:
+                if (!copySupported) {
+                    throw new IllegalArgumentException("The COPY write mode requires a PostgreSQL-compatible database and the PostgreSQL JDBC driver");
+                }
+                return writeMode;
+            case MULTIROW:
+                if (!multiRowSupported) {
+                    throw new IllegalArgumentException("The external database does not support INSERT statements with multiple rows");
+                }
+                return writeMode;
+            default:
+                return writeMode;
+        }
+    }
+
     /**
      * writeNextObject() implementation
      * <p>
@@ -254,22 +318,22 @@ public class JdbcAccessor extends JdbcBasePlugin implements Accessor {
      */
     @Override
     public boolean writeNextObject(OneRow row) throws Exception {
+        if (writerPipeline != null) {
+            // Pooling is used, the pipeline blocks while its queue of batches is full
+            writerPipeline.supply(row);
+            return true;
+        }
+
         if (writerCallable == null) {
             throw new IllegalStateException("The JDBC connection was not properly initialized (writerCallable is null)");
         }
 
         writerCallable.supply(row);
         if (writerCallable.isCallRequired()) {
-            if (poolSize > 1) {
-                // Pooling is used. Create new writerCallable
-                poolTasks.add(executorServiceWrite.submit(writerCallable));
-                writerCallable = writerCallableFactory.get();
-            } else {
-                // Pooling is not used, call directly and process potential error
-                SQLException e = writerCallable.call();
-                if (e != null) {
-                    throw e;
-                }
+            // Pooling is not used, call directly and process potential error
+            SQLException e = writerCallable.call();
+            if (e != null) {
+                throw e;
             }
         }
 
@@ -283,96 +347,26 @@ public class JdbcAccessor extends JdbcBasePlugin implements Accessor {
      */
     @Override
     public void closeForWrite() throws Exception {
-        if ((statementWrite == null) || (writerCallable == null)) {
+        if ((statementWrite == null) || (writerCallable == null && writerPipeline == null)) {
             return;
         }
 
         try {
-            if (poolSize > 1) {
-                // Process thread pool
-                Exception firstException = null;
-                for (Future<SQLException> task : poolTasks) {
-                    // We need this construction to ensure that we try to close all connections opened by pool threads
-                    try {
-                        SQLException currentSqlException = task.get();
-                        if (currentSqlException != null) {
-                            if (firstException == null) {
-                                firstException = currentSqlException;
-                            }
-                            LOG.error(
-                                    "A SQLException in a pool thread occurred: " + currentSqlException.getClass() + " " + currentSqlException.getMessage()
-                            );
-                        }
-                    } catch (Exception e) {
-                        // This exception must have been caused by some thread execution error. However, there may be other exception (maybe of class SQLException) that happened in one of threads that were not examined yet. That is why we do not modify firstException
-                        if (LOG.isDebugEnabled()) {
-                            LOG.debug(
-                                    "A runtime exception in a thread pool occurred: " + e.getClass() + " " + e.getMessage()
-                            );
-                        }
-                    }
-                }
-                try {
-                    executorServiceWrite.shutdown();
-                    executorServiceWrite.shutdownNow();
-                } catch (Exception e) {
-                    if (LOG.isDebugEnabled()) {
-                        LOG.debug("executorServiceWrite.shutdown() or .shutdownNow() threw an exception: " + e.getClass() + " " + e.getMessage());
-                    }
-                }
-                if (firstException != null) {
-                    throw firstException;
+            if (writerPipeline != null) {
+                // Send the last batch and wait for the pool threads
+                writerPipeline.close();
+            } else {
+                // Send data that is left
+                SQLException e = writerCallable.call();
+                if (e != null) {
+                    throw e;
                 }
             }
-
-            // Send data that is left
-            SQLException e = writerCallable.call();
-            if (e != null) {
-                throw e;
-            }
         } finally {
             closeStatementAndConnection(statementWrite);
         }
     }
 
-
-    /**
-     * Gets the text of the query by reading the file from the server configuration directory. The name of the file
-     * is expected to be the same as the name of the query provided by the user and have extension ".sql"
-     *
-     * @return text of the query
-     */
-    private String getQueryText() {
-        if (StringUtils.isBlank(queryName)) {
-            return null;
-        }
-        // read the contents of the file holding the text of the query with a given name
-        String serverDirectory = context.getConfiguration().get(ConfigurationFactory.PXF_CONFIG_SERVER_DIRECTORY_PROPERTY);
-        if (StringUtils.isBlank(serverDirectory)) {
-            throw new IllegalStateException("No server configuration directory found for server " + context.getServerName());
-        }
-
-        String queryText;
-        try {
-            File queryFile = new File(serverDirectory, queryName + ".sql");
-            if (LOG.isDebugEnabled()) {
-                LOG.debug("Reading text of query={} from {}", queryName, queryFile.getCanonicalPath());
-            }
-            queryText = FileUtils.readFileToString(queryFile, Charset.defaultCharset());
-        } catch (IOException e) {
-            throw new RuntimeException(String.format("Failed to read text of query %s : %s", queryName, e.getMessage()), e);
-        }
-        if (StringUtils.isBlank(queryText)) {
-            throw new RuntimeException(String.format("Query text file is empty for query %s", queryName));
-        }
-
-        // Remove one or more semicolons followed by optional blank space
-        // happening at the end of the query
-        queryText = queryText.replaceFirst("(;+\\s*)+$", "");
-
-        return queryText;
-    }
-
     private boolean parseJdbcUsePreparedStatementProperty() {
         return Utilities.parseBooleanProperty(configuration, JDBC_READ_PREPARED_STATEMENT_PROPERTY_NAME, false);
     }
@@ -19,9 +19,11 @@ package org.greenplum.pxf.plugins.jdbc;
  * under the License.
  */
 
+import org.apache.commons.io.FileUtils;
 import org.apache.commons.lang.StringUtils;
 import org.apache.hadoop.conf.Configuration;
 import org.greenplum.pxf.api.model.BasePlugin;
+import org.greenplum.pxf.api.model.ConfigurationFactory;
 import org.greenplum.pxf.api.model.RequestContext;
 import org.greenplum.pxf.api.security.SecureLogin;
 import org.greenplum.pxf.api.utilities.ColumnDescriptor;
@@ -30,17 +32,22 @@ import org.greenplum.pxf.api.utilities.Utilities;
 import org.greenplum.pxf.plugins.jdbc.utils.ConnectionManager;
 import org.greenplum.pxf.plugins.jdbc.utils.DbProduct;
 import org.greenplum.pxf.plugins.jdbc.utils.HiveJdbcUtils;
+import org.greenplum.pxf.plugins.jdbc.writercallable.WriteMode;
 import org.postgresql.Driver;
 import org.postgresql.PGProperty;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
 import java.security.PrivilegedExceptionAction;
 import java.sql.Connection;
 import java.sql.DatabaseMetaData;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -81,6 +88,7 @@ public class JdbcBasePlugin extends BasePlugin {
     private static final String JDBC_STATEMENT_BATCH_SIZE_PROPERTY_NAME = "jdbc.statement.batchSize";
     private static final String JDBC_STATEMENT_FETCH_SIZE_PROPERTY_NAME = "jdbc.statement.fetchSize";
     private static final String JDBC_STATEMENT_QUERY_TIMEOUT_PROPERTY_NAME = "jdbc.statement.queryTimeout";
+    private static final String JDBC_STATEMENT_WRITE_MODE_PROPERTY_NAME = "jdbc.statement.writeMode";
 
     // connection pool properties
     private static final String JDBC_CONNECTION_POOL_ENABLED_PROPERTY_NAME = "jdbc.pool.enabled";
@@ -133,12 +141,18 @@ public class JdbcBasePlugin extends BasePlugin {
     protected int batchSize;
     protected boolean batchSizeIsSetByUser = false;
 
+    // Write mode
+    protected WriteMode writeMode = WriteMode.BATCH;
+
     // Read batch size
     protected int fetchSize;
 
     // Thread pool size
     protected int poolSize;
 
+    // Maximum number of batches waiting for a thread of the pool, 0 for the pool size
+    protected int poolQueueSize;
+
     // Query timeout.
     protected Integer queryTimeout;
 
@@ -244,6 +258,17 @@ public class JdbcBasePlugin extends BasePlugin {
                 throw new IllegalArgumentException(String.format(
                         "Property %s has incorrect value %s : must be a non-negative integer", JDBC_STATEMENT_BATCH_SIZE_PROPERTY_NAME, batchSize));
             }
+
+            String writeModeString = configuration.get(JDBC_STATEMENT_WRITE_MODE_PROPERTY_NAME);
+            if (StringUtils.isNotBlank(writeModeString)) {
+                try {
+                    writeMode = WriteMode.typeOf(writeModeString.trim());
+                } catch (IllegalArgumentException e) {
+                    throw new IllegalArgumentException(String.format(
+                            "Property %s has incorrect value %s : must be one of %s",
+                            JDBC_STATEMENT_WRITE_MODE_PROPERTY_NAME, writeModeString, Arrays.toString(WriteMode.values())), e);
+                }
+            }
         }
 
         // determine fetchSize for read operations, with different default values for MySQL driver and all others
@@ -252,6 +277,7 @@ public class JdbcBasePlugin extends BasePlugin {
         LOG.debug("Will be using fetchSize {}", fetchSize);
 
         poolSize = context.getOption("POOL_SIZE", DEFAULT_POOL_SIZE);
+        poolQueueSize = context.getOption("POOL_QUEUE_SIZE", 0, true);
 
         String queryTimeoutString = configuration.get(JDBC_STATEMENT_QUERY_TIMEOUT_PROPERTY_NAME);
         if (StringUtils.isNotBlank(queryTimeoutString)) {
@@ -372,6 +398,43 @@ public class JdbcBasePlugin extends BasePlugin {
         isDateWideRange = configuration.getBoolean(JDBC_DATE_WIDE_RANGE, false);
     }
 
+    /**
+     * Gets the text of the query by reading the file from the server configuration directory. The name of the file
+     * is expected to be the same as the name of the query provided by the user and have extension ".sql"
+     *
+     * @return text of the query
+     */
+    protected String getQueryText() {
+        if (StringUtils.isBlank(queryName)) {
+            return null;
+        }
+        // read the contents of the file holding the text of the query with a given name
+        String serverDirectory = context.getConfiguration().get(ConfigurationFactory.PXF_CONFIG_SERVER_DIRECTORY_PROPERTY);
+        if (StringUtils.isBlank(serverDirectory)) {
+            throw new IllegalStateException("No server configuration directory found for server " + context.getServerName());
+        }
+
+        String queryText;
+        try {
+            File queryFile = new File(serverDirectory, queryName + ".sql");
+            if (LOG.isDebugEnabled()) {
+                LOG.debug("Reading text of query={} from {}", queryName, queryFile.getCanonicalPath());
+            }
+            queryText = FileUtils.readFileToString(queryFile, Charset.defaultCharset());
+        } catch (IOException e) {
+            throw new RuntimeException(String.format("Failed to read text of query %s : %s", queryName, e.getMessage()), e);
+        }
+        if (StringUtils.isBlank(queryText)) {
+            throw new RuntimeException(String.format("Query text file is empty for query %s", queryName));
+        }
+
+        // Remove one or more semicolons followed by optional blank space
+        // happening at the end of the query
+        queryText = queryText.replaceFirst("(;+\\s*)+$", "");
+
+        return queryText;
+    }
+
     /**
      * Open a new JDBC connection
      *
@@ -522,7 +585,7 @@ public class JdbcBasePlugin extends BasePlugin {
      * @param connection connection to close
      * @throws SQLException throws when a SQLException occurs
      */
-    protected static void closeConnection(Connection connection) throws SQLException {
+    public static void closeConnection(Connection connection) throws SQLException {
         if (connection == null) {
             LOG.warn("Call to close connection is ignored as connection provided was null");
             return;
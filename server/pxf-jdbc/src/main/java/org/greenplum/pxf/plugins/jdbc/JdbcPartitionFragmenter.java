@@ -19,41 +19,113 @@ package org.greenplum.pxf.plugins.jdbc;
  * under the License.
  */
 
+import org.greenplum.pxf.api.error.PxfRuntimeException;
 import org.greenplum.pxf.api.model.BaseFragmenter;
 import org.greenplum.pxf.api.model.Fragment;
 import org.greenplum.pxf.api.model.FragmentStats;
 import org.greenplum.pxf.plugins.jdbc.partitioning.JdbcFragmentMetadata;
 import org.greenplum.pxf.plugins.jdbc.partitioning.PartitionType;
 
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.LinkedList;
 import java.util.List;
+import java.util.function.Supplier;
 
 /**
  * JDBC fragmenter
  * <p>
  * Splits the query to allow multiple simultaneous SELECTs
+ * <p>
+ * When an int partition column is given without a RANGE, or when PARTITION_BY
+ * is 'auto' (the first column of the primary key of the table is used), the
+ * values of the partition column are split by their remainders when divided
+ * by the number of Greenplum segments. Every PXF instance runs the fragmenter
+ * on its own, and the segments pick their fragments by index, so the
+ * partitions must not depend on the data, which may change while the query
+ * runs.
+ * <p>
+ * When PARTITION_STATISTICS is true, the partitions are formed from the
+ * statistics of the partition column in the external database instead: one
+ * partition per Greenplum segment, or one partition per PARTITION_ROWS rows.
+ * Where the external database supports window functions, the boundaries of
+ * the partitions split the rows evenly even when the values are skewed;
+ * otherwise the values between the minimum and the maximum are split into
+ * ranges of the same width. As the PXF instances compute the boundaries on
+ * their own, the table must not change while the query runs.
  */
 public class JdbcPartitionFragmenter extends BaseFragmenter {
 
+    private static final String AUTO_PARTITION_BY = "auto";
+
+    /**
+     * The maximum number of partitions formed from the statistics of the
+     * partition column
+     */
+    private static final int MAX_PARTITIONS = 10000;
+
+    private final Supplier<JdbcBasePlugin> jdbcPluginFactory;
+
     private PartitionType partitionType;
     private String column;
     private String range;
     private String interval;
+    private boolean autoPartitionBy;
+    private boolean partitionStatistics;
+    private long partitionRows;
+
+    /**
+     * Creates a new instance that connects to the external database with a
+     * default {@link JdbcBasePlugin} when the partitions are formed from the
+     * statistics of the partition column.
+     */
+    public JdbcPartitionFragmenter() {
+        this(JdbcBasePlugin::new);
+    }
+
+    /**
+     * Creates a new instance with the given factory of the plugin used to
+     * connect to the external database
+     *
+     * @param jdbcPluginFactory factory of the plugin used to connect to the external database
+     */
+    JdbcPartitionFragmenter(Supplier<JdbcBasePlugin> jdbcPluginFactory) {
+        this.jdbcPluginFactory = jdbcPluginFactory;
+    }
 
     @Override
     public void afterPropertiesSet() {
         String partitionByOption = context.getOption("PARTITION_BY");
         if (partitionByOption == null) return;
 
+        range = context.getOption("RANGE");
+        interval = context.getOption("INTERVAL");
+        partitionStatistics = context.getOption("PARTITION_STATISTICS", false);
+        partitionRows = context.getOption("PARTITION_ROWS", 0L, true);
+        if (partitionRows > 0 && !partitionStatistics) {
+            throw new IllegalArgumentException("The parameter 'PARTITION_ROWS' can only be used when 'PARTITION_STATISTICS' is true");
+        }
+
+        if (AUTO_PARTITION_BY.equalsIgnoreCase(partitionByOption)) {
+            if (range != null) {
+                throw new IllegalArgumentException("The parameter 'RANGE' cannot be used when 'PARTITION_BY' is 'auto'");
+            }
+            autoPartitionBy = true;
+            return;
+        }
+
         try {
             String[] partitionBy = partitionByOption.split(":");
             column = partitionBy[0];
             partitionType = PartitionType.of(partitionBy[1]);
         } catch (ArrayIndexOutOfBoundsException e) {
-            throw new IllegalArgumentException("The parameter 'PARTITION_BY' has incorrect format. The correct format is '<column_name>:{int|date|enum}'");
+            throw new IllegalArgumentException("The parameter 'PARTITION_BY' has incorrect format. The correct format is '<column_name>:{int|date|enum}' or 'auto'");
         }
-
-        range = context.getOption("RANGE");
-        interval = context.getOption("INTERVAL");
     }
 
     /**
@@ -64,10 +136,18 @@ public class JdbcPartitionFragmenter extends BaseFragmenter {
      */
     @Override
     public List<Fragment> getFragments() {
-        if (partitionType == null) {
+        List<JdbcFragmentMetadata> fragmentsMetadata;
+        if (partitionType == null && !autoPartitionBy) {
+            fragmentsMetadata = new LinkedList<>();
+        } else if (autoPartitionBy || (range == null && supportsPartitionsWithoutRange())) {
+            fragmentsMetadata = getFragmentsMetadataWithoutRange();
+        } else {
+            fragmentsMetadata = partitionType.getFragmentsMetadata(column, range, interval);
+        }
+
+        if (fragmentsMetadata.isEmpty()) {
             fragments.add(new Fragment(context.getDataSource()));
         } else {
-            List<JdbcFragmentMetadata> fragmentsMetadata = partitionType.getFragmentsMetadata(column, range, interval);
             for (JdbcFragmentMetadata fragmentMetadata : fragmentsMetadata) {
                 fragments.add(new Fragment(context.getDataSource(), fragmentMetadata));
             }
@@ -83,4 +163,208 @@ public class JdbcPartitionFragmenter extends BaseFragmenter {
     public FragmentStats getFragmentStats() throws UnsupportedOperationException {
         throw new UnsupportedOperationException("ANALYZE for JDBC plugin is not supported");
     }
+
+    private boolean supportsPartitionsWithoutRange() {
+        return partitionStatistics ? partitionType.supportsStatistics() : partitionType.supportsModulo();
+    }
+
+    /**
+     * Forms the partitions of a partition column given without a RANGE, from
+     * the remainders of its values or from its statistics in the external
+     * database
+     *
+     * @return a list of getFragmentsMetadata, empty if the source must be read by a single fragment
+     */
+    private List<JdbcFragmentMetadata> getFragmentsMetadataWithoutRange() {
+        if (!autoPartitionBy && !partitionStatistics) {
+            return getFragmentsMetadataFromModulo();
+        }
+
+        JdbcBasePlugin plugin = jdbcPluginFactory.get();
+        plugin.setRequestContext(context);
+        plugin.afterPropertiesSet();
+
+        try {
+            Connection connection = plugin.getConnection();
+            try {
+                return getFragmentsMetadataFromExternalDatabase(plugin, connection);
+            } finally {
+                JdbcBasePlugin.closeConnection(connection);
+            }
+        } catch (SQLException e) {
+            throw new PxfRuntimeException(String.format(
+                    "Failed to compute the partitions of %s from the external database: %s", context.getDataSource(), e.getMessage()), e);
+        }
+    }
+
+    private List<JdbcFragmentMetadata> getFragmentsMetadataFromExternalDatabase(JdbcBasePlugin plugin, Connection connection) throws SQLException {
+        DatabaseMetaData metaData = connection.getMetaData();
+        if (autoPartitionBy && !setPrimaryKeyPartitionColumn(metaData, plugin.tableName)) {
+            return new LinkedList<>();
+        }
+        if (!partitionStatistics) {
+            if (!partitionType.supportsModulo()) {
+                LOG.info("The partition column {} is of type {}, the source is read by a single fragment unless 'PARTITION_STATISTICS' is true",
+                        column, partitionType);
+                return new LinkedList<>();
+            }
+            return getFragmentsMetadataFromModulo();
+        }
+
+        SQLQueryBuilder sqlQueryBuilder = new SQLQueryBuilder(context, metaData, plugin.getQueryText());
+        if (plugin.quoteColumns == null) {
+            sqlQueryBuilder.autoSetQuoteString();
+        } else if (plugin.quoteColumns) {
+            sqlQueryBuilder.forceSetQuoteString();
+        }
+
+        Object min, max;
+        long count;
+        String statisticsQuery = sqlQueryBuilder.buildPartitionStatisticsQuery(column);
+        LOG.debug("Partition statistics query: {}", statisticsQuery);
+        try (PreparedStatement statement = plugin.getPreparedStatement(connection, statisticsQuery);
+             ResultSet resultSet = statement.executeQuery()) {
+            if (!resultSet.next()) {
+                return new LinkedList<>();
+            }
+            min = resultSet.getObject(1);
+            max = resultSet.getObject(2);
+            count = resultSet.getLong(3);
+        }
+
+        int partitions = getNumberOfPartitions(count);
+        LOG.debug("Partition column {} has {} rows with values from {} to {}, forming {} partitions",
+                column, count, min, max, partitions);
+        if (partitions < 2 || min == null) {
+            return new LinkedList<>();
+        }
+
+        String boundariesQuery = sqlQueryBuilder.buildPartitionBoundariesQuery(column, partitions);
+        if (boundariesQuery == null) {
+            return partitionType.getFragmentsMetadata(column, min, max, partitions);
+        }
+
+        LOG.debug("Partition boundaries query: {}", boundariesQuery);
+        List<Object> boundaries = new ArrayList<>(partitions);
+        try (PreparedStatement statement = plugin.getPreparedStatement(connection, boundariesQuery);
+             ResultSet resultSet = statement.executeQuery()) {
+            while (resultSet.next()) {
+                boundaries.add(resultSet.getObject(1));
+            }
+        }
+        return partitionType.getFragmentsMetadata(column, boundaries);
+    }
+
+    /**
+     * Forms one partition per Greenplum segment from the remainders of the
+     * values of the partition column, the same on every PXF instance
+     *
+     * @return a list of getFragmentsMetadata, empty if the source must be read by a single fragment
+     */
+    private List<JdbcFragmentMetadata> getFragmentsMetadataFromModulo() {
+        int partitions = getNumberOfPartitions();
+        if (partitions < 2) {
+            return new LinkedList<>();
+        }
+        return partitionType.getFragmentsMetadata(column, partitions);
+    }
+
+    /**
+     * @param count the number of rows of the source
+     * @return the number of partitions to form
+     */
+    private int getNumberOfPartitions(long count) {
+        if (partitionRows > 0) {
+            return (int) Math.min(MAX_PARTITIONS, (count + partitionRows - 1) / partitionRows);
+        }
+        return getNumberOfPartitions();
+    }
+
+    /**
+     * @return the number of partitions to form, one per Greenplum segment
+     */
+    private int getNumberOfPartitions() {
+        return Math.min(MAX_PARTITIONS, Math.max(context.getTotalSegments(), 1));
+    }
+
+    /**
+     * Sets the partition column to the first column of the primary key of
+     * the table, if it is of an integral or date type
+     *
+     * @param metaData  the metadata of the external database
+     * @param tableName the name of the table, null when the source is a query
+     * @return true if the partition column was set
+     * @throws SQLException if the metadata cannot be read
+     */
+    private boolean setPrimaryKeyPartitionColumn(DatabaseMetaData metaData, String tableName) throws SQLException {
+        if (tableName == null) {
+            throw new IllegalArgumentException("The parameter 'PARTITION_BY' cannot be 'auto' for a query, the correct format is '<column_name>:{int|date}'");
+        }
+
+        String schema = null;
+        String table = tableName;
+        int dot = tableName.lastIndexOf('.');
+        if (dot >= 0) {
+            schema = tableName.substring(0, dot);
+            table = tableName.substring(dot + 1);
+        }
+        if (metaData.storesUpperCaseIdentifiers()) {
+            schema = schema == null ? null : schema.toUpperCase();
+            table = table.toUpperCase();
+        } else if (metaData.storesLowerCaseIdentifiers()) {
+            schema = schema == null ? null : schema.toLowerCase();
+            table = table.toLowerCase();
+        }
+
+        String keyColumn = null;
+        try (ResultSet keys = metaData.getPrimaryKeys(null, schema, table)) {
+            while (keys.next()) {
+                if (keys.getShort("KEY_SEQ") == 1) {
+                    keyColumn = keys.getString("COLUMN_NAME");
+                    break;
+                }
+            }
+        }
+        if (keyColumn == null) {
+            LOG.info("Table {} has no primary key, it is read by a single fragment", tableName);
+            return false;
+        }
+
+        PartitionType keyPartitionType = null;
+        try (ResultSet columns = metaData.getColumns(null, schema, table, keyColumn)) {
+            while (columns.next()) {
+                if (keyColumn.equals(columns.getString("COLUMN_NAME"))) {
+                    keyPartitionType = getPartitionType(columns.getInt("DATA_TYPE"), columns.getInt("DECIMAL_DIGITS"));
+                    break;
+                }
+            }
+        }
+        if (keyPartitionType == null) {
+            LOG.info("The primary key column {} of table {} is not of an integral or date type, the table is read by a single fragment",
+                    keyColumn, tableName);
+            return false;
+        }
+
+        LOG.debug("Using primary key column {} of table {} as the partition column", keyColumn, tableName);
+        column = keyColumn;
+        partitionType = keyPartitionType;
+        return true;
+    }
+
+    private static PartitionType getPartitionType(int sqlType, int decimalDigits) {
+        switch (sqlType) {
+            case Types.TINYINT:
+            case Types.SMALLINT:
+            case Types.INTEGER:
+            case Types.BIGINT:
+                return PartitionType.INT;
+            case Types.NUMERIC:
+            case Types.DECIMAL:
+                return decimalDigits == 0 ? PartitionType.INT : null;
+            case Types.DATE:
+                return PartitionType.DATE;
+            default:
+                return null;
+        }
+    }
 }
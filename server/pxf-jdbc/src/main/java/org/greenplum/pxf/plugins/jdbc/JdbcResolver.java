@@ -33,9 +33,11 @@ import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.math.BigDecimal;
+import java.sql.Date;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Timestamp;
 import java.sql.Types;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
@@ -47,8 +49,8 @@ import java.time.format.SignStyle;
 import java.time.temporal.ChronoField;
 import java.time.temporal.TemporalAccessor;
 import java.time.temporal.TemporalQuery;
+import java.util.ArrayList;
 import java.util.EnumSet;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Set;
 import java.util.UUID;
@@ -133,6 +135,19 @@ public class JdbcResolver extends JdbcBasePlugin implements Resolver {
 
     private boolean logWarnForDateWideRange = true;
 
+    // Readers of the projected columns, resolved from the result set of the fragment
+    private ResultSet columnReadersResultSet;
+    private int[] columnIndexes;
+    private ColumnReader[] columnReaders;
+
+    /**
+     * Reads the value of a column of the current row of a result set
+     */
+    @FunctionalInterface
+    private interface ColumnReader {
+        Object read(ResultSet result, int index) throws SQLException;
+    }
+
     /**
      * Creates a new instance of the JdbcResolver
      */
@@ -159,91 +174,113 @@ public class JdbcResolver extends JdbcBasePlugin implements Resolver {
     @Override
     public List<OneField> getFields(OneRow row) throws SQLException {
         ResultSet result = (ResultSet) row.getData();
-        LinkedList<OneField> fields = new LinkedList<>();
-
-        for (ColumnDescriptor column : columns) {
-            String colName = column.columnName();
-            Object value;
-
-            OneField oneField = new OneField();
-            oneField.type = column.columnTypeCode();
-
-            fields.add(oneField);
+        if (result != columnReadersResultSet) {
+            initializeColumnReaders(result);
+        }
 
+        List<OneField> fields = new ArrayList<>(columns.size());
+        for (int i = 0; i < columnReaders.length; i++) {
             /*
              * Non-projected columns get null values
              */
-            if (!column.isProjected()) continue;
+            Object value = columnReaders[i] == null ? null : columnReaders[i].read(result, columnIndexes[i]);
+            fields.add(new OneField(columns.get(i).columnTypeCode(), value));
+        }
 
-            switch (DataType.get(oneField.type)) {
-                case INTEGER:
-                    value = result.getInt(colName);
-                    break;
-                case FLOAT8:
-                    value = result.getDouble(colName);
-                    break;
-                case REAL:
-                    value = result.getFloat(colName);
-                    break;
-                case BIGINT:
-                    value = result.getLong(colName);
-                    break;
-                case SMALLINT:
-                    value = result.getShort(colName);
-                    break;
-                case BOOLEAN:
-                    value = result.getBoolean(colName);
-                    break;
-                case BYTEA:
-                    value = result.getBytes(colName);
-                    break;
-                case VARCHAR:
-                case BPCHAR:
-                case TEXT:
-                case NUMERIC:
-                    value = result.getString(colName);
-                    break;
-                case DATE:
-                    // As of JDBC 4.2, getObject API supports retrieval of LocalDate, LocalDateTime, and OffsetDateTime.
-                    // We use getDate and getTimestamp because Hive JDBC connector does not fully support JDBC 4.2 API.
-                    // https://issues.apache.org/jira/browse/HIVE-9704
-                    LocalDate localDate;
-                    if (isDateWideRange) {
-                        localDate = result.getObject(colName, LocalDate.class);
-                    } else {
-                        localDate = result.getDate(colName) == null ? null : result.getDate(colName).toLocalDate();
-                    }
-                    value = formatDateTimeValues(localDate, LOCAL_DATE_FORMATTERS);
-                    break;
-                case TIMESTAMP:
-                    LocalDateTime localDateTime;
-                    if (isDateWideRange) {
-                        localDateTime = result.getObject(colName, LocalDateTime.class);
-                    } else {
-                        localDateTime = result.getTimestamp(colName) == null ? null : result.getTimestamp(colName).toLocalDateTime();
-                    }
-                    value = formatDateTimeValues(localDateTime, LOCAL_DATE_TIME_FORMATTERS);
-                    break;
-                case TIMESTAMP_WITH_TIME_ZONE:
-                    // OffsetDateTime is the only class that JDBC drivers will most likely to respect for returning timestamptz.
-                    // Timestamptz will not work with Hive JDBC connector.
-                    OffsetDateTime offsetDateTime = result.getObject(colName, OffsetDateTime.class);
-                    value = formatDateTimeValues(offsetDateTime, OFFSET_DATE_TIME_FORMATTERS);
-                    break;
-                case UUID:
-                    value = result.getObject(colName, java.util.UUID.class);
-                    break;
-                default:
-                    throw new UnsupportedOperationException(
-                            String.format("Field type '%s' (column '%s') is not supported",
-                                    DataType.get(oneField.type),
-                                    column));
-            }
+        return fields;
+    }
 
-            oneField.val = result.wasNull() ? null : value;
+    /**
+     * Resolves the index of every projected column in the result set, and
+     * the way to read its values, so that the cells of every row are read by
+     * index without looking up the column by name or by type
+     *
+     * @param result the result set of the query of the fragment
+     * @throws SQLException if a projected column is not in the result set
+     */
+    private void initializeColumnReaders(ResultSet result) throws SQLException {
+        columnIndexes = new int[columns.size()];
+        columnReaders = new ColumnReader[columns.size()];
+        for (int i = 0; i < columns.size(); i++) {
+            ColumnDescriptor column = columns.get(i);
+            if (column.isProjected()) {
+                columnIndexes[i] = result.findColumn(column.columnName());
+                columnReaders[i] = createColumnReader(column);
+            }
         }
+        columnReadersResultSet = result;
+    }
 
-        return fields;
+    private ColumnReader createColumnReader(ColumnDescriptor column) {
+        switch (DataType.get(column.columnTypeCode())) {
+            case INTEGER:
+                return (result, index) -> {
+                    int value = result.getInt(index);
+                    return result.wasNull() ? null : value;
+                };
+            case FLOAT8:
+                return (result, index) -> {
+                    double value = result.getDouble(index);
+                    return result.wasNull() ? null : value;
+                };
+            case REAL:
+                return (result, index) -> {
+                    float value = result.getFloat(index);
+                    return result.wasNull() ? null : value;
+                };
+            case BIGINT:
+                return (result, index) -> {
+                    long value = result.getLong(index);
+                    return result.wasNull() ? null : value;
+                };
+            case SMALLINT:
+                return (result, index) -> {
+                    short value = result.getShort(index);
+                    return result.wasNull() ? null : value;
+                };
+            case BOOLEAN:
+                return (result, index) -> {
+                    boolean value = result.getBoolean(index);
+                    return result.wasNull() ? null : value;
+                };
+            case BYTEA:
+                return ResultSet::getBytes;
+            case VARCHAR:
+            case BPCHAR:
+            case TEXT:
+            case NUMERIC:
+                return ResultSet::getString;
+            case DATE:
+                // As of JDBC 4.2, getObject API supports retrieval of LocalDate, LocalDateTime, and OffsetDateTime.
+                // We use getDate and getTimestamp because Hive JDBC connector does not fully support JDBC 4.2 API.
+                // https://issues.apache.org/jira/browse/HIVE-9704
+                if (isDateWideRange) {
+                    return (result, index) -> formatDateTimeValues(result.getObject(index, LocalDate.class), LOCAL_DATE_FORMATTERS);
+                }
+                return (result, index) -> {
+                    Date date = result.getDate(index);
+                    return date == null ? null : formatDateTimeValues(date.toLocalDate(), LOCAL_DATE_FORMATTERS);
+                };
+            case TIMESTAMP:
+                if (isDateWideRange) {
+                    return (result, index) -> formatDateTimeValues(result.getObject(index, LocalDateTime.class), LOCAL_DATE_TIME_FORMATTERS);
+                }
+                return (result, index) -> {
+                    Timestamp timestamp = result.getTimestamp(index);
+                    return timestamp == null ? null : formatDateTimeValues(timestamp.toLocalDateTime(), LOCAL_DATE_TIME_FORMATTERS);
+                };
+            case TIMESTAMP_WITH_TIME_ZONE:
+                // OffsetDateTime is the only class that JDBC drivers will most likely to respect for returning timestamptz.
+                // Timestamptz will not work with Hive JDBC connector.
+                return (result, index) -> formatDateTimeValues(result.getObject(index, OffsetDateTime.class), OFFSET_DATE_TIME_FORMATTERS);
+            case UUID:
+                return (result, index) -> result.getObject(index, java.util.UUID.class);
+            default:
+                throw new UnsupportedOperationException(
+                        String.format("Field type '%s' (column '%s') is not supported",
+                                DataType.get(column.columnTypeCode()),
+                                column));
+        }
     }
 
     /**
@@ -352,12 +389,28 @@ public class JdbcResolver extends JdbcBasePlugin implements Resolver {
      * @throws IOException  if data in a OneRow is corrupted
      * @throws SQLException if the given statement is broken
      */
-    @SuppressWarnings("unchecked")
     public static void decodeOneRowToPreparedStatement(OneRow row, PreparedStatement statement) throws IOException, SQLException {
+        decodeOneRowToPreparedStatement(row, statement, 0);
+    }
+
+    /**
+     * Decode OneRow object and pass all its contents to the parameters of a
+     * PreparedStatement that follow the given offset, so that several rows
+     * can be bound to a single INSERT statement
+     *
+     * @param row             one row
+     * @param statement       PreparedStatement
+     * @param parameterOffset the number of parameters of the statement that precede the row
+     * @throws IOException  if data in a OneRow is corrupted
+     * @throws SQLException if the given statement is broken
+     */
+    @SuppressWarnings("unchecked")
+    public static void decodeOneRowToPreparedStatement(OneRow row, PreparedStatement statement, int parameterOffset) throws IOException, SQLException {
         // This is safe: OneRow comes from JdbcResolver
         List<OneField> tuple = (List<OneField>) row.getData();
-        for (int i = 1; i <= tuple.size(); i++) {
-            OneField field = tuple.get(i - 1);
+        for (int column = 0; column < tuple.size(); column++) {
+            OneField field = tuple.get(column);
+            int i = parameterOffset + column + 1;
             switch (DataType.get(field.type)) {
                 case INTEGER:
                     if (field.val == null) {
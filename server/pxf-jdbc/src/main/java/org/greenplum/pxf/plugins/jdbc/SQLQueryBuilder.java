@@ -178,6 +178,63 @@ public class SQLQueryBuilder {
         return sb.toString();
     }
 
+    /**
+     * Build COPY query that streams CSV rows from the client into the
+     * columns of the target table of a PostgreSQL-compatible database
+     *
+     * @return SQL COPY FROM STDIN query
+     */
+    public String buildCopyQuery() {
+        StringBuilder sb = new StringBuilder();
+
+        sb.append("COPY ");
+        sb.append(source);
+
+        sb.append("(");
+        String fieldDivisor = "";
+        for (ColumnDescriptor column : columns) {
+            sb.append(fieldDivisor);
+            fieldDivisor = ", ";
+            sb.append(quoteString).append(column.columnName()).append(quoteString);
+        }
+        sb.append(")");
+
+        sb.append(" FROM STDIN WITH CSV");
+
+        return sb.toString();
+    }
+
+    /**
+     * Build a query of the statistics of a partition column: its minimum
+     * value, its maximum value and the number of rows of the source.
+     *
+     * @param column the partition column name
+     * @return SQL query returning a single row with the minimum, the maximum and the count
+     */
+    public String buildPartitionStatisticsQuery(String column) {
+        String quotedColumn = quoteString + column + quoteString;
+        return "SELECT MIN(" + quotedColumn + "), MAX(" + quotedColumn + "), COUNT(*) FROM " + getSource();
+    }
+
+    /**
+     * Build a query of the boundaries that split the non-null values of a
+     * partition column into ranges with the same number of rows: the
+     * maximum value of each range, in ascending order.
+     *
+     * @param column     the partition column name
+     * @param partitions the number of ranges
+     * @return SQL query returning the maximum of each range, or null if the database cannot compute them
+     */
+    public String buildPartitionBoundariesQuery(String column, int partitions) {
+        if (!dbProduct.supportsWindowFunctions()) {
+            return null;
+        }
+        String quotedColumn = quoteString + column + quoteString;
+        return "SELECT MAX(" + quotedColumn + ") FROM (SELECT " + quotedColumn +
+                ", NTILE(" + partitions + ") OVER (ORDER BY " + quotedColumn + ") pxf_tile FROM " + getSource() +
+                " WHERE " + quotedColumn + " IS NOT NULL) pxftiles GROUP BY pxf_tile ORDER BY 1";
+    }
+
     /**
      * Check whether column names must be quoted and set quoteString if so.
      * <p>
@@ -0,0 +1,72 @@
+package org.greenplum.pxf.plugins.jdbc.partitioning;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import org.greenplum.pxf.plugins.jdbc.utils.DbProduct;
+
+/**
+ * A partition of the values of an integral column that have the same
+ * remainder when divided by the number of partitions.
+ * <p>
+ * Unlike ranges computed from the values of the column, the partitions do
+ * not depend on the data of the external database, so every PXF instance
+ * forms the same partitions even when the data changes while the query runs.
+ * The remainders of negative values are negative, so a partition includes
+ * the values of both signs whose remainders have the same magnitude.
+ */
+@NoArgsConstructor
+public class ModuloPartition extends BasePartition implements JdbcFragmentMetadata {
+
+    @Getter
+    private int modulus;
+
+    @Getter
+    private int remainder;
+
+    /**
+     * @param column    the partition column
+     * @param modulus   the number of partitions
+     * @param remainder the remainder of the values of the partition, from 0 to modulus - 1
+     */
+    public ModuloPartition(String column, int modulus, int remainder) {
+        super(column);
+        if (modulus < 1 || remainder < 0 || remainder >= modulus) {
+            throw new IllegalArgumentException(String.format(
+                    "Invalid remainder %d of modulus %d", remainder, modulus));
+        }
+        this.modulus = modulus;
+        this.remainder = remainder;
+    }
+
+    @Override
+    public String toSqlConstraint(String quoteString, DbProduct dbProduct) {
+        if (quoteString == null) {
+            throw new RuntimeException("Quote string cannot be null");
+        }
+
+        String modulo = dbProduct.buildModulo(quoteString + column + quoteString, modulus);
+        if (remainder == 0) {
+            return modulo + " = 0";
+        }
+        return modulo + " IN (" + remainder + ", -" + remainder + ")";
+    }
+}
@@ -23,11 +23,15 @@ import org.apache.commons.lang.StringUtils;
 import org.greenplum.pxf.plugins.jdbc.Interval;
 import org.greenplum.pxf.plugins.jdbc.IntervalType;
 
+import java.sql.Date;
+import java.sql.Timestamp;
 import java.time.LocalDate;
 import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.SortedSet;
+import java.util.TreeSet;
 
 /**
  * The high-level partitioning feature controller.
@@ -65,6 +69,21 @@ public enum PartitionType {
         String getValidIntervalFormat() {
             return "Integer";
         }
+
+        @Override
+        long toOrdinal(Object value) {
+            return ((Number) value).longValue();
+        }
+
+        @Override
+        Object fromOrdinal(long ordinal) {
+            return ordinal;
+        }
+
+        @Override
+        public boolean supportsModulo() {
+            return true;
+        }
     },
     DATE {
         @Override
@@ -108,6 +127,26 @@ public enum PartitionType {
         String getValidIntervalFormat() {
             return "yyyy-mm-dd";
         }
+
+        @Override
+        long toOrdinal(Object value) {
+            LocalDate date;
+            if (value instanceof Timestamp) {
+                date = ((Timestamp) value).toLocalDateTime().toLocalDate();
+            } else if (value instanceof Date) {
+                date = ((Date) value).toLocalDate();
+            } else if (value instanceof LocalDate) {
+                date = (LocalDate) value;
+            } else {
+                date = LocalDate.parse(value.toString().substring(0, 10));
+            }
+            return date.toEpochDay();
+        }
+
+        @Override
+        Object fromOrdinal(long ordinal) {
+            return LocalDate.ofEpochDay(ordinal);
+        }
     },
     ENUM {
         private static final String UNSUPPORTED_ERR_MESSAGE = "Current operation is not supported";
@@ -164,6 +203,21 @@ public enum PartitionType {
         String getValidIntervalFormat() {
             throw new UnsupportedOperationException(UNSUPPORTED_ERR_MESSAGE);
         }
+
+        @Override
+        public boolean supportsStatistics() {
+            return false;
+        }
+
+        @Override
+        long toOrdinal(Object value) {
+            throw new UnsupportedOperationException(UNSUPPORTED_ERR_MESSAGE);
+        }
+
+        @Override
+        Object fromOrdinal(long ordinal) {
+            throw new UnsupportedOperationException(UNSUPPORTED_ERR_MESSAGE);
+        }
     };
 
     protected List<? extends BasePartition> generate(String column, String range, String interval) {
@@ -236,6 +290,58 @@ public enum PartitionType {
      */
     abstract String getValidIntervalFormat();
 
+    /**
+     * Convert a value of the partition column, as returned by the JDBC
+     * driver, to a number that preserves the order of the values
+     *
+     * @param value the value of the partition column
+     * @return the ordinal of the value
+     */
+    abstract long toOrdinal(Object value);
+
+    /**
+     * @param ordinal the ordinal of a value, as returned by {@link #toOrdinal(Object)}
+     * @return the value of the partition column
+     */
+    abstract Object fromOrdinal(long ordinal);
+
+    /**
+     * @return whether the partitions can be formed from the statistics of the partition column
+     */
+    public boolean supportsStatistics() {
+        return true;
+    }
+
+    /**
+     * @return whether the partitions can be formed from the remainders of the values of the partition column
+     */
+    public boolean supportsModulo() {
+        return false;
+    }
+
+    /**
+     * Form a list of getFragmentsMetadata that split the values of the
+     * column by their remainders when divided by the number of partitions.
+     * The partitions do not depend on the data of the external database.
+     *
+     * @param column     the partition column name
+     * @param partitions the number of partitions of the non-null values
+     * @return a list of getFragmentsMetadata, including the partition of null values
+     */
+    public List<JdbcFragmentMetadata> getFragmentsMetadata(String column, int partitions) {
+        if (!supportsModulo()) {
+            throw new UnsupportedOperationException(String.format(
+                    "Partitions of type '%s' cannot be formed from the remainders of the values", this));
+        }
+        List<JdbcFragmentMetadata> result = new LinkedList<>();
+        for (int i = 0; i < partitions; i++) {
+            result.add(new ModuloPartition(column, partitions, i));
+        }
+        result.add(new NullPartition(column));
+
+        return result;
+    }
+
     /**
      * Analyze the user-provided parameters (column name, RANGE and INTERVAL values) and form a list of getFragmentsMetadata for this partition according to those parameters.
      *
@@ -254,6 +360,79 @@ public enum PartitionType {
         return result;
     }
 
+    /**
+     * Form a list of getFragmentsMetadata that split the values of the column
+     * into ranges of the same width between its minimum and maximum values.
+     *
+     * @param column     the partition column name
+     * @param min        the minimum value of the column, as returned by the JDBC driver
+     * @param max        the maximum value of the column, as returned by the JDBC driver
+     * @param partitions the number of ranges
+     * @return a list of getFragmentsMetadata, empty if the values cannot be split
+     */
+    public List<JdbcFragmentMetadata> getFragmentsMetadata(String column, Object min, Object max, int partitions) {
+        if (min == null || max == null) {
+            return new LinkedList<>();
+        }
+        long start = toOrdinal(min);
+        long end = toOrdinal(max);
+        // the width is computed as a double to not overflow on the full range of long values
+        double width = ((double) end - start + 1) / partitions;
+
+        TreeSet<Long> splits = new TreeSet<>();
+        for (int i = 1; i < partitions; i++) {
+            long split = start + (long) Math.floor(width * i);
+            if (split > start && split <= end) {
+                splits.add(split);
+            }
+        }
+        return createPartitions(column, splits);
+    }
+
+    /**
+     * Form a list of getFragmentsMetadata from the boundaries of ranges of
+     * the column computed by the external database, so that the fragments
+     * hold about the same number of rows even when the values are skewed.
+     *
+     * @param column     the partition column name
+     * @param boundaries the maximum value of each range in ascending order, as returned by the JDBC driver
+     * @return a list of getFragmentsMetadata, empty if the values cannot be split
+     */
+    public List<JdbcFragmentMetadata> getFragmentsMetadata(String column, List<Object> boundaries) {
+        TreeSet<Long> splits = new TreeSet<>();
+        // the last range is bounded by the maximum value, it does not start a new range
+        for (int i = 0; i < boundaries.size() - 1; i++) {
+            long boundary = toOrdinal(boundaries.get(i));
+            if (boundary < Long.MAX_VALUE) {
+                splits.add(boundary + 1);
+            }
+        }
+        return createPartitions(column, splits);
+    }
+
+    /**
+     * Create the partitions that start a new range at each of the splits.
+     * The first and the last ranges are unbounded, so that the fragments
+     * also cover the values added after the statistics were computed.
+     */
+    private List<JdbcFragmentMetadata> createPartitions(String column, SortedSet<Long> splits) {
+        List<JdbcFragmentMetadata> result = new LinkedList<>();
+        if (splits.isEmpty()) {
+            return result;
+        }
+
+        Object fragmentStart = null;
+        for (long split : splits) {
+            Object fragmentEnd = fromOrdinal(split);
+            result.add(createPartition(column, fragmentStart, fragmentEnd));
+            fragmentStart = fragmentEnd;
+        }
+        result.add(createPartition(column, fragmentStart, null));
+        result.add(new NullPartition(column));
+
+        return result;
+    }
+
     private void checkValidInput(String column, String range, String interval) {
         // Check input
         if (StringUtils.isBlank(column)) {
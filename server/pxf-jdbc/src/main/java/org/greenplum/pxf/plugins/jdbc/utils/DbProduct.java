@@ -37,6 +37,17 @@ public enum DbProduct {
         public String buildSessionQuery(String key, String value) {
             return String.format("SET %s %s", key, value);
         }
+
+        @Override
+        public int getMaxInsertParameters() {
+            // a request to SQL Server can have at most 2100 parameters
+            return 2000;
+        }
+
+        @Override
+        public String buildModulo(String expression, int modulus) {
+            return "(" + expression + " % " + modulus + ")";
+        }
     },
 
     MYSQL {
@@ -44,6 +55,17 @@ public enum DbProduct {
         public String wrapDate(Object val) {
             return "DATE('" + val + "')";
         }
+
+        @Override
+        public boolean supportsWindowFunctions() {
+            // window functions are only available since MySQL 8.0
+            return false;
+        }
+
+        @Override
+        public int getMaxInsertParameters() {
+            return 65535;
+        }
     },
 
     ORACLE {
@@ -61,6 +83,12 @@ public enum DbProduct {
         public String buildSessionQuery(String key, String value) {
             return OracleJdbcUtils.buildSessionQuery(key, value);
         }
+
+        @Override
+        public int getMaxInsertParameters() {
+            // INSERT ... VALUES takes a single row before Oracle 23c
+            return 0;
+        }
     },
 
     POSTGRES {
@@ -80,6 +108,21 @@ public enum DbProduct {
         public String wrapTimestamp(Object val) {
             return "TO_TIMESTAMP('" + val + "')";
         }
+
+        @Override
+        public boolean supportsWindowFunctions() {
+            return false;
+        }
+
+        @Override
+        public int getMaxInsertParameters() {
+            return 0;
+        }
+
+        @Override
+        public String buildModulo(String expression, int modulus) {
+            return "(" + expression + " % " + modulus + ")";
+        }
     };
 
     /**
@@ -111,28 +154,50 @@ public enum DbProduct {
         return String.format("SET %s = %s", key, value);
     }
 
+    /**
+     * Whether the target database supports window functions, such as NTILE
+     *
+     * @return true if window functions can be used in queries
+     */
+    public boolean supportsWindowFunctions() {
+        return true;
+    }
+
+    /**
+     * Build the remainder of an integral expression divided by a modulus
+     *
+     * @param expression the integral expression
+     * @param modulus    the modulus
+     * @return an SQL expression of the remainder, negative for negative values of the expression
+     */
+    public String buildModulo(String expression, int modulus) {
+        return "MOD(" + expression + ", " + modulus + ")";
+    }
+
+    /**
+     * The maximum number of bind parameters of an INSERT statement with
+     * multiple rows in its VALUES clause
+     *
+     * @return the maximum number of parameters, 0 if the target database
+     * does not support INSERT statements with multiple rows
+     */
+    public int getMaxInsertParameters() {
+        return 32767;
+    }
+
     /**
      * Get DbProduct for database by database name
      *
      * @param dbName database name
-     * @return a DbProduct of the required class
+     * @return a DbProduct of the required class, POSTGRES for databases that are not recognized
      */
     public static DbProduct getDbProduct(String dbName) {
         if (LOG.isDebugEnabled()) {
             LOG.debug("Database product name is '" + dbName + "'");
         }
 
-        dbName = dbName.toUpperCase();
-        DbProduct result;
-        if (dbName.contains("MICROSOFT"))
-            result = DbProduct.MICROSOFT;
-        else if (dbName.contains("MYSQL"))
-            result = DbProduct.MYSQL;
-        else if (dbName.contains("ORACLE"))
-            result = DbProduct.ORACLE;
-        else if (dbName.contains("S3 SELECT"))
-            result = DbProduct.S3_SELECT;
-        else
+        DbProduct result = findDbProduct(dbName);
+        if (result == null)
             result = DbProduct.POSTGRES;
 
         if (LOG.isDebugEnabled()) {
@@ -141,5 +206,31 @@ public enum DbProduct {
         return result;
     }
 
+    /**
+     * Whether the database is recognized by its name, rather than handled
+     * as PostgreSQL by default
+     *
+     * @param dbName database name
+     * @return true if the database is recognized
+     */
+    public static boolean isRecognized(String dbName) {
+        return findDbProduct(dbName) != null;
+    }
+
+    private static DbProduct findDbProduct(String dbName) {
+        dbName = dbName.toUpperCase();
+        if (dbName.contains("MICROSOFT"))
+            return DbProduct.MICROSOFT;
+        else if (dbName.contains("MYSQL"))
+            return DbProduct.MYSQL;
+        else if (dbName.contains("ORACLE"))
+            return DbProduct.ORACLE;
+        else if (dbName.contains("S3 SELECT"))
+            return DbProduct.S3_SELECT;
+        else if (dbName.contains("POSTGRES") || dbName.contains("GREENPLUM"))
+            return DbProduct.POSTGRES;
+        return null;
+    }
+
     private static final Logger LOG = LoggerFactory.getLogger(DbProduct.class);
 }
@@ -0,0 +1,243 @@
+package org.greenplum.pxf.plugins.jdbc.writercallable;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import org.greenplum.pxf.api.OneField;
+import org.greenplum.pxf.api.OneRow;
+import org.greenplum.pxf.api.io.DataType;
+import org.greenplum.pxf.plugins.jdbc.JdbcBasePlugin;
+import org.postgresql.PGConnection;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeFormatterBuilder;
+import java.time.format.SignStyle;
+import java.time.temporal.ChronoField;
+import java.time.temporal.TemporalAccessor;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * This writer streams rows to a PostgreSQL-compatible database with
+ * COPY FROM STDIN, using the {@link org.postgresql.copy.CopyManager} of the
+ * PostgreSQL JDBC driver. Rows are encoded in CSV format, one COPY per batch.
+ *
+ * A call() is required after a certain number of supply() calls
+ */
+class CopyWriterCallable implements WriterCallable {
+    @Override
+    public void supply(OneRow row) throws IllegalStateException {
+        if ((batchSize > 0) && (rows.size() >= batchSize)) {
+            throw new IllegalStateException("Trying to supply() a OneRow object to a full WriterCallable");
+        }
+        if (row == null) {
+            throw new IllegalArgumentException("Trying to supply() a null OneRow object");
+        }
+        rows.add(row);
+    }
+
+    @Override
+    public boolean isCallRequired() {
+        return (batchSize > 0) && (rows.size() >= batchSize);
+    }
+
+    @Override
+    public SQLException call() throws IOException, SQLException, ClassNotFoundException {
+        if (rows.isEmpty()) {
+            return null;
+        }
+
+        buffer.setLength(0);
+        for (OneRow row : rows) {
+            appendCsvRow(buffer, row);
+        }
+
+        boolean connectionMustBeClosed = statement == null;
+        Connection connection = connectionMustBeClosed ? plugin.getConnection() : statement.getConnection();
+        try {
+            connection.unwrap(PGConnection.class).getCopyAPI().copyIn(query, new StringReader(buffer.toString()));
+        } catch (SQLException e) {
+            return e;
+        } finally {
+            rows.clear();
+            if (connectionMustBeClosed) {
+                JdbcBasePlugin.closeConnection(connection);
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Append a row in the CSV format of COPY: NULL values are empty unquoted
+     * strings, and all other values that may contain special characters are
+     * quoted.
+     *
+     * @param sb  the buffer to append the row to
+     * @param row one row
+     * @throws IOException if data in a OneRow is corrupted
+     */
+    @SuppressWarnings("unchecked")
+    static void appendCsvRow(StringBuilder sb, OneRow row) throws IOException {
+        // This is safe: OneRow comes from JdbcResolver
+        List<OneField> tuple = (List<OneField>) row.getData();
+        for (int i = 0; i < tuple.size(); i++) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            OneField field = tuple.get(i);
+            if (field.val == null) {
+                continue;
+            }
+            switch (DataType.get(field.type)) {
+                case INTEGER:
+                case BIGINT:
+                case SMALLINT:
+                case REAL:
+                case FLOAT8:
+                case BOOLEAN:
+                case UUID:
+                    sb.append(field.val);
+                    break;
+                case NUMERIC:
+                    sb.append(field.val instanceof BigDecimal ? ((BigDecimal) field.val).toPlainString() : field.val);
+                    break;
+                case VARCHAR:
+                case BPCHAR:
+                case TEXT:
+                    appendQuoted(sb, field.val.toString());
+                    break;
+                case BYTEA:
+                    // values that are not binary are already in the text format of bytea
+                    appendQuoted(sb, field.val instanceof byte[] ? escapeBytea((byte[]) field.val) : field.val.toString());
+                    break;
+                case DATE:
+                case TIMESTAMP:
+                case TIMESTAMP_WITH_TIME_ZONE:
+                    appendQuoted(sb, formatTemporal(field.val));
+                    break;
+                default:
+                    throw new IOException("The data tuple from JdbcResolver is corrupted");
+            }
+        }
+        sb.append('\n');
+    }
+
+    private static void appendQuoted(StringBuilder sb, String value) {
+        sb.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                sb.append('"');
+            }
+            sb.append(c);
+        }
+        sb.append('"');
+    }
+
+    /**
+     * Encode bytes in the escape format of bytea, which is understood by all
+     * versions of PostgreSQL and Greenplum
+     */
+    private static String escapeBytea(byte[] bytes) {
+        StringBuilder sb = new StringBuilder(bytes.length);
+        for (byte b : bytes) {
+            int value = b & 0xFF;
+            if (value == '\\') {
+                sb.append("\\\\");
+            } else if (value < 0x20 || value > 0x7E) {
+                sb.append('\\')
+                        .append((char) ('0' + (value >> 6)))
+                        .append((char) ('0' + ((value >> 3) & 7)))
+                        .append((char) ('0' + (value & 7)));
+            } else {
+                sb.append((char) value);
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Format dates and timestamps the way PostgreSQL parses them, including
+     * years before the common era and after 9999
+     */
+    private static String formatTemporal(Object value) {
+        DateTimeFormatter formatter;
+        if (value instanceof LocalDate) {
+            formatter = DATE_FORMATTER;
+        } else if (value instanceof LocalDateTime) {
+            formatter = TIMESTAMP_FORMATTER;
+        } else if (value instanceof OffsetDateTime) {
+            formatter = TIMESTAMP_WITH_TIME_ZONE_FORMATTER;
+        } else {
+            return value.toString();
+        }
+        TemporalAccessor temporal = (TemporalAccessor) value;
+        String formatted = formatter.format(temporal);
+        return temporal.get(ChronoField.ERA) == 0 ? formatted + " BC" : formatted;
+    }
+
+    /**
+     * Construct a new COPY writer
+     */
+    CopyWriterCallable(JdbcBasePlugin plugin, String query, PreparedStatement statement, int batchSize) {
+        if (plugin == null || query == null) {
+            throw new IllegalArgumentException("The provided JdbcBasePlugin or SQL query is null");
+        }
+
+        this.plugin = plugin;
+        this.query = query;
+        this.statement = statement;
+        this.batchSize = batchSize;
+
+        rows = new ArrayList<>();
+        buffer = new StringBuilder();
+    }
+
+    // the year of era has no sign, the era is appended as BC when needed
+    private static final DateTimeFormatter DATE_FORMATTER = new DateTimeFormatterBuilder()
+            .appendValue(ChronoField.YEAR_OF_ERA, 4, 9, SignStyle.NORMAL)
+            .appendPattern("-MM-dd")
+            .toFormatter();
+    private static final DateTimeFormatter TIMESTAMP_FORMATTER = new DateTimeFormatterBuilder()
+            .append(DATE_FORMATTER)
+            .appendPattern(" HH:mm:ss.SSSSSS")
+            .toFormatter();
+    private static final DateTimeFormatter TIMESTAMP_WITH_TIME_ZONE_FORMATTER = new DateTimeFormatterBuilder()
+            .append(TIMESTAMP_FORMATTER)
+            // the offsets of historical time zones, such as local mean times, have seconds
+            .appendPattern("xxxxx")
+            .toFormatter();
+
+    private final JdbcBasePlugin plugin;
+    private final String query;
+    private final PreparedStatement statement;
+    private final List<OneRow> rows;
+    private final StringBuilder buffer;
+    private final int batchSize;
+}
@@ -0,0 +1,156 @@
+package org.greenplum.pxf.plugins.jdbc.writercallable;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import org.greenplum.pxf.api.OneRow;
+import org.greenplum.pxf.plugins.jdbc.JdbcBasePlugin;
+import org.greenplum.pxf.plugins.jdbc.JdbcResolver;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * This writer makes INSERTs with many rows in their VALUES clause, so that
+ * a batch of rows is sent to the external database in a few statements even
+ * when its driver executes JDBC batches one statement at a time.
+ *
+ * A call() is required after a certain number of supply() calls
+ */
+class MultiRowInsertWriterCallable implements WriterCallable {
+    @Override
+    public void supply(OneRow row) throws IllegalStateException {
+        if ((batchSize > 0) && (rows.size() >= batchSize)) {
+            throw new IllegalStateException("Trying to supply() a OneRow object to a full WriterCallable");
+        }
+        if (row == null) {
+            throw new IllegalArgumentException("Trying to supply() a null OneRow object");
+        }
+        rows.add(row);
+    }
+
+    @Override
+    public boolean isCallRequired() {
+        return (batchSize > 0) && (rows.size() >= batchSize);
+    }
+
+    @Override
+    public SQLException call() throws IOException, SQLException, ClassNotFoundException {
+        if (rows.isEmpty()) {
+            return null;
+        }
+
+        int columnCount = ((List<?>) rows.get(0).getData()).size();
+        // the number of bind parameters of a statement is limited by the external database
+        int rowsPerStatement = Math.max(1, Math.min(rows.size(), maxParameters / Math.max(1, columnCount)));
+
+        boolean connectionMustBeClosed = statement == null;
+        Connection connection = connectionMustBeClosed ? plugin.getConnection() : statement.getConnection();
+        try {
+            for (int first = 0; first < rows.size(); first += rowsPerStatement) {
+                int count = Math.min(rowsPerStatement, rows.size() - first);
+                PreparedStatement multiRowStatement = getStatement(connection, count);
+                for (int i = 0; i < count; i++) {
+                    JdbcResolver.decodeOneRowToPreparedStatement(rows.get(first + i), multiRowStatement, i * columnCount);
+                }
+                multiRowStatement.executeUpdate();
+            }
+        } catch (SQLException e) {
+            return e;
+        } finally {
+            rows.clear();
+            if (connectionMustBeClosed) {
+                closeStatement();
+                JdbcBasePlugin.closeConnection(connection);
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Build an INSERT query with the given number of rows in its VALUES
+     * clause from a single-row INSERT query
+     *
+     * @param query a query built by {@link org.greenplum.pxf.plugins.jdbc.SQLQueryBuilder#buildInsertQuery()}
+     * @param rows  the number of rows
+     * @return SQL query with placeholders for all the values of the rows
+     */
+    static String buildMultiRowQuery(String query, int rows) {
+        String values = query.substring(query.lastIndexOf(VALUES) + VALUES.length());
+        StringBuilder sb = new StringBuilder(query.length() + (values.length() + 2) * (rows - 1));
+        sb.append(query);
+        for (int i = 1; i < rows; i++) {
+            sb.append(", ").append(values);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Get a statement for the given number of rows, reusing the previous one
+     * when it has the same number of rows, as all batches but the last one do
+     */
+    private PreparedStatement getStatement(Connection connection, int count) throws SQLException {
+        if (multiRowStatement == null || multiRowStatementRows != count) {
+            closeStatement();
+            multiRowStatement = plugin.getPreparedStatement(connection, buildMultiRowQuery(query, count));
+            multiRowStatementRows = count;
+        }
+        return multiRowStatement;
+    }
+
+    private void closeStatement() throws SQLException {
+        if (multiRowStatement != null) {
+            multiRowStatement.close();
+            multiRowStatement = null;
+        }
+    }
+
+    /**
+     * Construct a new multi-row INSERT writer
+     */
+    MultiRowInsertWriterCallable(JdbcBasePlugin plugin, String query, PreparedStatement statement, int batchSize, int maxParameters) {
+        if (plugin == null || query == null) {
+            throw new IllegalArgumentException("The provided JdbcBasePlugin or SQL query is null");
+        }
+
+        this.plugin = plugin;
+        this.query = query;
+        this.statement = statement;
+        this.batchSize = batchSize;
+        this.maxParameters = maxParameters;
+
+        rows = new ArrayList<>();
+    }
+
+    private static final String VALUES = " VALUES ";
+
+    private final JdbcBasePlugin plugin;
+    private final String query;
+    private final PreparedStatement statement;
+    private final List<OneRow> rows;
+    private final int batchSize;
+    private final int maxParameters;
+    private PreparedStatement multiRowStatement;
+    private int multiRowStatementRows;
+}
@@ -0,0 +1,53 @@
+package org.greenplum.pxf.plugins.jdbc.writercallable;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+/**
+ * The way the rows of a JDBC writable external table are sent to the
+ * external database
+ */
+public enum WriteMode {
+    /**
+     * One INSERT statement per row, added to a JDBC batch when the batch size
+     * is greater than 1
+     */
+    BATCH,
+
+    /**
+     * INSERT statements with many rows in their VALUES clause
+     */
+    MULTIROW,
+
+    /**
+     * COPY FROM STDIN, for PostgreSQL-compatible databases and drivers
+     */
+    COPY,
+
+    /**
+     * COPY when the external database and its driver support it, otherwise
+     * INSERT statements with many rows when the external database supports
+     * them, otherwise batches of INSERT statements
+     */
+    AUTO;
+
+    public static WriteMode typeOf(String str) {
+        return valueOf(str.toUpperCase());
+    }
+}
@@ -33,15 +33,34 @@ public class WriterCallableFactory {
     private JdbcBasePlugin plugin;
     private String query;
     private PreparedStatement statement;
+    private WriteMode writeMode;
+    private int maxInsertParameters;
 
     /**
      * Create a new instance of the factory.
      *
      */
     public WriterCallableFactory(JdbcBasePlugin plugin, String query, PreparedStatement statement, int batchSize, int poolSize) {
+        this(plugin, WriteMode.BATCH, query, statement, batchSize, poolSize, 0);
+    }
+
+    /**
+     * Create a new instance of the factory for the given write mode.
+     *
+     * @param plugin              the plugin that provides connections and statements
+     * @param writeMode           the write mode, AUTO must be resolved by the caller
+     * @param query               the COPY query for the COPY write mode, the single-row INSERT query otherwise
+     * @param statement           the INSERT statement, whose connection is used when there is no thread pool
+     * @param batchSize           the number of rows sent to the external database at once
+     * @param poolSize            the size of the thread pool
+     * @param maxInsertParameters the maximum number of parameters of a multi-row INSERT statement
+     */
+    public WriterCallableFactory(JdbcBasePlugin plugin, WriteMode writeMode, String query, PreparedStatement statement, int batchSize, int poolSize, int maxInsertParameters) {
         this.plugin = plugin;
+        this.writeMode = writeMode;
         this.query = query;
         this.batchSize = batchSize;
+        this.maxInsertParameters = maxInsertParameters;
 
         if (poolSize == 1) {
             this.statement = statement;
@@ -54,7 +73,26 @@ public class WriterCallableFactory {
      * @return an implementation of WriterCallable, chosen based on parameters that were set for this factory
      */
     public WriterCallable get() {
+        return get(statement);
+    }
 
+    /**
+     * Get an instance of WriterCallable that writes through the given
+     * statement and its connection
+     *
+     * @param statement the INSERT statement, null to open a connection for every call()
+     * @return an implementation of WriterCallable, chosen based on parameters that were set for this factory
+     */
+    public WriterCallable get(PreparedStatement statement) {
+
+        switch (writeMode) {
+            case COPY:
+                return new CopyWriterCallable(plugin, query, statement, batchSize);
+            case MULTIROW:
+                return new MultiRowInsertWriterCallable(plugin, query, statement, batchSize, maxInsertParameters);
+            default:
+                break;
+        }
         if (batchSize > 1) {
             return new BatchWriterCallable(plugin, query, statement, batchSize);
         }
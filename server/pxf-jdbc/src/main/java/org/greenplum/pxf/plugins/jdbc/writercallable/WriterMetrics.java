@@ -0,0 +1,88 @@
+package org.greenplum.pxf.plugins.jdbc.writercallable;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import com.google.common.annotations.VisibleForTesting;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Metrics of the parallel JDBC writes of all the requests of the PXF JVM:
+ * the number of batches waiting in the queues of the writer pipelines, the
+ * time to write a batch, and the number of rows written.
+ */
+@Component
+public class WriterMetrics {
+
+    private final AtomicInteger queuedBatches = new AtomicInteger();
+    private final Timer batches;
+    private final Counter rows;
+
+    /**
+     * Creates the metrics and registers them
+     *
+     * @param registry the registry to report metrics to
+     */
+    @Autowired
+    public WriterMetrics(MeterRegistry registry) {
+        Gauge.builder("pxf.jdbc.write.queue.depth", queuedBatches, AtomicInteger::get)
+                .description("Batches of rows waiting to be written to external databases")
+                .register(registry);
+        batches = Timer.builder("pxf.jdbc.write.batches")
+                .description("Time to write a batch of rows to an external database")
+                .register(registry);
+        rows = Counter.builder("pxf.jdbc.write.rows")
+                .description("Rows written to external databases by parallel writers")
+                .register(registry);
+    }
+
+    @VisibleForTesting
+    public WriterMetrics() {
+        this(new SimpleMeterRegistry());
+    }
+
+    /**
+     * @return the number of batches waiting to be written
+     */
+    public int getQueuedBatches() {
+        return queuedBatches.get();
+    }
+
+    void batchQueued() {
+        queuedBatches.incrementAndGet();
+    }
+
+    void batchesDequeued(int count) {
+        queuedBatches.addAndGet(-count);
+    }
+
+    void batchWritten(int rowCount, long nanos) {
+        batches.record(nanos, TimeUnit.NANOSECONDS);
+        rows.increment(rowCount);
+    }
+}
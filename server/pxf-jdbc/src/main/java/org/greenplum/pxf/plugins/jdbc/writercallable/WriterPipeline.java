@@ -0,0 +1,275 @@
+package org.greenplum.pxf.plugins.jdbc.writercallable;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import org.greenplum.pxf.api.OneRow;
+import org.greenplum.pxf.plugins.jdbc.JdbcBasePlugin;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Writes batches of rows to the external database in a pool of threads.
+ * <p>
+ * Every thread of the pool opens its own connection and prepares its own
+ * statement once, and writes the batches it takes from a bounded queue with
+ * a {@link WriterCallable} bound to that statement. Every batch is committed
+ * once it is written, and a batch that fails is rolled back, so the batches
+ * written before a failure stay in the external database, as when every
+ * batch was written with a connection of its own. When the queue is full,
+ * {@link #supply(OneRow)} blocks until a thread takes a batch, so that the
+ * rows waiting to be written never exceed the capacity of the queue plus
+ * one batch per thread.
+ * <p>
+ * The first error of a thread stops all the threads, and is thrown by the
+ * next call to {@link #supply(OneRow)} or by {@link #close()}. Once the
+ * pipeline is closed, the threads write the batches left in the queue before
+ * they stop, and {@link #close()} fails if any batch was not written.
+ */
+public class WriterPipeline {
+
+    private static final Logger LOG = LoggerFactory.getLogger(WriterPipeline.class);
+
+    // how often blocked threads check whether the pipeline failed or was closed
+    private static final long POLL_TIMEOUT_MS = 100;
+
+    private final JdbcBasePlugin plugin;
+    private final WriterCallableFactory writerCallableFactory;
+    private final String insertQuery;
+    private final int batchSize;
+    private final WriterMetrics metrics;
+    private final BlockingQueue<List<OneRow>> queue;
+    private final ExecutorService executorService;
+    private final List<Future<Void>> workers;
+    private final AtomicReference<Exception> failure = new AtomicReference<>();
+
+    private volatile boolean closed;
+    private List<OneRow> batch;
+
+    /**
+     * Create the pipeline and start its threads
+     *
+     * @param plugin                the plugin that provides connections and statements
+     * @param writerCallableFactory the factory of the writers of the threads
+     * @param insertQuery           the INSERT query prepared by every thread
+     * @param batchSize             the number of rows of a batch
+     * @param poolSize              the number of threads
+     * @param queueSize             the maximum number of batches waiting for a thread
+     * @param metrics               the metrics of the writes
+     */
+    public WriterPipeline(JdbcBasePlugin plugin, WriterCallableFactory writerCallableFactory, String insertQuery,
+                          int batchSize, int poolSize, int queueSize, WriterMetrics metrics) {
+        this.plugin = plugin;
+        this.writerCallableFactory = writerCallableFactory;
+        this.insertQuery = insertQuery;
+        this.batchSize = Math.max(1, batchSize);
+        this.metrics = metrics;
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, queueSize));
+        this.batch = new ArrayList<>(this.batchSize);
+
+        executorService = Executors.newFixedThreadPool(poolSize);
+        workers = new ArrayList<>(poolSize);
+        for (int i = 0; i < poolSize; i++) {
+            workers.add(executorService.submit(this::work));
+        }
+    }
+
+    /**
+     * Add a row to the current batch, and queue the batch when it is full,
+     * waiting for room in the queue
+     *
+     * @param row one row
+     * @throws Exception the first error of the threads, or if interrupted while waiting
+     */
+    public void supply(OneRow row) throws Exception {
+        throwFailure();
+        batch.add(row);
+        if (batch.size() >= batchSize) {
+            enqueue(batch);
+            batch = new ArrayList<>(batchSize);
+        }
+    }
+
+    /**
+     * Queue the last batch, wait for the threads to write all the batches and
+     * to close their connections
+     *
+     * @throws Exception the first error of the threads
+     */
+    public void close() throws Exception {
+        try {
+            if (failure.get() == null && !batch.isEmpty()) {
+                enqueue(batch);
+            }
+        } finally {
+            batch = new ArrayList<>();
+            closed = true;
+            executorService.shutdown();
+            for (Future<Void> worker : workers) {
+                try {
+                    worker.get();
+                } catch (ExecutionException e) {
+                    fail(e.getCause() instanceof Exception ? (Exception) e.getCause() : e);
+                }
+            }
+            // batches are only left in the queue by failed threads, never drop them silently
+            int leftBatches = queue.size();
+            if (leftBatches > 0) {
+                fail(new IllegalStateException(String.format(
+                        "%d batches were left in the queue after the writer threads stopped", leftBatches)));
+                metrics.batchesDequeued(leftBatches);
+            }
+        }
+        throwFailure();
+    }
+
+    private void enqueue(List<OneRow> rows) throws Exception {
+        while (!queue.offer(rows, POLL_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+            throwFailure();
+        }
+        metrics.batchQueued();
+    }
+
+    private Void work() {
+        Connection connection = null;
+        PreparedStatement statement = null;
+        boolean committed = true;
+        try {
+            connection = plugin.getConnection();
+            statement = plugin.getPreparedStatement(connection, insertQuery);
+            boolean transactional = connection.getMetaData().supportsTransactions() && !connection.getAutoCommit();
+            WriterCallable writerCallable = writerCallableFactory.get(statement);
+            while (failure.get() == null) {
+                List<OneRow> rows = queue.poll(POLL_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+                if (rows == null) {
+                    if (!closed) {
+                        continue;
+                    }
+                    // the last batch may have been queued after the poll timed out, drain the queue before exiting
+                    rows = queue.poll();
+                    if (rows == null) {
+                        break;
+                    }
+                }
+                metrics.batchesDequeued(1);
+
+                long start = System.nanoTime();
+                committed = false;
+                SQLException e = write(writerCallable, rows);
+                if (e != null) {
+                    fail(e);
+                    break;
+                }
+                // every batch is a transaction of its own, as when every batch opened its own connection
+                if (transactional) {
+                    connection.commit();
+                }
+                committed = true;
+                metrics.batchWritten(rows.size(), System.nanoTime() - start);
+            }
+        } catch (Exception e) {
+            fail(e);
+        } catch (Error e) {
+            // stop the producer, which would otherwise wait for room in the queue
+            fail(new ExecutionException(e));
+            throw e;
+        } finally {
+            close(connection, statement, committed);
+        }
+        return null;
+    }
+
+    /**
+     * Close the statement and the connection of a thread, rolling back the
+     * batch that the thread failed to write
+     *
+     * @param connection the connection, null if it could not be opened
+     * @param statement  the statement, null if it could not be prepared
+     * @param committed  whether all the batches written by the thread are committed
+     */
+    private void close(Connection connection, PreparedStatement statement, boolean committed) {
+        if (connection == null) {
+            return;
+        }
+        try {
+            if (statement != null) {
+                statement.close();
+            }
+        } catch (SQLException e) {
+            fail(e);
+        }
+        try {
+            if (!committed && !connection.isClosed() && !connection.getAutoCommit()) {
+                LOG.debug("Rolling back the batch that failed on connection {}", connection);
+                connection.rollback();
+            }
+        } catch (SQLException e) {
+            LOG.warn(String.format("Failed to roll back the transaction on connection %s, ignoring the error.", connection), e);
+        } finally {
+            try {
+                connection.close();
+            } catch (SQLException e) {
+                LOG.warn(String.format("Failed to close JDBC connection %s, ignoring the error.", connection), e);
+            }
+        }
+    }
+
+    private SQLException write(WriterCallable writerCallable, List<OneRow> rows) throws Exception {
+        for (OneRow row : rows) {
+            writerCallable.supply(row);
+            if (writerCallable.isCallRequired()) {
+                SQLException e = writerCallable.call();
+                if (e != null) {
+                    return e;
+                }
+            }
+        }
+        // send the rows of a batch smaller than the batch size of the writer
+        return writerCallable.call();
+    }
+
+    private void fail(Exception e) {
+        if (failure.compareAndSet(null, e)) {
+            LOG.error("A writer thread failed, stopping all the writer threads: {}", e.getMessage());
+        } else {
+            LOG.debug("A writer thread failed after the pipeline was stopped", e);
+        }
+    }
+
+    private void throwFailure() throws Exception {
+        Exception e = failure.get();
+        if (e != null) {
+            throw e;
+        }
+    }
+}
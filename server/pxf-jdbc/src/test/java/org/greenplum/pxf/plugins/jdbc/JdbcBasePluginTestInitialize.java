@@ -28,6 +28,7 @@ import org.greenplum.pxf.api.model.RequestContext;
 import org.greenplum.pxf.api.security.SecureLogin;
 import org.greenplum.pxf.api.utilities.ColumnDescriptor;
 import org.greenplum.pxf.plugins.jdbc.utils.ConnectionManager;
+import org.greenplum.pxf.plugins.jdbc.writercallable.WriteMode;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -237,6 +238,40 @@ public class JdbcBasePluginTestInitialize {
         assertEquals("Property jdbc.statement.batchSize has incorrect value -1 : must be a non-negative integer", ex.getMessage());
     }
 
+    @Test
+    public void testWriteMode() throws Exception {
+        // Configuration
+        Configuration configuration = makeConfiguration();
+        configuration.set("jdbc.statement.writeMode", "copy");
+
+        // Initialize plugin
+        plugin.setRequestContext(makeContext(configuration));
+        plugin.afterPropertiesSet();
+
+        // Checks
+        assertEquals(WriteMode.COPY, getInternalState(plugin, "writeMode"));
+    }
+
+    @Test
+    public void testWriteModeDefault() throws Exception {
+        plugin.setRequestContext(makeContext(makeConfiguration()));
+        plugin.afterPropertiesSet();
+
+        assertEquals(WriteMode.BATCH, getInternalState(plugin, "writeMode"));
+    }
+
+    @Test
+    public void testWriteModeInvalid() {
+        // Configuration
+        Configuration configuration = makeConfiguration();
+        configuration.set("jdbc.statement.writeMode", "bulk");
+
+        plugin.setRequestContext(makeContext(configuration));
+        // Initialize plugin
+        Exception ex = assertThrows(IllegalArgumentException.class, plugin::afterPropertiesSet);
+        assertEquals("Property jdbc.statement.writeMode has incorrect value bulk : must be one of [BATCH, MULTIROW, COPY, AUTO]", ex.getMessage());
+    }
+
     @Test
     public void testPoolSize1() throws Exception {
         // Configuration
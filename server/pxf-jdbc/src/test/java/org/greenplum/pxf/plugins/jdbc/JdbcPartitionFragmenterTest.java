@@ -23,19 +23,59 @@ import org.apache.hadoop.conf.Configuration;
 import org.greenplum.pxf.api.model.Fragment;
 import org.greenplum.pxf.api.model.Fragmenter;
 import org.greenplum.pxf.api.model.RequestContext;
+import org.greenplum.pxf.api.security.SecureLogin;
+import org.greenplum.pxf.plugins.jdbc.partitioning.IntPartition;
+import org.greenplum.pxf.plugins.jdbc.partitioning.JdbcFragmentMetadata;
+import org.greenplum.pxf.plugins.jdbc.utils.ConnectionManager;
+import org.greenplum.pxf.plugins.jdbc.utils.DbProduct;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Types;
 import java.util.List;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
+@ExtendWith(MockitoExtension.class)
 public class JdbcPartitionFragmenterTest {
 
     private Configuration configuration;
     private RequestContext context;
 
+    @Mock
+    private ConnectionManager mockConnectionManager;
+    @Mock
+    private SecureLogin mockSecureLogin;
+    @Mock
+    private Connection mockConnection;
+    @Mock
+    private DatabaseMetaData mockMetaData;
+    @Mock
+    private PreparedStatement mockStatisticsStatement;
+    @Mock
+    private PreparedStatement mockBoundariesStatement;
+    @Mock
+    private ResultSet mockStatistics;
+    @Mock
+    private ResultSet mockBoundaries;
+
     @BeforeEach
     public void setUp() {
         configuration = new Configuration();
@@ -43,6 +83,9 @@ public class JdbcPartitionFragmenterTest {
         context.setConfig("default");
         context.setDataSource("table");
         context.setUser("test-user");
+        context.setConfiguration(configuration);
+        configuration.set("jdbc.driver", "org.greenplum.pxf.plugins.jdbc.FakeJdbcDriver");
+        configuration.set("jdbc.url", "test-url");
     }
 
     @Test
@@ -71,4 +114,206 @@ public class JdbcPartitionFragmenterTest {
         fragmenter.setRequestContext(context);
         assertThrows(IllegalArgumentException.class, fragmenter::afterPropertiesSet);
     }
+
+    @Test
+    public void testPartitionsFromBoundariesOfExternalDatabase() throws Exception {
+        context.addOption("PARTITION_BY", "id:int");
+        context.addOption("PARTITION_STATISTICS", "true");
+        context.setTotalSegments(3);
+        wireMocksForStatistics("PostgreSQL", 1L, 1000000L, 1000L);
+        when(mockConnection.prepareStatement("SELECT MAX(id) FROM (SELECT id, NTILE(3) OVER (ORDER BY id) pxf_tile FROM table WHERE id IS NOT NULL) pxftiles GROUP BY pxf_tile ORDER BY 1"))
+                .thenReturn(mockBoundariesStatement);
+        when(mockBoundariesStatement.executeQuery()).thenReturn(mockBoundaries);
+        when(mockBoundaries.next()).thenReturn(true, true, true, false);
+        when(mockBoundaries.getObject(1)).thenReturn(10L, 20L, 1000000L);
+
+        List<Fragment> fragments = getFragmenter().getFragments();
+
+        assertEquals(4, fragments.size());
+        assertArrayEquals(new Long[]{null, 11L}, getBoundaries(fragments.get(0)));
+        assertArrayEquals(new Long[]{11L, 21L}, getBoundaries(fragments.get(1)));
+        assertArrayEquals(new Long[]{21L, null}, getBoundaries(fragments.get(2)));
+        assertEquals("id IS NULL", toSqlConstraint(fragments.get(3)));
+    }
+
+    @Test
+    public void testPartitionsOfTargetRowCountWithoutWindowFunctions() throws Exception {
+        context.addOption("PARTITION_BY", "id:int");
+        context.addOption("PARTITION_STATISTICS", "true");
+        context.addOption("PARTITION_ROWS", "250");
+        context.setTotalSegments(3);
+        wireMocksForStatistics("MySQL", 1L, 1000L, 1000L);
+
+        List<Fragment> fragments = getFragmenter().getFragments();
+
+        assertEquals(5, fragments.size());
+        assertEquals("id < 251", toSqlConstraint(fragments.get(0)));
+        assertEquals("id >= 251 AND id < 501", toSqlConstraint(fragments.get(1)));
+        assertEquals("id >= 501 AND id < 751", toSqlConstraint(fragments.get(2)));
+        assertEquals("id >= 751", toSqlConstraint(fragments.get(3)));
+        assertEquals("id IS NULL", toSqlConstraint(fragments.get(4)));
+    }
+
+    @Test
+    public void testEmptyTableIsReadBySingleFragment() throws Exception {
+        context.addOption("PARTITION_BY", "id:int");
+        context.addOption("PARTITION_STATISTICS", "true");
+        context.setTotalSegments(3);
+        wireMocksForStatistics("PostgreSQL", null, null, 0L);
+
+        List<Fragment> fragments = getFragmenter().getFragments();
+
+        assertEquals(1, fragments.size());
+        assertNull(fragments.get(0).getMetadata());
+        verify(mockConnection).close();
+    }
+
+    @Test
+    public void testPartitionsFromRemaindersByDefault() {
+        context.addOption("PARTITION_BY", "id:int");
+        context.setTotalSegments(3);
+
+        List<Fragment> fragments = getFragmenter().getFragments();
+
+        assertEquals(4, fragments.size());
+        assertEquals("MOD(id, 3) = 0", toSqlConstraint(fragments.get(0)));
+        assertEquals("MOD(id, 3) IN (1, -1)", toSqlConstraint(fragments.get(1)));
+        assertEquals("MOD(id, 3) IN (2, -2)", toSqlConstraint(fragments.get(2)));
+        assertEquals("id IS NULL", toSqlConstraint(fragments.get(3)));
+    }
+
+    @Test
+    public void testPartitionsDoNotDependOnDataByDefault() throws Exception {
+        context.addOption("PARTITION_BY", "auto");
+        context.setTotalSegments(2);
+        wireMocksForConnection();
+        wireMocksForPrimaryKey();
+        // the data changes between the runs of the fragmenter on two PXF instances
+        lenient().when(mockConnection.prepareStatement("SELECT MIN(id), MAX(id), COUNT(*) FROM table")).thenReturn(mockStatisticsStatement);
+        lenient().when(mockStatisticsStatement.executeQuery()).thenReturn(mockStatistics);
+        lenient().when(mockStatistics.next()).thenReturn(true);
+        lenient().when(mockStatistics.getObject(1)).thenReturn(0L, 0L);
+        lenient().when(mockStatistics.getObject(2)).thenReturn(99L, 1999L);
+        lenient().when(mockStatistics.getLong(3)).thenReturn(100L, 2000L);
+
+        List<Fragment> first = getFragmenter().getFragments();
+        List<Fragment> second = getFragmenter().getFragments();
+
+        assertEquals(3, first.size());
+        assertEquals(first.size(), second.size());
+        for (int i = 0; i < first.size(); i++) {
+            assertEquals(toSqlConstraint(first.get(i)), toSqlConstraint(second.get(i)));
+        }
+        assertEquals("MOD(id, 2) = 0", toSqlConstraint(first.get(0)));
+        assertEquals("MOD(id, 2) IN (1, -1)", toSqlConstraint(first.get(1)));
+        assertEquals("id IS NULL", toSqlConstraint(first.get(2)));
+        verify(mockConnection, never()).prepareStatement(any());
+    }
+
+    @Test
+    public void testDatePartitionWithoutRangeRequiresStatistics() {
+        context.addOption("PARTITION_BY", "createdate:date");
+        Fragmenter fragmenter = getFragmenter();
+        Exception e = assertThrows(IllegalArgumentException.class, fragmenter::getFragments);
+        assertEquals("The parameter 'RANGE' must be specified for partition of type 'DATE'", e.getMessage());
+    }
+
+    @Test
+    public void testPartitionRowsRequiresStatistics() {
+        context.addOption("PARTITION_BY", "id:int");
+        context.addOption("PARTITION_ROWS", "250");
+        Fragmenter fragmenter = new JdbcPartitionFragmenter();
+        fragmenter.setRequestContext(context);
+        Exception e = assertThrows(IllegalArgumentException.class, fragmenter::afterPropertiesSet);
+        assertEquals("The parameter 'PARTITION_ROWS' can only be used when 'PARTITION_STATISTICS' is true", e.getMessage());
+    }
+
+    @Test
+    public void testAutoPartitionByUsesPrimaryKey() throws Exception {
+        context.addOption("PARTITION_BY", "auto");
+        context.addOption("PARTITION_STATISTICS", "true");
+        context.setTotalSegments(2);
+        wireMocksForPrimaryKey();
+        wireMocksForStatistics("MySQL", 0L, 99L, 100L);
+
+        List<Fragment> fragments = getFragmenter().getFragments();
+
+        assertEquals(3, fragments.size());
+        assertEquals("id < 50", toSqlConstraint(fragments.get(0)));
+        assertEquals("id >= 50", toSqlConstraint(fragments.get(1)));
+        assertEquals("id IS NULL", toSqlConstraint(fragments.get(2)));
+    }
+
+    @Test
+    public void testAutoPartitionByWithoutPrimaryKeyIsReadBySingleFragment() throws Exception {
+        context.addOption("PARTITION_BY", "auto");
+        context.setDataSource("public.table");
+        wireMocksForConnection();
+        ResultSet mockPrimaryKeys = mock(ResultSet.class);
+        when(mockMetaData.getPrimaryKeys(null, "public", "table")).thenReturn(mockPrimaryKeys);
+
+        List<Fragment> fragments = getFragmenter().getFragments();
+
+        assertEquals(1, fragments.size());
+        assertNull(fragments.get(0).getMetadata());
+        verify(mockConnection, never()).prepareStatement(any());
+    }
+
+    @Test
+    public void testAutoPartitionByWithRangeIsInvalid() {
+        context.addOption("PARTITION_BY", "auto");
+        context.addOption("RANGE", "1:10");
+        Fragmenter fragmenter = new JdbcPartitionFragmenter();
+        fragmenter.setRequestContext(context);
+        Exception e = assertThrows(IllegalArgumentException.class, fragmenter::afterPropertiesSet);
+        assertEquals("The parameter 'RANGE' cannot be used when 'PARTITION_BY' is 'auto'", e.getMessage());
+    }
+
+    private Fragmenter getFragmenter() {
+        JdbcPartitionFragmenter fragmenter = new JdbcPartitionFragmenter(
+                () -> new JdbcBasePlugin(mockConnectionManager, mockSecureLogin));
+        fragmenter.setRequestContext(context);
+        fragmenter.afterPropertiesSet();
+        return fragmenter;
+    }
+
+    private void wireMocksForPrimaryKey() throws Exception {
+        when(mockMetaData.storesLowerCaseIdentifiers()).thenReturn(true);
+        ResultSet mockPrimaryKeys = mock(ResultSet.class);
+        when(mockMetaData.getPrimaryKeys(null, null, "table")).thenReturn(mockPrimaryKeys);
+        when(mockPrimaryKeys.next()).thenReturn(true);
+        when(mockPrimaryKeys.getShort("KEY_SEQ")).thenReturn((short) 1);
+        when(mockPrimaryKeys.getString("COLUMN_NAME")).thenReturn("id");
+        ResultSet mockColumns = mock(ResultSet.class);
+        when(mockMetaData.getColumns(null, null, "table", "id")).thenReturn(mockColumns);
+        when(mockColumns.next()).thenReturn(true);
+        when(mockColumns.getString("COLUMN_NAME")).thenReturn("id");
+        when(mockColumns.getInt("DATA_TYPE")).thenReturn(Types.BIGINT);
+        when(mockColumns.getInt("DECIMAL_DIGITS")).thenReturn(0);
+    }
+
+    private void wireMocksForConnection() throws Exception {
+        when(mockConnectionManager.getConnection(any(), any(), any(), anyBoolean(), any(), any())).thenReturn(mockConnection);
+        when(mockConnection.getMetaData()).thenReturn(mockMetaData);
+    }
+
+    private void wireMocksForStatistics(String databaseProductName, Object min, Object max, long count) throws Exception {
+        wireMocksForConnection();
+        when(mockMetaData.getDatabaseProductName()).thenReturn(databaseProductName);
+        when(mockMetaData.getExtraNameCharacters()).thenReturn("");
+        when(mockConnection.prepareStatement("SELECT MIN(id), MAX(id), COUNT(*) FROM table")).thenReturn(mockStatisticsStatement);
+        when(mockStatisticsStatement.executeQuery()).thenReturn(mockStatistics);
+        when(mockStatistics.next()).thenReturn(true);
+        when(mockStatistics.getObject(1)).thenReturn(min);
+        when(mockStatistics.getObject(2)).thenReturn(max);
+        when(mockStatistics.getLong(3)).thenReturn(count);
+    }
+
+    private Long[] getBoundaries(Fragment fragment) {
+        return ((IntPartition) fragment.getMetadata()).getBoundaries();
+    }
+
+    private String toSqlConstraint(Fragment fragment) {
+        return ((JdbcFragmentMetadata) fragment.getMetadata()).toSqlConstraint("", DbProduct.POSTGRES);
+    }
 }
@@ -267,7 +267,8 @@ class JdbcResolverTest {
     void getFieldUUIDTest() throws SQLException {
         UUID uuid = UUID.fromString("decafbad-0000-0000-0000-000000000000");
         when(row.getData()).thenReturn(result);
-        when(result.getObject("uuid_col", java.util.UUID.class)).thenReturn(uuid);
+        when(result.findColumn("uuid_col")).thenReturn(1);
+        when(result.getObject(1, java.util.UUID.class)).thenReturn(uuid);
         columnDescriptors.add(new ColumnDescriptor("uuid_col", DataType.UUID.getOID(), 1, DataType.UUID.name(), null));
         context.setTupleDescription(columnDescriptors);
         resolver.columns = context.getTupleDescription();
@@ -279,6 +280,37 @@ class JdbcResolverTest {
         assertEquals(uuid, oneField.val);
     }
 
+    @Test
+    void getFieldsReadsColumnsByIndexTest() throws SQLException {
+        when(row.getData()).thenReturn(result);
+        when(result.findColumn("id")).thenReturn(2);
+        when(result.findColumn("name")).thenReturn(1);
+        when(result.getInt(2)).thenReturn(7, 0);
+        when(result.wasNull()).thenReturn(false, true);
+        when(result.getString(1)).thenReturn("seven", "null id");
+        columnDescriptors.add(new ColumnDescriptor("id", DataType.INTEGER.getOID(), 0, DataType.INTEGER.name(), null));
+        columnDescriptors.add(new ColumnDescriptor("name", DataType.TEXT.getOID(), 1, DataType.TEXT.name(), null));
+        ColumnDescriptor notProjected = new ColumnDescriptor("amount", DataType.FLOAT8.getOID(), 2, DataType.FLOAT8.name(), null);
+        notProjected.setProjected(false);
+        columnDescriptors.add(notProjected);
+        context.setTupleDescription(columnDescriptors);
+        resolver.columns = context.getTupleDescription();
+
+        List<OneField> first = resolver.getFields(row);
+        List<OneField> second = resolver.getFields(row);
+
+        assertEquals(3, first.size());
+        assertEquals(7, first.get(0).val);
+        assertEquals("seven", first.get(1).val);
+        assertNull(first.get(2).val);
+        assertEquals(DataType.FLOAT8.getOID(), first.get(2).type);
+        assertNull(second.get(0).val);
+        assertEquals("null id", second.get(1).val);
+        // the columns are looked up by name only once
+        verify(result).findColumn("id");
+        verify(result).findColumn("name");
+    }
+
     @Test
     void setFieldDateWithWideRangeTest() {
         isDateWideRange = true;
@@ -571,16 +603,17 @@ class JdbcResolverTest {
 
     private OneField getOneField(Object date, int dataTypeOid, String typeName) throws SQLException {
         when(row.getData()).thenReturn(result);
+        when(result.findColumn("birth_date")).thenReturn(1);
         if (date instanceof LocalDate) {
-            when(result.getObject("birth_date", LocalDate.class)).thenReturn((LocalDate) date);
+            when(result.getObject(1, LocalDate.class)).thenReturn((LocalDate) date);
         } else if (date instanceof Date) {
-            when(result.getDate("birth_date")).thenReturn((Date) date);
+            when(result.getDate(1)).thenReturn((Date) date);
         } else if (date instanceof LocalDateTime) {
-            when(result.getObject("birth_date", LocalDateTime.class)).thenReturn((LocalDateTime) date);
+            when(result.getObject(1, LocalDateTime.class)).thenReturn((LocalDateTime) date);
         } else if (date instanceof Timestamp) {
-            when(result.getTimestamp("birth_date")).thenReturn((Timestamp) date);
+            when(result.getTimestamp(1)).thenReturn((Timestamp) date);
         } else if (date instanceof OffsetDateTime) {
-            when(result.getObject("birth_date", OffsetDateTime.class)).thenReturn((OffsetDateTime) date);
+            when(result.getObject(1, OffsetDateTime.class)).thenReturn((OffsetDateTime) date);
         }
         columnDescriptors.add(new ColumnDescriptor("birth_date", dataTypeOid, 1, typeName, null));
         context.setTupleDescription(columnDescriptors);
@@ -35,6 +35,7 @@ import java.util.ArrayList;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
@@ -532,6 +533,50 @@ public class SQLQueryBuilderTest {
         assertEquals("SELECT id, cdate, amt, grade, b FROM sales WHERE NOT (b)", builder.buildSelectQuery());
     }
 
+    @Test
+    public void testPartitionStatisticsQuery() throws Exception {
+        when(mockMetaData.getDatabaseProductName()).thenReturn("PostgreSQL");
+
+        SQLQueryBuilder builder = new SQLQueryBuilder(context, mockMetaData);
+        assertEquals("SELECT MIN(id), MAX(id), COUNT(*) FROM sales", builder.buildPartitionStatisticsQuery("id"));
+        assertEquals("SELECT MAX(id) FROM (SELECT id, NTILE(4) OVER (ORDER BY id) pxf_tile FROM sales WHERE id IS NOT NULL) pxftiles GROUP BY pxf_tile ORDER BY 1",
+                builder.buildPartitionBoundariesQuery("id", 4));
+    }
+
+    @Test
+    public void testPartitionStatisticsQueryOfNamedQuery() throws Exception {
+        when(mockMetaData.getDatabaseProductName()).thenReturn("Oracle");
+        when(mockMetaData.getIdentifierQuoteString()).thenReturn("\"");
+
+        SQLQueryBuilder builder = new SQLQueryBuilder(context, mockMetaData, NAMED_QUERY);
+        builder.forceSetQuoteString();
+        assertEquals("SELECT MIN(\"a\"), MAX(\"a\"), COUNT(*) FROM (SELECT a, b FROM c) pxfsubquery",
+                builder.buildPartitionStatisticsQuery("a"));
+        assertEquals("SELECT MAX(\"a\") FROM (SELECT \"a\", NTILE(2) OVER (ORDER BY \"a\") pxf_tile FROM (SELECT a, b FROM c) pxfsubquery WHERE \"a\" IS NOT NULL) pxftiles GROUP BY pxf_tile ORDER BY 1",
+                builder.buildPartitionBoundariesQuery("a", 2));
+    }
+
+    @Test
+    public void testPartitionBoundariesQueryWithoutWindowFunctions() throws Exception {
+        when(mockMetaData.getDatabaseProductName()).thenReturn("mysql");
+
+        SQLQueryBuilder builder = new SQLQueryBuilder(context, mockMetaData);
+        assertNull(builder.buildPartitionBoundariesQuery("id", 4));
+    }
+
+    @Test
+    public void testInsertAndCopyQueries() throws Exception {
+        when(mockMetaData.getDatabaseProductName()).thenReturn("PostgreSQL");
+        when(mockMetaData.getIdentifierQuoteString()).thenReturn("\"");
+
+        SQLQueryBuilder builder = new SQLQueryBuilder(context, mockMetaData);
+        builder.forceSetQuoteString();
+        assertEquals("INSERT INTO sales(\"id\", \"cdate\", \"amt\", \"grade\", \"b\") VALUES (?, ?, ?, ?, ?)",
+                builder.buildInsertQuery());
+        assertEquals("COPY sales(\"id\", \"cdate\", \"amt\", \"grade\", \"b\") FROM STDIN WITH CSV",
+                builder.buildCopyQuery());
+    }
+
     private Fragmenter getFragmenter(RequestContext context) {
         JdbcPartitionFragmenter fragmenter = new JdbcPartitionFragmenter();
         fragmenter.setRequestContext(context);
@@ -0,0 +1,68 @@
+package org.greenplum.pxf.plugins.jdbc.partitioning;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import org.greenplum.pxf.plugins.jdbc.utils.DbProduct;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class ModuloPartitionTest {
+
+    private final String COL_RAW = "col";
+    private final String QUOTE = "\"";
+    private final String COL = QUOTE + COL_RAW + QUOTE;
+
+    @Test
+    public void testZeroRemainder() {
+        ModuloPartition partition = new ModuloPartition(COL_RAW, 4, 0);
+        String constraint = partition.toSqlConstraint(QUOTE, DbProduct.POSTGRES);
+
+        assertEquals("MOD(" + COL + ", 4) = 0", constraint);
+    }
+
+    @Test
+    public void testRemainderIncludesNegativeValues() {
+        ModuloPartition partition = new ModuloPartition(COL_RAW, 4, 3);
+        String constraint = partition.toSqlConstraint(QUOTE, DbProduct.ORACLE);
+
+        assertEquals("MOD(" + COL + ", 4) IN (3, -3)", constraint);
+    }
+
+    @Test
+    public void testModuloOperator() {
+        ModuloPartition partition = new ModuloPartition(COL_RAW, 4, 1);
+        String constraint = partition.toSqlConstraint(QUOTE, DbProduct.MICROSOFT);
+
+        assertEquals("(" + COL + " % 4) IN (1, -1)", constraint);
+    }
+
+    @Test
+    public void testInvalidRemainder() {
+        assertThrows(IllegalArgumentException.class, () -> new ModuloPartition(COL_RAW, 4, 4));
+    }
+
+    @Test
+    public void testInvalidQuoteString() {
+        ModuloPartition partition = new ModuloPartition(COL_RAW, 4, 0);
+        assertThrows(RuntimeException.class, () -> partition.toSqlConstraint(null, DbProduct.POSTGRES));
+    }
+}
@@ -1,9 +1,19 @@
 package org.greenplum.pxf.plugins.jdbc.partitioning;
 
+import org.greenplum.pxf.plugins.jdbc.utils.DbProduct;
 import org.junit.jupiter.api.Test;
 
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class PartitionTypeTest {
 
@@ -123,4 +133,66 @@ public class PartitionTypeTest {
             () -> PartitionType.DATE.getFragmentsMetadata("foo", "a:b", "1"));
         assertEquals("The parameter 'RANGE' is invalid. The correct format for partition of type 'DATE' is 'yyyy-mm-dd'", ex.getMessage());
     }
+
+    @Test
+    public void testRangesOfSameWidthForInt() {
+        List<JdbcFragmentMetadata> fragments = PartitionType.INT.getFragmentsMetadata("id", 1L, new BigDecimal(1000), 4);
+        assertEquals(Arrays.asList(
+                "id < 251",
+                "id >= 251 AND id < 501",
+                "id >= 501 AND id < 751",
+                "id >= 751",
+                "id IS NULL"), toSqlConstraints(fragments));
+    }
+
+    @Test
+    public void testRangesOfSameWidthForDate() {
+        List<JdbcFragmentMetadata> fragments = PartitionType.DATE.getFragmentsMetadata("cdate",
+                Date.valueOf("2020-01-01"), Timestamp.valueOf("2020-01-04 10:00:00"), 2);
+        assertEquals(Arrays.asList(
+                "cdate < date'2020-01-03'",
+                "cdate >= date'2020-01-03'",
+                "cdate IS NULL"), toSqlConstraints(fragments));
+    }
+
+    @Test
+    public void testNoRangesWhenValuesCannotBeSplit() {
+        assertEquals(0, PartitionType.INT.getFragmentsMetadata("id", 5L, 5L, 4).size());
+        assertEquals(0, PartitionType.INT.getFragmentsMetadata("id", null, null, 4).size());
+    }
+
+    @Test
+    public void testRangesFromBoundariesForInt() {
+        // the values are skewed, and the boundaries of the second and third ranges are the same value
+        List<JdbcFragmentMetadata> fragments = PartitionType.INT.getFragmentsMetadata("id",
+                Arrays.asList(10L, 20L, 20L, 1000000L));
+        assertEquals(Arrays.asList(
+                "id < 11",
+                "id >= 11 AND id < 21",
+                "id >= 21",
+                "id IS NULL"), toSqlConstraints(fragments));
+    }
+
+    @Test
+    public void testRangesFromBoundariesForDate() {
+        List<JdbcFragmentMetadata> fragments = PartitionType.DATE.getFragmentsMetadata("cdate",
+                Arrays.asList(Date.valueOf("2020-01-31"), Date.valueOf("2020-12-31")));
+        assertEquals(Arrays.asList(
+                "cdate < date'2020-02-01'",
+                "cdate >= date'2020-02-01'",
+                "cdate IS NULL"), toSqlConstraints(fragments));
+    }
+
+    @Test
+    public void unsupportedStatisticsForEnum() {
+        assertFalse(PartitionType.ENUM.supportsStatistics());
+        assertTrue(PartitionType.INT.supportsStatistics());
+        assertTrue(PartitionType.DATE.supportsStatistics());
+    }
+
+    private List<String> toSqlConstraints(List<JdbcFragmentMetadata> fragments) {
+        return fragments.stream()
+                .map(fragment -> fragment.toSqlConstraint("", DbProduct.POSTGRES))
+                .collect(Collectors.toList());
+    }
 }
@@ -0,0 +1,142 @@
+package org.greenplum.pxf.plugins.jdbc.writercallable;
+
+import org.greenplum.pxf.api.OneField;
+import org.greenplum.pxf.api.OneRow;
+import org.greenplum.pxf.api.io.DataType;
+import org.greenplum.pxf.plugins.jdbc.JdbcBasePlugin;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyManager;
+
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class CopyWriterCallableTest {
+
+    private static final String COPY_QUERY = "COPY t(a, b) FROM STDIN WITH CSV";
+
+    @Mock
+    private JdbcBasePlugin mockPlugin;
+    @Mock
+    private PreparedStatement mockStatement;
+    @Mock
+    private Connection mockConnection;
+    @Mock
+    private PGConnection mockPGConnection;
+    @Mock
+    private CopyManager mockCopyManager;
+
+    @Test
+    public void testCsvRowOfAllTypes() throws Exception {
+        OneRow row = row(
+                new OneField(DataType.INTEGER.getOID(), 1),
+                new OneField(DataType.BIGINT.getOID(), 2L),
+                new OneField(DataType.SMALLINT.getOID(), (short) 3),
+                new OneField(DataType.REAL.getOID(), 1.5f),
+                new OneField(DataType.FLOAT8.getOID(), -2.25),
+                new OneField(DataType.BOOLEAN.getOID(), true),
+                new OneField(DataType.NUMERIC.getOID(), new BigDecimal("1E+3")),
+                new OneField(DataType.TEXT.getOID(), "say \"hi\", bye\n"),
+                new OneField(DataType.VARCHAR.getOID(), ""),
+                new OneField(DataType.BPCHAR.getOID(), null),
+                new OneField(DataType.BYTEA.getOID(), new byte[]{'a', '\\', 0, (byte) 0xFF}),
+                new OneField(DataType.DATE.getOID(), LocalDate.of(2020, 2, 29)),
+                new OneField(DataType.TIMESTAMP.getOID(), LocalDateTime.of(2020, 2, 29, 13, 14, 15, 123456000)),
+                new OneField(DataType.TIMESTAMP_WITH_TIME_ZONE.getOID(), OffsetDateTime.of(2020, 2, 29, 13, 14, 15, 0, ZoneOffset.ofHours(-7))),
+                new OneField(DataType.UUID.getOID(), UUID.fromString("bc8b1e0d-6e2b-4f7d-9d5a-1b2a34c0a5e1")));
+
+        StringBuilder sb = new StringBuilder();
+        CopyWriterCallable.appendCsvRow(sb, row);
+
+        assertEquals("1,2,3,1.5,-2.25,true,1000,\"say \"\"hi\"\", bye\n\",\"\",," +
+                "\"a\\\\\\000\\377\",\"2020-02-29\",\"2020-02-29 13:14:15.123456\",\"2020-02-29 13:14:15.000000-07:00\"," +
+                "bc8b1e0d-6e2b-4f7d-9d5a-1b2a34c0a5e1\n", sb.toString());
+    }
+
+    @Test
+    public void testCsvRowOfDatesBeforeCommonEra() throws Exception {
+        OneRow row = row(
+                new OneField(DataType.DATE.getOID(), LocalDate.of(-44, 3, 15)),
+                new OneField(DataType.TIMESTAMP.getOID(), LocalDateTime.of(12345, 1, 1, 0, 0)));
+
+        StringBuilder sb = new StringBuilder();
+        CopyWriterCallable.appendCsvRow(sb, row);
+
+        assertEquals("\"0045-03-15 BC\",\"12345-01-01 00:00:00.000000\"\n", sb.toString());
+    }
+
+    @Test
+    public void testCsvRowOfOffsetWithSeconds() throws Exception {
+        // the local mean time of Kolkata, before time zones were standardized
+        OffsetDateTime value = OffsetDateTime.of(1850, 1, 1, 0, 0, 0, 0, ZoneOffset.ofHoursMinutesSeconds(5, 53, 28));
+        OneRow row = row(
+                new OneField(DataType.TIMESTAMP_WITH_TIME_ZONE.getOID(), value),
+                new OneField(DataType.TIMESTAMP_WITH_TIME_ZONE.getOID(), OffsetDateTime.of(2020, 2, 29, 13, 14, 15, 0, ZoneOffset.UTC)));
+
+        StringBuilder sb = new StringBuilder();
+        CopyWriterCallable.appendCsvRow(sb, row);
+
+        assertEquals("\"1850-01-01 00:00:00.000000+05:53:28\",\"2020-02-29 13:14:15.000000+00:00\"\n", sb.toString());
+        String written = sb.substring(1, sb.indexOf("\","));
+        assertEquals(value, OffsetDateTime.parse(written, DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSSSSSxxxxx")));
+    }
+
+    @Test
+    public void testCallStreamsBatchThroughCopyManager() throws Exception {
+        when(mockStatement.getConnection()).thenReturn(mockConnection);
+        when(mockConnection.unwrap(PGConnection.class)).thenReturn(mockPGConnection);
+        when(mockPGConnection.getCopyAPI()).thenReturn(mockCopyManager);
+
+        CopyWriterCallable callable = new CopyWriterCallable(mockPlugin, COPY_QUERY, mockStatement, 2);
+        callable.supply(row(new OneField(DataType.INTEGER.getOID(), 1), new OneField(DataType.TEXT.getOID(), "a")));
+        assertFalse(callable.isCallRequired());
+        callable.supply(row(new OneField(DataType.INTEGER.getOID(), 2), new OneField(DataType.TEXT.getOID(), null)));
+        assertTrue(callable.isCallRequired());
+
+        assertNull(callable.call());
+        verify(mockCopyManager).copyIn(eq(COPY_QUERY), any(Reader.class));
+        assertFalse(callable.isCallRequired());
+    }
+
+    @Test
+    public void testCallReturnsCopyError() throws Exception {
+        SQLException error = new SQLException("extra data after last expected column");
+        when(mockStatement.getConnection()).thenReturn(mockConnection);
+        when(mockConnection.unwrap(PGConnection.class)).thenReturn(mockPGConnection);
+        when(mockPGConnection.getCopyAPI()).thenReturn(mockCopyManager);
+        when(mockCopyManager.copyIn(eq(COPY_QUERY), any(Reader.class))).thenThrow(error);
+
+        CopyWriterCallable callable = new CopyWriterCallable(mockPlugin, COPY_QUERY, mockStatement, 2);
+        callable.supply(row(new OneField(DataType.INTEGER.getOID(), 1), new OneField(DataType.TEXT.getOID(), "a")));
+
+        assertSame(error, callable.call());
+    }
+
+    private static OneRow row(OneField... fields) {
+        return new OneRow(Arrays.asList(fields));
+    }
+}
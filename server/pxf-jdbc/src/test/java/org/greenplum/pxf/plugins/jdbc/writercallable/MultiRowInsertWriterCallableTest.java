@@ -0,0 +1,75 @@
+package org.greenplum.pxf.plugins.jdbc.writercallable;
+
+import org.greenplum.pxf.api.OneField;
+import org.greenplum.pxf.api.OneRow;
+import org.greenplum.pxf.api.io.DataType;
+import org.greenplum.pxf.plugins.jdbc.JdbcBasePlugin;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class MultiRowInsertWriterCallableTest {
+
+    private static final String INSERT_QUERY = "INSERT INTO t(a, b) VALUES (?, ?)";
+
+    @Mock
+    private JdbcBasePlugin mockPlugin;
+    @Mock
+    private PreparedStatement mockStatement;
+    @Mock
+    private Connection mockConnection;
+
+    @Test
+    public void testBuildMultiRowQuery() {
+        assertEquals(INSERT_QUERY, MultiRowInsertWriterCallable.buildMultiRowQuery(INSERT_QUERY, 1));
+        assertEquals("INSERT INTO t(a, b) VALUES (?, ?), (?, ?), (?, ?)",
+                MultiRowInsertWriterCallable.buildMultiRowQuery(INSERT_QUERY, 3));
+    }
+
+    @Test
+    public void testCallSplitsBatchByMaximumParameters() throws Exception {
+        PreparedStatement twoRows = mock(PreparedStatement.class);
+        PreparedStatement oneRow = mock(PreparedStatement.class);
+        when(mockStatement.getConnection()).thenReturn(mockConnection);
+        when(mockPlugin.getPreparedStatement(mockConnection, "INSERT INTO t(a, b) VALUES (?, ?), (?, ?)")).thenReturn(twoRows);
+        when(mockPlugin.getPreparedStatement(mockConnection, INSERT_QUERY)).thenReturn(oneRow);
+
+        // at most 5 parameters per statement, so that 2 rows of 2 columns fit in a statement
+        MultiRowInsertWriterCallable callable = new MultiRowInsertWriterCallable(mockPlugin, INSERT_QUERY, mockStatement, 5, 5);
+        for (int i = 0; i < 5; i++) {
+            callable.supply(row(i));
+        }
+
+        assertNull(callable.call());
+        verify(twoRows, times(2)).executeUpdate();
+        verify(twoRows).setInt(1, 0);
+        verify(twoRows).setString(2, "row-0");
+        verify(twoRows).setInt(3, 1);
+        verify(twoRows).setString(4, "row-1");
+        verify(twoRows).setInt(1, 2);
+        verify(twoRows).setInt(3, 3);
+        verify(twoRows).close();
+        verify(oneRow).setInt(1, 4);
+        verify(oneRow).setString(2, "row-4");
+        verify(oneRow).executeUpdate();
+    }
+
+    private static OneRow row(int id) {
+        return new OneRow(Arrays.asList(
+                new OneField(DataType.INTEGER.getOID(), id),
+                new OneField(DataType.TEXT.getOID(), "row-" + id)));
+    }
+}
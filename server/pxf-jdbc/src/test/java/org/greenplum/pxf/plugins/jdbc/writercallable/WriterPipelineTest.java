@@ -0,0 +1,191 @@
+package org.greenplum.pxf.plugins.jdbc.writercallable;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.greenplum.pxf.api.OneField;
+import org.greenplum.pxf.api.OneRow;
+import org.greenplum.pxf.api.io.DataType;
+import org.greenplum.pxf.plugins.jdbc.JdbcBasePlugin;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class WriterPipelineTest {
+
+    private static final String INSERT_QUERY = "INSERT INTO t(a) VALUES (?)";
+
+    @Mock
+    private JdbcBasePlugin mockPlugin;
+    @Mock
+    private Connection mockConnection;
+    @Mock
+    private DatabaseMetaData mockMetaData;
+    @Mock
+    private PreparedStatement mockStatement;
+
+    private SimpleMeterRegistry registry;
+    private WriterMetrics metrics;
+
+    @BeforeEach
+    public void setup() throws SQLException {
+        registry = new SimpleMeterRegistry();
+        metrics = new WriterMetrics(registry);
+
+        when(mockPlugin.getConnection()).thenReturn(mockConnection);
+    }
+
+    @Test
+    public void testBatchesAreWrittenWithOneConnectionPerThread() throws Exception {
+        mockStatement();
+        WriterCallableFactory factory = new WriterCallableFactory(mockPlugin, INSERT_QUERY, null, 2, 2);
+        WriterPipeline pipeline = new WriterPipeline(mockPlugin, factory, INSERT_QUERY, 2, 2, 1, metrics);
+        for (int i = 0; i < 5; i++) {
+            pipeline.supply(row(i));
+        }
+        pipeline.close();
+
+        verify(mockPlugin, times(2)).getConnection();
+        verify(mockStatement, times(5)).addBatch();
+        verify(mockStatement, times(3)).executeBatch();
+        verify(mockStatement, times(2)).close();
+        verify(mockConnection, times(2)).close();
+        assertEquals(0, metrics.getQueuedBatches());
+        assertEquals(3, registry.get("pxf.jdbc.write.batches").timer().count());
+        assertEquals(5.0, registry.get("pxf.jdbc.write.rows").counter().count());
+    }
+
+    @Test
+    public void testEveryBatchIsCommitted() throws Exception {
+        mockStatement();
+        when(mockMetaData.supportsTransactions()).thenReturn(true);
+        when(mockConnection.getAutoCommit()).thenReturn(false);
+
+        WriterCallableFactory factory = new WriterCallableFactory(mockPlugin, INSERT_QUERY, null, 2, 1);
+        WriterPipeline pipeline = new WriterPipeline(mockPlugin, factory, INSERT_QUERY, 2, 1, 1, metrics);
+        for (int i = 0; i < 5; i++) {
+            pipeline.supply(row(i));
+        }
+        pipeline.close();
+
+        verify(mockStatement, times(3)).executeBatch();
+        verify(mockConnection, times(3)).commit();
+        verify(mockConnection, never()).rollback();
+        verify(mockConnection).close();
+    }
+
+    @Test
+    public void testLastBatchIsCommittedWhenClosedWhileThreadsAreIdle() throws Exception {
+        mockStatement();
+        when(mockMetaData.supportsTransactions()).thenReturn(true);
+        when(mockConnection.getAutoCommit()).thenReturn(false);
+
+        WriterCallableFactory factory = new WriterCallableFactory(mockPlugin, INSERT_QUERY, null, 10, 4);
+        WriterPipeline pipeline = new WriterPipeline(mockPlugin, factory, INSERT_QUERY, 10, 4, 1, metrics);
+        // wait for all the threads to poll the empty queue
+        verify(mockConnection, timeout(1000).times(4)).getAutoCommit();
+        Thread.sleep(150);
+        for (int i = 0; i < 3; i++) {
+            pipeline.supply(row(i));
+        }
+        pipeline.close();
+
+        verify(mockStatement, times(3)).addBatch();
+        verify(mockStatement).executeBatch();
+        verify(mockConnection).commit();
+        verify(mockConnection, never()).rollback();
+        assertEquals(0, metrics.getQueuedBatches());
+        assertEquals(3.0, registry.get("pxf.jdbc.write.rows").counter().count());
+    }
+
+    @Test
+    public void testFailedBatchIsRolledBack() throws Exception {
+        mockStatement();
+        when(mockMetaData.supportsTransactions()).thenReturn(true);
+        when(mockConnection.getAutoCommit()).thenReturn(false);
+        SQLException error = new SQLException("value too long for type character varying(10)");
+        when(mockStatement.executeBatch()).thenReturn(new int[]{1, 1}).thenThrow(error);
+
+        WriterCallableFactory factory = new WriterCallableFactory(mockPlugin, INSERT_QUERY, null, 2, 1);
+        WriterPipeline pipeline = new WriterPipeline(mockPlugin, factory, INSERT_QUERY, 2, 1, 1, metrics);
+        assertSame(error, assertThrows(SQLException.class, () -> {
+            for (int i = 0; i < 1000; i++) {
+                pipeline.supply(row(i));
+            }
+        }));
+        assertSame(error, assertThrows(SQLException.class, pipeline::close));
+
+        // the first batch stays committed, the second one is rolled back
+        InOrder inOrder = inOrder(mockStatement, mockConnection);
+        inOrder.verify(mockStatement).executeBatch();
+        inOrder.verify(mockConnection).commit();
+        inOrder.verify(mockStatement).executeBatch();
+        inOrder.verify(mockConnection).rollback();
+        inOrder.verify(mockConnection).close();
+        verify(mockConnection, times(1)).commit();
+    }
+
+    @Test
+    public void testConnectionIsClosedWhenStatementCannotBePrepared() throws Exception {
+        SQLException error = new SQLException("relation \"t\" does not exist");
+        when(mockPlugin.getPreparedStatement(mockConnection, INSERT_QUERY)).thenThrow(error);
+
+        WriterCallableFactory factory = new WriterCallableFactory(mockPlugin, INSERT_QUERY, null, 1, 1);
+        WriterPipeline pipeline = new WriterPipeline(mockPlugin, factory, INSERT_QUERY, 1, 1, 1, metrics);
+        assertSame(error, assertThrows(SQLException.class, pipeline::close));
+
+        verify(mockConnection).close();
+        verify(mockConnection, never()).commit();
+    }
+
+    @Test
+    public void testFirstErrorStopsTheProducer() throws Exception {
+        mockStatement();
+        SQLException error = new SQLException("duplicate key value violates unique constraint");
+        when(mockStatement.executeUpdate()).thenThrow(error);
+
+        WriterCallableFactory factory = new WriterCallableFactory(mockPlugin, INSERT_QUERY, null, 1, 1);
+        WriterPipeline pipeline = new WriterPipeline(mockPlugin, factory, INSERT_QUERY, 1, 1, 1, metrics);
+
+        // the thread stops at the first row, the producer fails once the queue is full
+        Exception e = assertThrows(SQLException.class, () -> {
+            for (int i = 0; i < 1000; i++) {
+                pipeline.supply(row(i));
+            }
+        });
+        assertSame(error, e);
+        assertSame(error, assertThrows(SQLException.class, pipeline::close));
+
+        verify(mockStatement).executeUpdate();
+        verify(mockStatement).close();
+        verify(mockConnection).close();
+        assertEquals(0, metrics.getQueuedBatches());
+    }
+
+    private void mockStatement() throws SQLException {
+        when(mockPlugin.getPreparedStatement(mockConnection, INSERT_QUERY)).thenReturn(mockStatement);
+        when(mockConnection.getMetaData()).thenReturn(mockMetaData);
+    }
+
+    private static OneRow row(int id) {
+        return new OneRow(Collections.singletonList(new OneField(DataType.INTEGER.getOID(), id)));
+    }
+}
@@ -0,0 +1,196 @@
+package org.greenplum.pxf.plugins.json;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Matches the projected paths of the columns against a JSON record read with
+ * a streaming {@link JsonParser}.
+ * <p>
+ * The paths of the columns are compiled into a tree of field names. While
+ * the record is read, only the values of the projected paths are
+ * materialized as {@link JsonNode}s, array elements are materialized only
+ * for the projected indexes, and all other fields are skipped. The values
+ * are the same as those found by walking the tree of the whole record: when
+ * a field occurs more than once the last occurrence wins, and a path that
+ * does not exist in the record has no value.
+ */
+class JsonProjectionMatcher {
+
+    private final ObjectMapper mapper;
+    private final ColumnDescriptorCache[] columns;
+    private final PathNode root = new PathNode(0);
+    private final JsonNode[] values;
+    private final boolean[] notArray;
+
+    /**
+     * Compiles the projected paths of the columns
+     *
+     * @param mapper  the mapper used to materialize the projected values
+     * @param columns the columns of the table
+     */
+    JsonProjectionMatcher(ObjectMapper mapper, ColumnDescriptorCache[] columns) {
+        this.mapper = mapper;
+        this.columns = columns;
+        this.values = new JsonNode[columns.length];
+        this.notArray = new boolean[columns.length];
+
+        for (int i = 0; i < columns.length; i++) {
+            PathNode node = root;
+            for (String field : columns[i].getNormalizedProjections()) {
+                node.subtreeColumns.add(i);
+                int depth = node.depth + 1;
+                node = node.fields.computeIfAbsent(field, f -> new PathNode(depth));
+            }
+            node.subtreeColumns.add(i);
+            if (columns[i].isArray()) {
+                node.elementColumns.computeIfAbsent(columns[i].getArrayNodeIndex(), index -> new ArrayList<>()).add(i);
+            } else {
+                node.valueColumns.add(i);
+            }
+        }
+    }
+
+    /**
+     * Reads the next JSON value from the parser and finds the values of the
+     * columns in it
+     *
+     * @param parser the parser positioned before the record
+     * @throws IOException when the record is not valid JSON
+     */
+    void match(JsonParser parser) throws IOException {
+        Arrays.fill(values, null);
+        Arrays.fill(notArray, false);
+        if (parser.nextToken() != null) {
+            readValue(parser, root);
+        }
+    }
+
+    /**
+     * Returns the value of the column, which is the element at the index of
+     * the array for columns that refer to an array element
+     *
+     * @param column the index of the column
+     * @return the value of the column, or null when the record does not have it
+     */
+    JsonNode getValue(int column) {
+        return values[column];
+    }
+
+    /**
+     * @param column the index of the column
+     * @return true when the column refers to an array element, but the
+     * value at the path of the array is not an array
+     */
+    boolean isNotArray(int column) {
+        return notArray[column];
+    }
+
+    /**
+     * Reads the value the parser is positioned at, which is at the path of
+     * the node
+     */
+    private void readValue(JsonParser parser, PathNode node) throws IOException {
+        // the previous occurrence of a duplicate field is discarded
+        for (int column : node.subtreeColumns) {
+            values[column] = null;
+            notArray[column] = false;
+        }
+
+        if (!node.valueColumns.isEmpty()) {
+            // the whole value is projected, any other column below it is found in the materialized value
+            JsonNode value = mapper.readTree(parser);
+            for (int column : node.subtreeColumns) {
+                resolve(column, node.depth, value);
+            }
+            return;
+        }
+
+        JsonToken token = parser.currentToken();
+        if (token != JsonToken.START_ARRAY) {
+            for (List<Integer> elementColumns : node.elementColumns.values()) {
+                for (int column : elementColumns) {
+                    notArray[column] = true;
+                }
+            }
+        }
+
+        if (token == JsonToken.START_OBJECT && !node.fields.isEmpty()) {
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                PathNode child = node.fields.get(parser.getCurrentName());
+                parser.nextToken();
+                if (child == null) {
+                    parser.skipChildren();
+                } else {
+                    readValue(parser, child);
+                }
+            }
+        } else if (token == JsonToken.START_ARRAY && !node.elementColumns.isEmpty()) {
+            int index = 0;
+            while (parser.nextToken() != JsonToken.END_ARRAY) {
+                List<Integer> elementColumns = node.elementColumns.get(index++);
+                if (elementColumns == null) {
+                    parser.skipChildren();
+                } else {
+                    JsonNode element = mapper.readTree(parser);
+                    for (int column : elementColumns) {
+                        values[column] = element;
+                    }
+                }
+            }
+        } else {
+            parser.skipChildren();
+        }
+    }
+
+    /**
+     * Finds the value of the column in a materialized value at the given
+     * depth of the path of the column
+     */
+    private void resolve(int column, int depth, JsonNode value) {
+        ColumnDescriptorCache columnMetadata = columns[column];
+        String[] projections = columnMetadata.getNormalizedProjections();
+        JsonNode node = value;
+        for (int i = depth; i < projections.length; i++) {
+            node = node.path(projections[i]);
+        }
+
+        if (node.isMissingNode()) {
+            values[column] = null;
+        } else if (!columnMetadata.isArray()) {
+            values[column] = node;
+        } else if (node.isArray()) {
+            values[column] = node.get(columnMetadata.getArrayNodeIndex());
+        } else {
+            notArray[column] = true;
+        }
+    }
+
+    /**
+     * A field on the projected paths
+     */
+    private static class PathNode {
+        private final Map<String, PathNode> fields = new HashMap<>();
+        // the columns whose value is the value of this field
+        private final List<Integer> valueColumns = new ArrayList<>();
+        // the columns whose value is an element of this field, by index of the element
+        private final Map<Integer, List<Integer>> elementColumns = new HashMap<>();
+        // the columns whose path goes through this field
+        private final List<Integer> subtreeColumns = new ArrayList<>();
+        // the number of fields on the path to this field
+        private final int depth;
+
+        PathNode(int depth) {
+            this.depth = depth;
+        }
+    }
+}
@@ -26,7 +26,7 @@ import org.apache.hadoop.mapred.FileSplit;
 import org.apache.hadoop.mapred.JobConf;
 import org.apache.hadoop.mapred.LineRecordReader;
 import org.apache.hadoop.mapred.RecordReader;
-import org.greenplum.pxf.plugins.json.parser.PartitionedJsonParser;
+import org.greenplum.pxf.plugins.json.parser.JsonObjectScanner;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -37,9 +37,13 @@ import java.nio.charset.StandardCharsets;
  * Multi-line json object reader. JsonRecordReader uses a member name (set by the <b>IDENTIFIER</b> PXF parameter) to
  * determine the encapsulating object to extract and read.
  * <p>
+ * The lines of the split are scanned as raw UTF-8 bytes by a {@link JsonObjectScanner}, without decoding them into
+ * characters, so the position of the reader is the exact number of bytes consumed, and the records are copied once
+ * from the lines into the value.
+ * <p>
  * JsonRecordReader supports compressed input files as well.
  * <p>
- * As a safe guard set the optional <b>MAXLENGTH</b> parameter to limit the max size of a record.
+ * As a safe guard set the optional <b>MAXLENGTH</b> parameter to limit the max size of a record in bytes.
  */
 public class JsonRecordReader implements RecordReader<LongWritable, Text> {
 
@@ -51,7 +55,7 @@ public class JsonRecordReader implements RecordReader<LongWritable, Text> {
     private long pos;
     private long end;
     private int maxObjectLength;
-    private PartitionedJsonParser parser;
+    private JsonObjectScanner scanner;
     private LineRecordReader lineRecordReader;
     // position of the underlying lineRecordReader
     private long filePos;
@@ -59,21 +63,13 @@ public class JsonRecordReader implements RecordReader<LongWritable, Text> {
     private Text currentLine;
     private JobConf conf;
     private final Path file;
-    // this is the current line in buffer form
-    private StringBuffer currentLineBuffer;
-    // index where the JsonRecordReader has read to in the currentLineBuffer
-    private int currentLineIndex = Integer.MAX_VALUE;
+    // index where the JsonRecordReader has read to in the currentLine
+    private int currentLineIndex = 0;
     private boolean inNextSplit = false;
-    // used to store characters that were read before we hit a json begin object marker
-    private StringBuilder readValues = new StringBuilder(MAX_CHARS);
-    // max number of characters to read before we update the position
-    private static final int MAX_CHARS = 1024;
 
-    private static final char BACKSLASH = '\\';
-    private static final char QUOTE = '\"';
-    private static final char START_BRACE = '{';
-    private static final int EOF = -1;
-    private static final int END_OF_SPLIT = -2;
+    private static final byte BACKSLASH = '\\';
+    private static final byte QUOTE = '\"';
+    private static final byte START_BRACE = '{';
     private static final byte[] NEW_LINE = "\n".getBytes(StandardCharsets.UTF_8);
     private static final byte[] CARRIAGERETURN_NEWLINE = "\r\n".getBytes(StandardCharsets.UTF_8);
     private final LongWritable key;
@@ -95,7 +91,7 @@ public class JsonRecordReader implements RecordReader<LongWritable, Text> {
         file = split.getPath();
         lineRecordReader =  new LineRecordReader(conf, split);
         this.conf = conf;
-        parser = new PartitionedJsonParser(jsonMemberName);
+        scanner = new JsonObjectScanner(jsonMemberName);
         currentLine = new Text();
         // set pos and filePos to lineRecordReader's position. If the split started in the middle of a line,
         // we assume that the previous split has taken care of it, so we just need to be at the same starting
@@ -122,50 +118,39 @@ public class JsonRecordReader implements RecordReader<LongWritable, Text> {
             }
 
             // found a start brace so begin a new json object
-            parser.startNewJsonObject();
+            scanner.startNewJsonObject();
 
             // read through the file until the object is completed
-            int i;
-            boolean isObjectComplete = false;
-            while (!isObjectComplete && (i = readNextChar()) != EOF) {
-                // if we are at the end of the split, then we need to get the next split before we can read the line
-                if (i == END_OF_SPLIT) {
+            // object is complete if we found a matching } for either the starting {
+            // or for an internal object that has a field with the matching identifier
+            while (!scanner.isCompletedObject()) {
+                if (currentLineIndex >= currentLine.getLength() && !getNextLine()) {
+                    if (inNextSplit) {
+                        // the object is not complete and we hit end of file, filePos is at EOF
+                        pos = filePos;
+                        return false;
+                    }
+                    // if we are at the end of the split, then we need to get the next split before we can read the line
                     LOG.debug("JSON object incomplete, continuing into next split to finish");
                     getNextSplit();
-                    // continue the while loop to complete the object
                     continue;
                 }
 
-                char c = (char) i;
-                // object is complete if we found a matching } for either the starting {
-                // or for an internal object that has a field with the matching identifier
-                isObjectComplete = parser.parse(c);
+                int scannedTo = scanner.scan(currentLine.getBytes(), currentLineIndex, currentLine.getLength());
+                pos += scannedTo - currentLineIndex;
+                currentLineIndex = scannedTo;
             }
 
-            // if we have gotten here there are 2 scenarios:
-            // - the object is not complete, in which case we hit end of file
-            // - the object is complete, in which case, determine if we found the identifier
-            if (!isObjectComplete) {
-                // if we have gotten here, filePos is at EOF
-                pos = filePos;
-                return false;
-            }
-
-            String json = parser.getCompletedObject();
-
-            // the object is complete so update the position
-            pos += json.getBytes(StandardCharsets.UTF_8).length;
-
             // if we found the identifier
-            if (parser.foundObjectWithIdentifier()) {
-                // check the char length of the json against the MAXLENGTH parameter
-                long jsonLength = json.length();
+            if (scanner.foundObjectWithIdentifier()) {
+                // check the byte length of the json against the MAXLENGTH parameter
+                int jsonLength = scanner.getObjectLength();
                 if (jsonLength > maxObjectLength) {
-                    LOG.warn("Skipped JSON object of size " + json.length());
+                    LOG.warn("Skipped JSON object of size {}", jsonLength);
                 } else {
                     // the key is set to the length of the json object
                     key.set(jsonLength);
-                    value.set(json);
+                    value.set(scanner.getBuffer(), scanner.getObjectStart(), jsonLength);
                     return true;
                 }
             }
@@ -218,28 +203,7 @@ public class JsonRecordReader implements RecordReader<LongWritable, Text> {
     }
 
     /**
-     * Reads the next character in the buffer. It will pull the next line as necessary
-     *
-     * @return the int value of a character
-     * @throws IOException
-     */
-    private int readNextChar() throws IOException {
-        // if the currentLineBuffer is null, nothing has been read yet, so we need to read the next line
-        // if the currentLineIndex is greater than the length,  we are at the end of the buffer, read the next line
-        boolean refreshLineBuffer = currentLineBuffer == null || currentLineIndex >= currentLineBuffer.length();
-        if (refreshLineBuffer && !getNextLine()) {
-            return END_OF_SPLIT;
-        }
-
-        int c = currentLineBuffer.charAt(currentLineIndex);
-        currentLineIndex++;
-
-        return c;
-
-    }
-
-    /**
-     * Read through the characters until we hit starting bracket that indicates the start of a JSON object
+     * Read through the bytes until we hit starting bracket that indicates the start of a JSON object
      *
      * @return true when an open bracket '{' is found, false otherwise
      * @throws IOException
@@ -248,47 +212,36 @@ public class JsonRecordReader implements RecordReader<LongWritable, Text> {
         // assumes each line is a valid json line
         // seek until we hit the first begin-object
         boolean inString = false;
-        int i;
-
-        // reset the stringbuilder and start counting chars
-        readValues.setLength(0);
-
-        // since we have not yet found a starting object, exit if either EOF (-1) or END_OF_SPLIT (-2)
-        while ((i = readNextChar()) > EOF) {
-            char c = (char) i;
-
-            // while scanning to start of object, we need to make sure we aren't losing our position
-            accountForCharacterRead(c);
-            // if the current value is a backslash, then ignore the next value as it's an escaped char
-            if (c == BACKSLASH) {
-                accountForCharacterRead((char) readNextChar());
-            } else if (c == QUOTE) {
-                inString = !inString;
-            } else if (c == START_BRACE && !inString) {
-                // the start brace will be accounted for later, so ignore it for now
-                pos += readValues.toString().getBytes(StandardCharsets.UTF_8).length - 1;
+        boolean escaped = false;
+
+        // since we have not yet found a starting object, exit at the end of the split
+        while (currentLineIndex < currentLine.getLength() || getNextLine()) {
+            byte[] bytes = currentLine.getBytes();
+            int length = currentLine.getLength();
+            int i = currentLineIndex;
+            boolean foundBeginObject = false;
+            while (i < length && !foundBeginObject) {
+                byte b = bytes[i++];
+                if (escaped) {
+                    // the previous byte was a backslash, so this is an escaped char
+                    escaped = false;
+                } else if (b == BACKSLASH) {
+                    escaped = true;
+                } else if (b == QUOTE) {
+                    inString = !inString;
+                } else if (b == START_BRACE && !inString) {
+                    foundBeginObject = true;
+                }
+            }
+            pos += i - currentLineIndex;
+            currentLineIndex = i;
+            if (foundBeginObject) {
                 return true;
             }
         }
-        pos += readValues.toString().getBytes(StandardCharsets.UTF_8).length;
         return false;
     }
 
-    /**
-     * Append the given character to the string of characters read
-     *
-     * If the number of characters read equals MAX_CHARS, then
-     * set the global pos and reset the string of characters read to empty
-     * @param c the character that was read
-     */
-    private void accountForCharacterRead(char c) {
-        readValues.append(c);
-        if (readValues.length() >= MAX_CHARS){
-            pos += readValues.toString().getBytes(StandardCharsets.UTF_8).length;
-            readValues.setLength(0);
-        }
-    }
-
     /**
      * This function allows JsonRecordReader to go into the next split to finish a JSON object.
      * Closes the current LineRecordReader and opens a new one that starts at the end of the current split
@@ -307,7 +260,7 @@ public class JsonRecordReader implements RecordReader<LongWritable, Text> {
     }
 
     /**
-     * Reads the next line of the file in to begin parsing the characters
+     * Reads the next line of the file in to begin parsing the bytes
      *
      * @return true if a line was read, false otherwise. False means that we have reached the end of the split
      * @throws IOException if error occurs internally in underlying LineRecordReader
@@ -330,7 +283,6 @@ public class JsonRecordReader implements RecordReader<LongWritable, Text> {
             } else if (delta > 2) {
                 LOG.warn("LineRecordReader removed delta = {} characters while parsing a line in the JSON file at pos {}", delta, filePos);
             }
-            currentLineBuffer = new StringBuffer(currentLine.toString());
             currentLineIndex = 0;
         }
         return didReturnLine;
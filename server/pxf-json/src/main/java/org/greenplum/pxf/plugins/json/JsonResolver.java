@@ -19,10 +19,12 @@ package org.greenplum.pxf.plugins.json;
  * under the License.
  */
 
+import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.hadoop.io.Text;
 import org.greenplum.pxf.api.OneField;
 import org.greenplum.pxf.api.OneRow;
 import org.greenplum.pxf.api.error.BadRecordException;
@@ -45,6 +47,11 @@ import java.util.StringJoiner;
  * decode this data into a JsonNode and walk the tree for each column. It supports normal value mapping via projections
  * and JSON array indexing.
  * <p>
+ * When the {@code STREAMING_PARSE} option is set, the record is instead read with a streaming parser straight from the
+ * bytes of the record, and only the values of the projected columns are decoded into JsonNodes, see
+ * {@link JsonProjectionMatcher}. This avoids building the tree of the whole record when the table projects a few
+ * fields of large documents.
+ * <p>
  * For the writing use case the resolver will just pass the list of OneField objects to the {@link JsonAccessor} and will
  * not perform a serialization of the list into a Json string as it might have been expected. This is due to the nature
  * of accessor's implementation, where a streaming writing is performed to avoid creating intermediate Java objects.
@@ -52,6 +59,8 @@ import java.util.StringJoiner;
  */
 public class JsonResolver extends BasePlugin implements Resolver {
 
+    static final String STREAMING_PARSE_OPTION = "STREAMING_PARSE";
+
     private static final ObjectMapper MAPPER = new ObjectMapper();
 
     static {
@@ -64,6 +73,7 @@ public class JsonResolver extends BasePlugin implements Resolver {
 
     private ArrayList<OneField> oneFieldList;
     private ColumnDescriptorCache[] columnDescriptorCache;
+    private JsonProjectionMatcher projectionMatcher;
 
     public JsonResolver() {
         this(SpringContext.getBean(PgUtilities.class));
@@ -83,6 +93,10 @@ public class JsonResolver extends BasePlugin implements Resolver {
             ColumnDescriptor cd = context.getColumn(i);
             columnDescriptorCache[i] = new ColumnDescriptorCache(cd);
         }
+
+        projectionMatcher = context.getOption(STREAMING_PARSE_OPTION, false)
+                ? new JsonProjectionMatcher(MAPPER, columnDescriptorCache)
+                : null;
     }
 
     @Override
@@ -92,6 +106,9 @@ public class JsonResolver extends BasePlugin implements Resolver {
         if (row == null || row.getData() == null) {
             throw new BadRecordException("json record is null");
         }
+        if (projectionMatcher != null) {
+            return getProjectedFields(row.getData());
+        }
         String jsonRecordAsText = row.getData().toString();
 
         JsonNode root;
@@ -127,6 +144,45 @@ public class JsonResolver extends BasePlugin implements Resolver {
         return oneFieldList;
     }
 
+    /**
+     * Reads the record with a streaming parser, decoding only the values of the projected columns.
+     *
+     * @param data the JSON record, a {@link Text} is read without converting it to a String
+     * @return the fields of the record
+     * @throws Exception when the record is not valid JSON, or a value does not match the type of its column
+     */
+    private List<OneField> getProjectedFields(Object data) throws Exception {
+        try (JsonParser parser = createParser(data)) {
+            projectionMatcher.match(parser);
+        } catch (IOException e) {
+            throw new BadRecordException(
+                    String.format("error while parsing json record '%s'. invalid JSON record\n%s", e.getMessage(), data), e);
+        }
+
+        for (int i = 0; i < columnDescriptorCache.length; i++) {
+            ColumnDescriptorCache columnMetadata = columnDescriptorCache[i];
+            JsonNode node = projectionMatcher.getValue(i);
+
+            if (projectionMatcher.isNotArray(i)) {
+                throw new IllegalStateException(columnMetadata.getColumnName() + " is not an array node");
+            } else if (node == null) {
+                addNullField(columnMetadata.getColumnType());
+            } else {
+                addFieldFromJsonNode(columnMetadata, node);
+            }
+        }
+
+        return oneFieldList;
+    }
+
+    private JsonParser createParser(Object data) throws IOException {
+        if (data instanceof Text) {
+            Text text = (Text) data;
+            return MAPPER.getFactory().createParser(text.getBytes(), 0, text.getLength());
+        }
+        return MAPPER.getFactory().createParser(data.toString());
+    }
+
     /**
      * Constructs and sets the fields of a {@link OneRow}.
      *
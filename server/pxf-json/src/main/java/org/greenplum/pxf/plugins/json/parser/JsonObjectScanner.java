@@ -0,0 +1,208 @@
+package org.greenplum.pxf.plugins.json.parser;
+
+import org.greenplum.pxf.plugins.json.parser.JsonLexer.JsonLexerState;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * A byte level scanner that builds up a JSON object from the UTF-8 bytes fed in. The scanner searches for the JSON
+ * object containing the member string that the user supplies.
+ * <p>
+ * The structural characters of JSON are all ASCII, and the bytes of multibyte UTF-8 characters are never ASCII, so
+ * the object boundaries, strings and escapes are found without decoding the bytes. The member name is compared with
+ * the raw bytes of the string literals as they are scanned. The bytes of the object are appended in bulk to a buffer
+ * that is reused for every object, and the completed object is a slice of that buffer.
+ */
+public class JsonObjectScanner {
+
+	private static final byte START_BRACE = '{';
+
+	private final JsonLexer lexer;
+	private final byte[] memberName;
+
+	private MemberSearchState memberState;
+	// the bytes of the current object
+	private byte[] buffer;
+	private int length;
+	// the offsets in the buffer of the starting brackets of the objects enclosing the current byte
+	private int[] objectStack;
+	private int objectStackSize;
+	// the number of objects opened inside the object containing the member
+	private int objectCount;
+	// the offset in the buffer of the starting bracket of the object containing the member
+	private int objectStart;
+	// the number of bytes of the current string literal that match the member name, -1 if it does not match
+	private int memberMatchLength;
+	private boolean isCompletedObject;
+
+	/**
+	 * Create the json object scanner.
+	 *
+	 * @param memberName the json object identifier
+	 */
+	public JsonObjectScanner(String memberName) {
+		lexer = new JsonLexer();
+		this.memberName = memberName.getBytes(StandardCharsets.UTF_8);
+		buffer = new byte[4096];
+		objectStack = new int[16];
+	}
+
+	private enum MemberSearchState {
+		FOUND_STRING_NAME,
+
+		SEARCHING,
+
+		IN_MATCHING_OBJECT,
+
+		STRING_NOT_FOUND
+	}
+
+	/**
+	 * Starts a new object, the starting bracket '{' has already been read.
+	 */
+	public void startNewJsonObject() {
+		lexer.setState(JsonLexerState.BEGIN_OBJECT);
+		memberState = MemberSearchState.SEARCHING;
+
+		objectCount = 0;
+		objectStart = 0;
+		isCompletedObject = false;
+
+		buffer[0] = START_BRACE;
+		length = 1;
+		objectStack[0] = 0;
+		objectStackSize = 1;
+	}
+
+	/**
+	 * Scans the bytes from {@code from} until the object is completed, or until {@code to}, and appends the scanned
+	 * bytes to the object.
+	 * <p>
+	 * The object is completed when an ending bracket '}' at the same level as the first '{' is found, or an ending
+	 * bracket '}' at the same level of the matching member is found. When the member is found in a nested object,
+	 * the completed object is only the nested object.
+	 *
+	 * @param bytes the bytes to scan
+	 * @param from  the offset of the first byte to scan
+	 * @param to    the offset after the last byte to scan
+	 * @return the offset after the last byte scanned, which is {@code to} unless the object was completed before
+	 */
+	public int scan(byte[] bytes, int from, int to) {
+		int i = from;
+		while (i < to && !isCompletedObject) {
+			parse(bytes[i], length + i - from);
+			i++;
+		}
+
+		int count = i - from;
+		if (length + count > buffer.length) {
+			buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, length + count));
+		}
+		System.arraycopy(bytes, from, buffer, length, count);
+		length += count;
+		return i;
+	}
+
+	/**
+	 * @return true if the object has been completed
+	 */
+	public boolean isCompletedObject() {
+		return isCompletedObject;
+	}
+
+	/**
+	 * Regardless of whether the JSON object is complete, return true if a matching identifier was found.
+	 *
+	 * @return If the object contains the member, return true
+	 */
+	public boolean foundObjectWithIdentifier() {
+		return memberState == MemberSearchState.FOUND_STRING_NAME || memberState == MemberSearchState.IN_MATCHING_OBJECT;
+	}
+
+	/**
+	 * Returns the buffer holding the completed object, which is only valid until the next object is started.
+	 *
+	 * @return the buffer holding the completed object
+	 */
+	public byte[] getBuffer() {
+		return buffer;
+	}
+
+	/**
+	 * @return the offset of the completed object in the buffer
+	 */
+	public int getObjectStart() {
+		return objectStart;
+	}
+
+	/**
+	 * @return the number of bytes of the completed object
+	 */
+	public int getObjectLength() {
+		return isCompletedObject ? length - objectStart : 0;
+	}
+
+	/**
+	 * Tracks the member search for the next byte of the object
+	 *
+	 * @param b      the byte
+	 * @param offset the offset of the byte in the buffer
+	 */
+	private void parse(byte b, int offset) {
+		lexer.lex((char) (b & 0xFF));
+		JsonLexerState state = lexer.getState();
+
+		if (memberState == MemberSearchState.FOUND_STRING_NAME) {
+			// keep popping whitespaces until we hit a different token
+			if (state == JsonLexerState.WHITESPACE) {
+				return;
+			}
+			if (state == JsonLexerState.NAME_SEPARATOR) {
+				// found our member!
+				memberState = MemberSearchState.IN_MATCHING_OBJECT;
+				objectCount = 0;
+				objectStart = objectStack[objectStackSize - 1];
+				objectStackSize = 0;
+				return;
+			}
+			// we didn't find a name-separator (:), so our string wasn't a member string. keep searching with this byte
+			memberState = MemberSearchState.SEARCHING;
+		}
+
+		switch (memberState) {
+			case SEARCHING:
+				if (state == JsonLexerState.BEGIN_STRING) {
+					// we found the start of a string, so start matching the member name
+					memberMatchLength = 0;
+				} else if (state == JsonLexerState.INSIDE_STRING || state == JsonLexerState.STRING_ESCAPE) {
+					if (memberMatchLength >= 0 && memberMatchLength < memberName.length && memberName[memberMatchLength] == b) {
+						memberMatchLength++;
+					} else {
+						memberMatchLength = -1;
+					}
+				} else if (state == JsonLexerState.END_STRING && memberMatchLength == memberName.length) {
+					// we hit the end of the string and it matched the member name
+					memberState = MemberSearchState.FOUND_STRING_NAME;
+				} else if (state == JsonLexerState.BEGIN_OBJECT) {
+					if (objectStackSize == objectStack.length) {
+						objectStack = Arrays.copyOf(objectStack, objectStackSize * 2);
+					}
+					objectStack[objectStackSize++] = offset;
+				} else if (state == JsonLexerState.END_OBJECT && --objectStackSize == 0) {
+					// we found a '}' at the same level as the first '{' and nothing was found
+					memberState = MemberSearchState.STRING_NOT_FOUND;
+					isCompletedObject = true;
+				}
+				break;
+			case IN_MATCHING_OBJECT:
+				if (state == JsonLexerState.BEGIN_OBJECT) {
+					objectCount++;
+				} else if (state == JsonLexerState.END_OBJECT && --objectCount < 0) {
+					// we're done! we reached an "}" which is at the same level as the member we found
+					isCompletedObject = true;
+				}
+				break;
+		}
+	}
+}
@@ -0,0 +1,14 @@
+package org.greenplum.pxf.plugins.json;
+
+import org.greenplum.pxf.api.model.RequestContext;
+
+/**
+ * Runs the tests of the {@link JsonResolver} with the streaming parser
+ */
+public class JsonResolverStreamingTest extends JsonResolverTest {
+
+    @Override
+    protected void addOptions(RequestContext context) {
+        context.addOption(JsonResolver.STREAMING_PARSE_OPTION, "true");
+    }
+}
@@ -1,5 +1,6 @@
 package org.greenplum.pxf.plugins.json;
 
+import org.apache.hadoop.io.Text;
 import org.greenplum.pxf.api.error.BadRecordException;
 import org.greenplum.pxf.api.OneField;
 import org.greenplum.pxf.api.OneRow;
@@ -34,10 +35,14 @@ public class JsonResolverTest {
         context.setConfig("default");
         context.setUser("test-user");
         context.setTupleDescription(schema);
+        addOptions(context);
         resolver.setRequestContext(context);
         resolver.afterPropertiesSet();
     }
 
+    protected void addOptions(RequestContext context) {
+    }
+
     @Test
     public void testInitialize() {
         resolver.setRequestContext(context);
@@ -403,6 +408,82 @@ public class JsonResolverTest {
         assertEquals("error while reading column 'type_array_as_textarray': invalid array value '{\"id\":1}'", badRecordException.getMessage());
     }
 
+    @Test
+    public void testGetFieldsWithNestedProjections() throws Exception {
+        ArrayList<ColumnDescriptor> nestedSchema = new ArrayList<>();
+        nestedSchema.add(new ColumnDescriptor("a.b", DataType.INTEGER.getOID(), 0, "int4", null, true));
+        nestedSchema.add(new ColumnDescriptor("a.c[1]", DataType.TEXT.getOID(), 1, "text", null, true));
+        nestedSchema.add(new ColumnDescriptor("a", DataType.TEXT.getOID(), 2, "text", null, true));
+        nestedSchema.add(new ColumnDescriptor("x.y", DataType.TEXT.getOID(), 3, "text", null, true));
+        nestedSchema.add(new ColumnDescriptor("d[5]", DataType.INTEGER.getOID(), 4, "int4", null, true));
+        nestedSchema.add(new ColumnDescriptor("d[1]", DataType.INTEGER.getOID(), 5, "int4", null, true));
+        nestedSchema.add(new ColumnDescriptor("e", DataType.BOOLEAN.getOID(), 6, "bool", null, true));
+        context.setTupleDescription(nestedSchema);
+        resolver.afterPropertiesSet();
+
+        //language=JSON
+        String jsonStr = "{" +
+                "\"skip\":{\"deep\":[1,{\"a\":2}],\"e\":false}," +
+                "\"a\":{\"b\":7,\"c\":[\"p\",\"q\"]}," +
+                "\"x\":\"not an object\"," +
+                "\"d\":[1,4,{\"f\":[2]}]," +
+                "\"e\":true" +
+                "}";
+
+        List<OneField> fields = assertRow(new OneRow(123, jsonStr), 7);
+        assertField(fields, 0, 7, DataType.INTEGER);
+        assertField(fields, 1, "q", DataType.TEXT);
+        assertField(fields, 2, "{\"b\":7,\"c\":[\"p\",\"q\"]}", DataType.TEXT);
+        assertField(fields, 3, null, DataType.TEXT);
+        assertField(fields, 4, null, DataType.INTEGER);
+        assertField(fields, 5, 4, DataType.INTEGER);
+        assertField(fields, 6, true, DataType.BOOLEAN);
+    }
+
+    @Test
+    public void testGetFieldsWithDuplicateFields() throws Exception {
+        ArrayList<ColumnDescriptor> nestedSchema = new ArrayList<>();
+        nestedSchema.add(new ColumnDescriptor("a.b", DataType.INTEGER.getOID(), 0, "int4", null, true));
+        nestedSchema.add(new ColumnDescriptor("a.c[1]", DataType.TEXT.getOID(), 1, "text", null, true));
+        nestedSchema.add(new ColumnDescriptor("a.c[0]", DataType.TEXT.getOID(), 2, "text", null, true));
+        context.setTupleDescription(nestedSchema);
+        resolver.afterPropertiesSet();
+
+        // the last occurrence of a field wins
+        //language=JSON
+        String jsonStr = "{\"a\":{\"b\":1,\"c\":[\"x\",\"y\"]},\"a\":{\"c\":[\"z\"]}}";
+
+        List<OneField> fields = assertRow(new OneRow(123, jsonStr), 3);
+        assertField(fields, 0, null, DataType.INTEGER);
+        assertField(fields, 1, null, DataType.TEXT);
+        assertField(fields, 2, "z", DataType.TEXT);
+    }
+
+    @Test
+    public void testGetFieldsFromText() throws Exception {
+        // the backing array of the text is longer than the record
+        Text text = new Text("{\"type_int\":1,\"type_string1\":\"a longer record that is read first\"}");
+        text.set("{\"type_int\":2,\"type_string1\":\"b\"}");
+
+        List<OneField> fields = assertRow(new OneRow(123, text), 38);
+        assertField(fields, 0, 2, DataType.INTEGER);
+        assertField(fields, 5, "b", DataType.TEXT);
+        assertField(fields, 9, null, DataType.BOOLEAN);
+    }
+
+    @Test
+    public void testGetFieldsShouldFailForArrayIndexOfNonArray() {
+        ArrayList<ColumnDescriptor> nestedSchema = new ArrayList<>();
+        nestedSchema.add(new ColumnDescriptor("obj[0]", DataType.TEXT.getOID(), 0, "text", null, true));
+        context.setTupleDescription(nestedSchema);
+        resolver.afterPropertiesSet();
+
+        OneRow row = new OneRow(123, "{\"obj\":{\"id\":1}}");
+
+        IllegalStateException e = assertThrows(IllegalStateException.class, () -> assertRow(row, 1));
+        assertEquals("obj[0] is not an array node", e.getMessage());
+    }
+
     @Test
     public void testSetFields() throws UnsupportedOperationException {
         context.setMetadata(null);
@@ -0,0 +1,304 @@
+package org.greenplum.pxf.plugins.json.parser;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class JsonObjectScannerTest {
+
+    @Test
+    public void testFoundIdentifier() {
+
+        JsonObjectScanner scanner = new JsonObjectScanner("name");
+        // start the json object, handles starting bracket
+        scanner.startNewJsonObject();
+
+        scan(scanner, "\"name\"");
+
+        assertFalse(scanner.isCompletedObject());
+        assertTrue(scanner.foundObjectWithIdentifier());
+        assertEquals(0, scanner.getObjectLength());
+    }
+
+    @Test
+    public void testSimpleMatchingIdentifier() {
+
+        JsonObjectScanner scanner = new JsonObjectScanner("name");
+        scanner.startNewJsonObject();
+
+        // if a json object has been started, give this input
+        String jsonContents = "\"name\": \"äää\", \"year\": \"2022\", \"cüstömerstätüs\":\"välid\",\"address\": \"söme city\", \"zip\": \"95051\"}";
+        scan(scanner, jsonContents);
+
+        assertTrue(scanner.isCompletedObject());
+        assertTrue(scanner.foundObjectWithIdentifier());
+        assertEquals(105, scanner.getObjectLength());
+        assertEquals("{\"name\": \"äää\", \"year\": \"2022\", \"cüstömerstätüs\":\"välid\",\"address\": \"söme city\", \"zip\": \"95051\"}", getCompletedObject(scanner));
+    }
+
+    @Test
+    public void testNonAsciiIdentifier() {
+
+        JsonObjectScanner scanner = new JsonObjectScanner("cüstömerstätüs");
+        scanner.startNewJsonObject();
+
+        // the identifier only matches complete string literals
+        String jsonContents = "\"cüstömer\": 1, \"cüstömerstätüs2\": 2, \"cüstömerstätüs\":\"välid\"}";
+        scan(scanner, jsonContents);
+
+        assertTrue(scanner.isCompletedObject());
+        assertTrue(scanner.foundObjectWithIdentifier());
+        assertEquals("{" + jsonContents, getCompletedObject(scanner));
+    }
+
+    @Test
+    public void testSimpleMatchingIdentifierExtraCarriageReturns() {
+
+        JsonObjectScanner scanner = new JsonObjectScanner("name");
+        scanner.startNewJsonObject();
+
+        String jsonContents = "\"name\": \"äää\"\r\r\n," +
+                "\"year\": \"2022\",\r\r\n" +
+                "\"cüstömerstätüs\":\"välid\",\r\r\n" +
+                "\"address\": \"söme city\",\r\r\n" +
+                "\"zip\": \"95051\"\r\r\n" +
+                "}";
+        scan(scanner, jsonContents);
+
+        assertTrue(scanner.isCompletedObject());
+        assertTrue(scanner.foundObjectWithIdentifier());
+        assertEquals(117, scanner.getObjectLength());
+        assertEquals("{\"name\": \"äää\"\r\r\n," +
+                "\"year\": \"2022\",\r\r\n" +
+                "\"cüstömerstätüs\":\"välid\",\r\r\n" +
+                "\"address\": \"söme city\",\r\r\n" +
+                "\"zip\": \"95051\"\r\r\n" +
+                "}", getCompletedObject(scanner));
+    }
+
+    @Test
+    public void testSimpleMatchingIdentifierMixedCarriageReturns() {
+
+        JsonObjectScanner scanner = new JsonObjectScanner("name");
+        scanner.startNewJsonObject();
+
+        String jsonContents = "\"name\": \"äää\"\n," +
+                "\"year\": \"2022\",\r\r" +
+                "\"cüstömerstätüs\":\"välid\",\r\n" +
+                "\"address\": \"söme city\",\r\r\n" +
+                "\"zip\": \"95051\"" +
+                "}";
+        scan(scanner, jsonContents);
+
+        assertTrue(scanner.isCompletedObject());
+        assertTrue(scanner.foundObjectWithIdentifier());
+        assertEquals(110, scanner.getObjectLength());
+        assertEquals("{" + jsonContents, getCompletedObject(scanner));
+    }
+
+    @Test
+    public void testSimpleNoMatchingIdentifier() {
+
+        JsonObjectScanner scanner = new JsonObjectScanner("customer status");
+        scanner.startNewJsonObject();
+
+        String jsonContents = "\"name\": \"äää\", \"year\": \"2022\", \"cüstömerstätüs\":\"välid\",\"address\": \"söme city\", \"zip\": \"95051\"}";
+        scan(scanner, jsonContents);
+
+        assertTrue(scanner.isCompletedObject());
+        assertFalse(scanner.foundObjectWithIdentifier());
+    }
+
+    @Test
+    public void testEmptyJson() {
+
+        JsonObjectScanner scanner = new JsonObjectScanner("name");
+        scanner.startNewJsonObject();
+
+        scan(scanner, "}");
+
+        assertTrue(scanner.isCompletedObject());
+        assertFalse(scanner.foundObjectWithIdentifier());
+    }
+
+    @Test
+    public void testNestedMatchingIdentifier() {
+
+        JsonObjectScanner scanner = new JsonObjectScanner("year");
+        scanner.startNewJsonObject();
+
+        String jsonContents =
+                "  \"name\": \"äää\",\n" +
+                "  \"customerdata\":\n" +
+                "  [\n" +
+                "    {\n" +
+                "      \"cüstömerstätüs\": \"välid\",\n" +
+                "      \"year\": \"2022\",\n" +
+                "      \"address\": \"söme city\",\n" +
+                "      \"zip\": \"95051\"\n" +
+                "    }\n" +
+                "  ]\n" +
+                "}";
+        byte[] bytes = jsonContents.getBytes(StandardCharsets.UTF_8);
+        int scanned = scanner.scan(bytes, 0, bytes.length);
+
+        // the remaining bytes are not scanned because we found the end of the object:
+        // `\n` from after the curly bracket
+        // `  ]\n`
+        // `}`
+        assertEquals(6, bytes.length - scanned);
+        assertTrue(scanner.isCompletedObject());
+        assertTrue(scanner.foundObjectWithIdentifier());
+        // there are 119 bytes for the 113 characters
+        assertEquals(119, scanner.getObjectLength());
+        // should only be the inner object containing the identifier with the same spacing and newlines
+        assertEquals("{\n" +
+                "      \"cüstömerstätüs\": \"välid\",\n" +
+                "      \"year\": \"2022\",\n" +
+                "      \"address\": \"söme city\",\n" +
+                "      \"zip\": \"95051\"\n" +
+                "    }", getCompletedObject(scanner));
+    }
+
+    @Test
+    public void testNestedNonMatchingIdentifier() {
+
+        JsonObjectScanner scanner = new JsonObjectScanner("test");
+        scanner.startNewJsonObject();
+
+        String jsonContents =
+                "  \"name\": \"äää\",\n" +
+                "  \"customerdata\":\n" +
+                "  [\n" +
+                "    {\n" +
+                "      \"cüstömerstätüs\": \"välid\",\n" +
+                "      \"year\": \"2022\",\n" +
+                "      \"address\": \"söme city\",\n" +
+                "      \"zip\": \"95051\"\n" +
+                "    }\n" +
+                "  ]\n" +
+                "}";
+        byte[] bytes = jsonContents.getBytes(StandardCharsets.UTF_8);
+
+        assertEquals(bytes.length, scanner.scan(bytes, 0, bytes.length));
+        assertTrue(scanner.isCompletedObject());
+        assertFalse(scanner.foundObjectWithIdentifier());
+    }
+
+    @Test
+    public void testMatchingIdentifierAfterNestedObject() {
+
+        JsonObjectScanner scanner = new JsonObjectScanner("test");
+        scanner.startNewJsonObject();
+
+        String jsonContents =
+                "  \"name\": \"äää\",\n" +
+                "  \"customerdata\":\n" +
+                "  [\n" +
+                "    {\n" +
+                "      \"cüstömerstätüs\": \"välid\",\n" +
+                "      \"year\": \"2022\",\n" +
+                "      \"address\": \"söme city\",\n" +
+                "      \"zip\": \"95051\"\n" +
+                "    }\n" +
+                "  ],\n" +
+                "  \"test\": \"matching key\"\n" +
+                "}";
+        byte[] bytes = jsonContents.getBytes(StandardCharsets.UTF_8);
+
+        assertEquals(bytes.length, scanner.scan(bytes, 0, bytes.length));
+        assertTrue(scanner.isCompletedObject());
+        assertTrue(scanner.foundObjectWithIdentifier());
+        // there are 198 bytes for the 189 characters
+        assertEquals(198, scanner.getObjectLength());
+        assertEquals("{" + jsonContents, getCompletedObject(scanner));
+    }
+
+    @Test
+    public void testMatchingIdentifierAfterNestedObjectAcrossLines() {
+
+        JsonObjectScanner scanner = new JsonObjectScanner("test");
+        scanner.startNewJsonObject();
+
+        String[] lines = {
+                "  \"name\": \"äää\",\n",
+                "  \"customerdata\":\n",
+                "  [\n",
+                "    {\n",
+                "      \"cüstömerstätüs\": \"välid\",\n",
+                "      \"year\": \"2022\",\n",
+                "      \"address\": \"söme city\",\n",
+                "      \"zip\": \"95051\"\n",
+                "    }\n",
+                "  ],\n",
+                "  \"test\": \"matching key\"\n",
+                "}\n"
+        };
+        StringBuilder expected = new StringBuilder("{");
+        for (String line : lines) {
+            assertFalse(scanner.isCompletedObject());
+            byte[] bytes = line.getBytes(StandardCharsets.UTF_8);
+            int scanned = scanner.scan(bytes, 0, bytes.length);
+            expected.append(new String(bytes, 0, scanned, StandardCharsets.UTF_8));
+        }
+
+        assertTrue(scanner.isCompletedObject());
+        assertTrue(scanner.foundObjectWithIdentifier());
+        assertEquals(198, scanner.getObjectLength());
+        // the new line after the end of the object is not part of the object
+        assertEquals(expected.toString(), getCompletedObject(scanner));
+        assertTrue(getCompletedObject(scanner).endsWith("\"matching key\"\n}"));
+    }
+
+    @Test
+    public void testStringNotMemberString() {
+
+        JsonObjectScanner scanner = new JsonObjectScanner("year");
+        scanner.startNewJsonObject();
+
+        scan(scanner, "\"notes\": \"the year we lived\"}");
+
+        assertTrue(scanner.isCompletedObject());
+        assertFalse(scanner.foundObjectWithIdentifier());
+    }
+
+    @Test
+    public void testMemberStringAsValue() {
+
+        JsonObjectScanner scanner = new JsonObjectScanner("year");
+        scanner.startNewJsonObject();
+
+        // the bracket after a value that matches the identifier still closes the object
+        scan(scanner, "\"notes\": \"year\"}, {\"year\": 2022}");
+
+        assertTrue(scanner.isCompletedObject());
+        assertFalse(scanner.foundObjectWithIdentifier());
+    }
+
+    @Test
+    public void testEscapedQuotesAndBrackets() {
+
+        JsonObjectScanner scanner = new JsonObjectScanner("name");
+        scanner.startNewJsonObject();
+
+        String jsonContents = "\"notes\": \"a \\\"quoted\\\" } {\", \"name\": \"ä\\\\\"}";
+        scan(scanner, jsonContents);
+
+        assertTrue(scanner.isCompletedObject());
+        assertTrue(scanner.foundObjectWithIdentifier());
+        assertEquals("{" + jsonContents, getCompletedObject(scanner));
+    }
+
+    private static void scan(JsonObjectScanner scanner, String jsonContents) {
+        byte[] bytes = jsonContents.getBytes(StandardCharsets.UTF_8);
+        scanner.scan(bytes, 0, bytes.length);
+    }
+
+    private static String getCompletedObject(JsonObjectScanner scanner) {
+        return new String(scanner.getBuffer(), scanner.getObjectStart(), scanner.getObjectLength(), StandardCharsets.UTF_8);
+    }
+}
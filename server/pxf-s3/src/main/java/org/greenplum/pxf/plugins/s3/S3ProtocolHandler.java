@@ -55,8 +55,12 @@ public class S3ProtocolHandler implements ProtocolHandler {
     @Override
     public String getFragmenterClassName(RequestContext context) {
         String fragmenter = context.getFragmenter(); // default to fragmenter defined by the profile
-        if (useS3Select(context) || useFileReadForJson(context)) {
+        boolean useS3Select = useS3Select(context);
+        // multi-line JSON objects cannot be split into scan ranges
+        if (useFileReadForJson(context)) {
             fragmenter = HCFS_FILE_FRAGMENTER;
+        } else if (useS3Select) {
+            fragmenter = S3SelectFragmenter.class.getName();
         }
 
         LOG.debug("Determined to use {} fragmenter", fragmenter);
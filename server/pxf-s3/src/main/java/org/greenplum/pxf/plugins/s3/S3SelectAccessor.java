@@ -9,6 +9,7 @@ import com.amazonaws.services.s3.model.InputSerialization;
 import com.amazonaws.services.s3.model.JSONInput;
 import com.amazonaws.services.s3.model.OutputSerialization;
 import com.amazonaws.services.s3.model.ParquetInput;
+import com.amazonaws.services.s3.model.ScanRange;
 import com.amazonaws.services.s3.model.SelectObjectContentEvent;
 import com.amazonaws.services.s3.model.SelectObjectContentEventVisitor;
 import com.amazonaws.services.s3.model.SelectObjectContentRequest;
@@ -20,6 +21,8 @@ import org.greenplum.pxf.api.model.Accessor;
 import org.greenplum.pxf.api.model.BasePlugin;
 import org.greenplum.pxf.api.model.GreenplumCSV;
 import org.greenplum.pxf.api.model.RequestContext;
+import org.greenplum.pxf.api.utilities.FragmentMetadata;
+import org.greenplum.pxf.plugins.hdfs.HcfsFragmentMetadata;
 
 import java.io.BufferedReader;
 import java.io.IOException;
@@ -46,6 +49,7 @@ public class S3SelectAccessor extends BasePlugin implements Accessor {
     public static final String FILE_HEADER_INFO_IGNORE = "IGNORE";
     public static final String FILE_HEADER_INFO_USE = "USE";
     public static final String JSON_TYPE = "JSON-TYPE";
+    public static final String JSON_TYPE_LINES = "LINES";
     private static final String UNSUPPORTED_ERR_MESSAGE = "S3 Select accessor does not support write operation.";
 
     private AtomicBoolean isResultComplete;
@@ -185,9 +189,45 @@ public class S3SelectAccessor extends BasePlugin implements Accessor {
         OutputSerialization outputSerialization = getOutputSerialization(context);
         request.setOutputSerialization(outputSerialization);
 
+        FragmentMetadata metadata = context.getFragmentMetadata();
+        if (metadata instanceof HcfsFragmentMetadata && ((HcfsFragmentMetadata) metadata).getLength() > 0 && supportsScanRange(context)) {
+            HcfsFragmentMetadata range = (HcfsFragmentMetadata) metadata;
+            LOG.debug("With scan range starting at {} for {} bytes", range.getStart(), range.getLength());
+            // the end of a scan range is inclusive, ranges of adjacent fragments must not share a byte
+            request.setScanRange(new ScanRange()
+                    .withStart(range.getStart())
+                    .withEnd(range.getStart() + range.getLength() - 1));
+        }
+
         return request;
     }
 
+    /**
+     * Returns true when S3 Select can scan a byte range of the objects,
+     * which is supported for uncompressed CSV objects and uncompressed JSON
+     * LINES objects. CSV objects with a header row are read as a whole, as
+     * only the first range would start with the header.
+     *
+     * @param context the request context
+     * @return true if the objects can be scanned by byte range
+     */
+    static boolean supportsScanRange(RequestContext context) {
+        String compressionType = context.getOption(COMPRESSION_TYPE);
+        if (StringUtils.isNotBlank(compressionType) && !StringUtils.equalsIgnoreCase(compressionType, "none")) {
+            return false;
+        }
+
+        String format = context.inferFormatName();
+        if (StringUtils.equalsIgnoreCase(format, "parquet")) {
+            return false;
+        } else if (StringUtils.equalsIgnoreCase(format, "json")) {
+            return StringUtils.equalsIgnoreCase(JSON_TYPE_LINES, context.getOption(JSON_TYPE));
+        }
+
+        String fileHeaderInfo = context.getOption(FILE_HEADER_INFO);
+        return StringUtils.isBlank(fileHeaderInfo) || StringUtils.equalsIgnoreCase(FILE_HEADER_INFO_NONE, fileHeaderInfo);
+    }
+
     /**
      * Returns a {@link com.amazonaws.services.s3.model.OutputSerialization}
      * object with parsed values from the request context.
@@ -0,0 +1,64 @@
+package org.greenplum.pxf.plugins.s3;
+
+import org.greenplum.pxf.api.model.Fragment;
+import org.greenplum.pxf.plugins.hdfs.HcfsFragmentMetadata;
+import org.greenplum.pxf.plugins.hdfs.HdfsFileFragmenter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Fragmenter for the objects read with S3 Select.
+ * <p>
+ * S3 Select filters a whole object in a single request, so an object read
+ * as a single fragment is filtered by a single segment. Objects that S3
+ * Select can scan by byte range, which are uncompressed CSV objects without
+ * a header row and uncompressed JSON LINES objects, are split into ranges of
+ * {@code SCAN_RANGE_SIZE} bytes, and every range is filtered by its own
+ * request. S3 Select returns the records that start within the range, so
+ * the records are not split or duplicated across ranges. Other objects are
+ * a single fragment, as with {@link HdfsFileFragmenter}.
+ */
+public class S3SelectFragmenter extends HdfsFileFragmenter {
+
+    /**
+     * The size of the byte ranges in bytes, 0 to read every object as a
+     * single fragment
+     */
+    public static final String SCAN_RANGE_SIZE_OPTION = "SCAN_RANGE_SIZE";
+
+    static final long DEFAULT_SCAN_RANGE_SIZE = 128L * 1024 * 1024;
+
+    /**
+     * Gets the fragments for a data source URI that can appear as a file name,
+     * a directory name or a wildcard, splitting the objects that can be
+     * scanned by byte range.
+     */
+    @Override
+    public List<Fragment> getFragments() throws Exception {
+        List<Fragment> files = getFileFragments();
+        long scanRangeSize = context.getOption(SCAN_RANGE_SIZE_OPTION, DEFAULT_SCAN_RANGE_SIZE, true);
+        if (scanRangeSize == 0 || !S3SelectAccessor.supportsScanRange(context)) {
+            fragments = combineFragments(files);
+            return fragments;
+        }
+
+        List<Fragment> ranges = new ArrayList<>();
+        for (Fragment file : files) {
+            long length = ((HcfsFragmentMetadata) file.getMetadata()).getLength();
+            if (length == 0) {
+                // an empty object has no range to scan, it is read whole
+                ranges.add(file);
+                continue;
+            }
+            for (long start = 0; start < length; start += scanRangeSize) {
+                long rangeLength = Math.min(scanRangeSize, length - start);
+                ranges.add(new Fragment(file.getSourceName(), new HcfsFragmentMetadata(start, rangeLength)));
+            }
+        }
+        LOG.debug("Split {} objects into {} scan ranges of up to {} bytes", files.size(), ranges.size(), scanRangeSize);
+
+        fragments = combineFragments(ranges);
+        return fragments;
+    }
+}
@@ -1,16 +1,20 @@
 package org.greenplum.pxf.plugins.s3;
 
 import com.amazonaws.services.s3.model.InputSerialization;
+import com.amazonaws.services.s3.model.ScanRange;
 import com.amazonaws.services.s3.model.SelectObjectContentRequest;
 import org.apache.hadoop.conf.Configuration;
 import org.greenplum.pxf.api.OneRow;
 import org.greenplum.pxf.api.model.RequestContext;
+import org.greenplum.pxf.plugins.hdfs.HcfsFragmentMetadata;
 import org.junit.jupiter.api.Test;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class S3SelectAccessorTest {
 
@@ -202,6 +206,106 @@ public class S3SelectAccessorTest {
         assertEquals("", request.getKey());
     }
 
+    @Test
+    public void testSetsScanRangeOfFragment() {
+        RequestContext context = getScanRangeRequestContext("s3:csv");
+
+        SelectObjectContentRequest request = getRequest(context);
+        assertNotNull(request.getScanRange());
+        assertEquals(1024L, request.getScanRange().getStart().longValue());
+        assertEquals(1535L, request.getScanRange().getEnd().longValue());
+    }
+
+    @Test
+    public void testSetsScanRangeForJsonLines() {
+        RequestContext context = getScanRangeRequestContext("s3:json");
+        context.addOption("JSON-TYPE", "lines");
+
+        SelectObjectContentRequest request = getRequest(context);
+        assertNotNull(request.getScanRange());
+        assertEquals(1024L, request.getScanRange().getStart().longValue());
+        assertEquals(1535L, request.getScanRange().getEnd().longValue());
+    }
+
+    @Test
+    public void testRecordAtRangeBoundaryIsInOneRange() {
+        RequestContext context = getScanRangeRequestContext("s3:csv");
+        context.setFragmentMetadata(new HcfsFragmentMetadata(0, 1024));
+        ScanRange first = getRequest(context).getScanRange();
+        context.setFragmentMetadata(new HcfsFragmentMetadata(1024, 512));
+        ScanRange second = getRequest(context).getScanRange();
+
+        // S3 Select returns the records that start within the inclusive range,
+        // so a record starting at byte 1024 is returned by the second range only
+        assertEquals(1023L, first.getEnd().longValue());
+        assertEquals(1024L, second.getStart().longValue());
+        assertFalse(isInRange(first, 1024));
+        assertTrue(isInRange(second, 1024));
+        assertTrue(isInRange(first, 1023));
+        assertFalse(isInRange(second, 1023));
+    }
+
+    @Test
+    public void testDoesNotSetScanRangeForEmptyObject() {
+        RequestContext context = getScanRangeRequestContext("s3:csv");
+        context.setFragmentMetadata(new HcfsFragmentMetadata(0, 0));
+
+        assertNull(getRequest(context).getScanRange());
+    }
+
+    @Test
+    public void testDoesNotSetScanRangeWithoutFragmentMetadata() {
+        RequestContext context = getScanRangeRequestContext("s3:csv");
+        context.setFragmentMetadata(null);
+
+        assertNull(getRequest(context).getScanRange());
+    }
+
+    @Test
+    public void testDoesNotSetScanRangeWhenNotSupported() {
+        RequestContext context = getScanRangeRequestContext("s3:csv");
+        context.addOption("FILE_HEADER", "USE");
+
+        assertNull(getRequest(context).getScanRange());
+    }
+
+    @Test
+    public void testSupportsScanRange() {
+        assertTrue(S3SelectAccessor.supportsScanRange(getRequestContext("s3:csv")));
+        assertTrue(S3SelectAccessor.supportsScanRange(getRequestContext("s3:text")));
+
+        RequestContext context = getRequestContext("s3:csv");
+        context.addOption("FILE_HEADER", "NONE");
+        context.addOption("COMPRESSION_CODEC", "none");
+        assertTrue(S3SelectAccessor.supportsScanRange(context));
+
+        context = getRequestContext("s3:json");
+        context.addOption("JSON-TYPE", "LINES");
+        assertTrue(S3SelectAccessor.supportsScanRange(context));
+    }
+
+    @Test
+    public void testDoesNotSupportScanRange() {
+        assertFalse(S3SelectAccessor.supportsScanRange(getRequestContext("s3:parquet")));
+        assertFalse(S3SelectAccessor.supportsScanRange(getRequestContext("s3:json")));
+
+        RequestContext context = getRequestContext("s3:json");
+        context.addOption("JSON-TYPE", "DOCUMENT");
+        assertFalse(S3SelectAccessor.supportsScanRange(context));
+
+        context = getRequestContext("s3:csv");
+        context.addOption("COMPRESSION_CODEC", "gzip");
+        assertFalse(S3SelectAccessor.supportsScanRange(context));
+
+        context = getRequestContext("s3:csv");
+        context.addOption("FILE_HEADER", "IGNORE");
+        assertFalse(S3SelectAccessor.supportsScanRange(context));
+
+        context = getRequestContext("s3:text");
+        context.addOption("FILE_HEADER", "USE");
+        assertFalse(S3SelectAccessor.supportsScanRange(context));
+    }
+
     @Test
     public void testFailsToParseNullDataSource() {
         RequestContext context = new RequestContext();
@@ -231,6 +335,27 @@ public class S3SelectAccessorTest {
         assertEquals("S3 Select accessor does not support write operation.", e.getMessage());
     }
 
+    private SelectObjectContentRequest getRequest(RequestContext context) {
+        S3SelectAccessor accessor = new S3SelectAccessor();
+        accessor.setRequestContext(context);
+        accessor.afterPropertiesSet();
+        return accessor.generateBaseCSVRequest(context);
+    }
+
+    private boolean isInRange(ScanRange range, long offset) {
+        return offset >= range.getStart() && offset <= range.getEnd();
+    }
+
+    private RequestContext getScanRangeRequestContext(String profile) {
+        RequestContext context = getRequestContext(profile);
+        context.setConfig("default");
+        context.setUser("test-user");
+        context.setDataSource("s3a://my-bucket/my/s3/path/file.csv");
+        context.setConfiguration(new Configuration());
+        context.setFragmentMetadata(new HcfsFragmentMetadata(1024, 512));
+        return context;
+    }
+
     private RequestContext getDefaultRequestContext() {
         return getRequestContext("s3:csv");
     }
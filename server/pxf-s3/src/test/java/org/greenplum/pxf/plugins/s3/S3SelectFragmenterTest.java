@@ -0,0 +1,155 @@
+package org.greenplum.pxf.plugins.s3;
+
+import org.apache.hadoop.conf.Configuration;
+import org.greenplum.pxf.api.model.Fragment;
+import org.greenplum.pxf.api.model.Fragmenter;
+import org.greenplum.pxf.api.model.RequestContext;
+import org.greenplum.pxf.plugins.hdfs.HcfsFragmentMetadata;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class S3SelectFragmenterTest {
+
+    @TempDir
+    File tempDir;
+
+    private RequestContext context;
+
+    @BeforeEach
+    public void setup() {
+        Configuration configuration = new Configuration();
+        configuration.set("pxf.fs.basePath", "/");
+
+        context = new RequestContext();
+        context.setConfig("default");
+        context.setUser("test-user");
+        context.setProfile("s3:csv");
+        context.setConfiguration(configuration);
+    }
+
+    @Test
+    public void testSplitsObjectIntoScanRanges() throws Exception {
+        context.setDataSource(createFile("data.csv", 250));
+        context.addOption("SCAN_RANGE_SIZE", "100");
+
+        List<Fragment> fragments = getFragmenter().getFragments();
+        assertEquals(3, fragments.size());
+        assertRange(fragments.get(0), 0, 100);
+        assertRange(fragments.get(1), 100, 100);
+        assertRange(fragments.get(2), 200, 50);
+    }
+
+    @Test
+    public void testSplitsJsonLinesIntoScanRanges() throws Exception {
+        context.setProfile("s3:json");
+        context.setDataSource(createFile("data.json", 200));
+        context.addOption("JSON-TYPE", "LINES");
+        context.addOption("SCAN_RANGE_SIZE", "100");
+
+        List<Fragment> fragments = getFragmenter().getFragments();
+        assertEquals(2, fragments.size());
+        assertRange(fragments.get(0), 0, 100);
+        assertRange(fragments.get(1), 100, 100);
+    }
+
+    @Test
+    public void testSmallObjectIsSingleRange() throws Exception {
+        context.setDataSource(createFile("data.csv", 250));
+
+        List<Fragment> fragments = getFragmenter().getFragments();
+        assertEquals(1, fragments.size());
+        assertRange(fragments.get(0), 0, 250);
+    }
+
+    @Test
+    public void testEmptyObjectIsSingleFragment() throws Exception {
+        context.setDataSource(createFile("data.csv", 0));
+        context.addOption("SCAN_RANGE_SIZE", "100");
+
+        List<Fragment> fragments = getFragmenter().getFragments();
+        assertEquals(1, fragments.size());
+        assertRange(fragments.get(0), 0, 0);
+    }
+
+    @Test
+    public void testScanRangesDisabled() throws Exception {
+        context.setDataSource(createFile("data.csv", 250));
+        context.addOption("SCAN_RANGE_SIZE", "0");
+
+        List<Fragment> fragments = getFragmenter().getFragments();
+        assertEquals(1, fragments.size());
+        assertRange(fragments.get(0), 0, 250);
+    }
+
+    @Test
+    public void testDoesNotSplitCompressedObjects() throws Exception {
+        context.setDataSource(createFile("data.csv.gz", 250));
+        context.addOption("COMPRESSION_CODEC", "gzip");
+        context.addOption("SCAN_RANGE_SIZE", "100");
+
+        List<Fragment> fragments = getFragmenter().getFragments();
+        assertEquals(1, fragments.size());
+        assertRange(fragments.get(0), 0, 250);
+    }
+
+    @Test
+    public void testDoesNotSplitObjectsWithHeader() throws Exception {
+        context.setDataSource(createFile("data.csv", 250));
+        context.addOption("FILE_HEADER", "IGNORE");
+        context.addOption("SCAN_RANGE_SIZE", "100");
+
+        List<Fragment> fragments = getFragmenter().getFragments();
+        assertEquals(1, fragments.size());
+        assertRange(fragments.get(0), 0, 250);
+    }
+
+    @Test
+    public void testDoesNotSplitJsonDocuments() throws Exception {
+        context.setProfile("s3:json");
+        context.setDataSource(createFile("data.json", 250));
+        context.addOption("JSON-TYPE", "DOCUMENT");
+        context.addOption("SCAN_RANGE_SIZE", "100");
+
+        List<Fragment> fragments = getFragmenter().getFragments();
+        assertEquals(1, fragments.size());
+        assertRange(fragments.get(0), 0, 250);
+    }
+
+    @Test
+    public void testFailsOnNegativeScanRangeSize() throws Exception {
+        context.setDataSource(createFile("data.csv", 250));
+        context.addOption("SCAN_RANGE_SIZE", "-1");
+
+        Fragmenter fragmenter = getFragmenter();
+        Exception e = assertThrows(IllegalArgumentException.class, fragmenter::getFragments);
+        assertEquals("Property SCAN_RANGE_SIZE has incorrect value -1 : must be a non-negative long", e.getMessage());
+    }
+
+    private String createFile(String name, int length) throws Exception {
+        Path path = tempDir.toPath().resolve(name);
+        Files.write(path, new byte[length]);
+        return path.toString();
+    }
+
+    private void assertRange(Fragment fragment, long start, long length) {
+        HcfsFragmentMetadata metadata = (HcfsFragmentMetadata) fragment.getMetadata();
+        assertEquals(start, metadata.getStart());
+        assertEquals(length, metadata.getLength());
+    }
+
+    private Fragmenter getFragmenter() {
+        S3SelectFragmenter fragmenter = new S3SelectFragmenter();
+        fragmenter.setRequestContext(context);
+        fragmenter.afterPropertiesSet();
+        return fragmenter;
+    }
+}
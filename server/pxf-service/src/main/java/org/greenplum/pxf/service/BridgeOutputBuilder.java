@@ -19,16 +19,16 @@ package org.greenplum.pxf.service;
  * under the License.
  */
 
-import org.apache.commons.codec.binary.Hex;
 import org.apache.commons.lang.ArrayUtils;
-import org.apache.commons.lang.ObjectUtils;
 import org.apache.commons.lang.StringUtils;
-import org.greenplum.pxf.api.GreenplumDateTime;
 import org.greenplum.pxf.api.OneField;
 import org.greenplum.pxf.api.error.BadRecordException;
 import org.greenplum.pxf.api.io.BufferWritable;
+import org.greenplum.pxf.api.io.CsvRecordEncoder;
 import org.greenplum.pxf.api.io.DataType;
 import org.greenplum.pxf.api.io.GPDBWritable;
+import org.greenplum.pxf.api.io.GPDBWritableRecordEncoder;
+import org.greenplum.pxf.api.io.RecordEncoder;
 import org.greenplum.pxf.api.io.Text;
 import org.greenplum.pxf.api.io.Writable;
 import org.greenplum.pxf.api.model.GreenplumCSV;
@@ -38,14 +38,11 @@ import org.greenplum.pxf.api.utilities.ColumnDescriptor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.lang.reflect.Array;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
-import java.sql.Timestamp;
 import java.util.Arrays;
 import java.util.LinkedList;
 import java.util.List;
-import java.util.stream.Collectors;
 
 import static org.greenplum.pxf.api.io.DataType.TEXT;
 
@@ -62,6 +59,8 @@ public class BridgeOutputBuilder {
     private static final Logger LOG = LoggerFactory.getLogger(BridgeOutputBuilder.class);
 
     private static final byte DELIM = 10; /* (byte)'\n'; */
+    // records that do not match the schema are encoded one at a time
+    private static final int SINGLE_RECORD_CAPACITY = 1024;
     public static final String PXF_ERROR_TOKEN = "PXFERRMSG> ";
     private final Charset databaseEncoding;
     private final String newLine;
@@ -70,8 +69,8 @@ public class BridgeOutputBuilder {
     private final LinkedList<Writable> outputList;
     private Writable partialLine = null;
     private GPDBWritable errorRecord = null;
-    private int[] schema;
-    private String[] colNames;
+    private GPDBWritableRecordEncoder recordEncoder = null;
+    private CsvRecordEncoder csvRecordEncoder = null;
     private final boolean samplingEnabled;
     private final GreenplumCSV greenplumCSV;
     private final OutputFormat outputFormat;
@@ -150,10 +149,6 @@ public class BridgeOutputBuilder {
      */
     public LinkedList<Writable> makeOutput(List<OneField> recFields)
             throws BadRecordException {
-        if (output == null && outputFormat == OutputFormat.GPDBWritable) {
-            makeGPDBWritableOutput();
-        }
-
         outputList.clear();
 
         fillOutputRecord(recFields);
@@ -161,19 +156,64 @@ public class BridgeOutputBuilder {
         return outputList;
     }
 
+    /**
+     * Translates a batch of records (obtained from the Resolver) into output
+     * records. In the GPDBWritable format the whole batch is encoded into a
+     * single Writable.
+     *
+     * @param recordsBatch the fields of every record of the batch
+     * @return list of Writable objects with the serialized rows
+     * @throws BadRecordException if building the output records failed
+     */
     public LinkedList<Writable> makeVectorizedOutput(List<List<OneField>> recordsBatch) throws BadRecordException {
         outputList.clear();
-        if (recordsBatch != null) {
+        if (outputFormat == OutputFormat.GPDBWritable) {
+            GPDBWritableRecordEncoder encoder = getGPDBWritableRecordEncoder();
+            encoder.reset();
+            if (recordsBatch != null) {
+                for (List<OneField> record : recordsBatch) {
+                    encodeGPDBWritableRecord(record);
+                }
+            }
+            if (encoder.getRecordCount() > 0) {
+                outputList.add(encoder);
+            }
+        } else if (recordsBatch != null) {
+            CsvRecordEncoder encoder = getCsvRecordEncoder();
+            encoder.reset();
             for (List<OneField> record : recordsBatch) {
-                if (outputFormat == OutputFormat.GPDBWritable) {
-                    makeGPDBWritableOutput();
+                if (isCsvRecord(record)) {
+                    encodeCsvRecord(encoder, record);
+                    continue;
+                }
+                if (encoder.getRecordCount() > 0) {
+                    // keep the records in order, the following ones go to a new encoder
+                    outputList.add(encoder);
+                    encoder = new CsvRecordEncoder(columnDescriptors.size(), greenplumCSV, gpdbTableformat);
                 }
-                fillOutputRecord(record);
+                fillText(record);
+            }
+            if (encoder.getRecordCount() > 0) {
+                outputList.add(encoder);
             }
         }
         return outputList;
     }
 
+    /**
+     * Creates an encoder that serializes records straight into the requested
+     * output format. It is used by resolvers that serialize whole batches
+     * without resolving them into {@link OneField}s.
+     *
+     * @return a new encoder for the output format of the request
+     */
+    public RecordEncoder makeRecordEncoder() {
+        if (outputFormat == OutputFormat.GPDBWritable) {
+            return new GPDBWritableRecordEncoder(columnDescriptors, databaseEncoding);
+        }
+        return new CsvRecordEncoder(columnDescriptors.size(), greenplumCSV, gpdbTableformat);
+    }
+
     /**
      * Returns whether or not this is a partial line.
      *
@@ -184,24 +224,30 @@ public class BridgeOutputBuilder {
     }
 
     /**
-     * Creates the GPDBWritable object. The object is created one time and is
-     * refilled from recFields for each record sent
+     * Returns the encoder of GPDBWritable records. The encoder is created one
+     * time and its buffer is reused for each record sent, the record is
+     * written to the output stream before the next one is encoded.
      *
-     * @return empty GPDBWritable object with set columns
+     * @return the encoder of GPDBWritable records
      */
-    GPDBWritable makeGPDBWritableOutput() {
-        int num_actual_fields = columnDescriptors.size();
-        schema = new int[num_actual_fields];
-        colNames = new String[num_actual_fields];
-
-        for (int i = 0; i < num_actual_fields; i++) {
-            schema[i] = columnDescriptors.get(i).columnTypeCode();
-            colNames[i] = columnDescriptors.get(i).columnName();
+    GPDBWritableRecordEncoder getGPDBWritableRecordEncoder() {
+        if (recordEncoder == null) {
+            recordEncoder = new GPDBWritableRecordEncoder(columnDescriptors, databaseEncoding);
         }
+        return recordEncoder;
+    }
 
-        output = new GPDBWritable(schema, databaseEncoding);
-
-        return (GPDBWritable) output;
+    /**
+     * Returns the encoder of TEXT and CSV records, which is reused the same
+     * way as the encoder of GPDBWritable records.
+     *
+     * @return the encoder of TEXT and CSV records
+     */
+    CsvRecordEncoder getCsvRecordEncoder() {
+        if (csvRecordEncoder == null) {
+            csvRecordEncoder = new CsvRecordEncoder(columnDescriptors.size(), greenplumCSV, gpdbTableformat);
+        }
+        return csvRecordEncoder;
     }
 
     /**
@@ -212,77 +258,77 @@ public class BridgeOutputBuilder {
      */
     void fillOutputRecord(List<OneField> recFields) throws BadRecordException {
         if (outputFormat == OutputFormat.GPDBWritable) {
-            fillGPDBWritable(recFields);
+            getGPDBWritableRecordEncoder().reset();
+            encodeGPDBWritableRecord(recFields);
+            outputList.add(recordEncoder);
+        } else if (isCsvRecord(recFields)) {
+            CsvRecordEncoder encoder = getCsvRecordEncoder();
+            encoder.reset();
+            encodeCsvRecord(encoder, recFields);
+            outputList.add(encoder);
         } else {
             fillText(recFields);
         }
     }
 
     /**
-     * Fills a GPDBWritable object based on recFields. The input record
-     * recFields must correspond to schema. If the record has more or less
-     * fields than the schema we throw an exception. We require that the type of
-     * field[i] in recFields corresponds to the type of field[i] in the schema.
+     * Tests whether the record is serialized as a delimited line by the
+     * shared encoder. Records with a single BYTEA or Hadoop Text field are
+     * passed through as they are, and records that do not match the schema
+     * are serialized on their own.
      *
      * @param recFields record fields
-     * @throws BadRecordException if building the output record failed
+     * @return true if the record is encoded as a delimited line
      */
-    void fillGPDBWritable(List<OneField> recFields) throws BadRecordException {
+    private boolean isCsvRecord(List<OneField> recFields) {
         int size = recFields.size();
-        if (size == 0) { // size 0 means the resolver couldn't deserialize any
-            // of the record fields
-            throw new BadRecordException("No fields in record");
-        } else if (size != schema.length) {
-            throw new BadRecordException("Record has " + size
-                    + " fields but the schema size is " + schema.length);
+        if (size == 0 || size != columnDescriptors.size()) {
+            return false;
         }
-
-        for (int i = 0; i < size; i++) {
-            OneField current = recFields.get(i);
-            if (!isTypeInSchema(current.type, schema[i])) {
-                throw new BadRecordException(
-                        String.format("For field %s schema requires type %s but input record has type %s",
-                                colNames[i],
-                                DataType.get(schema[i]),
-                                DataType.get(current.type)));
-            }
-
-            fillOneGPDBWritableField(current, i);
-        }
-
-        outputList.add(output);
+        OneField field = recFields.get(0);
+        return size > 1 || (field.type != DataType.BYTEA.getOID()
+                && !(field.val instanceof org.apache.hadoop.io.Text));
     }
 
     /**
-     * Tests if data type is a string type. String type is a type that can be
-     * serialized as string, such as varchar, bpchar, text, numeric, timestamp,
-     * date.
+     * Encodes recFields as a delimited line
      *
-     * @param type data type
-     * @return whether data type is string type
+     * @param encoder   the encoder to append the line to
+     * @param recFields record fields
+     * @throws BadRecordException if building the output record failed
      */
-    boolean isStringType(DataType type) {
-        if (type.isArrayType()) {
-           return DataType.isTextForm(type.getTypeElem().getOID());
-        } else {
-            return DataType.isTextForm(type.getOID());
+    private void encodeCsvRecord(CsvRecordEncoder encoder, List<OneField> recFields) throws BadRecordException {
+        encoder.beginRecord();
+        for (OneField field : recFields) {
+            encoder.writeField(field);
         }
+        encoder.endRecord();
     }
 
     /**
-     * Tests if record field type and schema type correspond.
+     * Encodes recFields as a GPDBWritable record. The input record recFields
+     * must correspond to schema. If the record has more or less fields than
+     * the schema we throw an exception. We require that the type of field[i]
+     * in recFields corresponds to the type of field[i] in the schema.
      *
-     * @param recType    record type code
-     * @param schemaType schema type code
-     * @return whether record type and schema type match
+     * @param recFields record fields
+     * @throws BadRecordException if building the output record failed
      */
-    boolean isTypeInSchema(int recType, int schemaType) {
-        DataType dtRec = DataType.get(recType);
-        // schema from GPDB table
-        DataType dtSchema = DataType.get(schemaType);
+    void encodeGPDBWritableRecord(List<OneField> recFields) throws BadRecordException {
+        int size = recFields.size();
+        if (size == 0) { // size 0 means the resolver couldn't deserialize any
+            // of the record fields
+            throw new BadRecordException("No fields in record");
+        } else if (size != columnDescriptors.size()) {
+            throw new BadRecordException("Record has " + size
+                    + " fields but the schema size is " + columnDescriptors.size());
+        }
 
-        return (dtSchema == DataType.UNSUPPORTED_TYPE || dtRec == dtSchema
-                || (isStringType(dtRec) && isStringType(dtSchema)));
+        recordEncoder.beginRecord();
+        for (OneField field : recFields) {
+            recordEncoder.writeField(field);
+        }
+        recordEncoder.endRecord();
     }
 
     /**
@@ -322,7 +368,10 @@ public class BridgeOutputBuilder {
             } else if (recFields.size() == 1 && val instanceof String) {
                 output = new Text(val + newLine);
             } else {
-                output = new Text(fieldListToCSVString(recFields));
+                CsvRecordEncoder encoder = new CsvRecordEncoder(recFields.size(), greenplumCSV, gpdbTableformat,
+                        SINGLE_RECORD_CAPACITY);
+                encodeCsvRecord(encoder, recFields);
+                output = encoder;
             }
         }
 
@@ -379,124 +428,4 @@ public class BridgeOutputBuilder {
             start = end;
         }
     }
-
-    /**
-     * Fills one GPDBWritable field.
-     *
-     * @param oneField field
-     * @param colIdx   column index
-     * @throws BadRecordException if field type is not supported or doesn't
-     *                            match the schema
-     */
-    void fillOneGPDBWritableField(OneField oneField, int colIdx)
-            throws BadRecordException {
-        int type = oneField.type;
-        Object val = oneField.val;
-        GPDBWritable gpdbOutput = (GPDBWritable) output;
-        try {
-            switch (DataType.get(type)) {
-                case INTEGER:
-                    gpdbOutput.setInt(colIdx, (Integer) val);
-                    break;
-                case FLOAT8:
-                    gpdbOutput.setDouble(colIdx, (Double) val);
-                    break;
-                case REAL:
-                    gpdbOutput.setFloat(colIdx, (Float) val);
-                    break;
-                case BIGINT:
-                    gpdbOutput.setLong(colIdx, (Long) val);
-                    break;
-                case SMALLINT:
-                    gpdbOutput.setShort(colIdx, (Short) val);
-                    break;
-                case BOOLEAN:
-                    gpdbOutput.setBoolean(colIdx, (Boolean) val);
-                    break;
-                case BYTEA:
-                    byte[] bts = null;
-                    if (val != null) {
-                        int length = Array.getLength(val);
-                        bts = new byte[length];
-                        for (int j = 0; j < length; j++) {
-                            bts[j] = Array.getByte(val, j);
-                        }
-                    }
-                    gpdbOutput.setBytes(colIdx, bts);
-                    break;
-                case VARCHAR:
-                case BPCHAR:
-                case TEXT:
-                case UUID:
-                case NUMERIC:
-                case TIMESTAMP:
-                case TIMESTAMP_WITH_TIME_ZONE:
-                case TIME:
-                case DATE:
-                case BOOLARRAY:
-                case BYTEAARRAY:
-                case INT2ARRAY:
-                case INT4ARRAY:
-                case INT8ARRAY:
-                case FLOAT4ARRAY:
-                case FLOAT8ARRAY:
-                case TEXTARRAY:
-                case BPCHARARRAY:
-                case VARCHARARRAY:
-                case DATEARRAY:
-                case UUIDARRAY:
-                case NUMERICARRAY:
-                case TIMEARRAY:
-                case TIMESTAMPARRAY:
-                case TIMESTAMP_WITH_TIMEZONE_ARRAY:
-                    /*
-                     * If resolvers support sending arrays to GPDB, they are expected to serialize arrays into Postgres
-                     * array external text representation.
-                     * see https://www.postgresql.org/docs/9.4/arrays.html for details of this format.
-                     */
-                    gpdbOutput.setString(colIdx,
-                            ObjectUtils.toString(val, null));
-                    break;
-                default:
-                    LOG.debug("Data type OID is {}", type);
-                    String valClassName = (val != null) ? val.getClass().getSimpleName()
-                            : null;
-                    throw new UnsupportedOperationException(valClassName
-                            + " is not supported for GPDB conversion");
-            }
-        } catch (GPDBWritable.TypeMismatchException e) {
-            throw new BadRecordException(e);
-        }
-    }
-
-    /**
-     * Serialize a list of OneFields to a CSV line
-     *
-     * @param fields list of fields
-     * @return a serialized CSV line
-     */
-    private String fieldListToCSVString(List<OneField> fields) {
-        return fields.stream()
-                .map(field -> {
-                    // Check first if the field.val is null then using .toString() is safe in else branches.
-                    if (field.val == null) {
-                        return greenplumCSV.getValueOfNull();
-                    } else if (field.type == DataType.BYTEA.getOID()) {
-                        // check for Format Type here. if the Format Type is CSV, we should escape using single \
-                        // for Text or Custom Format types, it should \\
-                        String hexPrepend = gpdbTableformat.equalsIgnoreCase("csv") ? "\\x" : "\\\\x";
-                        return hexPrepend + Hex.encodeHexString((byte[]) field.val);
-                    } else if (field.type == DataType.NUMERIC.getOID() || !DataType.isTextForm(field.type)) {
-                        return field.val.toString();
-                    } else if (field.type == DataType.TIMESTAMP.getOID()) {
-                        return field.val instanceof String ?
-                                (String) field.val :
-                                ((Timestamp) field.val).toLocalDateTime().format(GreenplumDateTime.DATETIME_FORMATTER);
-                    } else if (field.type == DataType.DATE.getOID()) {
-                        return field.val.toString();
-                    } else
-                        return greenplumCSV.toCsvField(field.val.toString(), true, true, true);
-                })
-                .collect(Collectors.joining(String.valueOf(greenplumCSV.getDelimiter()), "", newLine));
-    }
 }
@@ -19,24 +19,37 @@ package org.greenplum.pxf.service;
  * under the License.
  */
 
+import com.google.common.cache.Cache;
 import com.google.common.util.concurrent.UncheckedExecutionException;
 import org.greenplum.pxf.api.model.Fragment;
 import org.greenplum.pxf.api.model.Fragmenter;
 import org.greenplum.pxf.api.model.RequestContext;
+import org.greenplum.pxf.api.utilities.CombinedFragmentMetadata;
+import org.greenplum.pxf.api.utilities.FragmentMetadata;
 import org.greenplum.pxf.api.utilities.FragmenterCacheFactory;
+import org.greenplum.pxf.api.utilities.FragmenterCacheFactory.CachedFragments;
 import org.greenplum.pxf.service.utilities.AnalyzeUtils;
 import org.greenplum.pxf.service.utilities.BasePluginFactory;
 import org.greenplum.pxf.service.utilities.GSSFailureHandler;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import java.io.IOException;
 import java.time.Duration;
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.TreeMap;
 import java.util.concurrent.ExecutionException;
+import java.util.stream.Collectors;
 
 /**
  * The {@link FragmenterService} returns fragments for a given segment. It
@@ -49,16 +62,28 @@ public class FragmenterService {
 
     private static final Logger LOG = LoggerFactory.getLogger(FragmenterService.class);
 
+    /**
+     * The option to assign the fragments to segments by their size, rather
+     * than round-robin
+     */
+    static final String BALANCE_BY_SIZE_OPTION = "BALANCE_BY_SIZE";
+
     private final BasePluginFactory pluginFactory;
     private final FragmenterCacheFactory fragmenterCacheFactory;
     private final GSSFailureHandler failureHandler;
+    private final boolean blockSamplingEnabled;
+    private final boolean balanceBySizeEnabled;
 
     public FragmenterService(FragmenterCacheFactory fragmenterCacheFactory,
                              BasePluginFactory pluginFactory,
-                             GSSFailureHandler failureHandler) {
+                             GSSFailureHandler failureHandler,
+                             @Value("${pxf.stats.block-sampling.enabled:false}") boolean blockSamplingEnabled,
+                             @Value("${pxf.fragmenter.balance-by-size.enabled:false}") boolean balanceBySizeEnabled) {
         this.fragmenterCacheFactory = fragmenterCacheFactory;
         this.pluginFactory = pluginFactory;
         this.failureHandler = failureHandler;
+        this.blockSamplingEnabled = blockSamplingEnabled;
+        this.balanceBySizeEnabled = balanceBySizeEnabled;
     }
 
     public List<Fragment> getFragmentsForSegment(RequestContext context) throws IOException {
@@ -77,11 +102,20 @@ public class FragmenterService {
 
         List<Fragment> fragments = getFragmentsFromCache(context, startTime);
 
-        List<Fragment> filteredFragments = filterFragments(fragments,
-                context.getSegmentId(),
-                context.getTotalSegments(),
-                context.getGpSessionId(),
-                context.getGpCommandCount());
+        List<Fragment> filteredFragments;
+        if (context.getOption(BALANCE_BY_SIZE_OPTION, balanceBySizeEnabled)) {
+            filteredFragments = filterFragmentsBySize(fragments,
+                    context.getSegmentId(),
+                    context.getTotalSegments(),
+                    context.getGpSessionId(),
+                    context.getGpCommandCount());
+        } else {
+            filteredFragments = filterFragments(fragments,
+                    context.getSegmentId(),
+                    context.getTotalSegments(),
+                    context.getGpSessionId(),
+                    context.getGpCommandCount());
+        }
 
         if (LOG.isDebugEnabled()) {
             int numberOfFragments = filteredFragments.size();
@@ -116,7 +150,7 @@ public class FragmenterService {
                                 context.getSegmentId(), fragmenterCacheKey);
 
                         List<Fragment> fragmentList = failureHandler.execute(context.getConfiguration(),
-                                "get fragments", () -> getFragmenter(context).getFragments());
+                                "get fragments", () -> getFragments(context));
 
                         /* Create a fragmenter instance with API level parameters */
                         fragmentList = AnalyzeUtils.getSampleFragments(fragmentList, context);
@@ -148,6 +182,52 @@ public class FragmenterService {
         }
     }
 
+    /**
+     * Returns the fragments of the data source. When fragments are cached
+     * across queries, the fragments of a previous query are returned if the
+     * version of the data source reported by the fragmenter has not changed.
+     * Fragments whose version is unknown are never cached across queries.
+     * Fragments are not cached across queries for ANALYZE, as the sampled
+     * fragments are not the complete list. When ANALYZE samples blocks of
+     * the data, only the fragments of the sampled blocks are returned.
+     *
+     * @param context the request context
+     * @return the list of fragments for the request
+     * @throws Exception when an exception occurs
+     */
+    private List<Fragment> getFragments(RequestContext context) throws Exception {
+        Fragmenter fragmenter = getFragmenter(context);
+        if (AnalyzeUtils.isBlockSampling(context, blockSamplingEnabled)) {
+            // the PXF servers of all segments must sample the same blocks for the query
+            Random random = new Random(getFragmenterCacheKey(context).hashCode());
+            return fragmenter.getSampleFragments(context.getStatsSampleRatio(), random);
+        }
+        if (!fragmenterCacheFactory.isListingCacheEnabled() || context.getStatsMaxFragments() > 0) {
+            return fragmenter.getFragments();
+        }
+
+        Cache<String, CachedFragments> listingCache = fragmenterCacheFactory.getListingCache();
+        String listingCacheKey = getListingCacheKey(context);
+        String version = fragmenter.getFragmentsVersion();
+        if (version == null) {
+            // without a version, the cached fragments might not match the fragments listed by other PXF servers
+            LOG.debug("Version of the fragments is unknown, not caching the fragments across queries for key={}", listingCacheKey);
+            listingCache.invalidate(listingCacheKey);
+            return fragmenter.getFragments();
+        }
+
+        CachedFragments cachedFragments = listingCache.getIfPresent(listingCacheKey);
+        if (cachedFragments != null && version.equals(cachedFragments.getVersion())) {
+            LOG.debug("Using {} fragments cached across queries with version {} for key={}",
+                    cachedFragments.getFragments().size(), version, listingCacheKey);
+            return cachedFragments.getFragments();
+        }
+
+        List<Fragment> fragments = fragmenter.getFragments();
+        listingCache.put(listingCacheKey, new CachedFragments(version, fragments));
+        return fragments;
+    }
+
     /**
      * Filters the {@code fragments} for the given segment. To determine which
      * segment S should process an element at a given index i, use a randomized
@@ -189,6 +269,72 @@ public class FragmenterService {
         return filteredFragments;
     }
 
+    /**
+     * Filters the {@code fragments} for the given segment, balancing the
+     * estimated bytes of the fragments across the segments. The fragments are
+     * assigned from the largest to the smallest, each to the segment with the
+     * fewest bytes assigned so far (longest processing time first), which
+     * keeps the bytes of the most loaded segment within 4/3 of the optimum
+     * when the fragments have very different sizes. Ties between segments are
+     * broken in the same shifted order as {@link #filterFragments}, and ties
+     * between fragments by their position in the list, so every segment
+     * computes the same assignment on its own. When the size of a fragment is
+     * unknown, the fragments are assigned round-robin.
+     *
+     * @param fragments      the list of fragments
+     * @param segmentId      the identifier for the segment processing the request
+     * @param totalSegments  the total number of segments
+     * @param gpSessionId    the Greenplum session ID
+     * @param gpCommandCount the command number for this Greenplum Session ID
+     * @return the filtered list of fragments for the given segment, in the order of the list
+     */
+    private List<Fragment> filterFragmentsBySize(List<Fragment> fragments, int segmentId, int totalSegments, int gpSessionId, int gpCommandCount) {
+        long[] sizes = new long[fragments.size()];
+        int i = 0;
+        for (Fragment fragment : fragments) {
+            FragmentMetadata metadata = fragment.getMetadata();
+            long size = metadata != null ? metadata.getEstimatedSize() : -1;
+            if (size < 0) {
+                LOG.debug("The size of fragment {} of {} is unknown, assigning fragments round-robin", i, fragment.getSourceName());
+                return filterFragments(fragments, segmentId, totalSegments, gpSessionId, gpCommandCount);
+            }
+            // every fragment weighs at least one byte, so that empty fragments are spread as well
+            sizes[i++] = size + 1;
+        }
+
+        Integer[] order = new Integer[sizes.length];
+        Arrays.setAll(order, index -> index);
+        Arrays.sort(order, Comparator.<Integer>comparingLong(index -> -sizes[index]).thenComparingInt(index -> index));
+
+        int shiftedIndex = gpSessionId % totalSegments + gpCommandCount;
+        long[] loads = new long[totalSegments];
+        PriorityQueue<Integer> segments = new PriorityQueue<>(totalSegments,
+                Comparator.<Integer>comparingLong(segment -> loads[segment])
+                        .thenComparingInt(segment -> Math.floorMod(segment - shiftedIndex, totalSegments)));
+        for (int segment = 0; segment < totalSegments; segment++) {
+            segments.add(segment);
+        }
+
+        boolean[] assigned = new boolean[sizes.length];
+        for (int index : order) {
+            int segment = segments.poll();
+            loads[segment] += sizes[index];
+            segments.add(segment);
+            assigned[index] = segment == segmentId;
+        }
+
+        List<Fragment> filteredFragments = new ArrayList<>();
+        i = 0;
+        for (Fragment fragment : fragments) {
+            if (assigned[i++]) {
+                filteredFragments.add(fragment);
+            }
+        }
+        LOG.debug("Assigned {} fragments with {} bytes out of {} bytes to segment {}",
+                filteredFragments.size(), loads[segmentId], Arrays.stream(loads).sum(), segmentId);
+        return filteredFragments;
+    }
+
     /**
      * Returns the fragmenter initialized with the request context
      *
@@ -220,23 +366,56 @@ public class FragmenterService {
                 context.getFilterString());
     }
 
+    /**
+     * Returns a key for the cache of fragments across queries. The key
+     * includes everything fragmenters use to produce the fragments: the
+     * server and user, the fragmenter, the data source, the filter, the
+     * columns of the table (the filter refers to the columns by index) and
+     * the options of the table.
+     *
+     * @param context the request context
+     * @return the key for the cache of fragments across queries
+     */
+    private String getListingCacheKey(RequestContext context) {
+        String columns = context.getTupleDescription().stream()
+                .map(column -> column.columnName() + " " + column.columnTypeCode())
+                .collect(Collectors.joining(","));
+        return String.format("%s:%s:%s:%s:%s:%s:[%s]:%s:%s",
+                context.getServerName(),
+                context.getConfig(),
+                context.getUser(),
+                context.getFragmenter(),
+                context.getDataSource(),
+                context.getFilterString(),
+                columns,
+                new TreeMap<>(context.getOptions()),
+                context.getAdditionalConfigProps() == null ? "{}" : new TreeMap<>(context.getAdditionalConfigProps()));
+    }
+
     /**
      * Updates the fragments' indexes so that it is incremented by sourceName.
      * (E.g.: {"a", 0}, {"a", 1}, {"b", 0} ... )
+     * The fragments combined into a fragment are numbered with the other
+     * fragments of their sourceName, as the accessors rely on the index to
+     * find the first fragment of a file, and the combined fragment takes the
+     * index of its first fragment.
      *
      * @param fragments fragments to be updated
      */
     private void updateFragmentIndex(List<Fragment> fragments) {
-        int index = 0;
-        String sourceName = null;
-        for (Fragment fragment : fragments) {
+        updateFragmentIndex(fragments, new HashMap<>());
+    }
 
-            String currentSourceName = fragment.getSourceName();
-            if (!currentSourceName.equals(sourceName)) {
-                index = 0;
-                sourceName = currentSourceName;
+    private void updateFragmentIndex(List<Fragment> fragments, Map<String, Integer> nextIndexes) {
+        for (Fragment fragment : fragments) {
+            if (fragment.getMetadata() instanceof CombinedFragmentMetadata) {
+                List<Fragment> combined = ((CombinedFragmentMetadata) fragment.getMetadata()).getFragments();
+                updateFragmentIndex(combined, nextIndexes);
+                fragment.setIndex(combined.get(0).getIndex());
+            } else {
+                // the small last split of a file can be combined after the other splits of the file
+                fragment.setIndex(nextIndexes.merge(fragment.getSourceName(), 1, Integer::sum) - 1);
             }
-            fragment.setIndex(index++);
         }
     }
 }
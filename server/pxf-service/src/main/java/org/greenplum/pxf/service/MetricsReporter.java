@@ -151,6 +151,8 @@ public class MetricsReporter {
         FRAGMENTS_SENT("pxf.fragments.sent", "pxf.metrics.fragments.enabled"),
         RECORDS_SENT("pxf.records.sent", "pxf.metrics.records.enabled"),
         RECORDS_RECEIVED("pxf.records.received", "pxf.metrics.records.enabled"),
+        RECORDS_EVALUATED("pxf.records.evaluated", "pxf.metrics.records.enabled"),
+        RECORDS_DROPPED("pxf.records.dropped", "pxf.metrics.records.enabled"),
         BYTES_SENT("pxf.bytes.sent", "pxf.metrics.bytes.enabled"),
         BYTES_RECEIVED("pxf.bytes.received", "pxf.metrics.bytes.enabled");
 
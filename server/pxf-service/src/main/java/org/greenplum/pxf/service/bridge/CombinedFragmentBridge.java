@@ -0,0 +1,125 @@
+package org.greenplum.pxf.service.bridge;
+
+import org.greenplum.pxf.api.io.Writable;
+import org.greenplum.pxf.api.model.Fragment;
+import org.greenplum.pxf.api.model.RequestContext;
+import org.greenplum.pxf.api.utilities.CombinedFragmentMetadata;
+import org.greenplum.pxf.api.utilities.FragmentMetadata;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.DataInputStream;
+import java.util.Iterator;
+import java.util.function.Function;
+
+/**
+ * CombinedFragmentBridge reads a fragment that combines several small
+ * fragments, as described by {@link CombinedFragmentMetadata}. The combined
+ * fragments are read one after the other, each with a bridge of its own that
+ * is created after the data source, the fragment index and the fragment
+ * metadata of the request context are set to the combined fragment, so that
+ * the accessors of all profiles read a single fragment as usual. The request
+ * context is restored to the combining fragment when the iteration ends.
+ */
+public class CombinedFragmentBridge implements Bridge {
+
+    private static final Logger LOG = LoggerFactory.getLogger(CombinedFragmentBridge.class);
+
+    private final RequestContext context;
+    private final Function<RequestContext, Bridge> bridgeFactory;
+    private final String dataSource;
+    private final int fragmentIndex;
+    private final FragmentMetadata fragmentMetadata;
+    private final Iterator<Fragment> fragments;
+    private Bridge bridge;
+
+    /**
+     * Creates the bridge for the combining fragment of the request context.
+     *
+     * @param context       the request context, with the metadata of a combining fragment
+     * @param bridgeFactory the function creating the bridge of a combined fragment
+     */
+    public CombinedFragmentBridge(RequestContext context, Function<RequestContext, Bridge> bridgeFactory) {
+        this.context = context;
+        this.bridgeFactory = bridgeFactory;
+        this.dataSource = context.getDataSource();
+        this.fragmentIndex = context.getFragmentIndex();
+        this.fragmentMetadata = context.getFragmentMetadata();
+        this.fragments = ((CombinedFragmentMetadata) fragmentMetadata).getFragments().iterator();
+    }
+
+    /**
+     * Begins the iteration of the first combined fragment that has data.
+     */
+    @Override
+    public boolean beginIteration() throws Exception {
+        return nextFragment();
+    }
+
+    /**
+     * Returns the next record of the current combined fragment, moving on to
+     * the next combined fragment when the current one has no more records.
+     */
+    @Override
+    public Writable getNext() throws Exception {
+        while (bridge != null) {
+            Writable output = bridge.getNext();
+            if (output != null) {
+                return output;
+            }
+            endFragment();
+            nextFragment();
+        }
+        return null;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean setNext(DataInputStream inputStream) {
+        throw new UnsupportedOperationException("Write operation is not supported.");
+    }
+
+    /**
+     * Ends the iteration of the current combined fragment, and restores the
+     * request context.
+     */
+    @Override
+    public void endIteration() throws Exception {
+        try {
+            endFragment();
+        } finally {
+            context.setDataSource(dataSource);
+            context.setFragmentIndex(fragmentIndex);
+            context.setFragmentMetadata(fragmentMetadata);
+        }
+    }
+
+    private boolean nextFragment() throws Exception {
+        while (fragments.hasNext()) {
+            Fragment fragment = fragments.next();
+            context.setDataSource(fragment.getSourceName());
+            // the accessors skip the header lines of a file in the fragment with index 0
+            context.setFragmentIndex(fragment.getIndex());
+            context.setFragmentMetadata(fragment.getMetadata());
+            LOG.debug("Reading combined fragment {} of {}", fragment.getSourceName(), dataSource);
+
+            // keep the bridge before it begins, so that it is ended on failure
+            bridge = bridgeFactory.apply(context);
+            if (bridge.beginIteration()) {
+                return true;
+            }
+            endFragment();
+        }
+        return false;
+    }
+
+    private void endFragment() throws Exception {
+        if (bridge != null) {
+            Bridge current = bridge;
+            bridge = null;
+            current.endIteration();
+        }
+    }
+}
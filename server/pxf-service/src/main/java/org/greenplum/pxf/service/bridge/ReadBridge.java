@@ -19,6 +19,7 @@ package org.greenplum.pxf.service.bridge;
  * under the License.
  */
 
+import org.greenplum.pxf.api.OneField;
 import org.greenplum.pxf.api.OneRow;
 import org.greenplum.pxf.api.error.BadRecordException;
 import org.greenplum.pxf.api.io.Writable;
@@ -35,6 +36,7 @@ import java.io.UTFDataFormatException;
 import java.nio.charset.CharacterCodingException;
 import java.util.Deque;
 import java.util.LinkedList;
+import java.util.List;
 import java.util.zip.ZipException;
 
 /**
@@ -43,16 +45,26 @@ import java.util.zip.ZipException;
  * get records from accessor, let resolver deserialize them and serialize them
  * again using the output conversion class. <br>
  * The class handles BadRecordException and other exception type and marks the
- * record as invalid for GPDB.
+ * record as invalid for GPDB. When a {@link RowFilter} is given, the records
+ * that do not match the filter of the query are dropped after they are
+ * resolved.
  */
 public class ReadBridge extends BaseBridge {
 
     protected BridgeOutputBuilder outputBuilder;
     protected Deque<Writable> outputQueue = new LinkedList<>();
+    protected final RowFilter rowFilter;
+    // the output of a dropped record, never modified
+    private final Deque<Writable> noOutput = new LinkedList<>();
 
     public ReadBridge(BasePluginFactory pluginFactory, RequestContext context, GSSFailureHandler failureHandler) {
+        this(pluginFactory, context, failureHandler, null);
+    }
+
+    public ReadBridge(BasePluginFactory pluginFactory, RequestContext context, GSSFailureHandler failureHandler, RowFilter rowFilter) {
         super(pluginFactory, context, failureHandler);
         this.outputBuilder = new BridgeOutputBuilder(context);
+        this.rowFilter = rowFilter;
     }
 
     /**
@@ -65,7 +77,11 @@ public class ReadBridge extends BaseBridge {
     }
 
     protected Deque<Writable> makeOutput(OneRow oneRow) throws Exception {
-        return outputBuilder.makeOutput(resolver.getFields(oneRow));
+        List<OneField> fields = resolver.getFields(oneRow);
+        if (rowFilter != null && !rowFilter.accept(fields)) {
+            return noOutput;
+        }
+        return outputBuilder.makeOutput(fields);
     }
 
     /**
@@ -125,6 +141,10 @@ public class ReadBridge extends BaseBridge {
         } catch (Exception e) {
             LOG.error("Failed to close bridge resources: {}", e.getMessage());
             throw e;
+        } finally {
+            if (rowFilter != null) {
+                rowFilter.flushStats();
+            }
         }
     }
 
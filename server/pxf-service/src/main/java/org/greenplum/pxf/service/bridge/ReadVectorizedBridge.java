@@ -21,17 +21,31 @@ package org.greenplum.pxf.service.bridge;
 
 import org.greenplum.pxf.api.OneField;
 import org.greenplum.pxf.api.OneRow;
-import org.greenplum.pxf.api.model.ReadVectorizedResolver;
+import org.greenplum.pxf.api.io.RecordEncoder;
 import org.greenplum.pxf.api.io.Writable;
+import org.greenplum.pxf.api.model.ReadVectorizedBatchSerializer;
+import org.greenplum.pxf.api.model.ReadVectorizedResolver;
 import org.greenplum.pxf.api.model.RequestContext;
 import org.greenplum.pxf.service.utilities.BasePluginFactory;
 import org.greenplum.pxf.service.utilities.GSSFailureHandler;
 
 import java.util.Deque;
+import java.util.LinkedList;
 import java.util.List;
 
+/**
+ * Bridge for resolvers that resolve a batch of records at once. When the
+ * resolver is a {@link ReadVectorizedBatchSerializer} that supports the
+ * current fragment, every batch is serialized straight into a reusable
+ * {@link RecordEncoder} and sent as a single {@link Writable}, otherwise the
+ * batch is resolved into lists of {@link OneField}s first.
+ */
 public class ReadVectorizedBridge extends ReadBridge {
 
+    private final Deque<Writable> encodedOutput = new LinkedList<>();
+    private Boolean batchSerializationSupported;
+    private RecordEncoder encoder;
+
     public ReadVectorizedBridge(BasePluginFactory pluginFactory, RequestContext context, GSSFailureHandler failureHandler) {
         super(pluginFactory, context, failureHandler);
     }
@@ -41,8 +55,48 @@ public class ReadVectorizedBridge extends ReadBridge {
      */
     @Override
     protected Deque<Writable> makeOutput(OneRow oneRow) throws Exception {
+        if (isBatchSerializationSupported()) {
+            return serializeBatch(oneRow);
+        }
         List<List<OneField>> resolvedBatch = ((ReadVectorizedResolver) resolver).
                 getFieldsForBatch(oneRow);
         return outputBuilder.makeVectorizedOutput(resolvedBatch);
     }
+
+    /**
+     * Serializes the batch with the encoder. The encoder is reused for every
+     * batch, it is written to the output stream before the next batch is read.
+     *
+     * @param oneRow the batch
+     * @return a queue with the encoder, or an empty queue if the batch had no records
+     * @throws Exception if serializing the batch failed
+     */
+    private Deque<Writable> serializeBatch(OneRow oneRow) throws Exception {
+        encodedOutput.clear();
+        encoder.reset();
+        ((ReadVectorizedBatchSerializer) resolver).serializeBatch(oneRow, encoder);
+        if (encoder.getRecordCount() > 0) {
+            encodedOutput.add(encoder);
+        }
+        return encodedOutput;
+    }
+
+    /**
+     * Checks once, after the accessor has opened the fragment, whether the
+     * resolver can serialize the batches of the fragment.
+     *
+     * @return true if batches are serialized without resolving them
+     */
+    private boolean isBatchSerializationSupported() {
+        if (batchSerializationSupported == null) {
+            batchSerializationSupported = resolver instanceof ReadVectorizedBatchSerializer
+                    && ((ReadVectorizedBatchSerializer) resolver).isBatchSerializationSupported();
+            if (batchSerializationSupported) {
+                encoder = outputBuilder.makeRecordEncoder();
+            }
+            LOG.debug("Batch serialization is {} for resolver {}",
+                    batchSerializationSupported ? "enabled" : "disabled", resolver.getClass().getSimpleName());
+        }
+        return batchSerializationSupported;
+    }
 }
@@ -0,0 +1,636 @@
+package org.greenplum.pxf.service.bridge;
+
+import org.greenplum.pxf.api.OneField;
+import org.greenplum.pxf.api.filter.CollectionOperandNode;
+import org.greenplum.pxf.api.filter.ColumnIndexOperandNode;
+import org.greenplum.pxf.api.filter.FilterParser;
+import org.greenplum.pxf.api.filter.Node;
+import org.greenplum.pxf.api.filter.Operator;
+import org.greenplum.pxf.api.filter.OperatorNode;
+import org.greenplum.pxf.api.filter.ScalarOperandNode;
+import org.greenplum.pxf.api.io.DataType;
+import org.greenplum.pxf.api.model.OutputFormat;
+import org.greenplum.pxf.api.model.RequestContext;
+import org.greenplum.pxf.api.utilities.ColumnDescriptor;
+import org.greenplum.pxf.service.MetricsReporter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.IntPredicate;
+import java.util.regex.Pattern;
+
+/**
+ * Filters the rows of a fragment with the filter of the query after the
+ * resolver has converted them into fields, so that the rows that do not
+ * match the filter are not sent to Greenplum.
+ * <p>
+ * The filter is compiled once into evaluators over the values of the
+ * fields. Greenplum evaluates the whole WHERE clause again on every row it
+ * receives, so the filter only has to drop rows that Greenplum would
+ * discard. Predicates are evaluated with the three-valued logic of SQL, and
+ * a predicate that cannot be evaluated exactly as Greenplum would evaluate
+ * it (an operator or a type that is not supported, a value that cannot be
+ * parsed, a column that is not projected) may be true, false or null, so it
+ * never drops a row on its own. Rows that do not have one field per column,
+ * e.g. the lines of text files that are parsed by Greenplum, are not
+ * filtered.
+ */
+public class RowFilter {
+
+    /**
+     * The option that enables or disables the filter for a table
+     */
+    public static final String ROW_FILTER_OPTION = "ROW_FILTER";
+
+    private static final Logger LOG = LoggerFactory.getLogger(RowFilter.class);
+
+    // the results that a predicate may have, as a set of bits
+    private static final int TRUE = 1;
+    private static final int FALSE = 2;
+    private static final int NULL = 4;
+    private static final int ANY = TRUE | FALSE | NULL;
+
+    // the results of AND and OR over the sets of results of the operands, indexed by (left << 3) | right
+    private static final int[] AND_RESULTS = new int[64];
+    private static final int[] OR_RESULTS = new int[64];
+
+    private static final Evaluator UNKNOWN = values -> ANY;
+
+    static {
+        for (int left = 0; left < 8; left++) {
+            for (int right = 0; right < 8; right++) {
+                for (int l = TRUE; l <= NULL; l <<= 1) {
+                    for (int r = TRUE; r <= NULL; r <<= 1) {
+                        if ((left & l) != 0 && (right & r) != 0) {
+                            AND_RESULTS[left << 3 | right] |= (l == FALSE || r == FALSE) ? FALSE : (l == NULL || r == NULL) ? NULL : TRUE;
+                            OR_RESULTS[left << 3 | right] |= (l == TRUE || r == TRUE) ? TRUE : (l == NULL || r == NULL) ? NULL : FALSE;
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private final Evaluator evaluator;
+    private final Object[] values;
+    private final MetricsReporter metricsReporter;
+    private final RequestContext context;
+    private long recordsEvaluated;
+    private long recordsDropped;
+
+    private RowFilter(Evaluator evaluator, int columnCount, MetricsReporter metricsReporter, RequestContext context) {
+        this.evaluator = evaluator;
+        this.values = new Object[columnCount];
+        this.metricsReporter = metricsReporter;
+        this.context = context;
+    }
+
+    /**
+     * Compiles the filter of the request
+     *
+     * @param context         the request context
+     * @param metricsReporter the reporter of the number of rows evaluated and dropped
+     * @return the row filter, or null when the request has no filter that can drop rows
+     */
+    public static RowFilter create(RequestContext context, MetricsReporter metricsReporter) {
+        List<ColumnDescriptor> columns = context.getTupleDescription();
+        if (!context.hasFilter() || columns == null || columns.isEmpty()) {
+            return null;
+        }
+        // a single field of a text record may be a whole line, which is parsed by Greenplum
+        if (columns.size() == 1 && context.getOutputFormat() != OutputFormat.GPDBWritable) {
+            return null;
+        }
+
+        Evaluator evaluator;
+        try {
+            Node root = new FilterParser().parse(context.getFilterString());
+            evaluator = compile(root, columns);
+        } catch (Exception e) {
+            LOG.warn("Unable to compile the filter {}, rows will not be filtered: {}", context.getFilterString(), e.getMessage());
+            return null;
+        }
+        if (evaluator == UNKNOWN) {
+            LOG.debug("No predicate of the filter {} can be evaluated, rows will not be filtered", context.getFilterString());
+            return null;
+        }
+        return new RowFilter(evaluator, columns.size(), metricsReporter, context);
+    }
+
+    /**
+     * Evaluates the filter on the fields of a row
+     *
+     * @param fields the fields of the row returned by the resolver
+     * @return false if the row does not match the filter and can be dropped
+     */
+    public boolean accept(List<OneField> fields) {
+        if (fields.size() != values.length) {
+            return true;
+        }
+        int i = 0;
+        for (OneField field : fields) {
+            values[i++] = field.val;
+        }
+        recordsEvaluated++;
+        if ((evaluator.evaluate(values) & TRUE) != 0) {
+            return true;
+        }
+        recordsDropped++;
+        return false;
+    }
+
+    /**
+     * Reports the number of rows evaluated and dropped since the last report
+     */
+    public void flushStats() {
+        LOG.debug("Filter {} dropped {} of {} rows", context.getFilterString(), recordsDropped, recordsEvaluated);
+        if (metricsReporter != null) {
+            if (recordsEvaluated != 0) {
+                metricsReporter.reportCounter(MetricsReporter.PxfMetric.RECORDS_EVALUATED, recordsEvaluated, context);
+            }
+            if (recordsDropped != 0) {
+                metricsReporter.reportCounter(MetricsReporter.PxfMetric.RECORDS_DROPPED, recordsDropped, context);
+            }
+        }
+        recordsEvaluated = 0;
+        recordsDropped = 0;
+    }
+
+    private static Evaluator compile(Node node, List<ColumnDescriptor> columns) {
+        if (!(node instanceof OperatorNode)) {
+            return UNKNOWN;
+        }
+        OperatorNode operatorNode = (OperatorNode) node;
+        Operator operator = operatorNode.getOperator();
+        switch (operator) {
+            case AND:
+            case OR: {
+                Evaluator left = compile(operatorNode.getLeft(), columns);
+                Evaluator right = compile(operatorNode.getRight(), columns);
+                if (left == UNKNOWN || right == UNKNOWN) {
+                    // a disjunction with an unknown operand may be true for any row, a conjunction only drops
+                    // the rows that the other operand drops
+                    return operator == Operator.OR ? UNKNOWN : left == UNKNOWN ? right : left;
+                }
+                int[] results = operator == Operator.AND ? AND_RESULTS : OR_RESULTS;
+                int shortCircuit = operator == Operator.AND ? FALSE : TRUE;
+                return values -> {
+                    int result = left.evaluate(values);
+                    return result == shortCircuit ? result : results[result << 3 | right.evaluate(values)];
+                };
+            }
+            case NOT: {
+                Evaluator operand = compile(operatorNode.getLeft(), columns);
+                if (operand == UNKNOWN) {
+                    return UNKNOWN;
+                }
+                return values -> {
+                    int result = operand.evaluate(values);
+                    return (result & NULL) | ((result & TRUE) != 0 ? FALSE : 0) | ((result & FALSE) != 0 ? TRUE : 0);
+                };
+            }
+            default:
+                if (!(operatorNode.getLeft() instanceof ColumnIndexOperandNode)) {
+                    return UNKNOWN;
+                }
+                int index = operatorNode.getColumnIndexOperand().index();
+                if (index < 0 || index >= columns.size() || !columns.get(index).isProjected()) {
+                    return UNKNOWN;
+                }
+                return compilePredicate(operatorNode, index, columns.get(index));
+        }
+    }
+
+    private static Evaluator compilePredicate(OperatorNode operatorNode, int index, ColumnDescriptor column) {
+        Operator operator = operatorNode.getOperator();
+        if (operator == Operator.IS_NULL) {
+            return values -> values[index] == null ? TRUE : FALSE;
+        } else if (operator == Operator.IS_NOT_NULL) {
+            return values -> values[index] == null ? FALSE : TRUE;
+        }
+
+        Node operand = operatorNode.getRight();
+        if (operator == Operator.IN && operand instanceof CollectionOperandNode) {
+            CollectionOperandNode collection = (CollectionOperandNode) operand;
+            Comparison comparison = Comparison.of(column, collection.getDataType().getTypeElem());
+            if (comparison == null) {
+                return UNKNOWN;
+            }
+            Object[] constants = new Object[collection.getData().size()];
+            for (int i = 0; i < constants.length; i++) {
+                constants[i] = comparison.parse(collection.getData().get(i));
+                if (constants[i] == null) {
+                    return UNKNOWN;
+                }
+            }
+            return values -> {
+                Object value = values[index];
+                if (value == null) {
+                    return NULL;
+                }
+                Object converted = comparison.convert(value);
+                if (converted == null) {
+                    return ANY;
+                }
+                for (Object constant : constants) {
+                    if (compare(converted, constant) == 0) {
+                        return TRUE;
+                    }
+                }
+                return FALSE;
+            };
+        }
+
+        if (!(operand instanceof ScalarOperandNode)) {
+            return UNKNOWN;
+        }
+        ScalarOperandNode scalar = (ScalarOperandNode) operand;
+        Comparison comparison = Comparison.of(column, scalar.getDataType());
+        if (comparison == null) {
+            return UNKNOWN;
+        }
+        if (operator == Operator.LIKE) {
+            return compileLike(index, column, comparison, scalar.getValue());
+        }
+
+        IntPredicate test;
+        switch (operator) {
+            case NOOP:
+                // a boolean column used as a predicate
+                test = column.getDataType() == DataType.BOOLEAN ? c -> c == 0 : null;
+                break;
+            case EQUALS:
+                test = c -> c == 0;
+                break;
+            case NOT_EQUALS:
+                test = c -> c != 0;
+                break;
+            case LESS_THAN:
+                test = comparison.ordered ? c -> c < 0 : null;
+                break;
+            case LESS_THAN_OR_EQUAL:
+                test = comparison.ordered ? c -> c <= 0 : null;
+                break;
+            case GREATER_THAN:
+                test = comparison.ordered ? c -> c > 0 : null;
+                break;
+            case GREATER_THAN_OR_EQUAL:
+                test = comparison.ordered ? c -> c >= 0 : null;
+                break;
+            default:
+                test = null;
+        }
+        Object constant = comparison.parse(scalar.getValue());
+        if (test == null || constant == null) {
+            return UNKNOWN;
+        }
+        return values -> {
+            Object value = values[index];
+            if (value == null) {
+                return NULL;
+            }
+            Object converted = comparison.convert(value);
+            if (converted == null) {
+                return ANY;
+            }
+            return test.test(compare(converted, constant)) ? TRUE : FALSE;
+        };
+    }
+
+    private static Evaluator compileLike(int index, ColumnDescriptor column, Comparison comparison, String pattern) {
+        DataType type = column.getDataType();
+        if (type != DataType.TEXT && type != DataType.VARCHAR) {
+            return UNKNOWN;
+        }
+        // the default escape character of LIKE is a backslash, % matches any sequence and _ any single character
+        StringBuilder regex = new StringBuilder();
+        StringBuilder literal = new StringBuilder();
+        for (int i = 0; i < pattern.length(); i++) {
+            char c = pattern.charAt(i);
+            if (c == '\\') {
+                if (++i == pattern.length()) {
+                    return UNKNOWN;
+                }
+                literal.append(pattern.charAt(i));
+            } else if (c == '%' || c == '_') {
+                if (literal.length() > 0) {
+                    regex.append(Pattern.quote(literal.toString()));
+                    literal.setLength(0);
+                }
+                regex.append(c == '%' ? ".*" : ".");
+            } else {
+                literal.append(c);
+            }
+        }
+        if (literal.length() > 0) {
+            regex.append(Pattern.quote(literal.toString()));
+        }
+        Pattern compiled = Pattern.compile(regex.toString(), Pattern.DOTALL);
+        return values -> {
+            Object value = values[index];
+            if (value == null) {
+                return NULL;
+            }
+            Object converted = comparison.convert(value);
+            if (converted == null) {
+                return ANY;
+            }
+            return compiled.matcher((String) converted).matches() ? TRUE : FALSE;
+        };
+    }
+
+    @SuppressWarnings("unchecked")
+    private static int compare(Object value, Object constant) {
+        return ((Comparable<Object>) value).compareTo(constant);
+    }
+
+    /**
+     * Evaluates a predicate on the values of the columns of a row
+     */
+    @FunctionalInterface
+    private interface Evaluator {
+        /**
+         * @param values the values of the columns of the row
+         * @return the set of results that the predicate may have
+         */
+        int evaluate(Object[] values);
+    }
+
+    /**
+     * Converts the values of a column, and the constants they are compared
+     * with, into values that compare as they do in Greenplum
+     */
+    private static class Comparison {
+        // returns null when a value cannot be converted exactly
+        private final Function<Object, Object> values;
+        // returns null when a constant cannot be parsed
+        private final Function<String, Object> constants;
+        // whether the values can be compared for order, and not only for equality
+        private final boolean ordered;
+
+        Comparison(Function<Object, Object> values, Function<String, Object> constants, boolean ordered) {
+            this.values = values;
+            this.constants = constants;
+            this.ordered = ordered;
+        }
+
+        Object convert(Object value) {
+            return values.apply(value);
+        }
+
+        Object parse(String constant) {
+            try {
+                return constants.apply(constant);
+            } catch (NumberFormatException | DateTimeParseException e) {
+                return null;
+            }
+        }
+
+        /**
+         * Returns the comparison of the values of the column with constants
+         * of the given type, or null when they cannot be compared exactly
+         */
+        static Comparison of(ColumnDescriptor column, DataType constantType) {
+            DataType type = column.getDataType();
+            Integer[] modifiers = column.columnTypeModifiers();
+            boolean hasModifiers = modifiers != null && modifiers.length > 0;
+            switch (type) {
+                case SMALLINT:
+                case INTEGER:
+                case BIGINT:
+                case REAL:
+                case FLOAT8:
+                case NUMERIC:
+                    return ofNumbers(type, modifiers, constantType);
+                case BOOLEAN:
+                    return constantType == DataType.BOOLEAN
+                            ? new Comparison(v -> v instanceof Boolean ? v : null, Comparison::parseBoolean, true)
+                            : null;
+                case TEXT:
+                case VARCHAR:
+                case BPCHAR:
+                    if (constantType != DataType.TEXT && constantType != DataType.VARCHAR && constantType != DataType.BPCHAR) {
+                        return null;
+                    }
+                    int length = type != DataType.TEXT && hasModifiers ? modifiers[0] : -1;
+                    // trailing spaces of character(n) values are not significant, unless compared with text
+                    boolean trimValues = type == DataType.BPCHAR;
+                    boolean trimConstants = trimValues && constantType == DataType.BPCHAR;
+                    return new Comparison(v -> toText(v, length, trimValues),
+                            c -> trimConstants ? trimTrailingSpaces(c) : c, false);
+                case DATE:
+                    return constantType == DataType.DATE
+                            ? new Comparison(Comparison::toDate, LocalDate::parse, true)
+                            : null;
+                case TIMESTAMP:
+                    return constantType == DataType.TIMESTAMP && !hasModifiers
+                            ? new Comparison(Comparison::toTimestamp, Comparison::parseTimestamp, true)
+                            : null;
+                case TIME:
+                    return constantType == DataType.TIME && !hasModifiers
+                            ? new Comparison(Comparison::toTime, LocalTime::parse, true)
+                            : null;
+                default:
+                    return null;
+            }
+        }
+
+        /**
+         * Numbers are compared as doubles when either side is a floating
+         * point number, as decimals when either side is numeric, and as
+         * longs otherwise, as Greenplum does
+         */
+        private static Comparison ofNumbers(DataType type, Integer[] modifiers, DataType constantType) {
+            if (!isNumber(constantType)) {
+                return null;
+            }
+            Function<Object, Object> values;
+            switch (type) {
+                case REAL:
+                    values = Comparison::toReal;
+                    break;
+                case FLOAT8:
+                    values = Comparison::toFloat8;
+                    break;
+                case NUMERIC:
+                    values = v -> toDecimal(v, modifiers);
+                    break;
+                default:
+                    values = v -> isInteger(v) ? ((Number) v).longValue() : null;
+            }
+
+            if (type == DataType.REAL || type == DataType.FLOAT8 || constantType == DataType.REAL || constantType == DataType.FLOAT8) {
+                // -0 is equal to 0
+                return new Comparison(v -> {
+                    Number value = (Number) values.apply(v);
+                    return value == null ? null : value.doubleValue() + 0.0;
+                }, c -> (constantType == DataType.REAL ? Float.parseFloat(c) : Double.parseDouble(c)) + 0.0, true);
+            } else if (type == DataType.NUMERIC || constantType == DataType.NUMERIC) {
+                return new Comparison(v -> {
+                    Object value = values.apply(v);
+                    return value instanceof Long ? BigDecimal.valueOf((Long) value) : value;
+                }, BigDecimal::new, true);
+            }
+            return new Comparison(values, Long::valueOf, true);
+        }
+
+        private static boolean isNumber(DataType type) {
+            return type == DataType.SMALLINT || type == DataType.INTEGER || type == DataType.BIGINT
+                    || type == DataType.REAL || type == DataType.FLOAT8 || type == DataType.NUMERIC;
+        }
+
+        private static Double toReal(Object value) {
+            if (value instanceof Float) {
+                return ((Float) value).doubleValue();
+            } else if (value instanceof Double) {
+                // Greenplum rounds the value to a real
+                return (double) ((Double) value).floatValue();
+            }
+            return null;
+        }
+
+        private static Double toFloat8(Object value) {
+            return value instanceof Double || value instanceof Float ? ((Number) value).doubleValue() : null;
+        }
+
+        private static boolean isInteger(Object value) {
+            return value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte;
+        }
+
+        /**
+         * Converts the value of a numeric column, rounded to the scale of
+         * the column as Greenplum does, or null when it does not fit the
+         * precision of the column and would be rejected
+         */
+        private static BigDecimal toDecimal(Object value, Integer[] modifiers) {
+            BigDecimal decimal;
+            if (value instanceof BigDecimal) {
+                decimal = (BigDecimal) value;
+            } else if (isInteger(value)) {
+                decimal = BigDecimal.valueOf(((Number) value).longValue());
+            } else if (value instanceof CharSequence || value instanceof Double || value instanceof Float) {
+                try {
+                    decimal = new BigDecimal(value.toString().trim());
+                } catch (NumberFormatException e) {
+                    return null;
+                }
+            } else {
+                return null;
+            }
+            if (modifiers != null && modifiers.length == 2) {
+                int precision = modifiers[0];
+                int scale = modifiers[1];
+                decimal = decimal.setScale(scale, RoundingMode.HALF_UP);
+                if (decimal.precision() - decimal.scale() > precision - scale) {
+                    return null;
+                }
+            }
+            return decimal;
+        }
+
+        /**
+         * Converts the value of a character column, truncated to the length
+         * of the column as Greenplum does, or null when it does not fit
+         * the length of the column and would be rejected
+         */
+        private static String toText(Object value, int length, boolean trim) {
+            if (!(value instanceof CharSequence)) {
+                return null;
+            }
+            String text = value.toString();
+            if (length >= 0 && text.codePointCount(0, text.length()) > length) {
+                int end = text.offsetByCodePoints(0, length);
+                for (int i = end; i < text.length(); i++) {
+                    if (text.charAt(i) != ' ') {
+                        return null;
+                    }
+                }
+                text = text.substring(0, end);
+            }
+            return trim ? trimTrailingSpaces(text) : text;
+        }
+
+        private static String trimTrailingSpaces(String text) {
+            int end = text.length();
+            while (end > 0 && text.charAt(end - 1) == ' ') {
+                end--;
+            }
+            return text.substring(0, end);
+        }
+
+        private static Boolean parseBoolean(String constant) {
+            if ("t".equalsIgnoreCase(constant) || "true".equalsIgnoreCase(constant)) {
+                return Boolean.TRUE;
+            } else if ("f".equalsIgnoreCase(constant) || "false".equalsIgnoreCase(constant)) {
+                return Boolean.FALSE;
+            }
+            return null;
+        }
+
+        private static LocalDate toDate(Object value) {
+            if (value instanceof java.sql.Date) {
+                return ((java.sql.Date) value).toLocalDate();
+            } else if (value instanceof LocalDate) {
+                return (LocalDate) value;
+            } else if (value instanceof CharSequence) {
+                try {
+                    return LocalDate.parse((CharSequence) value);
+                } catch (DateTimeParseException e) {
+                    return null;
+                }
+            }
+            return null;
+        }
+
+        private static LocalDateTime toTimestamp(Object value) {
+            LocalDateTime timestamp;
+            if (value instanceof java.sql.Timestamp) {
+                timestamp = ((java.sql.Timestamp) value).toLocalDateTime();
+            } else if (value instanceof LocalDateTime) {
+                timestamp = (LocalDateTime) value;
+            } else if (value instanceof CharSequence) {
+                try {
+                    timestamp = parseTimestamp(value.toString());
+                } catch (DateTimeParseException e) {
+                    return null;
+                }
+            } else {
+                return null;
+            }
+            // Greenplum rounds timestamps to microseconds
+            return timestamp.getNano() % 1000 == 0 ? timestamp : null;
+        }
+
+        private static LocalDateTime parseTimestamp(String text) {
+            if (text.length() > 10 && text.charAt(10) == ' ') {
+                text = text.substring(0, 10) + 'T' + text.substring(11);
+            }
+            return LocalDateTime.parse(text);
+        }
+
+        private static LocalTime toTime(Object value) {
+            LocalTime time;
+            if (value instanceof LocalTime) {
+                time = (LocalTime) value;
+            } else if (value instanceof CharSequence) {
+                try {
+                    time = LocalTime.parse((CharSequence) value);
+                } catch (DateTimeParseException e) {
+                    return null;
+                }
+            } else {
+                return null;
+            }
+            // Greenplum rounds times to microseconds
+            return time.getNano() % 1000 == 0 ? time : null;
+        }
+    }
+}
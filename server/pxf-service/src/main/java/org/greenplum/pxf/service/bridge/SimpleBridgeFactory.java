@@ -3,10 +3,14 @@ package org.greenplum.pxf.service.bridge;
 import org.greenplum.pxf.api.model.ReadVectorizedResolver;
 import org.greenplum.pxf.api.model.RequestContext;
 import org.greenplum.pxf.api.model.WriteVectorizedResolver;
+import org.greenplum.pxf.api.utilities.CombinedFragmentMetadata;
 import org.greenplum.pxf.api.utilities.Utilities;
+import org.greenplum.pxf.service.MetricsReporter;
+import org.greenplum.pxf.service.utilities.AnalyzeUtils;
 import org.greenplum.pxf.service.serde.RecordReaderFactory;
 import org.greenplum.pxf.service.utilities.BasePluginFactory;
 import org.greenplum.pxf.service.utilities.GSSFailureHandler;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 @Component
@@ -15,11 +19,29 @@ public class SimpleBridgeFactory implements BridgeFactory {
     private final BasePluginFactory pluginFactory;
     private final RecordReaderFactory recordReaderFactory;
     private final GSSFailureHandler failureHandler;
+    private final MetricsReporter metricsReporter;
+    private final boolean rowFilterEnabled;
+    private final boolean blockSamplingEnabled;
 
-    public SimpleBridgeFactory(BasePluginFactory pluginFactory, RecordReaderFactory recordReaderFactory, GSSFailureHandler failureHandler) {
+    /**
+     * Creates the factory
+     *
+     * @param pluginFactory        plugin factory
+     * @param recordReaderFactory  record reader factory
+     * @param failureHandler       failure handler
+     * @param metricsReporter      reporter of the rows evaluated and dropped by row filters
+     * @param rowFilterEnabled     whether rows are filtered by default, unless the ROW_FILTER option is set
+     * @param blockSamplingEnabled whether ANALYZE samples blocks by default, unless the STATS_BLOCK_SAMPLING option is set
+     */
+    public SimpleBridgeFactory(BasePluginFactory pluginFactory, RecordReaderFactory recordReaderFactory, GSSFailureHandler failureHandler,
+                               MetricsReporter metricsReporter, @Value("${pxf.read.row-filter.enabled:false}") boolean rowFilterEnabled,
+                               @Value("${pxf.stats.block-sampling.enabled:false}") boolean blockSamplingEnabled) {
         this.pluginFactory = pluginFactory;
         this.recordReaderFactory = recordReaderFactory;
         this.failureHandler = failureHandler;
+        this.metricsReporter = metricsReporter;
+        this.rowFilterEnabled = rowFilterEnabled;
+        this.blockSamplingEnabled = blockSamplingEnabled;
     }
 
     /**
@@ -37,16 +59,47 @@ public class SimpleBridgeFactory implements BridgeFactory {
             }
         } else if (context.getRequestType() != RequestContext.RequestType.READ_BRIDGE) {
             throw new UnsupportedOperationException("Current Operation is not supported");
-        } else if (context.getStatsSampleRatio() > 0) {
-            bridge = new ReadSamplingBridge(pluginFactory, context, failureHandler);
+        } else if (context.getFragmentMetadata() instanceof CombinedFragmentMetadata) {
+            // the combined fragments share the filter of the rows of the request
+            RowFilter rowFilter = getRowFilter(context);
+            bridge = new CombinedFragmentBridge(context, fragmentContext -> getReadBridge(fragmentContext, rowFilter));
+        } else {
+            bridge = getReadBridge(context, getRowFilter(context));
+        }
+        return bridge;
+    }
+
+    /**
+     * Returns the bridge reading a single fragment
+     *
+     * @param context   input protocol data
+     * @param rowFilter the filter of the rows of the request, or null
+     * @return the bridge reading the fragment of the request context
+     */
+    private Bridge getReadBridge(RequestContext context, RowFilter rowFilter) {
+        if (context.getStatsSampleRatio() > 0 && !AnalyzeUtils.isBlockSampling(context, blockSamplingEnabled)) {
+            // the fragments of block sampling are the sample, all of their rows are read
+            return new ReadSamplingBridge(pluginFactory, context, failureHandler);
         } else if (Utilities.aggregateOptimizationsSupported(context)) {
-            bridge = new AggBridge(pluginFactory, context, failureHandler);
+            return new AggBridge(pluginFactory, context, failureHandler);
         } else if (useReadVectorization(context)) {
-            bridge = new ReadVectorizedBridge(pluginFactory, context, failureHandler);
+            return new ReadVectorizedBridge(pluginFactory, context, failureHandler);
         } else {
-            bridge = new ReadBridge(pluginFactory, context, failureHandler);
+            return new ReadBridge(pluginFactory, context, failureHandler, rowFilter);
         }
-        return bridge;
+    }
+
+    /**
+     * Returns the filter of the rows of the request, if it is enabled
+     *
+     * @param requestContext input protocol data
+     * @return the row filter, or null if rows are not filtered
+     */
+    private RowFilter getRowFilter(RequestContext requestContext) {
+        if (!requestContext.getOption(RowFilter.ROW_FILTER_OPTION, rowFilterEnabled)) {
+            return null;
+        }
+        return RowFilter.create(requestContext, metricsReporter);
     }
 
     /**
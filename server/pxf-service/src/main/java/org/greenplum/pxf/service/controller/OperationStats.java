@@ -60,10 +60,21 @@ public class OperationStats {
      * @param byteCount the total number of bytes written to date for the entire operation
      */
     public void reportCompletedRecord(long byteCount) {
-        recordCount++;
+        reportCompletedRecords(1, byteCount);
+    }
+
+    /**
+     * Add a number of completed records to the operation's stats. Report the stats when necessary.
+     *
+     * @param count     the number of records completed
+     * @param byteCount the total number of bytes written to date for the entire operation
+     */
+    public void reportCompletedRecords(long count, long byteCount) {
+        long previousRecordCount = recordCount;
+        recordCount += count;
         this.byteCount = byteCount;
 
-        if ((reportFrequency != 0) && (recordCount % reportFrequency == 0)) {
+        if ((reportFrequency != 0) && (recordCount / reportFrequency != previousRecordCount / reportFrequency)) {
             flushStats();
         }
     }
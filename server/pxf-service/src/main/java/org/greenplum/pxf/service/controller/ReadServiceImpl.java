@@ -1,8 +1,11 @@
 package org.greenplum.pxf.service.controller;
 
 import com.google.common.io.CountingOutputStream;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang.StringUtils;
+import org.apache.hadoop.security.UserGroupInformation;
+import org.greenplum.pxf.api.io.RecordEncoder;
 import org.greenplum.pxf.api.io.Writable;
 import org.greenplum.pxf.api.model.ConfigurationFactory;
 import org.greenplum.pxf.api.model.Fragment;
@@ -14,26 +17,57 @@ import org.greenplum.pxf.service.MetricsReporter;
 import org.greenplum.pxf.service.bridge.Bridge;
 import org.greenplum.pxf.service.bridge.BridgeFactory;
 import org.greenplum.pxf.service.security.SecurityService;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
 
+import javax.annotation.PreDestroy;
+import java.io.ByteArrayOutputStream;
 import java.io.DataOutputStream;
+import java.io.IOException;
 import java.io.OutputStream;
+import java.lang.reflect.UndeclaredThrowableException;
+import java.security.PrivilegedExceptionAction;
 import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.Deque;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Implementation of the ReadService.
+ * <p>
+ * The fragments of a segment are streamed one after another, in order. When
+ * prefetching is enabled, the next fragments are opened and read by worker
+ * threads into bounded buffers while the current fragment is streamed, so
+ * that the time spent opening fragments overlaps with streaming data.
  */
 @Service
 @Slf4j
 public class ReadServiceImpl extends BaseServiceImpl<OperationStats> implements ReadService {
 
+    // prefetched data is handed over to the request thread in chunks of this size
+    private static final int PREFETCH_CHUNK_SIZE = 64 * 1024;
+    private static final long PREFETCH_POLL_MILLIS = 100;
+
     private final FragmenterService fragmenterService;
+    private final int prefetchFragments;
+    private final int prefetchBufferChunks;
+    private final ExecutorService prefetchExecutor;
 
     /**
-     * Creates a new instance.
+     * Creates a new instance without prefetching.
      *
      * @param configurationFactory configuration factory
      * @param bridgeFactory        bridge factory
@@ -46,8 +80,57 @@ public class ReadServiceImpl extends BaseServiceImpl<OperationStats> implements
                            SecurityService securityService,
                            FragmenterService fragmenterService,
                            MetricsReporter metricsReporter) {
+        this(configurationFactory, bridgeFactory, securityService, fragmenterService, metricsReporter,
+                0, DataSize.ofBytes(0), 0);
+    }
+
+    /**
+     * Creates a new instance.
+     *
+     * @param configurationFactory configuration factory
+     * @param bridgeFactory        bridge factory
+     * @param securityService      security service
+     * @param fragmenterService    fragmenter service
+     * @param metricsReporter      metrics reporter service
+     * @param prefetchFragments    the number of fragments read ahead of the streamed fragment, 0 to disable
+     * @param prefetchBufferSize   the maximum size of the data buffered for every prefetched fragment
+     * @param prefetchMaxThreads   the maximum number of threads reading prefetched fragments across requests
+     */
+    @Autowired
+    public ReadServiceImpl(ConfigurationFactory configurationFactory,
+                           BridgeFactory bridgeFactory,
+                           SecurityService securityService,
+                           FragmenterService fragmenterService,
+                           MetricsReporter metricsReporter,
+                           @Value("${pxf.read.prefetch.fragments:0}") int prefetchFragments,
+                           @Value("${pxf.read.prefetch.buffer-size:4MB}") DataSize prefetchBufferSize,
+                           @Value("${pxf.read.prefetch.max-threads:64}") int prefetchMaxThreads) {
         super("Read", configurationFactory, bridgeFactory, securityService, metricsReporter);
         this.fragmenterService = fragmenterService;
+        if (prefetchFragments > 0 && prefetchMaxThreads > 0) {
+            this.prefetchFragments = prefetchFragments;
+            this.prefetchBufferChunks = (int) Math.max(1, prefetchBufferSize.toBytes() / PREFETCH_CHUNK_SIZE);
+            // a saturated pool rejects the task, the fragment is then read by the request thread
+            this.prefetchExecutor = new ThreadPoolExecutor(0, prefetchMaxThreads,
+                    60L, TimeUnit.SECONDS, new SynchronousQueue<>(),
+                    new ThreadFactoryBuilder().setNameFormat("pxf-prefetch-%d").setDaemon(true).build());
+            log.info("Prefetching {} fragments with {} bytes of buffer per fragment and up to {} threads",
+                    prefetchFragments, (long) prefetchBufferChunks * PREFETCH_CHUNK_SIZE, prefetchMaxThreads);
+        } else {
+            this.prefetchFragments = 0;
+            this.prefetchBufferChunks = 0;
+            this.prefetchExecutor = null;
+        }
+    }
+
+    /**
+     * Stops the threads reading prefetched fragments
+     */
+    @PreDestroy
+    public void shutdown() {
+        if (prefetchExecutor != null) {
+            prefetchExecutor.shutdownNow();
+        }
     }
 
     @Override
@@ -83,6 +166,10 @@ public class ReadServiceImpl extends BaseServiceImpl<OperationStats> implements
         String sourceName = null;
         try {
             List<Fragment> fragments = fragmenterService.getFragmentsForSegment(context);
+            if (prefetchExecutor != null && fragments.size() > 1) {
+                writePrefetchedFragments(fragments, countingOutputStream, context, queryStats, queryResult);
+                return queryResult;
+            }
             for (int i = 0; i < fragments.size(); i++) {
                 Fragment fragment = fragments.get(i);
                 sourceName = fragment.getSourceName();
@@ -119,7 +206,10 @@ public class ReadServiceImpl extends BaseServiceImpl<OperationStats> implements
             // the exception is not re-thrown but passed to the caller in the queryResult so that
             // the caller has a chance to inspect / report query stats before re-throwing the exception
             queryResult.setException(e);
-            queryResult.setSourceName(sourceName);
+            if (sourceName != null) {
+                // the prefetching loop reports the source name itself
+                queryResult.setSourceName(sourceName);
+            }
         } finally {
             queryResult.setStats(queryStats);
         }
@@ -156,8 +246,10 @@ public class ReadServiceImpl extends BaseServiceImpl<OperationStats> implements
                         context.getFragmentIndex(), context.getDataSource());
                 while ((record = bridge.getNext()) != null) {
                     record.write(dos);
+                    // an encoder carries a whole batch of records
+                    int recordCount = (record instanceof RecordEncoder) ? ((RecordEncoder) record).getRecordCount() : 1;
                     // fragment's current byte count is relative to the previous stream's byte count
-                    fragmentStats.reportCompletedRecord(countingOutputStream.getCount() - previousStreamByteCount);
+                    fragmentStats.reportCompletedRecords(recordCount, countingOutputStream.getCount() - previousStreamByteCount);
                 }
             }
             success = true;
@@ -187,6 +279,137 @@ public class ReadServiceImpl extends BaseServiceImpl<OperationStats> implements
         }
     }
 
+    /**
+     * Streams the fragments in order, while the next fragments are opened and
+     * read by worker threads. Every fragment is read with its own copy of the
+     * request context, so that the data source, fragment metadata and profile
+     * of a fragment are not changed while it is read.
+     *
+     * @param fragments            the fragments of the segment
+     * @param countingOutputStream output stream to write data to
+     * @param context              request context
+     * @param queryStats           query statistics
+     * @param queryResult          the result of the query, to report the source of a failure
+     * @throws Exception if operation fails
+     */
+    private void writePrefetchedFragments(List<Fragment> fragments,
+                                          CountingOutputStream countingOutputStream,
+                                          RequestContext context,
+                                          OperationStats queryStats,
+                                          OperationResult queryResult) throws Exception {
+        // workers read the data as the identity of the request
+        UserGroupInformation ugi = UserGroupInformation.getCurrentUser();
+        Deque<PrefetchedFragment> pending = new ArrayDeque<>();
+        int next = 0;
+        try {
+            while (next < fragments.size() || !pending.isEmpty()) {
+                // keep the streamed fragment and the prefetched ones in flight
+                while (next < fragments.size() && pending.size() <= prefetchFragments) {
+                    pending.add(prefetch(getFragmentContext(context, fragments.get(next)), ugi));
+                    // release the fragment as soon as it is handed to its context
+                    fragments.set(next++, null);
+                }
+                PrefetchedFragment fragment = pending.poll();
+                queryResult.setSourceName(fragment.context.getDataSource());
+                if (fragment.isPrefetched()) {
+                    streamPrefetchedFragment(fragment, countingOutputStream, queryStats);
+                } else {
+                    processFragment(countingOutputStream, fragment.context, queryStats);
+                }
+            }
+        } finally {
+            // stop the fragments that will not be streamed, and wait for
+            // their bridges to be closed while the request identity is valid
+            for (PrefetchedFragment fragment : pending) {
+                fragment.cancel();
+            }
+            for (PrefetchedFragment fragment : pending) {
+                fragment.awaitCompletion();
+            }
+        }
+    }
+
+    /**
+     * Returns a copy of the context for the given fragment
+     */
+    private RequestContext getFragmentContext(RequestContext context, Fragment fragment) {
+        RequestContext fragmentContext = context.copy();
+        String profile = fragment.getProfile();
+        if (StringUtils.isNotBlank(profile) &&
+                !StringUtils.equalsIgnoreCase(profile, context.getProfile())) {
+            log.debug("Fragment {} of resource {} will be using profile: {}",
+                    fragment.getIndex(), fragment.getSourceName(), profile);
+            updateProfile(fragmentContext, profile);
+        }
+        fragmentContext.setDataSource(fragment.getSourceName());
+        fragmentContext.setFragmentIndex(fragment.getIndex());
+        fragmentContext.setFragmentMetadata(fragment.getMetadata());
+        return fragmentContext;
+    }
+
+    /**
+     * Submits the fragment to be read by a worker thread. When all the
+     * threads are busy, the fragment is read by the request thread once it is
+     * its turn to be streamed.
+     */
+    private PrefetchedFragment prefetch(RequestContext fragmentContext, UserGroupInformation ugi) {
+        PrefetchedFragment fragment = new PrefetchedFragment(fragmentContext, ugi, MDC.getCopyOfContextMap());
+        try {
+            prefetchExecutor.execute(fragment);
+        } catch (RejectedExecutionException e) {
+            log.debug("No thread available to prefetch fragment {} of resource {}",
+                    fragmentContext.getFragmentIndex(), fragmentContext.getDataSource());
+            return new PrefetchedFragment(fragmentContext);
+        }
+        return fragment;
+    }
+
+    /**
+     * Writes the data read by a worker thread for a fragment to the output
+     * stream, and updates query statistics.
+     *
+     * @param fragment             the prefetched fragment
+     * @param countingOutputStream output stream to write data to
+     * @param queryStats           query statistics
+     * @throws Exception if reading the fragment failed
+     */
+    private void streamPrefetchedFragment(PrefetchedFragment fragment,
+                                          CountingOutputStream countingOutputStream,
+                                          OperationStats queryStats) throws Exception {
+        RequestContext context = fragment.context;
+        OperationStats fragmentStats = new OperationStats(OperationStats.Operation.READ, metricsReporter, context);
+        long previousStreamByteCount = countingOutputStream.getCount();
+        boolean success = false;
+        Instant startTime = Instant.now();
+        try {
+            log.debug("Starting streaming prefetched fragment {} of resource {}",
+                    context.getFragmentIndex(), context.getDataSource());
+            PrefetchChunk chunk;
+            while ((chunk = fragment.take()).length >= 0) {
+                countingOutputStream.write(chunk.data, 0, chunk.length);
+                // fragment's current byte count is relative to the previous stream's byte count
+                fragmentStats.reportCompletedRecords(chunk.recordCount, countingOutputStream.getCount() - previousStreamByteCount);
+            }
+            if (chunk.exception != null) {
+                throw chunk.exception;
+            }
+            success = true;
+        } finally {
+            if (!success) {
+                fragment.cancel();
+            }
+            Duration duration = Duration.between(startTime, Instant.now());
+
+            fragmentStats.setByteCount(countingOutputStream.getCount() - previousStreamByteCount);
+            fragmentStats.flushStats();
+            queryStats.update(fragmentStats);
+
+            log.debug("Finished processing fragment {} of resource {} in {} ms, wrote {} records and {} bytes.",
+                    context.getFragmentIndex(), context.getDataSource(), duration.toMillis(), fragmentStats.getRecordCount(), fragmentStats.getByteCount());
+            metricsReporter.reportTimer(MetricsReporter.PxfMetric.FRAGMENTS_SENT, duration, context, success);
+        }
+    }
+
     private void updateProfile(RequestContext context, String profile) {
         context.setProfile(profile);
         PluginConf pluginConf = context.getPluginConf();
@@ -208,4 +431,197 @@ public class ReadServiceImpl extends BaseServiceImpl<OperationStats> implements
         }
     }
 
+    /**
+     * A fragment read by a worker thread into a bounded queue of chunks. The
+     * last chunk has a negative length, and carries the exception when
+     * reading the fragment failed. When the worker stops without queueing
+     * the last chunk, because it is interrupted while the service shuts down
+     * or because it never runs, the request thread fails the fragment instead
+     * of waiting for it.
+     */
+    private class PrefetchedFragment implements Runnable {
+
+        private final RequestContext context;
+        private final UserGroupInformation ugi;
+        private final Map<String, String> mdcContext;
+        private final BlockingQueue<PrefetchChunk> chunks;
+        private final CountDownLatch completed = new CountDownLatch(1);
+        private volatile boolean started;
+        private volatile boolean cancelled;
+
+        /**
+         * A fragment that is not prefetched
+         */
+        PrefetchedFragment(RequestContext context) {
+            this.context = context;
+            this.ugi = null;
+            this.mdcContext = null;
+            this.chunks = null;
+            completed.countDown();
+        }
+
+        PrefetchedFragment(RequestContext context, UserGroupInformation ugi, Map<String, String> mdcContext) {
+            this.context = context;
+            this.ugi = ugi;
+            this.mdcContext = mdcContext;
+            this.chunks = new ArrayBlockingQueue<>(prefetchBufferChunks);
+        }
+
+        boolean isPrefetched() {
+            return chunks != null;
+        }
+
+        @Override
+        public void run() {
+            started = true;
+            if (mdcContext != null) {
+                MDC.setContextMap(mdcContext);
+            }
+            try {
+                ugi.doAs((PrivilegedExceptionAction<Void>) () -> {
+                    read();
+                    return null;
+                });
+                put(new PrefetchChunk(null, -1, 0, null));
+            } catch (Throwable t) {
+                // the request thread must always receive the last chunk
+                put(new PrefetchChunk(null, -1, 0, unwrap(t)));
+            } finally {
+                completed.countDown();
+                MDC.clear();
+            }
+        }
+
+        private void read() throws Exception {
+            ChunkOutputStream chunk = new ChunkOutputStream();
+            DataOutputStream dos = new DataOutputStream(chunk);
+            Bridge bridge = null;
+            try {
+                bridge = getBridge(context);
+                if (bridge.beginIteration()) {
+                    Writable record;
+                    while (!cancelled && (record = bridge.getNext()) != null) {
+                        record.write(dos);
+                        // an encoder carries a whole batch of records
+                        chunk.recordCount += (record instanceof RecordEncoder) ? ((RecordEncoder) record).getRecordCount() : 1;
+                        if (chunk.size() >= PREFETCH_CHUNK_SIZE) {
+                            put(chunk.toChunk());
+                            chunk = new ChunkOutputStream();
+                            dos = new DataOutputStream(chunk);
+                        }
+                    }
+                }
+                if (chunk.size() > 0) {
+                    put(chunk.toChunk());
+                }
+            } finally {
+                if (bridge != null) {
+                    try {
+                        bridge.endIteration();
+                    } catch (Exception e) {
+                        log.warn("Ignoring error encountered during bridge.endIteration()", e);
+                    }
+                }
+            }
+        }
+
+        /**
+         * Adds the chunk to the queue, waiting for space unless the fragment
+         * is cancelled
+         */
+        private void put(PrefetchChunk chunk) {
+            try {
+                while (!cancelled) {
+                    if (chunks.offer(chunk, PREFETCH_POLL_MILLIS, TimeUnit.MILLISECONDS)) {
+                        return;
+                    }
+                }
+            } catch (InterruptedException e) {
+                // the service is shutting down
+                cancelled = true;
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        /**
+         * Returns the exception thrown by the bridge, doAs wraps checked
+         * exceptions other than IOException and InterruptedException
+         */
+        private Exception unwrap(Throwable t) {
+            Throwable cause = (t instanceof UndeclaredThrowableException && t.getCause() != null) ? t.getCause() : t;
+            return (cause instanceof Exception) ? (Exception) cause : new RuntimeException(cause);
+        }
+
+        /**
+         * Returns the next chunk, waiting for the worker to queue it as long
+         * as the worker is running or is yet to run
+         */
+        PrefetchChunk take() throws InterruptedException {
+            while (true) {
+                PrefetchChunk chunk = chunks.poll(PREFETCH_POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (chunk != null) {
+                    return chunk;
+                }
+                if (isStopped()) {
+                    // the worker might have queued the last chunk after the poll timed out
+                    chunk = chunks.poll();
+                    return chunk != null ? chunk : new PrefetchChunk(null, -1, 0, new IOException(String.format(
+                            "Reading fragment %d of resource %s stopped before it completed",
+                            context.getFragmentIndex(), context.getDataSource())));
+                }
+            }
+        }
+
+        void cancel() {
+            cancelled = true;
+        }
+
+        void awaitCompletion() throws InterruptedException {
+            while (!completed.await(PREFETCH_POLL_MILLIS, TimeUnit.MILLISECONDS)) {
+                if (isStopped()) {
+                    return;
+                }
+            }
+        }
+
+        /**
+         * @return true if the worker has completed, or will never run since
+         * the executor was shut down before it started
+         */
+        private boolean isStopped() {
+            return completed.getCount() == 0 || (!started && prefetchExecutor.isTerminated());
+        }
+    }
+
+    /**
+     * Data of a fragment read by a worker thread
+     */
+    private static class PrefetchChunk {
+        private final byte[] data;
+        private final int length;
+        private final int recordCount;
+        private final Exception exception;
+
+        PrefetchChunk(byte[] data, int length, int recordCount, Exception exception) {
+            this.data = data;
+            this.length = length;
+            this.recordCount = recordCount;
+            this.exception = exception;
+        }
+    }
+
+    /**
+     * Output stream that hands its buffer over to a chunk without copying it
+     */
+    private static class ChunkOutputStream extends ByteArrayOutputStream {
+        private int recordCount;
+
+        ChunkOutputStream() {
+            super(PREFETCH_CHUNK_SIZE + PREFETCH_CHUNK_SIZE / 4);
+        }
+
+        PrefetchChunk toChunk() {
+            return new PrefetchChunk(buf, count, recordCount, null);
+        }
+    }
 }
@@ -15,6 +15,9 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.security.PrivilegedAction;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
 
 import static org.apache.hadoop.fs.CommonConfigurationKeysPublic.HADOOP_SECURITY_SASL_PROPS_RESOLVER_CLASS;
 
@@ -28,15 +31,15 @@ public class BaseSecurityService implements SecurityService {
     private static final String EXPAND_PRINCIPAL_PROPERTY = "pxf.features.kerberos.expand-user-principal";
 
     private final SecureLogin secureLogin;
-    private final UGIProvider ugiProvider;
+    private final UGICache ugiCache;
 
     /* feature flag to expand Kerberos User Principal name when impersonating */
     private boolean isExpandUserPrincipal;
 
-    public BaseSecurityService(SecureLogin secureLogin, UGIProvider ugiProvider,
+    public BaseSecurityService(SecureLogin secureLogin, UGICache ugiCache,
                                @Value("${" + EXPAND_PRINCIPAL_PROPERTY + "}") boolean isExpandUserPrincipal) {
         this.secureLogin = secureLogin;
-        this.ugiProvider = ugiProvider;
+        this.ugiCache = ugiCache;
         this.isExpandUserPrincipal = isExpandUserPrincipal;
     }
 
@@ -45,7 +48,9 @@ public class BaseSecurityService implements SecurityService {
      * presence of the expected security headers and create a proxy user to
      * execute further request chain. If security is enabled for the
      * configuration server used for the requests, makes sure that a login
-     * UGI for the the Kerberos principal is created.
+     * UGI for the the Kerberos principal is created. The UGI of the remote
+     * user is shared with other requests for the same server and user, so
+     * that the file system clients created by previous requests are reused.
      *
      * <p>Responds with an HTTP error if the header is missing or the chain
      * processing throws an exception.
@@ -107,13 +112,13 @@ public class BaseSecurityService implements SecurityService {
             processConstrainedDelegation(configuration, isSecurityEnabled, isConstrainedDelegationEnabled, remoteUser, loginUser.getUserName());
 
             // Retrieve proxy user UGI from the UGI of the logged in user
-            if (isUserImpersonationEnabled || isConstrainedDelegationEnabled) {
-                LOG.debug("Creating proxy user = {}", remoteUser);
-                userGroupInformation = ugiProvider.createProxyUser(remoteUser, loginUser);
-            } else {
-                LOG.debug("Creating remote user = {}", remoteUser);
-                userGroupInformation = ugiProvider.createRemoteUser(remoteUser, loginUser, isSecurityEnabled);
-            }
+            Map<String, String> additionalProperties = context.getAdditionalConfigProps() == null
+                    ? Collections.emptyMap()
+                    : new HashMap<>(context.getAdditionalConfigProps());
+            UGICache.Key key = new UGICache.Key(serverName,
+                    configuration.getLong(ConfigurationFactory.PXF_CONFIG_VERSION_PROPERTY, 0), loginUser, remoteUser,
+                    isUserImpersonationEnabled || isConstrainedDelegationEnabled, isSecurityEnabled, additionalProperties);
+            userGroupInformation = ugiCache.acquire(key, loginUser);
 
             LOG.debug("Retrieved proxy user {} for server {}", userGroupInformation, serverName);
             LOG.debug("Performing request for gpdb_user = {} as [remote_user={}, service_user={}, login_user={}] with{} impersonation",
@@ -127,7 +132,7 @@ public class BaseSecurityService implements SecurityService {
             LOG.debug("Releasing UGI resources. {}", exceptionDetected ? " Exception while processing." : "");
             try {
                 if (userGroupInformation != null) {
-                    ugiProvider.destroy(userGroupInformation);
+                    ugiCache.release(userGroupInformation);
                 }
             } catch (Throwable t) {
                 LOG.warn("Error releasing UGI resources, ignored.", t);
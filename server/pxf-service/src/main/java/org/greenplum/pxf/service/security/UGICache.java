@@ -0,0 +1,180 @@
+package org.greenplum.pxf.service.security;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Ticker;
+import lombok.Data;
+import org.apache.hadoop.security.UserGroupInformation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reference-counted cache of the {@link UserGroupInformation} used to
+ * execute requests.
+ * <p>
+ * Hadoop caches {@link org.apache.hadoop.fs.FileSystem} clients per UGI, so
+ * reusing the same UGI for consecutive and concurrent requests of a user
+ * reuses the file system clients (and their connections and thread pools)
+ * created by previous requests. A UGI is destroyed, closing all of its file
+ * system clients, once it has not been used by any request for the
+ * configured expiration time. With an expiration of zero a UGI is destroyed
+ * as soon as the last request using it completes.
+ * <p>
+ * Expired entries are cleaned up whenever a UGI is acquired or released.
+ * They are removed from the cache while holding its lock, but destroyed
+ * after the lock is released, since closing the file system clients might
+ * block on the network.
+ */
+@Component
+class UGICache {
+
+    private static final Logger LOG = LoggerFactory.getLogger(UGICache.class);
+
+    private final UGIProvider ugiProvider;
+    private final long expirationNanos;
+    private final Ticker ticker;
+    private final Map<Key, Entry> cache = new HashMap<>();
+
+    @Autowired
+    UGICache(UGIProvider ugiProvider, @Value("${pxf.ugi-cache.expiration:5m}") Duration expiration) {
+        this(ugiProvider, expiration, Ticker.systemTicker());
+    }
+
+    @VisibleForTesting
+    UGICache(UGIProvider ugiProvider, Duration expiration, Ticker ticker) {
+        this.ugiProvider = ugiProvider;
+        this.expirationNanos = expiration.toNanos();
+        this.ticker = ticker;
+    }
+
+    /**
+     * Returns the UGI for the remote user, creating it if it is not cached.
+     * Every UGI that is acquired must be released with
+     * {@link #release(UserGroupInformation)}.
+     *
+     * @param key       the identity of the UGI
+     * @param loginUser the UGI of the login user (or Kerberos principal)
+     * @return the UGI of the remote user
+     */
+    UserGroupInformation acquire(Key key, UserGroupInformation loginUser) {
+        List<UserGroupInformation> expired;
+        Entry entry;
+        synchronized (this) {
+            expired = removeExpired();
+            entry = cache.get(key);
+            if (entry == null) {
+                UserGroupInformation ugi;
+                if (key.isProxyUser()) {
+                    LOG.debug("Creating proxy user = {}", key.getRemoteUser());
+                    ugi = ugiProvider.createProxyUser(key.getRemoteUser(), loginUser);
+                } else {
+                    LOG.debug("Creating remote user = {}", key.getRemoteUser());
+                    ugi = ugiProvider.createRemoteUser(key.getRemoteUser(), loginUser, key.isSecurityEnabled());
+                }
+                entry = new Entry(ugi);
+                cache.put(key, entry);
+            }
+            entry.references++;
+        }
+        destroy(expired);
+        return entry.ugi;
+    }
+
+    /**
+     * Releases a UGI acquired with {@link #acquire(Key, UserGroupInformation)}
+     *
+     * @param ugi the UGI that is no longer used by the request
+     */
+    void release(UserGroupInformation ugi) {
+        List<UserGroupInformation> expired;
+        synchronized (this) {
+            for (Entry entry : cache.values()) {
+                if (entry.ugi == ugi) {
+                    entry.references--;
+                    entry.lastReleased = ticker.read();
+                    break;
+                }
+            }
+            expired = removeExpired();
+        }
+        destroy(expired);
+    }
+
+    /**
+     * @return the number of UGIs in the cache
+     */
+    synchronized int size() {
+        return cache.size();
+    }
+
+    /**
+     * Removes the entries that are not used and have expired, must be called
+     * while holding the lock of the cache.
+     *
+     * @return the UGIs of the removed entries
+     */
+    private List<UserGroupInformation> removeExpired() {
+        List<UserGroupInformation> expired = Collections.emptyList();
+        long now = ticker.read();
+        Iterator<Entry> entries = cache.values().iterator();
+        while (entries.hasNext()) {
+            Entry entry = entries.next();
+            if (entry.references == 0 && now - entry.lastReleased >= expirationNanos) {
+                entries.remove();
+                if (expired.isEmpty()) {
+                    expired = new ArrayList<>();
+                }
+                expired.add(entry.ugi);
+            }
+        }
+        return expired;
+    }
+
+    private void destroy(List<UserGroupInformation> expired) {
+        for (UserGroupInformation ugi : expired) {
+            LOG.debug("Releasing resources of UGI {}", ugi);
+            try {
+                ugiProvider.destroy(ugi);
+            } catch (Throwable t) {
+                LOG.warn("Error releasing UGI resources, ignored.", t);
+            }
+        }
+    }
+
+    /**
+     * The identity of a UGI. UGIs are not shared across servers, versions of
+     * the server configuration, login users (a new login UGI is created on
+     * Kerberos re-login) or additional configuration properties, since the
+     * file system clients keep the configuration they were created with.
+     */
+    @Data
+    static class Key {
+        private final String serverName;
+        private final long configurationVersion;
+        private final UserGroupInformation loginUser;
+        private final String remoteUser;
+        private final boolean proxyUser;
+        private final boolean securityEnabled;
+        private final Map<String, String> additionalProperties;
+    }
+
+    private static class Entry {
+        private final UserGroupInformation ugi;
+        private int references;
+        private long lastReleased;
+
+        Entry(UserGroupInformation ugi) {
+            this.ugi = ugi;
+        }
+    }
+}
@@ -36,6 +36,25 @@ public class AnalyzeUtils {
 
     private static final Log LOG = LogFactory.getLog(AnalyzeUtils.class);
 
+    /**
+     * The option to sample blocks of the data for ANALYZE, rather than to
+     * read all of the data and sample its rows
+     */
+    public static final String STATS_BLOCK_SAMPLING_OPTION = "STATS_BLOCK_SAMPLING";
+
+    /**
+     * Returns true if the request samples the data for ANALYZE by blocks, in
+     * which case the fragmenter returns only the sampled blocks, and all of
+     * the rows of the sampled blocks are read.
+     *
+     * @param context      container for parameters, including sampling data.
+     * @param defaultValue whether blocks are sampled when the option is not set
+     * @return true if the request samples blocks of the data
+     */
+    static public boolean isBlockSampling(RequestContext context, boolean defaultValue) {
+        return context.getStatsSampleRatio() > 0 && context.getOption(STATS_BLOCK_SAMPLING_OPTION, defaultValue);
+    }
+
     /**
      * In case pxf_max_fragments parameter is declared, make sure not to get
      * over the limit. The returned fragments are evenly distributed, in order
@@ -27,6 +27,7 @@ import org.greenplum.pxf.api.examples.DemoFragmentMetadata;
 import org.greenplum.pxf.api.io.BufferWritable;
 import org.greenplum.pxf.api.io.DataType;
 import org.greenplum.pxf.api.io.GPDBWritable;
+import org.greenplum.pxf.api.io.RecordEncoder;
 import org.greenplum.pxf.api.io.Text;
 import org.greenplum.pxf.api.io.Writable;
 import org.greenplum.pxf.api.model.OutputFormat;
@@ -34,7 +35,11 @@ import org.greenplum.pxf.api.model.RequestContext;
 import org.greenplum.pxf.api.utilities.ColumnDescriptor;
 import org.junit.jupiter.api.Test;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
 import java.io.DataOutput;
+import java.io.DataOutputStream;
 import java.io.IOException;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
@@ -42,6 +47,7 @@ import java.sql.Date;
 import java.sql.Timestamp;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.StringJoiner;
@@ -171,34 +177,35 @@ public class BridgeOutputBuilderTest {
                         + ",PXFERRMSG> test message\n";
     }
 
-    private void assertPrimitiveTypesInGPDBWritable(List<Writable> outputQueue) throws GPDBWritable.TypeMismatchException {
+    private void assertPrimitiveTypesInGPDBWritable(List<Writable> outputQueue) throws IOException {
         assertNotNull(outputQueue);
         assertEquals(1, outputQueue.size());
-        assertTrue(outputQueue.get(0) instanceof GPDBWritable);
-        output = (GPDBWritable) outputQueue.get(0);
+        assertTrue(outputQueue.get(0) instanceof RecordEncoder);
+        output = readGPDBWritable(outputQueue.get(0));
 
+        // strings are read back without their '\0' terminator
         assertTrue(output.getBoolean(0));
         assertArrayEquals(new byte[]{0, 1}, output.getBytes(1));
         assertEquals(1L, output.getLong(2));
         assertEquals((short) 2, output.getShort(3));
         assertEquals(3, output.getInt(4));
-        assertEquals("text-value\0", output.getString(5));
+        assertEquals("text-value", output.getString(5));
         assertEquals(4.5f, output.getFloat(6));
         assertEquals(6.7d, output.getDouble(7));
-        assertEquals("char-value\0", output.getString(8));
-        assertEquals("varchar-value\0", output.getString(9));
-        assertEquals("1994-08-03\0", output.getString(10));
-        assertEquals("10:11:12\0", output.getString(11));
-        assertEquals("2022-06-10 11:44:33.123456\0", output.getString(12));
-        assertEquals("2022-06-10 11:44:55.123456\0", output.getString(13));
-        assertEquals("9876.54321\0", output.getString(14));
-        assertEquals("667b97ba-38d0-4b91-9c7d-1f8b30a75c6e\0", output.getString(15));
+        assertEquals("char-value", output.getString(8));
+        assertEquals("varchar-value", output.getString(9));
+        assertEquals("1994-08-03", output.getString(10));
+        assertEquals("10:11:12", output.getString(11));
+        assertEquals("2022-06-10 11:44:33.123456", output.getString(12));
+        assertEquals("2022-06-10 11:44:55.123456", output.getString(13));
+        assertEquals("9876.54321", output.getString(14));
+        assertEquals("667b97ba-38d0-4b91-9c7d-1f8b30a75c6e", output.getString(15));
     }
 
     private void assertPrimitiveTypesInText(List<Writable> outputQueue) throws IOException {
         assertNotNull(outputQueue);
         assertEquals(1, outputQueue.size());
-        assertTrue(outputQueue.get(0) instanceof Text);
+        assertTrue(outputQueue.get(0) instanceof RecordEncoder);
         outputQueue.get(0).write(dos);
         assertEquals(getExpectedSerializedString(), new String(dos.getOutput(), StandardCharsets.UTF_8));
     }
@@ -308,23 +315,107 @@ public class BridgeOutputBuilderTest {
     }
 
     @Test
-    public void testFillOneGPDBWritableField() {
+    public void testFillGPDBWritable_UnsupportedType() {
         RequestContext context = new RequestContext();
-        addColumn(context, 0, DataType.INTEGER, "col0");
+        context.setOutputFormat(OutputFormat.GPDBWritable);
+        addColumn(context, 0, DataType.UNSUPPORTED_TYPE, "col0");
         BridgeOutputBuilder builder = makeBuilder(context);
-        output = builder.makeGPDBWritableOutput();
 
-        OneField unSupportedField = new OneField(UN_SUPPORTED_TYPE, (byte) 0);
+        List<OneField> unSupportedField = Collections.singletonList(new OneField(UN_SUPPORTED_TYPE, (byte) 0));
 
         Exception e = assertThrows(UnsupportedOperationException.class,
-                () -> builder.fillOneGPDBWritableField(unSupportedField, 0),
+                () -> builder.makeOutput(unSupportedField),
                 "Unsupported data type should throw exception");
         assertEquals("Byte is not supported for GPDB conversion", e.getMessage());
     }
 
+    @Test
+    public void testFillGPDBWritable_VectorizedOutputIsOneWritable() throws Exception {
+        RequestContext context = new RequestContext();
+        context.setOutputFormat(OutputFormat.GPDBWritable);
+        addColumn(context, 0, DataType.INTEGER, "col0");
+        addColumn(context, 1, DataType.TEXT, "col1");
+        BridgeOutputBuilder builder = makeBuilder(context);
+
+        List<List<OneField>> batch = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            batch.add(Arrays.asList(
+                    new OneField(DataType.INTEGER.getOID(), i),
+                    new OneField(DataType.TEXT.getOID(), i == 1 ? null : "välue-" + i)));
+        }
+        List<Writable> outputQueue = builder.makeVectorizedOutput(batch);
+
+        assertEquals(1, outputQueue.size());
+        assertEquals(3, ((RecordEncoder) outputQueue.get(0)).getRecordCount());
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        outputQueue.get(0).write(new DataOutputStream(bytes));
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+        for (int i = 0; i < 3; i++) {
+            GPDBWritable record = new GPDBWritable(StandardCharsets.UTF_8);
+            record.readFields(in);
+            assertEquals(i, record.getInt(0));
+            assertEquals(i == 1 ? null : "välue-" + i, record.getString(1));
+        }
+        assertEquals(0, in.available());
+
+        // an empty batch produces no output
+        assertEquals(0, builder.makeVectorizedOutput(Collections.emptyList()).size());
+    }
+
+    @Test
+    public void testFillText_VectorizedOutputIsOneWritable() throws Exception {
+        RequestContext context = new RequestContext();
+        context.setFormat("CSV");
+        addColumn(context, 0, DataType.INTEGER, "col0");
+        addColumn(context, 1, DataType.TEXT, "col1");
+        BridgeOutputBuilder builder = makeBuilder(context);
+
+        List<List<OneField>> batch = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            batch.add(Arrays.asList(
+                    new OneField(DataType.INTEGER.getOID(), i),
+                    new OneField(DataType.TEXT.getOID(), i == 1 ? null : "välue," + i)));
+        }
+        List<Writable> outputQueue = builder.makeVectorizedOutput(batch);
+
+        assertEquals(1, outputQueue.size());
+        assertEquals(3, ((RecordEncoder) outputQueue.get(0)).getRecordCount());
+        outputQueue.get(0).write(dos);
+        assertEquals("0,\"välue,0\"\n1,\n2,\"välue,2\"\n", new String(dos.getOutput(), StandardCharsets.UTF_8));
+
+        // an empty batch produces no output
+        assertEquals(0, builder.makeVectorizedOutput(Collections.emptyList()).size());
+    }
+
+    @Test
+    public void testFillText_RecordNotMatchingSchema() throws Exception {
+        RequestContext context = new RequestContext();
+        context.setFormat("CSV");
+        addColumn(context, 0, DataType.INTEGER, "col0");
+        addColumn(context, 1, DataType.TEXT, "col1");
+        BridgeOutputBuilder builder = makeBuilder(context);
+
+        List<List<OneField>> batch = Arrays.asList(
+                Arrays.asList(new OneField(DataType.INTEGER.getOID(), 1), new OneField(DataType.TEXT.getOID(), "a")),
+                Arrays.asList(new OneField(DataType.INTEGER.getOID(), 2), new OneField(DataType.TEXT.getOID(), "b"),
+                        new OneField(DataType.TEXT.getOID(), "c")),
+                Arrays.asList(new OneField(DataType.INTEGER.getOID(), 3), new OneField(DataType.TEXT.getOID(), "d")));
+        List<Writable> outputQueue = builder.makeVectorizedOutput(batch);
+
+        // the records are serialized in order
+        assertEquals(3, outputQueue.size());
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        for (Writable writable : outputQueue) {
+            writable.write(new DataOutputStream(bytes));
+        }
+        assertEquals("1,a\n2,b,c\n3,d\n", new String(bytes.toByteArray(), StandardCharsets.UTF_8));
+    }
+
     @Test
     public void testRecordSmallerThanSchema() throws Exception {
         RequestContext context = new RequestContext();
+        context.setOutputFormat(OutputFormat.GPDBWritable);
 
         addColumn(context, 0, DataType.INTEGER, "col0");
         addColumn(context, 1, DataType.INTEGER, "col1");
@@ -332,7 +423,6 @@ public class BridgeOutputBuilderTest {
         addColumn(context, 3, DataType.INTEGER, "col3");
 
         BridgeOutputBuilder builder = makeBuilder(context);
-        output = builder.makeGPDBWritableOutput();
 
         /* all four fields */
         List<OneField> complete = Arrays.asList(
@@ -340,7 +430,7 @@ public class BridgeOutputBuilderTest {
                         DataType.INTEGER.getOID(), 20), new OneField(
                         DataType.INTEGER.getOID(), 30), new OneField(
                         DataType.INTEGER.getOID(), 40));
-        builder.fillGPDBWritable(complete);
+        output = readGPDBWritable(builder.makeOutput(complete).get(0));
         assertEquals(output.getColType().length, 4);
         assertEquals(output.getInt(0), Integer.valueOf(10));
         assertEquals(output.getInt(1), Integer.valueOf(20));
@@ -352,7 +442,7 @@ public class BridgeOutputBuilderTest {
                 new OneField(DataType.INTEGER.getOID(), 10), new OneField(
                         DataType.INTEGER.getOID(), 20));
         Exception e = assertThrows(BadRecordException.class,
-                () -> builder.fillGPDBWritable(incomplete),
+                () -> builder.makeOutput(incomplete),
                 "testRecordBiggerThanSchema should have failed on - Record has 2 fields but the schema size is 4");
         assertEquals("Record has 2 fields but the schema size is 4", e.getMessage());
     }
@@ -360,6 +450,7 @@ public class BridgeOutputBuilderTest {
     @Test
     public void testRecordBiggerThanSchema() {
         RequestContext context = new RequestContext();
+        context.setOutputFormat(OutputFormat.GPDBWritable);
 
         addColumn(context, 0, DataType.INTEGER, "col0");
         addColumn(context, 1, DataType.INTEGER, "col1");
@@ -367,7 +458,6 @@ public class BridgeOutputBuilderTest {
         addColumn(context, 3, DataType.INTEGER, "col3");
 
         BridgeOutputBuilder builder = makeBuilder(context);
-        output = builder.makeGPDBWritableOutput();
 
         /* five fields instead of four */
         List<OneField> complete = Arrays.asList(
@@ -377,7 +467,7 @@ public class BridgeOutputBuilderTest {
                         DataType.INTEGER.getOID(), 40), new OneField(
                         DataType.INTEGER.getOID(), 50));
         Exception e = assertThrows(BadRecordException.class,
-                () -> builder.fillGPDBWritable(complete),
+                () -> builder.makeOutput(complete),
                 "testRecordBiggerThanSchema should have failed on - Record has 5 fields but the schema size is 4");
         assertEquals("Record has 5 fields but the schema size is 4", e.getMessage());
     }
@@ -440,6 +530,7 @@ public class BridgeOutputBuilderTest {
     @Test
     public void testFieldTypeMismatch() {
         RequestContext context = new RequestContext();
+        context.setOutputFormat(OutputFormat.GPDBWritable);
 
         addColumn(context, 0, DataType.INTEGER, "col0");
         addColumn(context, 1, DataType.INTEGER, "col1");
@@ -447,7 +538,6 @@ public class BridgeOutputBuilderTest {
         addColumn(context, 3, DataType.INTEGER, "col3");
 
         BridgeOutputBuilder builder = makeBuilder(context);
-        output = builder.makeGPDBWritableOutput();
 
         /* last field is REAL while schema requires INT */
         List<OneField> complete = Arrays.asList(
@@ -456,7 +546,7 @@ public class BridgeOutputBuilderTest {
                         DataType.INTEGER.getOID(), 30), new OneField(
                         DataType.REAL.getOID(), 40.0));
         Exception e = assertThrows(BadRecordException.class,
-                () -> builder.fillGPDBWritable(complete),
+                () -> builder.makeOutput(complete),
                 "testFieldTypeMismatch should have failed on - For field 3 schema requires type INTEGER but input record has type REAL");
         assertEquals("For field col3 schema requires type INTEGER but input record has type REAL", e.getMessage());
     }
@@ -601,6 +691,11 @@ public class BridgeOutputBuilderTest {
         assertArrayEquals(expected.getBytes(), dos.getOutput());
     }
 
+    private GPDBWritable readGPDBWritable(Writable writable) throws IOException {
+        writable.write(dos);
+        return new GPDBWritable(dos.getOutput(), StandardCharsets.UTF_8);
+    }
+
     private void addColumn(RequestContext context, int idx, DataType dataType, String name) {
         ColumnDescriptor column = new ColumnDescriptor(name, dataType.getOID(), idx, dataType.toString(), null);
         context.getTupleDescription().add(column);
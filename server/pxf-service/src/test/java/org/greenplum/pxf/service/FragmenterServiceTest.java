@@ -8,7 +8,9 @@ import org.greenplum.pxf.api.examples.DemoFragmentMetadata;
 import org.greenplum.pxf.api.model.Fragment;
 import org.greenplum.pxf.api.model.Fragmenter;
 import org.greenplum.pxf.api.model.RequestContext;
+import org.greenplum.pxf.api.utilities.CombinedFragmentMetadata;
 import org.greenplum.pxf.api.utilities.FragmenterCacheFactory;
+import org.greenplum.pxf.plugins.hdfs.HcfsFragmentMetadata;
 import org.greenplum.pxf.service.utilities.BasePluginFactory;
 import org.greenplum.pxf.service.utilities.GSSFailureHandler;
 import org.junit.jupiter.api.BeforeEach;
@@ -21,6 +23,7 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.concurrent.TimeUnit;
@@ -32,6 +35,7 @@ import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
@@ -47,6 +51,7 @@ class FragmenterServiceTest {
     @Mock private Fragmenter fragmenter2;
     @Mock private Fragmenter fragmenter3;
     private Cache<String, List<Fragment>> fragmentCache;
+    private FragmenterCacheFactory fragmenterCacheFactory;
     private FakeTicker fakeTicker;
     private FragmenterService fragmenterService;
     private Configuration configuration;
@@ -77,7 +82,7 @@ class FragmenterServiceTest {
         context2.setDataSource("path.A");
         context2.setConfiguration(configuration);
 
-        FragmenterCacheFactory fragmenterCacheFactory = mock(FragmenterCacheFactory.class);
+        fragmenterCacheFactory = mock(FragmenterCacheFactory.class);
 
         fakeTicker = new FakeTicker();
         fragmentCache = CacheBuilder.newBuilder()
@@ -89,7 +94,7 @@ class FragmenterServiceTest {
 
         // use a real handler to ensure pass-through calls on default configuration
         fragmenterService = new FragmenterService(fragmenterCacheFactory,
-                mockPluginFactory, new GSSFailureHandler());
+                mockPluginFactory, new GSSFailureHandler(), false, false);
     }
 
     @Test
@@ -246,6 +251,229 @@ class FragmenterServiceTest {
         assertEquals(fragmentList2, response2);
     }
 
+    @Test
+    public void testFragmentsAreCachedAcrossQueriesWhenVersionIsUnchanged() throws Throwable {
+        enableListingCache();
+        List<Fragment> fragmentList = Arrays.asList(
+                new Fragment("foo.bar", new DemoFragmentMetadata()),
+                new Fragment("bar.foo", new DemoFragmentMetadata()));
+        context2.setFragmenter(context1.getFragmenter());
+
+        when(mockPluginFactory.getPlugin(context1, context1.getFragmenter())).thenReturn(fragmenter1);
+        when(mockPluginFactory.getPlugin(context2, context2.getFragmenter())).thenReturn(fragmenter2);
+        when(fragmenter1.getFragmentsVersion()).thenReturn("10:1000");
+        when(fragmenter1.getFragments()).thenReturn(fragmentList);
+        when(fragmenter2.getFragmentsVersion()).thenReturn("10:1000");
+
+        List<Fragment> response1 = fragmenterService.getFragmentsForSegment(context1);
+        List<Fragment> response2 = fragmenterService.getFragmentsForSegment(context2);
+
+        verify(fragmenter1, times(1)).getFragments();
+        verify(fragmenter2, times(0)).getFragments();
+        assertEquals(fragmentList, response1);
+        assertEquals(fragmentList, response2);
+    }
+
+    @Test
+    public void testFragmentsAreListedAgainWhenVersionChanges() throws Throwable {
+        enableListingCache();
+        List<Fragment> fragmentList1 = Collections.singletonList(new Fragment("foo.bar", new DemoFragmentMetadata()));
+        List<Fragment> fragmentList2 = Arrays.asList(
+                new Fragment("foo.bar", new DemoFragmentMetadata()),
+                new Fragment("bar.foo", new DemoFragmentMetadata()));
+        context2.setFragmenter(context1.getFragmenter());
+
+        when(mockPluginFactory.getPlugin(context1, context1.getFragmenter())).thenReturn(fragmenter1);
+        when(mockPluginFactory.getPlugin(context2, context2.getFragmenter())).thenReturn(fragmenter2);
+        when(fragmenter1.getFragmentsVersion()).thenReturn("10:1000");
+        when(fragmenter1.getFragments()).thenReturn(fragmentList1);
+        when(fragmenter2.getFragmentsVersion()).thenReturn("20:2000");
+        when(fragmenter2.getFragments()).thenReturn(fragmentList2);
+
+        List<Fragment> response1 = fragmenterService.getFragmentsForSegment(context1);
+        List<Fragment> response2 = fragmenterService.getFragmentsForSegment(context2);
+
+        verify(fragmenter1, times(1)).getFragments();
+        verify(fragmenter2, times(1)).getFragments();
+        assertEquals(fragmentList1, response1);
+        assertEquals(fragmentList2, response2);
+    }
+
+    @Test
+    public void testFragmentsAreNotCachedAcrossQueriesWhenVersionIsUnknown() throws Throwable {
+        enableListingCache();
+        List<Fragment> fragmentList1 = Collections.singletonList(new Fragment("foo.bar", new DemoFragmentMetadata()));
+        List<Fragment> fragmentList2 = Arrays.asList(
+                new Fragment("foo.bar", new DemoFragmentMetadata()),
+                new Fragment("bar.foo", new DemoFragmentMetadata()));
+        context2.setFragmenter(context1.getFragmenter());
+
+        when(mockPluginFactory.getPlugin(context1, context1.getFragmenter())).thenReturn(fragmenter1);
+        when(mockPluginFactory.getPlugin(context2, context2.getFragmenter())).thenReturn(fragmenter2);
+        when(fragmenter1.getFragmentsVersion()).thenReturn(null);
+        when(fragmenter1.getFragments()).thenReturn(fragmentList1);
+        when(fragmenter2.getFragmentsVersion()).thenReturn(null);
+        when(fragmenter2.getFragments()).thenReturn(fragmentList2);
+
+        List<Fragment> response1 = fragmenterService.getFragmentsForSegment(context1);
+        List<Fragment> response2 = fragmenterService.getFragmentsForSegment(context2);
+
+        verify(fragmenter1, times(1)).getFragments();
+        verify(fragmenter2, times(1)).getFragments();
+        assertEquals(fragmentList1, response1);
+        assertEquals(fragmentList2, response2);
+        assertEquals(0, fragmenterCacheFactory.getListingCache().size());
+    }
+
+    @Test
+    public void testFragmentsAreNotCachedAcrossQueriesForDifferentFilters() throws Throwable {
+        enableListingCache();
+        context1.setFilterString("a3c25s10d2016-01-03o6");
+        context2.setFilterString("a3c25s10d2016-01-03o5");
+        context2.setFragmenter(context1.getFragmenter());
+
+        when(mockPluginFactory.getPlugin(context1, context1.getFragmenter())).thenReturn(fragmenter1);
+        when(mockPluginFactory.getPlugin(context2, context2.getFragmenter())).thenReturn(fragmenter2);
+
+        fragmenterService.getFragmentsForSegment(context1);
+        fragmenterService.getFragmentsForSegment(context2);
+
+        verify(fragmenter1, times(1)).getFragments();
+        verify(fragmenter2, times(1)).getFragments();
+    }
+
+    @Test
+    public void testFragmentsAreNotCachedAcrossQueriesForAnalyze() throws Throwable {
+        enableListingCache();
+        context1.setStatsMaxFragments(1);
+
+        when(mockPluginFactory.getPlugin(context1, context1.getFragmenter())).thenReturn(fragmenter1);
+
+        fragmenterService.getFragmentsForSegment(context1);
+
+        verify(fragmenter1, times(1)).getFragments();
+        verify(fragmenter1, times(0)).getFragmentsVersion();
+        assertEquals(0, fragmenterCacheFactory.getListingCache().size());
+    }
+
+    @Test
+    public void testBlockSamplingForAnalyze() throws Throwable {
+        context1.setStatsMaxFragments(10);
+        context1.setStatsSampleRatio(0.5F);
+        context1.addOption("STATS_BLOCK_SAMPLING", "true");
+
+        List<Fragment> sampledFragments = Arrays.asList(
+                new Fragment("foo.bar", new DemoFragmentMetadata()),
+                new Fragment("bar.foo", new DemoFragmentMetadata()));
+        when(mockPluginFactory.getPlugin(context1, context1.getFragmenter())).thenReturn(fragmenter1);
+        when(fragmenter1.getSampleFragments(eq(0.5F), any())).thenReturn(sampledFragments);
+
+        List<Fragment> response = fragmenterService.getFragmentsForSegment(context1);
+
+        assertEquals(sampledFragments, response);
+        verify(fragmenter1, times(0)).getFragments();
+    }
+
+    @Test
+    public void testBlockSamplingDisabledForAnalyze() throws Throwable {
+        context1.setStatsMaxFragments(10);
+        context1.setStatsSampleRatio(0.5F);
+        context1.addOption("STATS_BLOCK_SAMPLING", "false");
+
+        when(mockPluginFactory.getPlugin(context1, context1.getFragmenter())).thenReturn(fragmenter1);
+
+        fragmenterService.getFragmentsForSegment(context1);
+
+        verify(fragmenter1, times(1)).getFragments();
+        verify(fragmenter1, times(0)).getSampleFragments(eq(0.5F), any());
+    }
+
+    @Test
+    public void testFragmentsBalancedBySize() throws Throwable {
+        context1.setTotalSegments(2);
+        context1.addOption("BALANCE_BY_SIZE", "true");
+
+        long[] sizes = {100, 10, 10, 10, 60, 10};
+        List<Fragment> fragmentList = new ArrayList<>();
+        for (long size : sizes) {
+            fragmentList.add(new Fragment("file", new HcfsFragmentMetadata(0, size)));
+        }
+        when(mockPluginFactory.getPlugin(context1, context1.getFragmenter())).thenReturn(fragmenter1);
+        when(fragmenter1.getFragments()).thenReturn(fragmentList);
+
+        // the largest fragment is on its own, round-robin would assign 170 and 30 bytes
+        context1.setSegmentId(0);
+        List<Fragment> response = fragmenterService.getFragmentsForSegment(context1);
+        assertEquals(Collections.singletonList(fragmentList.get(0)), response);
+
+        context1.setSegmentId(1);
+        response = fragmenterService.getFragmentsForSegment(context1);
+        assertEquals(fragmentList.subList(1, 6), response);
+    }
+
+    @Test
+    public void testFragmentsBalancedBySizeAssignsEveryFragmentOnce() throws Throwable {
+        context1.setTotalSegments(3);
+        context1.addOption("BALANCE_BY_SIZE", "true");
+
+        List<Fragment> fragmentList = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            fragmentList.add(new Fragment("file" + i, new HcfsFragmentMetadata(0, (i * 37) % 11)));
+        }
+        when(mockPluginFactory.getPlugin(context1, context1.getFragmenter())).thenReturn(fragmenter1);
+        when(fragmenter1.getFragments()).thenReturn(fragmentList);
+
+        List<Fragment> allFragments = new ArrayList<>();
+        for (int segmentId = 0; segmentId < 3; segmentId++) {
+            context1.setSegmentId(segmentId);
+            allFragments.addAll(fragmenterService.getFragmentsForSegment(context1));
+        }
+        assertEquals(20, allFragments.size());
+        assertTrue(allFragments.containsAll(fragmentList));
+    }
+
+    @Test
+    public void testFragmentsWithUnknownSizeAreAssignedRoundRobin() throws Throwable {
+        context1.setTotalSegments(2);
+        context1.setGpSessionId(0);
+        context1.setGpCommandCount(0);
+        context1.addOption("BALANCE_BY_SIZE", "true");
+
+        List<Fragment> fragmentList = Arrays.asList(
+                new Fragment("foo.bar", new HcfsFragmentMetadata(0, 100)),
+                new Fragment("bar.foo", new DemoFragmentMetadata()),
+                new Fragment("foobar", new HcfsFragmentMetadata(0, 10)));
+        when(mockPluginFactory.getPlugin(context1, context1.getFragmenter())).thenReturn(fragmenter1);
+        when(fragmenter1.getFragments()).thenReturn(fragmentList);
+
+        List<Fragment> response = fragmenterService.getFragmentsForSegment(context1);
+        assertEquals(Arrays.asList(fragmentList.get(0), fragmentList.get(2)), response);
+    }
+
+    @Test
+    public void testFragmentIndexesOfCombinedFragments() throws Throwable {
+        // the last split of large.csv is combined with two small files after the other splits
+        Fragment tail = new Fragment("large.csv", new HcfsFragmentMetadata(256, 10));
+        Fragment small0 = new Fragment("small0.csv", new HcfsFragmentMetadata(0, 10));
+        Fragment small1 = new Fragment("small1.csv", new HcfsFragmentMetadata(0, 10));
+        List<Fragment> fragmentList = Arrays.asList(
+                new Fragment("large.csv", new HcfsFragmentMetadata(0, 128)),
+                new Fragment("large.csv", new HcfsFragmentMetadata(128, 128)),
+                new Fragment("large.csv", new CombinedFragmentMetadata(Arrays.asList(tail, small0, small1))));
+        when(mockPluginFactory.getPlugin(context1, context1.getFragmenter())).thenReturn(fragmenter1);
+        when(fragmenter1.getFragments()).thenReturn(fragmentList);
+
+        fragmenterService.getFragmentsForSegment(context1);
+
+        assertEquals(0, fragmentList.get(0).getIndex());
+        assertEquals(1, fragmentList.get(1).getIndex());
+        assertEquals(2, tail.getIndex());
+        assertEquals(0, small0.getIndex());
+        assertEquals(0, small1.getIndex());
+        // the combined fragment takes the index of its first fragment
+        assertEquals(2, fragmentList.get(2).getIndex());
+    }
+
     @Test
     public void testMultiThreadedAccessToFragments() throws Throwable {
         final AtomicInteger finishedCount = new AtomicInteger();
@@ -434,6 +662,15 @@ class FragmenterServiceTest {
         verifyNoMoreInteractions(mockPluginFactory);
     }
 
+    private void enableListingCache() {
+        Cache<String, FragmenterCacheFactory.CachedFragments> listingCache = CacheBuilder.newBuilder()
+                .expireAfterWrite(5, TimeUnit.MINUTES)
+                .ticker(fakeTicker)
+                .build();
+        when(fragmenterCacheFactory.isListingCacheEnabled()).thenReturn(true);
+        when(fragmenterCacheFactory.getListingCache()).thenReturn(listingCache);
+    }
+
     // ----- TESTS for performance of list traversal -----
     @Test
     public void testListTraversalPerformance() throws Throwable {
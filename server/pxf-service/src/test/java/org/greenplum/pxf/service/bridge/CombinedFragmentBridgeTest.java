@@ -0,0 +1,253 @@
+package org.greenplum.pxf.service.bridge;
+
+import org.apache.hadoop.conf.Configuration;
+import org.greenplum.pxf.api.OneRow;
+import org.greenplum.pxf.api.io.Text;
+import org.greenplum.pxf.api.io.Writable;
+import org.greenplum.pxf.api.model.Accessor;
+import org.greenplum.pxf.api.model.Fragment;
+import org.greenplum.pxf.api.model.RequestContext;
+import org.greenplum.pxf.api.utilities.CombinedFragmentMetadata;
+import org.greenplum.pxf.api.utilities.FragmentMetadata;
+import org.greenplum.pxf.plugins.hdfs.HcfsFragmentMetadata;
+import org.greenplum.pxf.plugins.hdfs.LineBreakAccessor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.DataInputStream;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class CombinedFragmentBridgeTest {
+
+    @TempDir
+    File tempDir;
+
+    private RequestContext context;
+    private CombinedFragmentMetadata metadata;
+    private List<Bridge> bridges;
+    private List<String> dataSources;
+    private List<Integer> fragmentIndexes;
+    private List<FragmentMetadata> fragmentMetadata;
+
+    @BeforeEach
+    public void setup() {
+        metadata = new CombinedFragmentMetadata(Arrays.asList(
+                new Fragment("file0", mock(FragmentMetadata.class)),
+                new Fragment("file1", mock(FragmentMetadata.class)),
+                new Fragment("file2", mock(FragmentMetadata.class))));
+        metadata.getFragments().get(0).setIndex(3);
+        context = new RequestContext();
+        context.setDataSource("file0");
+        context.setFragmentIndex(3);
+        context.setFragmentMetadata(metadata);
+
+        bridges = new ArrayList<>();
+        dataSources = new ArrayList<>();
+        fragmentIndexes = new ArrayList<>();
+        fragmentMetadata = new ArrayList<>();
+    }
+
+    @Test
+    public void testReadsAllFragments() throws Exception {
+        bridges.add(mockBridge(true, "a", "b"));
+        bridges.add(mockBridge(true, "c"));
+        bridges.add(mockBridge(true, "d", "e"));
+
+        Bridge bridge = getBridge();
+        assertTrue(bridge.beginIteration());
+        assertEquals(Arrays.asList("a", "b", "c", "d", "e"), readAll(bridge));
+        bridge.endIteration();
+
+        assertEquals(Arrays.asList("file0", "file1", "file2"), dataSources);
+        assertEquals(Arrays.asList(3, 0, 0), fragmentIndexes);
+        for (int i = 0; i < 3; i++) {
+            assertSame(metadata.getFragments().get(i).getMetadata(), fragmentMetadata.get(i));
+            verify(bridges.get(i)).endIteration();
+        }
+        assertEquals("file0", context.getDataSource());
+        assertEquals(3, context.getFragmentIndex());
+        assertSame(metadata, context.getFragmentMetadata());
+    }
+
+    @Test
+    public void testSkipsHeaderLinesOfEveryFile() throws Exception {
+        // the last split of a large file, combined with two small files
+        Fragment tail = new Fragment(createFile("large.csv", "header\n1\n2\n3\n"), new HcfsFragmentMetadata(9, 4));
+        tail.setIndex(1);
+        Fragment small0 = new Fragment(createFile("small0.csv", "header\n4\n"), new HcfsFragmentMetadata(0, 9));
+        Fragment small1 = new Fragment(createFile("small1.csv", "header\n5\n6\n"), new HcfsFragmentMetadata(0, 11));
+        context = new RequestContext();
+        context.setConfig("default");
+        context.setProfileScheme("localfile");
+        context.setUser("test-user");
+        context.setRequestType(RequestContext.RequestType.READ_BRIDGE);
+        context.setConfiguration(new Configuration());
+        context.addOption("SKIP_HEADER_COUNT", "1");
+        context.setDataSource(tail.getSourceName());
+        context.setFragmentIndex(1);
+        context.setFragmentMetadata(new CombinedFragmentMetadata(Arrays.asList(tail, small0, small1)));
+
+        Bridge bridge = new CombinedFragmentBridge(context, LineBridge::new);
+        assertTrue(bridge.beginIteration());
+        // the header line is skipped in the small files, but not in the middle of the large file
+        assertEquals(Arrays.asList("3", "4", "5", "6"), readAll(bridge));
+        bridge.endIteration();
+    }
+
+    @Test
+    public void testSkipsFragmentsWithoutData() throws Exception {
+        bridges.add(mockBridge(false));
+        bridges.add(mockBridge(true));
+        bridges.add(mockBridge(true, "a"));
+
+        Bridge bridge = getBridge();
+        assertTrue(bridge.beginIteration());
+        assertEquals(Arrays.asList("a"), readAll(bridge));
+        bridge.endIteration();
+
+        verify(bridges.get(0), never()).getNext();
+        for (Bridge fragmentBridge : bridges) {
+            verify(fragmentBridge).endIteration();
+        }
+    }
+
+    @Test
+    public void testNoFragmentWithData() throws Exception {
+        bridges.add(mockBridge(false));
+        bridges.add(mockBridge(false));
+        bridges.add(mockBridge(false));
+
+        Bridge bridge = getBridge();
+        assertFalse(bridge.beginIteration());
+        assertNull(bridge.getNext());
+        bridge.endIteration();
+
+        assertEquals("file0", context.getDataSource());
+        assertSame(metadata, context.getFragmentMetadata());
+    }
+
+    @Test
+    public void testEndIterationEndsCurrentFragment() throws Exception {
+        bridges.add(mockBridge(true, "a", "b"));
+
+        Bridge bridge = getBridge();
+        assertTrue(bridge.beginIteration());
+        assertEquals("a", bridge.getNext().toString());
+        bridge.endIteration();
+
+        assertEquals(1, dataSources.size());
+        verify(bridges.get(0)).endIteration();
+        assertEquals("file0", context.getDataSource());
+    }
+
+    @Test
+    public void testEndIterationRestoresContextOnFailure() throws Exception {
+        Bridge failing = mockBridge(true);
+        when(failing.getNext()).thenThrow(new RuntimeException("failed to read"));
+        doThrow(new RuntimeException("failed to close")).when(failing).endIteration();
+        bridges.add(failing);
+
+        Bridge bridge = getBridge();
+        assertTrue(bridge.beginIteration());
+        assertThrows(RuntimeException.class, bridge::getNext);
+        assertThrows(RuntimeException.class, bridge::endIteration);
+
+        assertEquals("file0", context.getDataSource());
+        assertSame(metadata, context.getFragmentMetadata());
+    }
+
+    @Test
+    public void testWriteIsNotSupported() {
+        assertThrows(UnsupportedOperationException.class, () -> getBridge().setNext(null));
+    }
+
+    private Bridge getBridge() {
+        return new CombinedFragmentBridge(context, fragmentContext -> {
+            dataSources.add(fragmentContext.getDataSource());
+            fragmentIndexes.add(fragmentContext.getFragmentIndex());
+            fragmentMetadata.add(fragmentContext.getFragmentMetadata());
+            return bridges.get(dataSources.size() - 1);
+        });
+    }
+
+    private Bridge mockBridge(boolean hasData, String... records) throws Exception {
+        Bridge bridge = mock(Bridge.class);
+        when(bridge.beginIteration()).thenReturn(hasData);
+        if (records.length > 0) {
+            Writable[] next = new Writable[records.length];
+            for (int i = 1; i < records.length; i++) {
+                next[i - 1] = new Text(records[i]);
+            }
+            when(bridge.getNext()).thenReturn(new Text(records[0]), next);
+        }
+        return bridge;
+    }
+
+    private String createFile(String name, String content) throws Exception {
+        Path path = tempDir.toPath().resolve(name);
+        Files.write(path, content.getBytes(StandardCharsets.UTF_8));
+        return path.toUri().toString();
+    }
+
+    private List<String> readAll(Bridge bridge) throws Exception {
+        List<String> records = new ArrayList<>();
+        Writable record;
+        while ((record = bridge.getNext()) != null) {
+            records.add(record.toString());
+        }
+        return records;
+    }
+
+    /**
+     * Reads the lines of a fragment with the accessor of the text profiles.
+     */
+    private static class LineBridge implements Bridge {
+
+        private final Accessor accessor = new LineBreakAccessor();
+
+        LineBridge(RequestContext context) {
+            accessor.setRequestContext(context);
+            accessor.afterPropertiesSet();
+        }
+
+        @Override
+        public boolean beginIteration() throws Exception {
+            return accessor.openForRead();
+        }
+
+        @Override
+        public Writable getNext() throws Exception {
+            OneRow row = accessor.readNextObject();
+            return row == null ? null : new Text(row.getData().toString());
+        }
+
+        @Override
+        public boolean setNext(DataInputStream inputStream) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void endIteration() throws Exception {
+            accessor.closeForRead();
+        }
+    }
+}
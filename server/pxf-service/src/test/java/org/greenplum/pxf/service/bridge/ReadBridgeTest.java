@@ -1,8 +1,14 @@
 package org.greenplum.pxf.service.bridge;
 
 import org.apache.hadoop.conf.Configuration;
+import org.greenplum.pxf.api.OneField;
+import org.greenplum.pxf.api.OneRow;
+import org.greenplum.pxf.api.io.DataType;
 import org.greenplum.pxf.api.model.Accessor;
+import org.greenplum.pxf.api.model.OutputFormat;
 import org.greenplum.pxf.api.model.RequestContext;
+import org.greenplum.pxf.api.model.Resolver;
+import org.greenplum.pxf.api.utilities.ColumnDescriptor;
 import org.greenplum.pxf.service.utilities.BasePluginFactory;
 import org.greenplum.pxf.service.utilities.GSSFailureHandler;
 import org.junit.jupiter.api.BeforeEach;
@@ -13,8 +19,11 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.io.IOException;
+import java.util.Arrays;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.inOrder;
@@ -39,6 +48,8 @@ public class ReadBridgeTest {
     private Accessor mockAccessor2;
     @Mock
     private Accessor mockAccessor3;
+    @Mock
+    private Resolver mockResolver;
 
     @BeforeEach
     public void setup() {
@@ -140,6 +151,39 @@ public class ReadBridgeTest {
         verifyNoMoreInteractions(mockPluginFactory);
     }
 
+    @Test
+    public void testGetNextSkipsRowsDroppedByRowFilter() throws Exception {
+        context.setOutputFormat(OutputFormat.GPDBWritable);
+        context.getTupleDescription().add(new ColumnDescriptor("id", DataType.INTEGER.getOID(), 0, "int4", null));
+        context.getTupleDescription().add(new ColumnDescriptor("name", DataType.TEXT.getOID(), 1, "text", null));
+        context.setFilterString("a0c23s1d5o5");
+
+        OneRow row1 = new OneRow("1");
+        OneRow row2 = new OneRow("2");
+        OneRow row3 = new OneRow("3");
+        when(mockPluginFactory.getPlugin(context, context.getAccessor())).thenReturn(mockAccessor1);
+        when(mockPluginFactory.getPlugin(context, context.getResolver())).thenReturn(mockResolver);
+        when(mockAccessor1.openForRead()).thenReturn(true);
+        when(mockAccessor1.readNextObject()).thenReturn(row1, row2, row3, null);
+        when(mockResolver.getFields(row1)).thenReturn(Arrays.asList(
+                new OneField(DataType.INTEGER.getOID(), 4), new OneField(DataType.TEXT.getOID(), "four")));
+        when(mockResolver.getFields(row2)).thenReturn(Arrays.asList(
+                new OneField(DataType.INTEGER.getOID(), 5), new OneField(DataType.TEXT.getOID(), "five")));
+        when(mockResolver.getFields(row3)).thenReturn(Arrays.asList(
+                new OneField(DataType.INTEGER.getOID(), 6), new OneField(DataType.TEXT.getOID(), "six")));
+
+        bridge = new ReadBridge(mockPluginFactory, context, handler, RowFilter.create(context, null));
+        assertTrue(bridge.beginIteration());
+        assertNotNull(bridge.getNext());
+        assertNull(bridge.getNext());
+        bridge.endIteration();
+
+        verify(mockResolver).getFields(row1);
+        verify(mockResolver).getFields(row2);
+        verify(mockResolver).getFields(row3);
+        verify(mockAccessor1).closeForRead();
+    }
+
     @Test
     public void testSetNextIsNotSupported() {
         bridge = new ReadBridge(mockPluginFactory, context, handler);
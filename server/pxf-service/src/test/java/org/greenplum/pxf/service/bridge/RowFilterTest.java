@@ -0,0 +1,249 @@
+package org.greenplum.pxf.service.bridge;
+
+import org.greenplum.pxf.api.OneField;
+import org.greenplum.pxf.api.io.DataType;
+import org.greenplum.pxf.api.model.OutputFormat;
+import org.greenplum.pxf.api.model.RequestContext;
+import org.greenplum.pxf.api.utilities.ColumnDescriptor;
+import org.greenplum.pxf.service.MetricsReporter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+public class RowFilterTest {
+
+    private RequestContext context;
+
+    @BeforeEach
+    public void setup() {
+        context = new RequestContext();
+        context.setOutputFormat(OutputFormat.GPDBWritable);
+        context.getTupleDescription().add(new ColumnDescriptor("id", DataType.INTEGER.getOID(), 0, "int4", null));
+        context.getTupleDescription().add(new ColumnDescriptor("name", DataType.TEXT.getOID(), 1, "text", null));
+        context.getTupleDescription().add(new ColumnDescriptor("price", DataType.NUMERIC.getOID(), 2, "numeric", new Integer[]{10, 2}));
+        context.getTupleDescription().add(new ColumnDescriptor("code", DataType.BPCHAR.getOID(), 3, "bpchar", new Integer[]{3}));
+        context.getTupleDescription().add(new ColumnDescriptor("flag", DataType.BOOLEAN.getOID(), 4, "bool", null));
+        context.getTupleDescription().add(new ColumnDescriptor("ratio", DataType.FLOAT8.getOID(), 5, "float8", null));
+    }
+
+    @Test
+    public void testNoFilter() {
+        assertNull(RowFilter.create(context, null));
+    }
+
+    @Test
+    public void testInvalidFilter() {
+        context.setFilterString("a0c23s1d5o5a1");
+        assertNull(RowFilter.create(context, null));
+    }
+
+    @Test
+    public void testSingleTextColumn() {
+        context.getTupleDescription().clear();
+        context.getTupleDescription().add(new ColumnDescriptor("line", DataType.TEXT.getOID(), 0, "text", null));
+        context.setOutputFormat(OutputFormat.TEXT);
+        context.setFilterString("a0c25s3dfooo5");
+        assertNull(RowFilter.create(context, null));
+    }
+
+    @Test
+    public void testUnsupportedPredicate() {
+        // LIKE on an integer column cannot be evaluated
+        context.setFilterString("a0c25s1d5o7");
+        assertNull(RowFilter.create(context, null));
+    }
+
+    @Test
+    public void testComparisons() {
+        assertAccepted("a0c23s1d5o5", 5, true);
+        assertAccepted("a0c23s1d5o5", 6, false);
+        assertAccepted("a0c23s1d5o6", 6, true);
+        assertAccepted("a0c23s1d5o1", 4, true);
+        assertAccepted("a0c23s1d5o1", 5, false);
+        assertAccepted("a0c23s1d5o2", 5, false);
+        assertAccepted("a0c23s1d5o3", 5, true);
+        assertAccepted("a0c23s1d5o4", 4, false);
+    }
+
+    @Test
+    public void testNullNeverMatchesComparison() {
+        assertAccepted("a0c23s1d5o5", null, false);
+        assertAccepted("a0c23s1d5o6", null, false);
+        // NOT (id = 5) is null, not true, for a null id
+        assertAccepted("a0c23s1d5o5l2", null, false);
+        assertAccepted("a0o8", null, true);
+        assertAccepted("a0o8", 1, false);
+        assertAccepted("a0o9", null, false);
+    }
+
+    @Test
+    public void testLogicalOperators() {
+        RowFilter filter = create("a0c23s1d5o5a1c25s3dfooo5l0");
+        assertTrue(filter.accept(row(5, "foo", null, null, null, null)));
+        assertFalse(filter.accept(row(5, "bar", null, null, null, null)));
+        assertFalse(filter.accept(row(6, "foo", null, null, null, null)));
+
+        filter = create("a0c23s1d5o5a1c25s3dfooo5l1");
+        assertTrue(filter.accept(row(6, "foo", null, null, null, null)));
+        assertTrue(filter.accept(row(5, null, null, null, null, null)));
+        assertFalse(filter.accept(row(6, "bar", null, null, null, null)));
+        assertFalse(filter.accept(row(null, "bar", null, null, null, null)));
+
+        filter = create("a0c23s1d5o5l2");
+        assertTrue(filter.accept(row(6, null, null, null, null, null)));
+        assertFalse(filter.accept(row(5, null, null, null, null, null)));
+    }
+
+    @Test
+    public void testUnknownPredicateKeepsRows() {
+        // the LIKE on an integer column is unknown, so only rows failing the AND are dropped
+        RowFilter filter = create("a0c23s1d5o5a0c25s1d5o7l0");
+        assertTrue(filter.accept(row(5, null, null, null, null, null)));
+        assertFalse(filter.accept(row(6, null, null, null, null, null)));
+
+        // an unknown predicate in an OR keeps every row
+        assertNull(RowFilter.create(withFilter("a0c23s1d5o5a0c25s1d5o7l1"), null));
+    }
+
+    @Test
+    public void testNumericAcrossTypes() {
+        // numeric column compared with an integer constant
+        assertAccepted("a2c23s2d10o5", 2, new BigDecimal("10.00"), true);
+        // integer column compared with a numeric constant
+        assertAccepted("a0c1700s3d4.5o2", 0, 5, true);
+        assertAccepted("a0c1700s3d4.5o2", 0, 4, false);
+        // float column compared with an integer constant
+        assertAccepted("a5c23s1d1o1", 5, 0.5, true);
+        assertAccepted("a5c701s4d-0.0o5", 5, 0.0, true);
+    }
+
+    @Test
+    public void testNumericValueRoundedToScale() {
+        // Greenplum rounds the value 10.004 to the scale of the column, but not the constant
+        assertAccepted("a2c23s2d10o5", 2, new BigDecimal("10.004"), true);
+        assertAccepted("a2c1700s6d10.004o5", 2, new BigDecimal("10.004"), false);
+        assertAccepted("a2c1700s6d10.005o2", 2, new BigDecimal("10.005"), true);
+    }
+
+    @Test
+    public void testBpcharIgnoresTrailingSpaces() {
+        assertAccepted("a3c1042s3dab o5", 3, "ab ", true);
+        assertAccepted("a3c1042s2dabo5", 3, "ab ", true);
+        assertAccepted("a3c1042s2dabo5", 3, "abc", false);
+    }
+
+    @Test
+    public void testLike() {
+        assertAccepted("a1c25s4dfo%_o7", 1, "foo", true);
+        assertAccepted("a1c25s4dfo%_o7", 1, "fo", false);
+        assertAccepted("a1c25s4da\\%bo7", 1, "a%b", true);
+        assertAccepted("a1c25s4da\\%bo7", 1, "axb", false);
+        assertAccepted("a1c25s3da.bo7", 1, "axb", false);
+    }
+
+    @Test
+    public void testIn() {
+        RowFilter filter = create("a0m1007s1d1s1d3o10");
+        assertTrue(filter.accept(row(1, null, null, null, null, null)));
+        assertTrue(filter.accept(row(3, null, null, null, null, null)));
+        assertFalse(filter.accept(row(2, null, null, null, null, null)));
+        assertFalse(filter.accept(row(null, null, null, null, null, null)));
+    }
+
+    @Test
+    public void testBooleanColumn() {
+        assertAccepted("a4c16s4dtrueo0", 4, true, true);
+        assertAccepted("a4c16s4dtrueo0", 4, false, false);
+        assertAccepted("a4c16s4dtrueo0l2", 4, false, true);
+    }
+
+    @Test
+    public void testNonProjectedColumnIsNotEvaluated() {
+        context.getTupleDescription().set(0, new ColumnDescriptor("id", DataType.INTEGER.getOID(), 0, "int4", null, false));
+        assertNull(RowFilter.create(withFilter("a0c23s1d5o5"), null));
+    }
+
+    @Test
+    public void testUnexpectedFieldsAreKept() {
+        RowFilter filter = create("a0c23s1d5o5");
+        List<OneField> fields = new ArrayList<>();
+        fields.add(new OneField(DataType.INTEGER.getOID(), 6));
+        assertTrue(filter.accept(fields));
+        // a value of an unexpected type cannot be compared
+        assertTrue(filter.accept(row("six", null, null, null, null, null)));
+    }
+
+    @Test
+    public void testReportsStats() {
+        MetricsReporter reporter = mock(MetricsReporter.class);
+        RowFilter filter = RowFilter.create(withFilter("a0c23s1d5o5"), reporter);
+        assertNotNull(filter);
+        filter.accept(row(5, null, null, null, null, null));
+        filter.accept(row(6, null, null, null, null, null));
+        filter.accept(row(7, null, null, null, null, null));
+        filter.flushStats();
+
+        verify(reporter).reportCounter(MetricsReporter.PxfMetric.RECORDS_EVALUATED, 3, context);
+        verify(reporter).reportCounter(MetricsReporter.PxfMetric.RECORDS_DROPPED, 2, context);
+
+        // the counters are reset after they are reported
+        filter.flushStats();
+        verify(reporter).reportCounter(any(), anyLong(), any());
+    }
+
+    @Test
+    public void testNoStatsReportedWithoutRows() {
+        MetricsReporter reporter = mock(MetricsReporter.class);
+        RowFilter filter = RowFilter.create(withFilter("a0c23s1d5o5"), reporter);
+        assertNotNull(filter);
+        filter.flushStats();
+        verify(reporter, never()).reportCounter(any(), anyLong(), any());
+    }
+
+    private void assertAccepted(String filter, Object id, boolean expected) {
+        assertAccepted(filter, 0, id, expected);
+    }
+
+    private void assertAccepted(String filter, int column, Object value, boolean expected) {
+        Object[] values = new Object[6];
+        values[column] = value;
+        boolean accepted = create(filter).accept(row(values));
+        if (expected) {
+            assertTrue(accepted, filter + " rejected " + value);
+        } else {
+            assertFalse(accepted, filter + " accepted " + value);
+        }
+    }
+
+    private RequestContext withFilter(String filter) {
+        context.setFilterString(filter);
+        return context;
+    }
+
+    private RowFilter create(String filter) {
+        RowFilter rowFilter = RowFilter.create(withFilter(filter), null);
+        assertNotNull(rowFilter, filter);
+        return rowFilter;
+    }
+
+    private List<OneField> row(Object... values) {
+        List<OneField> fields = new ArrayList<>();
+        for (int i = 0; i < values.length; i++) {
+            fields.add(new OneField(context.getTupleDescription().get(i).columnTypeCode(), values[i]));
+        }
+        return fields;
+    }
+}
@@ -1,7 +1,9 @@
 package org.greenplum.pxf.service.bridge;
 
+import org.greenplum.pxf.api.model.Fragment;
 import org.greenplum.pxf.api.model.GreenplumCSV;
 import org.greenplum.pxf.api.model.RequestContext;
+import org.greenplum.pxf.api.utilities.CombinedFragmentMetadata;
 import org.greenplum.pxf.api.utilities.EnumAggregationType;
 import org.greenplum.pxf.service.serde.RecordReaderFactory;
 import org.greenplum.pxf.service.utilities.BasePluginFactory;
@@ -12,6 +14,8 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.util.Arrays;
+
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
@@ -36,7 +40,7 @@ public class SimpleBridgeFactoryTest {
 
     @BeforeEach
     public void setup() {
-        factory = new SimpleBridgeFactory(mockPluginFactory, mockRecordReaderFactory, mockFailureHandler);
+        factory = new SimpleBridgeFactory(mockPluginFactory, mockRecordReaderFactory, mockFailureHandler, null, false, false);
     }
 
     @Test
@@ -91,6 +95,18 @@ public class SimpleBridgeFactoryTest {
         assertTrue(bridge instanceof ReadSamplingBridge);
     }
 
+    @Test
+    public void testReadBlockSampling() {
+        mockForRead();
+        when(mockRequestContext.getStatsSampleRatio()).thenReturn(0.1F);
+        when(mockRequestContext.getOption("STATS_BLOCK_SAMPLING", false)).thenReturn(true);
+        when(mockRequestContext.getAccessor()).thenReturn("org.greenplum.pxf.service.bridge.TestAccessor");
+        when(mockRequestContext.getResolver()).thenReturn("org.greenplum.pxf.service.bridge.TestResolver");
+        bridge = factory.getBridge(mockRequestContext);
+        assertTrue(bridge instanceof ReadBridge);
+        assertFalse(bridge instanceof ReadSamplingBridge);
+    }
+
     @Test
     public void testAgg() {
         mockForRead();
@@ -100,6 +116,15 @@ public class SimpleBridgeFactoryTest {
         assertTrue(bridge instanceof AggBridge);
     }
 
+    @Test
+    public void testReadCombinedFragments() {
+        when(mockRequestContext.getRequestType()).thenReturn(RequestContext.RequestType.READ_BRIDGE);
+        when(mockRequestContext.getFragmentMetadata())
+                .thenReturn(new CombinedFragmentMetadata(Arrays.asList(new Fragment("file0"), new Fragment("file1"))));
+        bridge = factory.getBridge(mockRequestContext);
+        assertTrue(bridge instanceof CombinedFragmentBridge);
+    }
+
     @Test
     public void testNoRequestType() {
         assertThrows(UnsupportedOperationException.class, () -> factory.getBridge(mockRequestContext));
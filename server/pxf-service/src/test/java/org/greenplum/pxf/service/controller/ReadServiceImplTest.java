@@ -18,7 +18,9 @@ import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.stubbing.Answer;
+import org.springframework.util.unit.DataSize;
 
+import java.io.ByteArrayOutputStream;
 import java.io.DataOutputStream;
 import java.io.OutputStream;
 import java.nio.charset.StandardCharsets;
@@ -26,12 +28,16 @@ import java.security.PrivilegedAction;
 import java.time.Duration;
 import java.util.List;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.ArgumentMatchers.same;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 
@@ -62,6 +68,8 @@ public class ReadServiceImplTest {
     private Writable mockRecord1, mockRecord2, mockRecord3;
     @Mock
     private RequestContext mockContext;
+    @Mock
+    private RequestContext mockFragmentContext1, mockFragmentContext2;
 
     private ReadServiceImpl readService;
 
@@ -255,6 +263,112 @@ public class ReadServiceImplTest {
         inOrder.verifyNoMoreInteractions();
     }
 
+    @Test
+    public void testReadDataMultiFragmentPrefetch() throws Exception {
+        when(mockFragmentList.size()).thenReturn(2);
+        when(mockFragmentList.get(0)).thenReturn(mockFragment1);
+        when(mockFragmentList.get(1)).thenReturn(mockFragment2);
+        when(mockFragment1.getSourceName()).thenReturn("file1");
+        when(mockFragment2.getSourceName()).thenReturn("file2");
+        // every fragment is read with its own copy of the context
+        when(mockContext.copy()).thenReturn(mockFragmentContext1, mockFragmentContext2);
+        when(mockBridgeFactory.getBridge(mockFragmentContext1)).thenReturn(mockBridge1);
+        when(mockBridgeFactory.getBridge(mockFragmentContext2)).thenReturn(mockBridge2);
+
+        // 1st frag
+        when(mockBridge1.beginIteration()).thenReturn(true);
+        when(mockBridge1.getNext()).thenReturn(mockRecord1).thenReturn(null);
+        doAnswer(writeTestData("hello")).when(mockRecord1).write(any(DataOutputStream.class));
+
+        // 2nd frag
+        when(mockBridge2.beginIteration()).thenReturn(true);
+        when(mockBridge2.getNext()).thenReturn(mockRecord2, mockRecord3, null);
+        doAnswer(writeTestData("world!")).when(mockRecord2).write(any(DataOutputStream.class));
+        doAnswer(writeTestData("Boo!")).when(mockRecord3).write(any(DataOutputStream.class));
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        ReadServiceImpl prefetchingReadService = getPrefetchingReadService();
+        try {
+            prefetchingReadService.readData(mockContext, outputStream);
+        } finally {
+            prefetchingReadService.shutdown();
+        }
+
+        assertEquals("helloworld!Boo!", new String(outputStream.toByteArray(), StandardCharsets.UTF_8));
+        verify(mockFragmentContext1).setDataSource("file1");
+        verify(mockFragmentContext2).setDataSource("file2");
+        verify(mockBridge1).endIteration();
+        verify(mockBridge2).endIteration();
+        verify(mockMetricReporter).reportTimer(same(MetricsReporter.PxfMetric.FRAGMENTS_SENT), any(Duration.class), same(mockFragmentContext1), eq(true));
+        verify(mockMetricReporter).reportTimer(same(MetricsReporter.PxfMetric.FRAGMENTS_SENT), any(Duration.class), same(mockFragmentContext2), eq(true));
+    }
+
+    @Test
+    public void testReadDataPrefetchedFragmentException() throws Exception {
+        when(mockFragmentList.size()).thenReturn(2);
+        when(mockFragmentList.get(0)).thenReturn(mockFragment1);
+        when(mockFragmentList.get(1)).thenReturn(mockFragment2);
+        when(mockContext.copy()).thenReturn(mockFragmentContext1, mockFragmentContext2);
+        when(mockBridgeFactory.getBridge(mockFragmentContext1)).thenReturn(mockBridge1);
+        when(mockBridgeFactory.getBridge(mockFragmentContext2)).thenReturn(mockBridge2);
+
+        when(mockBridge1.beginIteration()).thenReturn(true);
+        when(mockBridge1.getNext()).thenReturn(mockRecord1).thenReturn(null);
+        doAnswer(writeTestData("hello")).when(mockRecord1).write(any(DataOutputStream.class));
+        when(mockBridge2.beginIteration()).thenReturn(true);
+        when(mockBridge2.getNext()).thenThrow(new Exception("failed to read"));
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        ReadServiceImpl prefetchingReadService = getPrefetchingReadService();
+        try {
+            assertThrows(PxfRuntimeException.class, () -> prefetchingReadService.readData(mockContext, outputStream));
+        } finally {
+            prefetchingReadService.shutdown();
+        }
+
+        // the data of the fragments before the failure is streamed
+        assertEquals("hello", new String(outputStream.toByteArray(), StandardCharsets.UTF_8));
+        verify(mockBridge2).endIteration();
+        verify(mockMetricReporter).reportTimer(same(MetricsReporter.PxfMetric.FRAGMENTS_SENT), any(Duration.class), same(mockFragmentContext2), eq(false));
+    }
+
+    @Test
+    public void testReadDataPrefetchedFragmentInterruptedByShutdown() throws Exception {
+        when(mockFragmentList.size()).thenReturn(2);
+        when(mockFragmentList.get(0)).thenReturn(mockFragment1);
+        when(mockFragmentList.get(1)).thenReturn(mockFragment2);
+        when(mockContext.copy()).thenReturn(mockFragmentContext1, mockFragmentContext2);
+        when(mockBridgeFactory.getBridge(mockFragmentContext1)).thenReturn(mockBridge1);
+        // the second fragment is not read when the service shuts down before it starts
+        lenient().when(mockBridgeFactory.getBridge(mockFragmentContext2)).thenReturn(mockBridge2);
+
+        ReadServiceImpl prefetchingReadService = getPrefetchingReadService();
+        when(mockBridge1.beginIteration()).thenReturn(true);
+        // the worker is interrupted while it reads, and cannot queue the data it read
+        when(mockBridge1.getNext()).thenAnswer(invocation -> {
+            prefetchingReadService.shutdown();
+            return mockRecord1;
+        }).thenReturn(null);
+        doAnswer(writeTestData("hello")).when(mockRecord1).write(any(DataOutputStream.class));
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        try {
+            // the request fails instead of waiting for the last chunk of the fragment
+            assertTimeoutPreemptively(Duration.ofSeconds(10),
+                    () -> assertThrows(PxfRuntimeException.class, () -> prefetchingReadService.readData(mockContext, outputStream)));
+        } finally {
+            prefetchingReadService.shutdown();
+        }
+
+        verify(mockBridge1).endIteration();
+        verify(mockMetricReporter).reportTimer(same(MetricsReporter.PxfMetric.FRAGMENTS_SENT), any(Duration.class), same(mockFragmentContext1), eq(false));
+    }
+
+    private ReadServiceImpl getPrefetchingReadService() {
+        return new ReadServiceImpl(mockConfigurationFactory, mockBridgeFactory, mockSecurityService, mockFragmenterService,
+                mockMetricReporter, 1, DataSize.ofMegabytes(1), 4);
+    }
+
     // helper for writing mock record to a mock output stream
     // mockOutputStream -> CountingOutputStream -> DataOutputStream
     // in order for the us to see the side-effect of CountingOutputStream,
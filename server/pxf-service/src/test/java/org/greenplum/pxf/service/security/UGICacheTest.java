@@ -0,0 +1,169 @@
+package org.greenplum.pxf.service.security;
+
+import com.google.common.base.Ticker;
+import org.apache.hadoop.security.UserGroupInformation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class UGICacheTest {
+
+    @Mock
+    private UGIProvider mockUGIProvider;
+    @Mock
+    private UserGroupInformation mockLoginUGI;
+
+    private FakeTicker ticker;
+    private UGICache cache;
+
+    @BeforeEach
+    public void setup() {
+        ticker = new FakeTicker();
+        cache = new UGICache(mockUGIProvider, Duration.ofMinutes(5), ticker);
+    }
+
+    @Test
+    public void testUGIIsReusedByConsecutiveRequests() throws Exception {
+        UserGroupInformation proxyUGI = mock(UserGroupInformation.class);
+        when(mockUGIProvider.createProxyUser("alice", mockLoginUGI)).thenReturn(proxyUGI);
+
+        UserGroupInformation first = cache.acquire(key("server", "alice"), mockLoginUGI);
+        cache.release(first);
+        ticker.advance(4, TimeUnit.MINUTES);
+        UserGroupInformation second = cache.acquire(key("server", "alice"), mockLoginUGI);
+        cache.release(second);
+
+        assertSame(proxyUGI, first);
+        assertSame(first, second);
+        verify(mockUGIProvider, times(1)).createProxyUser("alice", mockLoginUGI);
+        verify(mockUGIProvider, never()).destroy(proxyUGI);
+    }
+
+    @Test
+    public void testUGIIsNotSharedAcrossServersOrUsers() {
+        when(mockUGIProvider.createProxyUser("alice", mockLoginUGI))
+                .thenReturn(mock(UserGroupInformation.class), mock(UserGroupInformation.class));
+        when(mockUGIProvider.createProxyUser("bob", mockLoginUGI)).thenReturn(mock(UserGroupInformation.class));
+
+        UserGroupInformation alice = cache.acquire(key("server", "alice"), mockLoginUGI);
+        UserGroupInformation aliceOnOtherServer = cache.acquire(key("other", "alice"), mockLoginUGI);
+        UserGroupInformation bob = cache.acquire(key("server", "bob"), mockLoginUGI);
+
+        assertNotSame(alice, aliceOnOtherServer);
+        assertNotSame(alice, bob);
+        assertEquals(3, cache.size());
+    }
+
+    @Test
+    public void testUGIInUseIsNotDestroyed() throws Exception {
+        UserGroupInformation proxyUGI = mock(UserGroupInformation.class);
+        when(mockUGIProvider.createProxyUser("alice", mockLoginUGI)).thenReturn(proxyUGI);
+        when(mockUGIProvider.createProxyUser("bob", mockLoginUGI)).thenReturn(mock(UserGroupInformation.class));
+
+        UserGroupInformation first = cache.acquire(key("server", "alice"), mockLoginUGI);
+        UserGroupInformation second = cache.acquire(key("server", "alice"), mockLoginUGI);
+        cache.release(first);
+        ticker.advance(10, TimeUnit.MINUTES);
+        // cleans up expired entries, the UGI is still used by the second request
+        cache.acquire(key("server", "bob"), mockLoginUGI);
+
+        verify(mockUGIProvider, never()).destroy(proxyUGI);
+
+        cache.release(second);
+        ticker.advance(5, TimeUnit.MINUTES);
+        cache.acquire(key("server", "bob"), mockLoginUGI);
+
+        verify(mockUGIProvider).destroy(proxyUGI);
+    }
+
+    @Test
+    public void testIdleUGIIsDestroyed() throws Exception {
+        UserGroupInformation proxyUGI = mock(UserGroupInformation.class);
+        UserGroupInformation newProxyUGI = mock(UserGroupInformation.class);
+        when(mockUGIProvider.createProxyUser("alice", mockLoginUGI)).thenReturn(proxyUGI, newProxyUGI);
+
+        cache.release(cache.acquire(key("server", "alice"), mockLoginUGI));
+        ticker.advance(5, TimeUnit.MINUTES);
+        UserGroupInformation ugi = cache.acquire(key("server", "alice"), mockLoginUGI);
+
+        verify(mockUGIProvider).destroy(proxyUGI);
+        assertSame(newProxyUGI, ugi);
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void testUGIIsDestroyedOnReleaseWithoutExpiration() throws Exception {
+        cache = new UGICache(mockUGIProvider, Duration.ZERO, ticker);
+        UserGroupInformation remoteUGI = mock(UserGroupInformation.class);
+        when(mockUGIProvider.createRemoteUser("alice", mockLoginUGI, false)).thenReturn(remoteUGI);
+
+        UGICache.Key key = new UGICache.Key("server", 1, mockLoginUGI, "alice", false, false, Collections.emptyMap());
+        cache.release(cache.acquire(key, mockLoginUGI));
+
+        verify(mockUGIProvider).destroy(remoteUGI);
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void testUGIIsNotSharedAcrossConfigurationVersions() {
+        when(mockUGIProvider.createProxyUser("alice", mockLoginUGI))
+                .thenReturn(mock(UserGroupInformation.class), mock(UserGroupInformation.class));
+
+        UserGroupInformation first = cache.acquire(key("server", "alice"), mockLoginUGI);
+        UserGroupInformation reloaded = cache.acquire(
+                new UGICache.Key("server", 2, mockLoginUGI, "alice", true, false, Collections.emptyMap()), mockLoginUGI);
+
+        assertNotSame(first, reloaded);
+        assertEquals(2, cache.size());
+    }
+
+    @Test
+    public void testUGIIsDestroyedWithoutHoldingLock() throws Exception {
+        UserGroupInformation proxyUGI = mock(UserGroupInformation.class);
+        when(mockUGIProvider.createProxyUser("alice", mockLoginUGI)).thenReturn(proxyUGI);
+        List<Boolean> holdsLock = new ArrayList<>();
+        doAnswer(invocation -> holdsLock.add(Thread.holdsLock(cache))).when(mockUGIProvider).destroy(proxyUGI);
+
+        cache.release(cache.acquire(key("server", "alice"), mockLoginUGI));
+        ticker.advance(5, TimeUnit.MINUTES);
+        cache.release(cache.acquire(key("server", "alice"), mockLoginUGI));
+
+        assertEquals(Collections.singletonList(false), holdsLock);
+    }
+
+    private UGICache.Key key(String serverName, String remoteUser) {
+        return new UGICache.Key(serverName, 1, mockLoginUGI, remoteUser, true, false, Collections.emptyMap());
+    }
+
+    private static class FakeTicker extends Ticker {
+        private long nanos;
+
+        @Override
+        public long read() {
+            return nanos;
+        }
+
+        void advance(long time, TimeUnit timeUnit) {
+            nanos += timeUnit.toNanos(time);
+        }
+    }
+}